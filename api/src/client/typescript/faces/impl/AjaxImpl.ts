@@ -55,6 +55,8 @@ import {
     NAMING_CONTAINER_ID,
     CTX_PARAM_PPS,
     MYFACES_OPTION_PPS,
+    CTX_PARAM_COALESCE,
+    MYFACES_OPTION_COALESCE,
     $nsp
 } from "./core/Const";
 import {
@@ -346,6 +348,11 @@ export module Implementation {
         internalCtx.assign(CTX_PARAM_SRC_CTL_ID).value = elementId;
         // reintroduction of PPS as per myfaces 2.3 (myfaces.pps = true, only the executes are submitted)
         internalCtx.assign(CTX_PARAM_PPS).value = extractMyFacesParams(options.value)?.[MYFACES_OPTION_PPS] ?? false;
+        // request coalescing (myfaces.coalesce = true or the global config myfaces.config.coalesce = true),
+        // a queued request is replaced by the next request of the same source, see XhrRequest.coalesce,
+        // the onevent and onerror callbacks of the replaced request are never called
+        internalCtx.assign(CTX_PARAM_COALESCE).value = extractMyFacesParams(options.value)?.[MYFACES_OPTION_COALESCE]
+            ?? getGlobalConfig(MYFACES_OPTION_COALESCE, false);
 
 
         assignClientWindowId(form, requestCtx);
@@ -577,7 +584,10 @@ export module Implementation {
          */
         addRequestToQueue: function (elem: DQ, form: DQ, reqCtx: ExtConfig, respPassThr: Config, delay = 0, timeout = 0) {
             requestQueue = requestQueue ?? new XhrQueueController<XhrRequest>();
-            requestQueue.enqueue(new XhrRequest(reqCtx, respPassThr, timeout), delay);
+            // the delay of coalescing requests is a debounce window per source element
+            const debounceKey = respPassThr.getIf(CTX_PARAM_COALESCE).value ?
+                `xhrQueue:${respPassThr.getIf(CTX_PARAM_SRC_CTL_ID).value}` : undefined;
+            requestQueue.enqueue(new XhrRequest(reqCtx, respPassThr, timeout), delay, debounceKey);
         }
     };
 
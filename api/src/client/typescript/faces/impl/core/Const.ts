@@ -109,6 +109,7 @@ export const CTX_PARAM_SRC_FRM_ID = "myfaces.source.formId";
 export const CTX_PARAM_SRC_CTL_ID = "myfaces.source.controlId";
 export const CTX_PARAM_REQ_PASS_THR = "myfaces.request.passThrough";
 export const CTX_PARAM_PPS = "myfaces.request.pps";
+export const CTX_PARAM_COALESCE = "myfaces.request.coalesce";
 
 export const CONTENT_TYPE = "Content-Type";
 export const HEAD_FACES_REQ = "Faces-Request";
@@ -143,6 +144,7 @@ export const PHASE_PROCESS_RESPONSE = "processResponse";
 export const ERR_NO_PARTIAL_RESPONSE = "Partial response not set";
 
 export const MYFACES_OPTION_PPS = "pps";
+export const MYFACES_OPTION_COALESCE = "coalesce";
 
 export const ATTR_URL = "url";
 export const ATTR_NAME = "name";
@@ -185,6 +187,11 @@ export const REASON_EXPIRED = "Expired";
 export const APPLIED_VST = "myfaces.appliedViewState";
 export const APPLIED_CLIENT_WINDOW = "myfaces.appliedClientWindow";
 
+// progress of a streamed response, see Response.processStreamedUpdates
+export const STREAMED_UPDATES = "myfaces.streamedUpdates";
+export const STREAMED_OFFSET = "myfaces.streamedOffset";
+export const STREAMING_DONE = "myfaces.streamingDone";
+
 export const RECONNECT_INTERVAL = 500;
 export const MAX_RECONNECT_ATTEMPTS = 25;
 
@@ -69,6 +69,15 @@ export interface IAsyncRunnable<T> {
      * come the finally functions must be performed
      */
     finally(func: () => void): IAsyncRunnable<T>;
+
+    /**
+     * optional, merges a runnable waiting in the queue
+     * into this one, which then replaces it in the queue
+     *
+     * @param queued the runnable waiting in the queue
+     * @returns true if the queued runnable was merged
+     */
+    coalesce?(queued: IAsyncRunnable<T>): boolean;
 }
 
 
@@ -19,15 +19,22 @@ export class XhrQueueController<T extends IAsyncRunnable<any>> {
      * @param runnable the runnable (request) to be enqueued
      * @param timeOut timeout if > 0 which defers the execution
      * until the debounce window for the timeout is closed.
+     * @param debounceKey the debounce window, one for the whole queue by default
      */
-    enqueue(runnable: T, timeOut: number = 0) {
-        debounce("xhrQueue", () => {
+    enqueue(runnable: T, timeOut: number = 0, debounceKey: string = "xhrQueue") {
+        debounce(debounceKey, () => {
             const requestHandler = this.enrichRunnable(runnable);
             if (!this.taskRunning) {
                 this.signalTaskRunning();
                 requestHandler.start();
             } else {
-                this.queue.push(requestHandler);
+                // a waiting element superseded by the new one is replaced in place
+                const supersededPos = this.queue.findIndex(queued => requestHandler.coalesce?.(queued));
+                if (supersededPos != -1) {
+                    this.queue[supersededPos] = requestHandler;
+                } else {
+                    this.queue.push(requestHandler);
+                }
             }
         }, timeOut);
     }
@@ -28,7 +28,8 @@ import {
     HTML_TAG_FORM,
     UPDATE_ELEMS,
     UPDATE_FORMS,
-    DEFERRED_HEAD_INSERTS
+    DEFERRED_HEAD_INSERTS,
+    STREAMED_UPDATES
 } from "../core/Const";
 import {ExtConfig} from "../util/ExtDomQuery";
 
@@ -74,11 +75,13 @@ export function resolveContexts(context: { [p: string]: any }): any {
     }
 
     /**
-     * prepare storage for some deferred operations
+     * prepare storage for some deferred operations,
+     * the storage of the updates already applied from a streamed response is kept
      */
-    internalContext.assign(DEFERRED_HEAD_INSERTS).value = [];
-    internalContext.assign(UPDATE_FORMS).value = [];
-    internalContext.assign(UPDATE_ELEMS).value = [];
+    const streamed = internalContext.getIf(STREAMED_UPDATES).isPresent();
+    internalContext.assignIf(!streamed, DEFERRED_HEAD_INSERTS).value = [];
+    internalContext.assignIf(!streamed, UPDATE_FORMS).value = [];
+    internalContext.assignIf(!streamed, UPDATE_ELEMS).value = [];
     return {externalContext, internalContext};
 }
 
@@ -36,7 +36,11 @@ import {
     XML_TAG_PARTIAL_RESP,
     RESPONSE_XML,
     XML_TAG_AFTER,
-    XML_TAG_BEFORE, NAMED_VIEWROOT, XML_ATTR_NAMED_VIEWROOT, P_VIEWSTATE, $faces
+    XML_TAG_BEFORE, NAMED_VIEWROOT, XML_ATTR_NAMED_VIEWROOT, P_VIEWSTATE, $faces,
+    P_CLIENT_WINDOW,
+    STREAMED_UPDATES,
+    STREAMED_OFFSET,
+    STREAMING_DONE
 } from "../core/Const";
 import {resolveContexts, resolveResponseXML} from "./ResonseDataResolver";
 import {ExtConfig} from "../util/ExtDomQuery";
@@ -45,6 +49,8 @@ import {ExtConfig} from "../util/ExtDomQuery";
 
 export module Response {
 
+    const SEL_CHANGES_SUB_TAGS = [XML_TAG_UPDATE, XML_TAG_EVAL, XML_TAG_INSERT, XML_TAG_DELETE, XML_TAG_ATTRIBUTES, XML_TAG_EXTENSION].join(", ");
+
 
     /**
      * Standardized faces.ts response
@@ -84,6 +90,77 @@ export module Response {
         responseProcessor.done();
     }
 
+    /**
+     * Progressive processing of a streamed response, called while the response is loading.
+     *
+     * The element updates completed so far are applied right away, the first operation
+     * which is not an element update (viewState, head, body, insert, eval...) stops the streaming.
+     * processResponse then processes the complete response, except for the updates applied here.
+     *
+     * @param {XMLHttpRequest} request (xhrRequest) - xhr request object, still loading
+     * @param context {Context} context (Map) - AJAX context
+     */
+    export function processStreamedUpdates(request: XMLHttpRequest, context: Context) {
+
+        let req = ExtConfig.fromNullable(request);
+        let {externalContext, internalContext} = resolveContexts(context);
+        if (internalContext.getIf(STREAMING_DONE).value) {
+            return;
+        }
+
+        const responseText: string = request?.responseText ?? "";
+        const CHANGES_START = `<${XML_TAG_CHANGES}>`;
+        const UPDATE_END = `</${XML_TAG_UPDATE}>`;
+        const changesStart = responseText.indexOf(CHANGES_START);
+        if (changesStart == -1) {
+            return;
+        }
+        const offset: number = internalContext.getIf(STREAMED_OFFSET).orElse(changesStart + CHANGES_START.length).value;
+        const updatesEnd = responseText.lastIndexOf(UPDATE_END) + UPDATE_END.length;
+        if (updatesEnd <= offset) {
+            return;
+        }
+
+        // the completed operations received since the last call
+        const changes = new XMLQuery(CHANGES_START + responseText.substring(offset, updatesEnd) + `</${XML_TAG_CHANGES}>`);
+        if (changes.isXMLParserError()) {
+            // the end tag is part of the content of an update, which is not complete yet
+            return;
+        }
+
+        let responseProcessor = new ResponseProcessor(req, externalContext, internalContext);
+        let streamedUpdates: number = internalContext.getIf(STREAMED_UPDATES).orElse(0).value;
+        let done = false;
+        changes.querySelectorAll(SEL_CHANGES_SUB_TAGS).each((node: XMLQuery) => {
+            if (done || !isElementUpdate(node)) {
+                done = true;
+                return;
+            }
+            try {
+                responseProcessor.update(node, node.cDATAAsString);
+                streamedUpdates++;
+            } catch (e) {
+                // processResponse processes the update again and reports the error
+                done = true;
+            }
+        });
+
+        internalContext.assign(STREAMED_UPDATES).value = streamedUpdates;
+        internalContext.assign(STREAMED_OFFSET).value = updatesEnd;
+        internalContext.assign(STREAMING_DONE).value = done;
+    }
+
+    /**
+     * @param node the xml node of an operation
+     * @returns true if the operation is an update which only replaces an element
+     */
+    function isElementUpdate(node: XMLQuery): boolean {
+        const id: string = node?.id?.value;
+        return node.tagName.value == XML_TAG_UPDATE && !!id &&
+            [P_VIEWROOT, P_VIEWHEAD, P_VIEWBODY, P_RESOURCE, P_VIEWSTATE, P_CLIENT_WINDOW]
+                .every(marker => id.indexOf($nsp(marker)) == -1);
+    }
+
     /**
      * highest node partial-response from there the main operations are triggered
      */
@@ -109,6 +186,9 @@ export module Response {
 
         const SEL_SUB_TAGS = [XML_TAG_ERROR, XML_TAG_REDIRECT, XML_TAG_CHANGES].join(",");
 
+        // the updates already applied while the response was streamed
+        const streamedUpdates: number = internalContext.getIf(STREAMED_UPDATES).orElse(0).value;
+
         // now we can process the main operations
         node.querySelectorAll(SEL_SUB_TAGS).each((node: XMLQuery) => {
             switch (node.tagName.value) {
@@ -119,7 +199,7 @@ export module Response {
                     responseProcessor.redirect(node);
                     break;
                 case XML_TAG_CHANGES:
-                    processChangesTag(node, responseProcessor);
+                    processChangesTag(node, responseProcessor, streamedUpdates);
                     break;
             }
         });
@@ -140,11 +220,15 @@ export module Response {
      *
      * @param node
      * @param responseProcessor
+     * @param skip the number of leading operations already processed
      */
-    function processChangesTag(node: XMLQuery, responseProcessor: IResponseProcessor): boolean {
-        const ALLOWED_TAGS = [XML_TAG_UPDATE, XML_TAG_EVAL, XML_TAG_INSERT, XML_TAG_DELETE, XML_TAG_ATTRIBUTES, XML_TAG_EXTENSION].join(", ");
-        node.querySelectorAll(ALLOWED_TAGS).each(
+    function processChangesTag(node: XMLQuery, responseProcessor: IResponseProcessor, skip = 0): boolean {
+        let cnt = 0;
+        node.querySelectorAll(SEL_CHANGES_SUB_TAGS).each(
             (node: XMLQuery) => {
+                if (cnt++ < skip) {
+                    return;
+                }
                 switch (node.tagName.value) {
                     case XML_TAG_UPDATE:
                         processUpdateTag(node, responseProcessor);
@@ -41,7 +41,8 @@ import {
     STATE_EVT_TIMEOUT,
     STD_ACCEPT,
     URL_ENCODED,
-    VAL_AJAX, IDENT_NONE, CTX_PARAM_SRC_FRM_ID, CTX_PARAM_SRC_CTL_ID, CTX_PARAM_PPS
+    VAL_AJAX, IDENT_NONE, CTX_PARAM_SRC_FRM_ID, CTX_PARAM_SRC_CTL_ID, CTX_PARAM_PPS,
+    CTX_PARAM_COALESCE, IDENT_ALL, P_RENDER, P_EVT, P_BEHAVIOR_EVENT
 } from "../core/Const";
 import {
     resolveFinalUrl,
@@ -50,6 +51,7 @@ import {
 } from "./RequestDataResolver";
 import failSaveExecute = ExtLang.failSaveExecute;
 import {ExtConfig} from "../util/ExtDomQuery";
+import {Response} from "./Response";
 
 /**
  * Faces XHR Request Wrapper
@@ -206,6 +208,55 @@ export class XhrRequest extends AsyncRunnable<XMLHttpRequest> {
     }
 
 
+    /**
+     * Request coalescing, a request waiting in the queue is replaced by this one
+     * if both are coalescing requests of the same source, form and event.
+     * The latest request wins, the form is encoded when the request starts
+     * so its latest values are sent, with the execute and render ids of both requests.
+     * The replaced request is never sent, hence triggers no events:
+     * neither its onevent nor its onerror callback is ever called,
+     * only the callbacks passed with the replacing request are.
+     *
+     * @param queued the request waiting in the queue
+     * @returns true if this request replaces the queued one
+     */
+    coalesce(queued: IAsyncRunnable<XMLHttpRequest>): boolean {
+        if (!(queued instanceof XhrRequest) || !this.isCoalescableWith(queued)) {
+            return false;
+        }
+        [P_EXECUTE, P_RENDER].forEach(key => {
+            const ids = XhrRequest.mergeIds(
+                queued.requestContext.getIf(CTX_PARAM_REQ_PASS_THR, key).value,
+                this.requestContext.getIf(CTX_PARAM_REQ_PASS_THR, key).value);
+            if (ids) {
+                this.requestContext.assign(CTX_PARAM_REQ_PASS_THR, key).value = ids;
+            }
+        });
+        return true;
+    }
+
+    private isCoalescableWith(queued: XhrRequest): boolean {
+        const sameInternal = (key: string) => this.internalContext.getIf(key).value == queued.internalContext.getIf(key).value;
+        const sameRequest = (key: string) => this.requestContext.getIf(CTX_PARAM_REQ_PASS_THR, key).value ==
+            queued.requestContext.getIf(CTX_PARAM_REQ_PASS_THR, key).value;
+
+        return !!this.internalContext.getIf(CTX_PARAM_COALESCE).value &&
+            !!queued.internalContext.getIf(CTX_PARAM_COALESCE).value &&
+            sameInternal(CTX_PARAM_SRC_FRM_ID) && sameInternal(CTX_PARAM_SRC_CTL_ID) &&
+            sameRequest(P_EVT) && sameRequest(P_BEHAVIOR_EVENT);
+    }
+
+    /**
+     * union of two id lists, @all if any of them is @all
+     */
+    private static mergeIds(ids1: string, ids2: string): string {
+        const ids: string[] = [ids1, ids2].filter(item => !!item).join(" ").split(/\s+/gi).filter(item => !!item);
+        if (ids.indexOf(IDENT_ALL) != -1) {
+            return IDENT_ALL;
+        }
+        return ids.filter((id, pos) => id != IDENT_NONE && ids.indexOf(id) == pos).join(" ");
+    }
+
     /**
      * attaches the internal event and processing
      * callback within the promise to our xhr object
@@ -222,6 +273,9 @@ export class XhrRequest extends AsyncRunnable<XMLHttpRequest> {
         xhrObject.ontimeout = () => {
             this.onTimeout(resolve, reject);
         };
+        xhrObject.onprogress = () => {
+            this.onResponseProgress();
+        };
         xhrObject.onload = () => {
             this.onResponseReceived(resolve)
         };
@@ -319,6 +373,20 @@ export class XhrRequest extends AsyncRunnable<XMLHttpRequest> {
         $faces().ajax.response(this.xhrObject, this.responseContext.value ?? {});
     }
 
+    /**
+     * a part of the response is received, the updates completed so far
+     * are applied before the rest of a streamed response is received,
+     * the response is processed as usual once received
+     * @private
+     */
+    private onResponseProgress() {
+        if (this.stopProgress || (this.xhrObject?.status ?? 0) >= 300 || !this.responseContext) {
+            return;
+        }
+        // errors are reported by the processing of the complete response
+        failSaveExecute(() => Response.processStreamedUpdates(this.xhrObject, this.responseContext.value));
+    }
+
     private handleGenericError(resolveOrReject: Function) {
         this.stopProgress = true;
         const errorData = {
@@ -883,5 +883,61 @@ describe('Tests after core when it hits response', function () {
         }
     });
 
+    it("must coalesce the queued requests of the same source", function () {
+        let element = DomQuery.byId("input_2").getAsElem(0).value;
+        // the events and errors per request, a replaced request must not trigger any of them
+        let events = {};
+        let errors = {};
+        let issueCoalescingReq = (name: string, execute: string, render: string) => faces.ajax.request(element, null, {
+            execute: execute,
+            render: render,
+            onevent: (evt: any) => (events[name] = events[name] ?? []).push(evt.status),
+            onerror: (evt: any) => (errors[name] = errors[name] ?? []).push(evt.status),
+            myfaces: {
+                coalesce: true
+            }
+        });
+
+        // every request has its xhr object, only the started ones are opened
+        let sent = () => this.requests.filter(xhrReq => xhrReq.readyState > 0);
+
+        // the first request is sent, the next ones wait in the queue and are merged
+        issueCoalescingReq("first", "input_1", "id_1");
+        issueCoalescingReq("replaced", "input_1", "id_1");
+        issueCoalescingReq("last", "input_2_text", "id_2");
+        expect(sent().length).to.eq(1);
+
+        sent()[0].respond(200, {'Content-Type': 'text/xml'}, STD_XML);
+        expect(sent().length).to.eq(2);
+        let requestBody = sent()[1].requestBody.split("&");
+        expect(requestBody.indexOf("jakarta.faces.partial.render=id_1%20id_2")).not.to.eq(-1);
+
+        sent()[1].respond(200, {'Content-Type': 'text/xml'}, STD_XML);
+        expect(sent().length).to.eq(2);
+
+        expect(events["first"]).to.deep.eq(["begin", "complete", "success"]);
+        expect(events["last"]).to.deep.eq(["begin", "complete", "success"]);
+        expect(events["replaced"]).to.be.undefined;
+        expect(errors).to.deep.eq({});
+    });
+
+        // every request has its xhr object, only the started ones are opened
+        let sent = () => this.requests.filter(xhrReq => xhrReq.readyState > 0);
+
+        // the first request is sent, the next ones wait in the queue and are merged
+        issueCoalescingReq("input_1", "id_1");
+        issueCoalescingReq("input_1", "id_1");
+        issueCoalescingReq("input_2_text", "id_2");
+        expect(sent().length).to.eq(1);
+
+        sent()[0].respond(200, {'Content-Type': 'text/xml'}, STD_XML);
+        expect(sent().length).to.eq(2);
+        let requestBody = sent()[1].requestBody.split("&");
+        expect(requestBody.indexOf("jakarta.faces.partial.render=id_1%20id_2")).not.to.eq(-1);
+
+        sent()[1].respond(200, {'Content-Type': 'text/xml'}, STD_XML);
+        expect(sent().length).to.eq(2);
+    });
+
 });
 
@@ -23,6 +23,7 @@ import {XmlResponses} from "../frameworkBase/_ext/shared/XmlResponses";
 import {expect} from "chai";
 import {_Es2019Array, DomQuery, DQ, DQ$} from "mona-dish";
 import protocolPage = StandardInits.protocolPage;
+import {Response} from "../../impl/xhrCore/Response";
 
 
 declare var faces: any;
@@ -766,4 +767,99 @@ describe('Tests of the various aspects of the response protocol functionality',
     });
 
 
+    it("must apply the updates of a streamed response while it is loading", function () {
+        const head = `<?xml version="1.0" encoding="UTF-8"?><partial-response id="viewroot"><changes>`;
+        const update = `<update id="changesArea"><![CDATA[<div id="changesArea">streamed update</div>]]></update>`;
+        const tail = `<eval><![CDATA[document.getElementById("changesArea").setAttribute("data-eval", "done");]]></eval></changes></partial-response>`;
+        const context = {"myfaces.internal": {}};
+
+        // the update is not complete yet
+        Response.processStreamedUpdates(<any>{responseText: head + update.substring(0, 40)}, <any>context);
+        expect(DQ.byId("changesArea").html().orElse("fail").value.indexOf("update insert area") != -1).to.be.true;
+
+        Response.processStreamedUpdates(<any>{responseText: head + update}, <any>context);
+        expect(DQ.byId("changesArea").html().orElse("fail").value.indexOf("streamed update") != -1).to.be.true;
+
+        // the complete response does not apply the streamed update again
+        DQ.byId("changesArea").innerHTML = "changed after the streamed update";
+        const responseText = head + update + tail;
+        Response.processResponse(<any>{
+            status: 200,
+            responseText: responseText,
+            responseXML: new window.DOMParser().parseFromString(responseText, "text/xml")
+        }, <any>context);
+        expect(DQ.byId("changesArea").html().orElse("fail").value.indexOf("changed after the streamed update") != -1).to.be.true;
+        expect(DQ.byId("changesArea").attr("data-eval").value).to.eq("done");
+    });
+
+    it("must wait for the end of a streamed update whose content contains the update end tag", function () {
+        const head = `<?xml version="1.0" encoding="UTF-8"?><partial-response id="viewroot"><changes>`;
+        const update1 = `<update id="id_1"><![CDATA[<div id="id_1" title="</update>">first update</div>]]></update>`;
+        const update2 = `<update id="id_2"><![CDATA[<div id="id_2">second update</div>]]></update>`;
+        const tail = `</changes></partial-response>`;
+        const context = {"myfaces.internal": {}};
+        const innerEnd = update1.indexOf("</update>") + "</update>".length;
+
+        // the last update end tag received so far is part of the cdata block
+        Response.processStreamedUpdates(<any>{responseText: head + update1.substring(0, innerEnd)}, <any>context);
+        expect(DQ.byId("id_1").html().value).to.eq("");
+
+        Response.processStreamedUpdates(<any>{responseText: head + update1 + update2.substring(0, 30)}, <any>context);
+        expect(DQ.byId("id_1").attr("title").value).to.eq("</update>");
+        expect(DQ.byId("id_1").html().value).to.eq("first update");
+        expect(DQ.byId("id_2").html().value).to.eq("");
+
+        // the next chunk only processes the operations received since the last one
+        DQ.byId("id_1").innerHTML = "changed after the first update";
+        Response.processStreamedUpdates(<any>{responseText: head + update1 + update2}, <any>context);
+        expect(DQ.byId("id_1").html().value).to.eq("changed after the first update");
+        expect(DQ.byId("id_2").html().value).to.eq("second update");
+
+        DQ.byId("id_2").innerHTML = "changed after the second update";
+        const responseText = head + update1 + update2 + tail;
+        Response.processResponse(<any>{
+            status: 200,
+            responseText: responseText,
+            responseXML: new window.DOMParser().parseFromString(responseText, "text/xml")
+        }, <any>context);
+        expect(DQ.byId("id_1").html().value).to.eq("changed after the first update");
+        expect(DQ.byId("id_2").html().value).to.eq("changed after the second update");
+    });
+
+    it("must report an error received after streamed updates without applying them again", function () {
+        const head = `<?xml version="1.0" encoding="UTF-8"?><partial-response id="viewroot"><changes>`;
+        const update = `<update id="id_1"><![CDATA[<div id="id_1">streamed update</div>]]></update>`;
+        const error = `</changes><error><error-name>jakarta.faces.FacesException</error-name>` +
+            `<error-message><![CDATA[failed after an </update> was flushed]]></error-message></error></partial-response>`;
+        const oldErr = console.error;
+        console.error = () => {};
+        try {
+            let errors = [];
+            const context = {"myfaces.internal": {}, "onerror": (errorData) => errors.push(errorData)};
+
+            Response.processStreamedUpdates(<any>{responseText: head + update}, <any>context);
+            expect(DQ.byId("id_1").html().value).to.eq("streamed update");
+
+            // the error message contains the update end tag, but no further update
+            DQ.byId("id_1").innerHTML = "changed after the streamed update";
+            const partialError = error.substring(0, error.indexOf("</update>") + "</update>".length);
+            Response.processStreamedUpdates(<any>{responseText: head + update + partialError}, <any>context);
+            expect(DQ.byId("id_1").html().value).to.eq("changed after the streamed update");
+            expect(errors.length).to.eq(0);
+
+            const responseText = head + update + error;
+            Response.processResponse(<any>{
+                status: 200,
+                responseText: responseText,
+                responseXML: new window.DOMParser().parseFromString(responseText, "text/xml")
+            }, <any>context);
+            expect(DQ.byId("id_1").html().value).to.eq("changed after the streamed update");
+            expect(errors.length).to.eq(1);
+            expect(errors[0].errorName).to.eq("jakarta.faces.FacesException");
+            expect(errors[0].errorMessage).to.eq("serverError: failed after an </update> was flushed");
+        } finally {
+            console.error = oldErr;
+        }
+    });
+
 });
\ No newline at end of file
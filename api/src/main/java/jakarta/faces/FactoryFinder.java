@@ -39,10 +39,12 @@
 import java.security.AccessController;
 import java.security.PrivilegedExceptionAction;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.logging.Level;
 import java.util.logging.Logger;
@@ -75,30 +77,27 @@
     private static final Map<String, Class<?>> FACTORY_MAPPING = new HashMap<String, Class<?>>();
     private static final ClassLoader MYFACES_CLASSLOADER;
     
-    private static final String INJECTION_PROVIDER_INSTANCE = "oam.spi.INJECTION_PROVIDER_KEY";
-    private static final String INJECTED_BEAN_STORAGE_KEY = "org.apache.myfaces.spi.BEAN_ENTRY_STORAGE";
     private static final String BEAN_ENTRY_CLASS_NAME = "org.apache.myfaces.cdi.util.BeanEntry";
 
     private static final Logger LOGGER = Logger.getLogger(FactoryFinder.class.getName());
     
     
     /**
-     * used as a monitor for itself and _factories. Maps in this map are used as monitors for themselves and the
-     * corresponding maps in _factories.
+     * Maps from classLoader to the factories of the web application, the container (i.e. Tomcat) will create a class
+     * loader for each web app that it controls (typically anyway) and that class loader is used as the key.
      */
-    private static Map<ClassLoader, Map<String, List<String>>> registeredFactoryNames
-            = new HashMap<ClassLoader, Map<String, List<String>>>(5);
+    private static Map<Object, FactoryRegistry> registries = new ConcurrentHashMap<>(5);
 
     /**
-     * Maps from classLoader to another map, the container (i.e. Tomcat) will create a class loader for each web app
-     * that it controls (typically anyway) and that class loader is used as the key.
-     * 
-     * The secondary map maps the factory name (i.e. FactoryFinder.APPLICATION_FACTORY) to actual instances that are
-     * created via getFactory. The instances will be of the class specified in the setFactory method for the factory
-     * name, i.e. FactoryFinder.setFactory(FactoryFinder.APPLICATION_FACTORY, MyFactory.class).
+     * The registry found by the last lookup. Most of the time there is only one web application and getFactory is
+     * called again and again with the same context class loader, this avoids hashing it for every lookup.
      */
-    private static Map<ClassLoader, Map<String, Object>> factories
-            = new HashMap<ClassLoader, Map<String, Object>>(5);
+    private static volatile FactoryRegistry lastRegistry;
+
+    /**
+     * Key of the registry used when there is no context class loader, the map does not accept null keys.
+     */
+    private static final Object NULL_CLASSLOADER = new Object();
 
     static
     {        
@@ -259,84 +258,76 @@ private static Object _getFactory(String factoryName) throws FacesException
     {
         ClassLoader classLoader = ClassUtils.getContextClassLoader();
 
-        // This code must be synchronized because this could cause a problem when
-        // using update feature each time of myfaces (org.apache.myfaces.CONFIG_REFRESH_PERIOD)
-        // In this moment, a concurrency problem could happen
-        Map<String, List<String>> factoryClassNames = null;
-        Map<String, Object> factoryMap = null;
-
-        synchronized (registeredFactoryNames)
+        // Lookups do not lock: the factory names are replaced as a whole by setFactory, and the factories are
+        // installed with putIfAbsent, so the usual lookup of an already created factory is a plain map read.
+        // The registry is replaced by a new one when the factories are released, i.e. when using the
+        // update feature of myfaces (org.apache.myfaces.CONFIG_REFRESH_PERIOD).
+        FactoryRegistry registry = getRegistry(classLoader);
+        if (registry == null)
         {
-            factoryClassNames = registeredFactoryNames.get(classLoader);
-            if (factoryClassNames == null)
-            {
-                String message
-                        = "No Factories configured for this Application. This happens if the faces-initialization "
-                        + "does not work at all - make sure that you properly include all configuration "
-                        + "settings necessary for a basic faces application "
-                        + "and that all the necessary libs are included. Also check the logging output of your "
-                        + "web application and your container for any exceptions!"
-                        + "\nIf you did that and find nothing, the mistake might be due to the fact "
-                        + "that you use some special web-containers which "
-                        + "do not support registering context-listeners via TLD files and "
-                        + "a context listener is not setup in your web.xml.\n"
-                        + "A typical config looks like this;\n<listener>\n"
-                        + "  <listener-class>org.apache.myfaces.webapp.StartupServletContextListener</listener-class>\n"
-                        + "</listener>\n";
-                throw new IllegalStateException(message);
-            }
-
-            if (!factoryClassNames.containsKey(factoryName))
-            {
-                throw new IllegalArgumentException("no factory " + factoryName + " configured for this application.");
-            }
-
-            factoryMap = factories.computeIfAbsent(classLoader, k -> new HashMap<>());
+            String message
+                    = "No Factories configured for this Application. This happens if the faces-initialization "
+                    + "does not work at all - make sure that you properly include all configuration "
+                    + "settings necessary for a basic faces application "
+                    + "and that all the necessary libs are included. Also check the logging output of your "
+                    + "web application and your container for any exceptions!"
+                    + "\nIf you did that and find nothing, the mistake might be due to the fact "
+                    + "that you use some special web-containers which "
+                    + "do not support registering context-listeners via TLD files and "
+                    + "a context listener is not setup in your web.xml.\n"
+                    + "A typical config looks like this;\n<listener>\n"
+                    + "  <listener-class>org.apache.myfaces.webapp.StartupServletContextListener</listener-class>\n"
+                    + "</listener>\n";
+            throw new IllegalStateException(message);
         }
 
-        List beanEntryStorage;
-        List<String> classNames;
-        Object factory;
-        Object injectionProvider;
-        synchronized (factoryClassNames)
+        Object factory = registry.factories.get(factoryName);
+        if (factory != null)
         {
-            beanEntryStorage = (List) factoryMap.computeIfAbsent(INJECTED_BEAN_STORAGE_KEY,
-                    k -> new CopyOnWriteArrayList());
-            
-            factory = factoryMap.get(factoryName);
-            if (factory != null)
-            {
-                return factory;
-            }
+            return factory;
+        }
 
-            classNames = factoryClassNames.get(factoryName);
-            
-            injectionProvider = factoryMap.get(INJECTION_PROVIDER_INSTANCE);
+        List<String> classNames = registry.factoryClassNames.get(factoryName);
+        if (classNames == null)
+        {
+            throw new IllegalArgumentException("no factory " + factoryName + " configured for this application.");
         }
 
+        Object injectionProvider = registry.injectionProvider;
         if (injectionProvider == null)
         {
             injectionProvider = getInjectionProvider();
-            synchronized (factoryClassNames)
-            {
-                factoryMap.put(INJECTION_PROVIDER_INSTANCE, injectionProvider);
-            }
+            registry.injectionProvider = injectionProvider;
         }
 
-        // release lock while calling out
+        // no lock while calling out
         factory = newFactoryInstance(FACTORY_MAPPING.get(factoryName), 
-            classNames.iterator(), classLoader, injectionProvider, beanEntryStorage);
+            classNames.iterator(), classLoader, injectionProvider, registry.beanEntryStorage);
+
+        // check if someone else already installed the factory
+        Object current = registry.factories.putIfAbsent(factoryName, factory);
+        return current == null ? factory : current;
+    }
 
-        synchronized (factoryClassNames)
+    private static FactoryRegistry getRegistry(ClassLoader classLoader)
+    {
+        FactoryRegistry registry = lastRegistry;
+        if (registry != null && registry.classLoader == classLoader && !registry.released)
         {
-            // check if someone else already installed the factory
-            if (factoryMap.get(factoryName) == null)
-            {
-                factoryMap.put(factoryName, factory);
-            }
+            return registry;
+        }
+
+        registry = registries.get(key(classLoader));
+        if (registry != null)
+        {
+            lastRegistry = registry;
         }
+        return registry;
+    }
 
-        return factory;
+    private static Object key(ClassLoader classLoader)
+    {
+        return classLoader == null ? NULL_CLASSLOADER : classLoader;
     }
     
     private static Object getInjectionProvider()
@@ -581,26 +572,23 @@ private static void _setFactory(String factoryName, String implName)
         checkFactoryName(factoryName);
 
         ClassLoader classLoader = ClassUtils.getContextClassLoader();
-        Map<String, List<String>> factoryClassNames = null;
-        synchronized (registeredFactoryNames)
+        FactoryRegistry registry = registries.computeIfAbsent(key(classLoader), k -> new FactoryRegistry(classLoader));
+        synchronized (registry)
         {
-            Map<String, Object> factories = FactoryFinder.factories.get(classLoader);
-
-            if (factories != null && factories.containsKey(factoryName))
+            if (registry.factories.containsKey(factoryName))
             {
                 // Javadoc says ... This method has no effect if getFactory() has already been
                 // called looking for a factory for this factoryName.
                 return;
             }
 
-            factoryClassNames = registeredFactoryNames.computeIfAbsent(classLoader,
-                    k -> new HashMap<>());
-        }
-
-        synchronized (factoryClassNames)
-        {
-            List<String> classNameList = factoryClassNames.computeIfAbsent(factoryName, k -> new ArrayList<>());
+            // copy on write, getFactory reads the names without lock
+            Map<String, List<String>> factoryClassNames = new HashMap<>(registry.factoryClassNames);
+            List<String> classNameList = new ArrayList<>(
+                    factoryClassNames.getOrDefault(factoryName, Collections.emptyList()));
             classNameList.add(implName);
+            factoryClassNames.put(factoryName, Collections.unmodifiableList(classNameList));
+            registry.factoryClassNames = factoryClassNames;
         }
     }
 
@@ -654,53 +642,46 @@ private static void _releaseFactories() throws FacesException
     {
         ClassLoader classLoader = ClassUtils.getContextClassLoader();
 
-        Map<String, Object> factoryMap;
-        // This code must be synchronized
-        synchronized (registeredFactoryNames)
+        FactoryRegistry registry = registries.remove(key(classLoader));
+        if (registry == null)
         {
-            factoryMap = factories.remove(classLoader);
-
-            // _registeredFactoryNames has as value type Map<String,List> and this must
-            // be cleaned before release (for gc).
-            Map<String, List<String>> factoryClassNames = registeredFactoryNames.get(classLoader);
-            if (factoryClassNames != null)
-            {
-                factoryClassNames.clear();
-            }
-
-            registeredFactoryNames.remove(classLoader);
+            return;
+        }
+        // the registry may still be cached by a concurrent lookup
+        registry.released = true;
+        if (lastRegistry == registry)
+        {
+            lastRegistry = null;
         }
 
-        if (factoryMap != null)
+        Object injectionProvider = registry.injectionProvider;
+        registry.injectionProvider = null;
+        if (injectionProvider != null)
         {
-            Object injectionProvider = factoryMap.remove(INJECTION_PROVIDER_INSTANCE);
-            if (injectionProvider != null)
-            {
-                List injectedBeanStorage = (List)factoryMap.get(INJECTED_BEAN_STORAGE_KEY);
+            List injectedBeanStorage = registry.beanEntryStorage;
 
-                FacesException firstException = null;
-                for (Object entry : injectedBeanStorage)
+            FacesException firstException = null;
+            for (Object entry : injectedBeanStorage)
+            {
+                try
                 {
-                    try
-                    {
-                        preDestroy(injectionProvider, entry);
-                    }
-                    catch (FacesException e)
-                    {
-                        LOGGER.log(Level.SEVERE, "#preDestroy failed", e);
+                    preDestroy(injectionProvider, entry);
+                }
+                catch (FacesException e)
+                {
+                    LOGGER.log(Level.SEVERE, "#preDestroy failed", e);
 
-                        if (firstException == null)
-                        {
-                            firstException = e; //all preDestroy callbacks need to get invoked
-                        }
+                    if (firstException == null)
+                    {
+                        firstException = e; //all preDestroy callbacks need to get invoked
                     }
                 }
-                injectedBeanStorage.clear();
+            }
+            injectedBeanStorage.clear();
 
-                if (firstException != null)
-                {
-                    throw firstException;
-                }
+            if (firstException != null)
+            {
+                throw firstException;
             }
         }
     }
@@ -712,4 +693,28 @@ private static void checkFactoryName(String factoryName)
             throw new IllegalArgumentException("factoryName '" + factoryName + '\'');
         }
     }
+
+    /**
+     * The factories of one web application.
+     */
+    private static final class FactoryRegistry
+    {
+        private final ClassLoader classLoader;
+
+        /**
+         * The configured implementation class names per factory name, never modified: setFactory replaces it under
+         * the lock of the registry.
+         */
+        private volatile Map<String, List<String>> factoryClassNames = Collections.emptyMap();
+
+        private final Map<String, Object> factories = new ConcurrentHashMap<>();
+        private final List beanEntryStorage = new CopyOnWriteArrayList();
+        private volatile Object injectionProvider;
+        private volatile boolean released;
+
+        private FactoryRegistry(ClassLoader classLoader)
+        {
+            this.classLoader = classLoader;
+        }
+    }
 }
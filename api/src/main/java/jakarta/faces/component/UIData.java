@@ -60,6 +60,7 @@
 import org.apache.myfaces.buildtools.maven2.plugin.builder.annotation.JSFFacet;
 import org.apache.myfaces.buildtools.maven2.plugin.builder.annotation.JSFProperty;
 import org.apache.myfaces.core.api.shared.EditableValueHolderState;
+import org.apache.myfaces.core.api.shared.RowStateMap;
 import org.apache.myfaces.core.api.shared.lang.Assert;
 
 /**
@@ -169,9 +170,11 @@ public class UIData extends UIComponentBase implements NamingContainer, UniqueId
     // Holds for each row the states of the child components of this UIData.
     // Note that only "partial" component state is saved: the component fields
     // that are expected to vary between rows.
-    private Map<String, Object> _rowStates = new HashMap<>();
-    private Map<String, Map<String, Object>> _rowDeltaStates = new HashMap<>();
-    private Map<String, Map<String, Object>> _rowTransientStates = new HashMap<>();
+    // The rows are stored by the clientId of this UIData (which includes the
+    // row of an enclosing UIData) and the row index, only visited rows use space.
+    private RowStateMap<Collection<Object[]>> _rowStates = new RowStateMap<>();
+    private RowStateMap<Map<String, Object>> _rowDeltaStates = new RowStateMap<>();
+    private RowStateMap<Map<String, Object>> _rowTransientStates = new RowStateMap<>();
 
     /**
      * Handle case where this table is nested inside another table. See method getDataModel for more details.
@@ -562,7 +565,7 @@ private void setRowIndexWithoutPreserveComponentState(int rowIndex)
                 Collection<Object[]> savedRowState = saveDescendantComponentStates(this, false, false);
                 if (savedRowState != null)
                 {
-                    _rowStates.put(getContainerClientId(facesContext), savedRowState);
+                    _rowStates.put(getClientId(facesContext), _rowIndex, savedRowState);
                 }
             }
         }
@@ -611,7 +614,7 @@ private void setRowIndexWithoutPreserveComponentState(int rowIndex)
         }
         else
         {
-            Object rowState = _rowStates.get(getContainerClientId(facesContext));
+            Collection<Object[]> rowState = _rowStates.get(getClientId(facesContext), _rowIndex);
             if (rowState == null)
             {
                 // We haven't been positioned on this row before, so just
@@ -659,11 +662,11 @@ private void setRowIndexPreserveComponentState(int rowIndex)
                                                                        getChildren().iterator(), false);
             if (sm != null && !sm.isEmpty())
             {
-                _rowDeltaStates.put(getContainerClientId(facesContext), sm);
+                _rowDeltaStates.put(getClientId(facesContext), _rowIndex, sm);
             }
             if (_rowIndex != -1)
             {
-                _rowTransientStates.put(getContainerClientId(facesContext),
+                _rowTransientStates.put(getClientId(facesContext), _rowIndex,
                         saveTransientDescendantComponentStates(facesContext, null, getChildren().iterator(), false));
             }
         }
@@ -699,7 +702,7 @@ private void setRowIndexPreserveComponentState(int rowIndex)
 
         if (_initialDescendantFullComponentState != null)
         {
-            Map<String, Object> rowState = _rowDeltaStates.get(getContainerClientId(facesContext));
+            Map<String, Object> rowState = _rowDeltaStates.get(getClientId(facesContext), _rowIndex);
             if (rowState == null)
             {
                 //Restore as original
@@ -718,7 +721,7 @@ private void setRowIndexPreserveComponentState(int rowIndex)
             }
             else
             {
-                rowState = _rowTransientStates.get(getContainerClientId(facesContext));
+                rowState = _rowTransientStates.get(getClientId(facesContext), _rowIndex);
                 if (rowState == null)
                 {
                     restoreTransientDescendantComponentStates(facesContext, getChildren().iterator(), null, false);
@@ -1336,48 +1339,14 @@ public void restoreState(FacesContext context, Object state)
         Object[] values = (Object[]) state;
         super.restoreState(context, values[0]);
 
-        Object restoredRowStates = UIComponentBase.restoreAttachedState(context, values[1]);
-        if (restoredRowStates == null)
-        {
-            if (!_rowDeltaStates.isEmpty())
-            {
-                _rowDeltaStates.clear();
-            }
-        }
-        else
-        {
-            _rowDeltaStates = (Map<String, Map<String, Object> >) restoredRowStates;
-        }
-
+        _rowDeltaStates.restoreState(values[1]);
         if (values.length > 2)
         {
-            Object rs = UIComponentBase.restoreAttachedState(context, values[2]);
-            if (rs == null)
-            {
-                if (!_rowStates.isEmpty())
-                {
-                    _rowStates.clear();
-                }
-            }
-            else
-            {
-                _rowStates = (Map<String, Object>) rs;
-            }
+            _rowStates.restoreState(values[2]);
         }
         if (values.length > 3)
         {
-            Object rs = UIComponentBase.restoreAttachedState(context, values[3]);
-            if (rs == null)
-            {
-                if (!_rowTransientStates.isEmpty())
-                {
-                    _rowTransientStates.clear();
-                }
-            }
-            else
-            {
-                _rowTransientStates = (Map<String, Map<String, Object> >) rs;
-            }
+            _rowTransientStates.restoreState(values[3]);
         }
     }
 
@@ -1416,9 +1385,9 @@ public Object saveState(FacesContext context)
                 {
                     Object[] values = new Object[4];
                     values[0] = super.saveState(context);
-                    values[1] = UIComponentBase.saveAttachedState(context, _rowDeltaStates);
-                    values[2] = UIComponentBase.saveAttachedState(context, _rowStates);
-                    values[3] = UIComponentBase.saveAttachedState(context, _rowTransientStates);
+                    values[1] = _rowDeltaStates.saveState();
+                    values[2] = _rowStates.saveState();
+                    values[3] = _rowTransientStates.saveState();
                     return values;
                 }
             }
@@ -1432,7 +1401,7 @@ public Object saveState(FacesContext context)
                 {
                     Object[] values = new Object[2];
                     values[0] = super.saveState(context);
-                    values[1] = UIComponentBase.saveAttachedState(context, _rowDeltaStates);
+                    values[1] = _rowDeltaStates.saveState();
                     return values; 
                 }
             }
@@ -1443,16 +1412,16 @@ public Object saveState(FacesContext context)
             {
                 Object[] values = new Object[4];
                 values[0] = super.saveState(context);
-                values[1] = UIComponentBase.saveAttachedState(context, _rowDeltaStates);
-                values[2] = UIComponentBase.saveAttachedState(context, _rowStates);
-                values[3] = UIComponentBase.saveAttachedState(context, _rowTransientStates);
+                values[1] = _rowDeltaStates.saveState();
+                values[2] = _rowStates.saveState();
+                values[3] = _rowTransientStates.saveState();
                 return values; 
             }
             else
             {
                 Object[] values = new Object[2];
                 values[0] = super.saveState(context);
-                values[1] = UIComponentBase.saveAttachedState(context, _rowDeltaStates);
+                values[1] = _rowDeltaStates.saveState();
                 return values;
             }
         }
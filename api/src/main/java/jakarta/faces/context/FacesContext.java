@@ -33,15 +33,18 @@
 import jakarta.faces.lifecycle.Lifecycle;
 import jakarta.faces.render.RenderKit;
 import org.apache.myfaces.core.api.shared.lang.Assert;
+import org.apache.myfaces.core.api.shared.lang.ScopedLocal;
 
 /**
  * see Javadoc of <a href="http://java.sun.com/javaee/javaserverfaces/1.2/docs/api/index.html">Faces Specification</a>
  */
 public abstract class FacesContext
 {
-    private static ThreadLocal<FacesContext> currentInstance = new ThreadLocal<FacesContext>();
+    // ScopedLocals instead of plain ThreadLocals, so the FacesContext can be carried into child tasks,
+    // see ScopedLocal.capture()
+    private static ScopedLocal<FacesContext> currentInstance = new ScopedLocal<FacesContext>(true);
 
-    private static ThreadLocal<FacesContext> firstInstance = new ThreadLocal<FacesContext>();
+    private static ScopedLocal<FacesContext> firstInstance = new ScopedLocal<FacesContext>(true);
 
     public abstract void addMessage(String clientId, FacesMessage message);
 
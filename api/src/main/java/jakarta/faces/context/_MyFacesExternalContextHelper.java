@@ -18,6 +18,8 @@
  */
 package jakarta.faces.context;
 
+import org.apache.myfaces.core.api.shared.lang.ScopedLocal;
+
 /**
  * Stores the first instance of the ExternalContext in the
  * field _firstInstance. We cannot put this field directly
@@ -42,7 +44,7 @@
      * but since we don't have any place to init and release this variable properly
      * we should do it using reflection.
      */
-    static ThreadLocal<ExternalContext> firstInstance = new ThreadLocal<ExternalContext>();
+    static ScopedLocal<ExternalContext> firstInstance = new ScopedLocal<ExternalContext>(true);
     
     /**
      * this class should not be instantiated.
@@ -31,6 +31,7 @@
 import java.time.format.FormatStyle;
 import java.time.temporal.TemporalAccessor;
 import java.time.temporal.TemporalQuery;
+import java.util.Arrays;
 import java.util.Date;
 import java.util.Locale;
 import java.util.TimeZone;
@@ -169,11 +170,6 @@ else if (type.equals(TYPE_LOCAL_DATE_TIME) || type.equals(TYPE_OFFSET_DATE_TIME)
                 else
                 {
                     DateFormat format = getDateFormat();
-                    TimeZone tz = getTimeZone();
-                    if( tz != null )
-                    {
-                        format.setTimeZone(tz);
-                    }
                     try
                     {
                         return format.parse(value);
@@ -244,11 +240,6 @@ public String getAsString(FacesContext facesContext, UIComponent uiComponent, Ob
         else
         {        
             DateFormat format = getDateFormat();
-            TimeZone tz = getTimeZone(); 
-            if (tz != null)
-            {
-                format.setTimeZone(tz);
-            }
             try
             {
                 return format.format(value);
@@ -264,12 +255,21 @@ public String getAsString(FacesContext facesContext, UIComponent uiComponent, Ob
     private DateFormat getDateFormat()
     {
         String type = getType();
+        Locale locale = getLocale();
+        TimeZone timeZone = getTimeZone();
+        return _FormatCache.getFormat(
+                Arrays.asList(DateFormat.class, _pattern, type, getDateStyle(), getTimeStyle(), locale, timeZone),
+                () -> createDateFormat(type, locale, timeZone));
+    }
+
+    private DateFormat createDateFormat(String type, Locale locale, TimeZone timeZone)
+    {
         DateFormat format;
         if (_pattern != null)
         {
             try 
             {
-                format = new SimpleDateFormat(_pattern, getLocale());
+                format = new SimpleDateFormat(_pattern, locale);
             } 
                 catch (IllegalArgumentException iae)
             {
@@ -278,17 +278,17 @@ private DateFormat getDateFormat()
         }
         else if (type.equals(TYPE_DATE))
         {
-            format = DateFormat.getDateInstance(calcStyle(getDateStyle()), getLocale());
+            format = DateFormat.getDateInstance(calcStyle(getDateStyle()), locale);
         }
         else if (type.equals(TYPE_TIME))
         {
-            format = DateFormat.getTimeInstance(calcStyle(getTimeStyle()), getLocale());
+            format = DateFormat.getTimeInstance(calcStyle(getTimeStyle()), locale);
         }
         else if (type.equals(TYPE_BOTH))
         {
             format = DateFormat.getDateTimeInstance(calcStyle(getDateStyle()),
                                                     calcStyle(getTimeStyle()),
-                                                    getLocale());
+                                                    locale);
         }
         else
         {
@@ -297,17 +297,28 @@ else if (type.equals(TYPE_BOTH))
         
         // format cannot be lenient (JSR-127)
         format.setLenient(false);
+        if (timeZone != null)
+        {
+            format.setTimeZone(timeZone);
+        }
         return format;
     }
     
     private DateTimeFormatter getDateTimeFormatter()
     {
-        DateTimeFormatter formatter = null;
         String type = getType();
         String pattern = getPattern();
+        Locale locale = getLocale();
+        return _FormatCache.getDateTimeFormatter(
+                Arrays.asList(DateTimeFormatter.class, pattern, type, getDateStyle(), getTimeStyle(), locale),
+                () -> createDateTimeFormatter(type, pattern, locale));
+    }
+
+    private DateTimeFormatter createDateTimeFormatter(String type, String pattern, Locale locale)
+    {
+        DateTimeFormatter formatter = null;
         if (pattern != null && pattern.length() > 0)
         {
-            Locale locale = getLocale();
             if (locale == null)
             {
                 formatter = DateTimeFormatter.ofPattern(pattern);
@@ -354,7 +365,6 @@ else if (TYPE_ZONED_DATE_TIME.equals(type))
                 formatter = DateTimeFormatter.ISO_ZONED_DATE_TIME;
             }
             
-            Locale locale = getLocale();
             if (locale != null)
             {
                 formatter = formatter.withLocale(locale);
@@ -25,6 +25,7 @@
 import java.text.NumberFormat;
 import java.text.ParseException;
 import java.text.ParsePosition;
+import java.util.Arrays;
 import java.util.Currency;
 import java.util.Locale;
 
@@ -267,26 +268,34 @@ private NumberFormat getNumberFormat(FacesContext facesContext)
             throw new ConverterException("Cannot get NumberFormat, either type or pattern needed.");
         }
 
+        String pattern = _pattern;
+        String type = _type;
+        return _FormatCache.getFormat(Arrays.asList(NumberFormat.class, pattern, type, locale),
+                () -> createNumberFormat(pattern, type, locale));
+    }
+
+    private static NumberFormat createNumberFormat(String pattern, String type, Locale locale)
+    {
         // pattern
-        if (_pattern != null)
+        if (pattern != null)
         {
-            return new DecimalFormat(_pattern, new DecimalFormatSymbols(locale));
+            return new DecimalFormat(pattern, new DecimalFormatSymbols(locale));
         }
 
         // type
-        if (_type.equals("number"))
+        if (type.equals("number"))
         {
             return NumberFormat.getNumberInstance(locale);
         }
-        else if (_type.equals("currency"))
+        else if (type.equals("currency"))
         {
             return NumberFormat.getCurrencyInstance(locale);
         }
-        else if (_type.equals("percent"))
+        else if (type.equals("percent"))
         {
             return NumberFormat.getPercentInstance(locale);
         }
-        throw new ConverterException("Cannot get NumberFormat, illegal type " + _type);
+        throw new ConverterException("Cannot get NumberFormat, illegal type " + type);
     }
 
     private void formatCurrency(NumberFormat format)
@@ -0,0 +1,92 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package jakarta.faces.convert;
+
+import java.text.Format;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Formats shared by all the converters, keyed by everything they are created from (type, pattern, styles, locale,
+ * time zone).
+ *
+ * <p>A DateTimeFormatter is immutable and returned as is. The java.text formats are not thread safe: a configured
+ * prototype is cached and every call gets a clone of it, which is much cheaper than parsing the pattern and loading
+ * the locale data again.</p>
+ */
+final class _FormatCache
+{
+    /**
+     * Patterns and locales can come from EL expressions, the caches must not grow without limit. Once full, formats
+     * are still created, but not cached anymore.
+     */
+    private static final int MAX_SIZE = 512;
+
+    private static final Map<List<Object>, DateTimeFormatter> DATE_TIME_FORMATTERS = new ConcurrentHashMap<>();
+    private static final Map<List<Object>, Format> PROTOTYPES = new ConcurrentHashMap<>();
+
+    private _FormatCache()
+    {
+    }
+
+    /**
+     * @param key the values the formatter is created from, compared with equals
+     */
+    static DateTimeFormatter getDateTimeFormatter(List<Object> key, Supplier<DateTimeFormatter> factory)
+    {
+        DateTimeFormatter formatter = DATE_TIME_FORMATTERS.get(key);
+        if (formatter == null)
+        {
+            formatter = factory.get();
+            if (formatter != null && DATE_TIME_FORMATTERS.size() < MAX_SIZE)
+            {
+                DATE_TIME_FORMATTERS.putIfAbsent(key, formatter);
+            }
+        }
+        return formatter;
+    }
+
+    /**
+     * @param key the values the format is created from, compared with equals
+     * @return a new instance the caller can modify
+     */
+    @SuppressWarnings("unchecked")
+    static <T extends Format> T getFormat(List<Object> key, Supplier<T> factory)
+    {
+        Format prototype = PROTOTYPES.get(key);
+        if (prototype == null)
+        {
+            T format = factory.get();
+            if (PROTOTYPES.size() >= MAX_SIZE)
+            {
+                return format;
+            }
+            prototype = PROTOTYPES.putIfAbsent(key, format);
+            if (prototype == null)
+            {
+                // the prototype is never handed out
+                return (T) format.clone();
+            }
+        }
+        return (T) prototype.clone();
+    }
+}
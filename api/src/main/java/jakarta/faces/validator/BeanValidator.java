@@ -21,12 +21,15 @@
 import org.apache.myfaces.core.api.shared.MessageUtils;
 import org.apache.myfaces.core.api.shared.ExternalSpecifications;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.LinkedHashMap;
 import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.logging.Logger;
+import java.util.regex.Pattern;
 
 import jakarta.el.ValueExpression;
 import jakarta.el.ValueReference;
@@ -125,6 +128,10 @@ public class BeanValidator implements Validator, PartialStateHolder
     
     private static final String BEAN_VALIDATION_FAILED = "oam.WBV.validationFailed";
 
+    private static final String CACHED_VALIDATOR = "oam.BV.cachedValidator";
+
+    private static final Pattern EMPTY_VALIDATION_GROUPS = Pattern.compile(EMPTY_VALIDATION_GROUPS_PATTERN);
+
     private String validationGroups;
 
     private Class<?>[] validationGroupsArray;
@@ -182,16 +189,14 @@ public void validate(final FacesContext context, final UIComponent component, fi
         String valueProperty = (String) referenceProperty;
 
         // Initialize Bean Validation.
-        ValidatorFactory validatorFactory = createValidatorFactory(context);
-        jakarta.validation.Validator validator = createValidator(validatorFactory, context);
-        BeanDescriptor beanDescriptor = validator.getConstraintsForClass(valueBaseClass);
-        if (!beanDescriptor.isBeanConstrained())
+        CachedValidator cachedValidator = getCachedValidator(context);
+        ConstrainedBean constrainedBean = cachedValidator.getConstrainedBean(valueBaseClass);
+        if (!constrainedBean.isBeanConstrained())
         {
             return;
         }
         
-        // Note that validationGroupsArray was initialized when createValidator was called
-        Class[] validationGroupsArray = this.validationGroupsArray;
+        Class[] validationGroupsArray = getValidationGroupsArray(cachedValidator);
 
         // Faces 2.3: If the ENABLE_VALIDATE_WHOLE_BEAN_PARAM_NAME application parameter is enabled and this Validator 
         // instance has validation groups other than or in addition to the Default group
@@ -208,9 +213,11 @@ public void validate(final FacesContext context, final UIComponent component, fi
             }
         }
         
-        // Delegate to Bean Validation.
-        Set<?> constraintViolations
-                = validator.validateValue(valueBaseClass, valueProperty, value, validationGroupsArray);
+        // Delegate to Bean Validation, a property without constraints can not have violations.
+        Set<?> constraintViolations = constrainedBean.isPropertyConstrained(valueProperty)
+                ? cachedValidator.getValidator().validateValue(valueBaseClass, valueProperty, value,
+                        validationGroupsArray)
+                : Collections.emptySet();
         if (!constraintViolations.isEmpty())
         {
             Set<FacesMessage> messages = new LinkedHashSet<>(constraintViolations.size());
@@ -277,21 +284,27 @@ private boolean isValidateWholeBeanEnabled(FacesContext facesContext)
         return Boolean.TRUE.equals(value);
     }
 
-    private jakarta.validation.Validator createValidator(final ValidatorFactory validatorFactory, FacesContext context)
+    /**
+     * A jakarta.validation.Validator is thread safe, the same instance is used for all the validations of the
+     * application, as long as the ValidatorFactory does not change. Its message interpolator uses the locale of the
+     * current view.
+     */
+    private CachedValidator getCachedValidator(FacesContext context)
     {
-        // Set default validation group when setValidationGroups has not been called.
-        // The null check is there to prevent it from happening twice.
-        if (validationGroupsArray == null)
+        ValidatorFactory validatorFactory = createValidatorFactory(context);
+        Map<String, Object> applicationMap = context.getExternalContext().getApplicationMap();
+        CachedValidator cachedValidator = (CachedValidator) applicationMap.get(CACHED_VALIDATOR);
+        if (cachedValidator == null || cachedValidator.validatorFactory != validatorFactory)
         {
-            postSetValidationGroups();
+            jakarta.validation.Validator validator = validatorFactory //
+                    .usingContext() //
+                    .messageInterpolator(new FacesMessageInterpolator(
+                            validatorFactory.getMessageInterpolator())) //
+                    .getValidator();
+            cachedValidator = new CachedValidator(validatorFactory, validator);
+            applicationMap.put(CACHED_VALIDATOR, cachedValidator);
         }
-
-        return validatorFactory //
-                .usingContext() //
-                .messageInterpolator(new FacesMessageInterpolator(
-                        validatorFactory.getMessageInterpolator(), context)) //
-                .getValidator();
-
+        return cachedValidator;
     }
 
     /**
@@ -335,38 +348,51 @@ private ValidatorFactory createValidatorFactory(FacesContext context)
      * Fully initialize the validation groups if needed.
      * If no validation groups are specified, the Default validation group is used.
      */
-    private void postSetValidationGroups()
+    private Class<?>[] getValidationGroupsArray(CachedValidator cachedValidator)
     {
-        if (this.validationGroups == null || this.validationGroups.matches(EMPTY_VALIDATION_GROUPS_PATTERN))
+        Class<?>[] validationGroupsArray = this.validationGroupsArray;
+        if (validationGroupsArray == null)
         {
-            this.validationGroupsArray = DEFAULT_VALIDATION_GROUPS_ARRAY;
+            // validators are created again for each request, the parsed groups are shared by the application
+            validationGroupsArray = this.validationGroups == null
+                    ? DEFAULT_VALIDATION_GROUPS_ARRAY
+                    : cachedValidator.validationGroups.computeIfAbsent(this.validationGroups,
+                            BeanValidator::parseValidationGroups);
+            this.validationGroupsArray = validationGroupsArray;
         }
-        else
+        return validationGroupsArray;
+    }
+
+    private static Class<?>[] parseValidationGroups(String validationGroups)
+    {
+        if (EMPTY_VALIDATION_GROUPS.matcher(validationGroups).matches())
         {
-            String[] classes = this.validationGroups.split(VALIDATION_GROUPS_DELIMITER);
-            List<Class<?>> validationGroupsList = new ArrayList<>(classes.length);
+            return DEFAULT_VALIDATION_GROUPS_ARRAY;
+        }
 
-            for (String clazz : classes)
+        String[] classes = validationGroups.split(VALIDATION_GROUPS_DELIMITER);
+        List<Class<?>> validationGroupsList = new ArrayList<>(classes.length);
+
+        for (String clazz : classes)
+        {
+            clazz = clazz.trim();
+            if (!clazz.isEmpty())
             {
-                clazz = clazz.trim();
-                if (!clazz.isEmpty())
+                try
+                {
+                    Class<?> theClass = ClassUtils.classForName(clazz);
+
+                    // the class was found
+                    validationGroupsList.add(theClass);
+                }
+                catch (ClassNotFoundException e)
                 {
-                    try
-                    {
-                        Class<?> theClass = ClassUtils.classForName(clazz);
-
-                        // the class was found
-                        validationGroupsList.add(theClass);
-                    }
-                    catch (ClassNotFoundException e)
-                    {
-                        throw new RuntimeException("Could not load validation group", e);                     
-                    }
+                    throw new RuntimeException("Could not load validation group", e);                     
                 }
             }
-                    
-            this.validationGroupsArray = validationGroupsList.toArray(new Class[validationGroupsList.size()]);
         }
+                
+        return validationGroupsList.toArray(new Class[validationGroupsList.size()]);
     }
 
     /** {@inheritDoc} */
@@ -406,10 +432,11 @@ public void restoreState(final FacesContext context, final Object state)
         }
         else
         {
-            // When the value is being validated, postSetValidationGroups() sets
-            // validationGroups to jakarta.validation.groups.Default. 
+            // When the value is being validated, getValidationGroupsArray() uses
+            // jakarta.validation.groups.Default. 
             this.validationGroups = null;
         }
+        this.validationGroupsArray = null;
     }
 
     /**
@@ -430,6 +457,7 @@ public String getValidationGroups()
     public void setValidationGroups(final String validationGroups)
     {
         this.validationGroups = validationGroups;
+        this.validationGroupsArray = null;
         this.clearInitialState();
     }
 
@@ -476,5 +504,69 @@ public void markInitialState()
     {
         _initialStateMarked = true;
     }
-}
 
+    /**
+     * The Validator of the application, with what is known about the constraints of the validated beans.
+     */
+    private static final class CachedValidator
+    {
+        private final ValidatorFactory validatorFactory;
+        private final jakarta.validation.Validator validator;
+        private final Map<Class<?>, ConstrainedBean> constrainedBeans = new ConcurrentHashMap<>();
+        private final Map<String, Class<?>[]> validationGroups = new ConcurrentHashMap<>();
+
+        private CachedValidator(ValidatorFactory validatorFactory, jakarta.validation.Validator validator)
+        {
+            this.validatorFactory = validatorFactory;
+            this.validator = validator;
+        }
+
+        private jakarta.validation.Validator getValidator()
+        {
+            return validator;
+        }
+
+        private ConstrainedBean getConstrainedBean(Class<?> beanClass)
+        {
+            ConstrainedBean constrainedBean = constrainedBeans.get(beanClass);
+            if (constrainedBean == null)
+            {
+                constrainedBean = constrainedBeans.computeIfAbsent(beanClass,
+                        k -> new ConstrainedBean(validator.getConstraintsForClass(k)));
+            }
+            return constrainedBean;
+        }
+    }
+
+    /**
+     * The constraints metadata of a bean class, and whether its properties have constraints.
+     */
+    private static final class ConstrainedBean
+    {
+        private final BeanDescriptor beanDescriptor;
+        private final boolean beanConstrained;
+        private final Map<String, Boolean> constrainedProperties = new ConcurrentHashMap<>();
+
+        private ConstrainedBean(BeanDescriptor beanDescriptor)
+        {
+            this.beanDescriptor = beanDescriptor;
+            this.beanConstrained = beanDescriptor.isBeanConstrained();
+        }
+
+        private boolean isBeanConstrained()
+        {
+            return beanConstrained;
+        }
+
+        private boolean isPropertyConstrained(String property)
+        {
+            Boolean constrained = constrainedProperties.get(property);
+            if (constrained == null)
+            {
+                constrained = beanDescriptor.getConstraintsForProperty(property) != null;
+                constrainedProperties.put(property, constrained);
+            }
+            return constrained;
+        }
+    }
+}
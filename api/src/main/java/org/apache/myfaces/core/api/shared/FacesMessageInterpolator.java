@@ -26,6 +26,8 @@
  * Note: Before 2.1.5/2.0.11 there was another strategy for this point to minimize
  * the instances used, but after checking this with a profiler, it is more expensive to
  * call FacesContext.getCurrentInstance() than create this object for bean validation.
+ * An interpolator without FacesContext is still used by the Validator that BeanValidator
+ * shares, it only looks up the FacesContext when a message is interpolated.
  * 
  * Standard MessageInterpolator, as described in the JSR-314 spec.
  */
@@ -40,9 +42,24 @@ public FacesMessageInterpolator(final MessageInterpolator interpolator, final Fa
         this.facesContext = facesContext;
     }
 
+    /**
+     * Uses the locale of the view of the current FacesContext.
+     */
+    public FacesMessageInterpolator(final MessageInterpolator interpolator)
+    {
+        this(interpolator, null);
+    }
+
     @Override
     public String interpolate(final String s, final MessageInterpolator.Context context)
     {
+        FacesContext facesContext = this.facesContext != null
+                ? this.facesContext
+                : FacesContext.getCurrentInstance();
+        if (facesContext == null || facesContext.getViewRoot() == null)
+        {
+            return interpolator.interpolate(s, context);
+        }
         Locale locale = facesContext.getViewRoot().getLocale();
         return interpolator.interpolate(s, context, locale);
     }
@@ -0,0 +1,203 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.myfaces.core.api.shared;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * The states of the rows of an iteration component like UIData or UIRepeat.
+ *
+ * <p>States are stored by client id of the iteration component, without row index, and by row index. The client id
+ * is only needed when the component is nested in another iteration component, where it includes the row indexes of
+ * the enclosing components; most components have a single client id. The rows are kept in sorted arrays, only the
+ * rows which have a state use space, instead of a map entry with the full client id of the row for each one.</p>
+ *
+ * <p>The saved state is made of arrays only: the client id, the row indexes and the row states, for each client
+ * id.</p>
+ */
+public final class RowStateMap<V>
+{
+    private Map<String, Rows> rowsByClientId;
+
+    // the last used client id, nearly always the only one
+    private String lastClientId;
+    private Rows lastRows;
+
+    /**
+     * @param clientId the client id of the iteration component, without row index
+     * @return the state of the row, or null
+     */
+    @SuppressWarnings("unchecked")
+    public V get(String clientId, int rowIndex)
+    {
+        Rows rows = getRows(clientId, false);
+        return rows == null ? null : (V) rows.get(rowIndex);
+    }
+
+    /**
+     * @param clientId the client id of the iteration component, without row index
+     */
+    public void put(String clientId, int rowIndex, V value)
+    {
+        getRows(clientId, true).put(rowIndex, value);
+    }
+
+    public boolean isEmpty()
+    {
+        return rowsByClientId == null || rowsByClientId.isEmpty();
+    }
+
+    public void clear()
+    {
+        if (rowsByClientId != null)
+        {
+            rowsByClientId.clear();
+        }
+        lastClientId = null;
+        lastRows = null;
+    }
+
+    /**
+     * @return the saved state, null if there are no row states
+     */
+    public Object saveState()
+    {
+        if (isEmpty())
+        {
+            return null;
+        }
+
+        Object[] state = new Object[rowsByClientId.size() * 3];
+        int i = 0;
+        for (Map.Entry<String, Rows> entry : rowsByClientId.entrySet())
+        {
+            Rows rows = entry.getValue();
+            state[i++] = entry.getKey();
+            state[i++] = Arrays.copyOf(rows.indexes, rows.size);
+            state[i++] = Arrays.copyOf(rows.values, rows.size);
+        }
+        return state;
+    }
+
+    /**
+     * Replaces the row states by the saved ones. The saved state is copied, it can be restored again.
+     */
+    public void restoreState(Object state)
+    {
+        clear();
+        if (state == null)
+        {
+            return;
+        }
+
+        Object[] values = (Object[]) state;
+        for (int i = 0; i < values.length; i += 3)
+        {
+            int[] indexes = (int[]) values[i + 1];
+            Rows rows = getRows((String) values[i], true);
+            rows.indexes = indexes.clone();
+            rows.values = ((Object[]) values[i + 2]).clone();
+            rows.size = indexes.length;
+        }
+    }
+
+    private Rows getRows(String clientId, boolean create)
+    {
+        if (lastRows != null && clientId.equals(lastClientId))
+        {
+            return lastRows;
+        }
+
+        Rows rows = rowsByClientId == null ? null : rowsByClientId.get(clientId);
+        if (rows == null)
+        {
+            if (!create)
+            {
+                return null;
+            }
+            if (rowsByClientId == null)
+            {
+                rowsByClientId = new HashMap<>(2);
+            }
+            rows = new Rows();
+            rowsByClientId.put(clientId, rows);
+        }
+        lastClientId = clientId;
+        lastRows = rows;
+        return rows;
+    }
+
+    /**
+     * The states of the rows of one client id, sorted by row index. Rows are usually visited in order, so new rows
+     * are added at the end.
+     */
+    private static final class Rows
+    {
+        private static final int[] EMPTY_INDEXES = new int[0];
+        private static final Object[] EMPTY_VALUES = new Object[0];
+
+        private int[] indexes = EMPTY_INDEXES;
+        private Object[] values = EMPTY_VALUES;
+        private int size;
+
+        private Object get(int rowIndex)
+        {
+            int position = indexOf(rowIndex);
+            return position < 0 ? null : values[position];
+        }
+
+        private void put(int rowIndex, Object value)
+        {
+            int position = indexOf(rowIndex);
+            if (position >= 0)
+            {
+                values[position] = value;
+                return;
+            }
+
+            position = -(position + 1);
+            if (size == indexes.length)
+            {
+                int capacity = Math.max(8, size + (size >> 1));
+                indexes = Arrays.copyOf(indexes, capacity);
+                values = Arrays.copyOf(values, capacity);
+            }
+            if (position < size)
+            {
+                System.arraycopy(indexes, position, indexes, position + 1, size - position);
+                System.arraycopy(values, position, values, position + 1, size - position);
+            }
+            indexes[position] = rowIndex;
+            values[position] = value;
+            size++;
+        }
+
+        private int indexOf(int rowIndex)
+        {
+            // fast path for the rows added in order
+            if (size == 0 || indexes[size - 1] < rowIndex)
+            {
+                return -(size + 1);
+            }
+            return Arrays.binarySearch(indexes, 0, size, rowIndex);
+        }
+    }
+}
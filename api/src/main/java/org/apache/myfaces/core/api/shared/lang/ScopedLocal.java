@@ -0,0 +1,361 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.myfaces.core.api.shared.lang;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * A per thread value, like a ThreadLocal, which can also be bound for the execution of a task on another thread.
+ *
+ * <p>The value set by {@link #set(Object)} is kept in a ThreadLocal, as the specification requires for
+ * FacesContext.setCurrentInstance. A task bound by {@link #where(Object, Runnable)} or by a {@link Snapshot} sees the
+ * bound value instead: when the platform provides java.lang.ScopedValue (Java 25), the value is bound with it, so
+ * running tasks on many virtual threads does not fill their ThreadLocal maps. On older platforms the ThreadLocal is
+ * set for the duration of the task and restored afterwards.</p>
+ *
+ * <p>{@link #capture()} takes the current values of all the propagated ScopedLocals, for example to carry the current
+ * FacesContext into a child task.</p>
+ */
+public final class ScopedLocal<T>
+{
+    private static final Logger log = Logger.getLogger(ScopedLocal.class.getName());
+
+    private static final List<ScopedLocal<?>> PROPAGATED = new CopyOnWriteArrayList<>();
+
+    private static final MethodHandle NEW_INSTANCE;
+    private static final MethodHandle WHERE;
+    private static final MethodHandle CARRIER_WHERE;
+    private static final MethodHandle CARRIER_RUN;
+    private static final MethodHandle IS_BOUND;
+    private static final MethodHandle GET;
+
+    static
+    {
+        MethodHandle newInstance = null;
+        MethodHandle where = null;
+        MethodHandle carrierWhere = null;
+        MethodHandle carrierRun = null;
+        MethodHandle isBound = null;
+        MethodHandle get = null;
+        try
+        {
+            Class<?> scopedValueClass = Class.forName("java.lang.ScopedValue");
+            Class<?> carrierClass = Class.forName("java.lang.ScopedValue$Carrier");
+            MethodHandles.Lookup lookup = MethodHandles.publicLookup();
+
+            newInstance = lookup.findStatic(scopedValueClass, "newInstance", MethodType.methodType(scopedValueClass))
+                    .asType(MethodType.methodType(Object.class));
+            where = lookup.findStatic(scopedValueClass, "where",
+                    MethodType.methodType(carrierClass, scopedValueClass, Object.class))
+                    .asType(MethodType.methodType(Object.class, Object.class, Object.class));
+            carrierWhere = lookup.findVirtual(carrierClass, "where",
+                    MethodType.methodType(carrierClass, scopedValueClass, Object.class))
+                    .asType(MethodType.methodType(Object.class, Object.class, Object.class, Object.class));
+            carrierRun = lookup.findVirtual(carrierClass, "run", MethodType.methodType(void.class, Runnable.class))
+                    .asType(MethodType.methodType(void.class, Object.class, Runnable.class));
+            isBound = lookup.findVirtual(scopedValueClass, "isBound", MethodType.methodType(boolean.class))
+                    .asType(MethodType.methodType(boolean.class, Object.class));
+            get = lookup.findVirtual(scopedValueClass, "get", MethodType.methodType(Object.class))
+                    .asType(MethodType.methodType(Object.class, Object.class));
+
+            // ScopedValue is a preview API before Java 25, make sure it can really be used
+            Object probe = (Object) newInstance.invokeExact();
+            Object carrier = (Object) where.invokeExact(probe, (Object) Boolean.TRUE);
+            carrierRun.invokeExact(carrier, (Runnable) () -> { });
+        }
+        catch (Throwable e)
+        {
+            if (log.isLoggable(Level.FINE))
+            {
+                log.log(Level.FINE, "java.lang.ScopedValue is not available, using ThreadLocal only", e);
+            }
+            newInstance = null;
+        }
+
+        NEW_INSTANCE = newInstance;
+        WHERE = newInstance == null ? null : where;
+        CARRIER_WHERE = newInstance == null ? null : carrierWhere;
+        CARRIER_RUN = newInstance == null ? null : carrierRun;
+        IS_BOUND = newInstance == null ? null : isBound;
+        GET = newInstance == null ? null : get;
+    }
+
+    private final ThreadLocal<T> threadLocal = new ThreadLocal<>();
+    private final Object scopedValue;
+
+    public ScopedLocal()
+    {
+        this(false);
+    }
+
+    /**
+     * @param propagated if the value is part of the snapshots taken by {@link #capture()}
+     */
+    public ScopedLocal(boolean propagated)
+    {
+        scopedValue = newScopedValue();
+        if (propagated)
+        {
+            PROPAGATED.add(this);
+        }
+    }
+
+    /**
+     * @return true if the values bound to tasks are kept in java.lang.ScopedValue instances
+     */
+    public static boolean isScopedValueAvailable()
+    {
+        return NEW_INSTANCE != null;
+    }
+
+    /**
+     * @return the value set on this thread, or else the value bound to the running task, or null
+     */
+    @SuppressWarnings("unchecked")
+    public T get()
+    {
+        T value = threadLocal.get();
+        if (value == null && scopedValue != null)
+        {
+            try
+            {
+                if ((boolean) IS_BOUND.invokeExact(scopedValue))
+                {
+                    value = (T) (Object) GET.invokeExact(scopedValue);
+                }
+            }
+            catch (Throwable e)
+            {
+                throw rethrow(e);
+            }
+        }
+        return value;
+    }
+
+    /**
+     * Sets the value of this thread, null removes it.
+     */
+    public void set(T value)
+    {
+        if (value == null)
+        {
+            threadLocal.remove();
+        }
+        else
+        {
+            threadLocal.set(value);
+        }
+    }
+
+    public void remove()
+    {
+        threadLocal.remove();
+    }
+
+    /**
+     * Runs the task with the given value bound, the value of this thread is restored afterwards.
+     */
+    public void where(T value, Runnable task)
+    {
+        new Snapshot(new ScopedLocal<?>[] { this }, new Object[] { value }).run(task);
+    }
+
+    /**
+     * @return the current values of all the propagated ScopedLocals
+     */
+    public static Snapshot capture()
+    {
+        ScopedLocal<?>[] locals = PROPAGATED.toArray(new ScopedLocal<?>[0]);
+        Object[] values = new Object[locals.length];
+        for (int i = 0; i < locals.length; i++)
+        {
+            values[i] = locals[i].get();
+        }
+        return new Snapshot(locals, values);
+    }
+
+    private static Object newScopedValue()
+    {
+        if (NEW_INSTANCE == null)
+        {
+            return null;
+        }
+        try
+        {
+            return (Object) NEW_INSTANCE.invokeExact();
+        }
+        catch (Throwable e)
+        {
+            throw rethrow(e);
+        }
+    }
+
+    private static RuntimeException rethrow(Throwable e)
+    {
+        if (e instanceof RuntimeException)
+        {
+            return (RuntimeException) e;
+        }
+        if (e instanceof Error)
+        {
+            throw (Error) e;
+        }
+        return new IllegalStateException(e);
+    }
+
+    /**
+     * The values of some ScopedLocals, which can be bound to tasks running on other threads. A snapshot can be used by
+     * several tasks at the same time.
+     */
+    public static final class Snapshot
+    {
+        private final ScopedLocal<?>[] locals;
+        private final Object[] values;
+
+        private Snapshot(ScopedLocal<?>[] locals, Object[] values)
+        {
+            this.locals = locals;
+            this.values = values;
+        }
+
+        /**
+         * Runs the task on the current thread with the values of this snapshot.
+         */
+        public void run(Runnable task)
+        {
+            // values set on this thread take precedence, hide them while the task runs
+            Object[] previous = new Object[locals.length];
+            for (int i = 0; i < locals.length; i++)
+            {
+                previous[i] = locals[i].threadLocal.get();
+                if (previous[i] != null)
+                {
+                    locals[i].threadLocal.remove();
+                }
+            }
+
+            try
+            {
+                if (NEW_INSTANCE != null)
+                {
+                    runScoped(task);
+                }
+                else
+                {
+                    for (int i = 0; i < locals.length; i++)
+                    {
+                        set(locals[i], values[i]);
+                    }
+                    task.run();
+                }
+            }
+            finally
+            {
+                for (int i = 0; i < locals.length; i++)
+                {
+                    set(locals[i], previous[i]);
+                }
+            }
+        }
+
+        /**
+         * Calls the task on the current thread with the values of this snapshot.
+         */
+        @SuppressWarnings("unchecked")
+        public <V> V call(Callable<V> task) throws Exception
+        {
+            Object[] result = new Object[1];
+            Exception[] exception = new Exception[1];
+            run(() ->
+            {
+                try
+                {
+                    result[0] = task.call();
+                }
+                catch (Exception e)
+                {
+                    exception[0] = e;
+                }
+            });
+            if (exception[0] != null)
+            {
+                throw exception[0];
+            }
+            return (V) result[0];
+        }
+
+        /**
+         * @return a task which runs the given one with the values of this snapshot, on whichever thread it is run
+         */
+        public Runnable wrap(Runnable task)
+        {
+            return () -> run(task);
+        }
+
+        /**
+         * @return a task which calls the given one with the values of this snapshot, on whichever thread it is called
+         */
+        public <V> Callable<V> wrap(Callable<V> task)
+        {
+            return () -> call(task);
+        }
+
+        private void runScoped(Runnable task)
+        {
+            try
+            {
+                Object carrier = null;
+                for (int i = 0; i < locals.length; i++)
+                {
+                    if (values[i] != null)
+                    {
+                        carrier = carrier == null
+                                ? (Object) WHERE.invokeExact(locals[i].scopedValue, values[i])
+                                : (Object) CARRIER_WHERE.invokeExact(carrier, locals[i].scopedValue, values[i]);
+                    }
+                }
+                if (carrier == null)
+                {
+                    task.run();
+                }
+                else
+                {
+                    CARRIER_RUN.invokeExact(carrier, task);
+                }
+            }
+            catch (Throwable e)
+            {
+                throw rethrow(e);
+            }
+        }
+
+        @SuppressWarnings("unchecked")
+        private static <T> void set(ScopedLocal<T> local, Object value)
+        {
+            local.set((T) value);
+        }
+    }
+}
@@ -0,0 +1,95 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.myfaces.benchmarks;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The application scoped bean of the benchmark view, with a list of items rendered by a dataTable and a ui:repeat.
+ */
+public class BenchmarkBean
+{
+    public static final int ITEMS = 50;
+
+    private final List<Item> items = new ArrayList<>(ITEMS);
+    private String query;
+
+    public BenchmarkBean()
+    {
+        for (int i = 0; i < ITEMS; i++)
+        {
+            // some text must be escaped, most does not
+            items.add(new Item("Item " + i, i % 10 == 0 ? "<b>" + i + "</b> & more" : "Description of item " + i));
+        }
+    }
+
+    public List<Item> getItems()
+    {
+        return items;
+    }
+
+    public String getQuery()
+    {
+        return query;
+    }
+
+    public void setQuery(String query)
+    {
+        this.query = query;
+    }
+
+    public String submit()
+    {
+        return null;
+    }
+
+    public static class Item
+    {
+        private final String name;
+        private final String description;
+        private int quantity = 1;
+
+        public Item(String name, String description)
+        {
+            this.name = name;
+            this.description = description;
+        }
+
+        public String getName()
+        {
+            return name;
+        }
+
+        public String getDescription()
+        {
+            return description;
+        }
+
+        public int getQuantity()
+        {
+            return quantity;
+        }
+
+        public void setQuantity(int quantity)
+        {
+            this.quantity = quantity;
+        }
+    }
+}
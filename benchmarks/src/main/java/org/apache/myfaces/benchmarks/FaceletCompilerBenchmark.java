@@ -0,0 +1,78 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.myfaces.benchmarks;
+
+import java.io.IOException;
+import java.net.URL;
+import java.util.concurrent.TimeUnit;
+
+import jakarta.faces.context.FacesContext;
+import jakarta.faces.view.ViewDeclarationLanguage;
+import jakarta.faces.view.ViewDeclarationLanguageWrapper;
+
+import org.apache.myfaces.view.facelets.FaceletViewDeclarationLanguage;
+import org.apache.myfaces.view.facelets.compiler.Compiler;
+import org.apache.myfaces.view.facelets.impl.DefaultFaceletFactory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Compiling {@link MyFacesContainer#VIEW_ID} with the SAXCompiler of the application, as when a Facelet is not
+ * cached yet.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class FaceletCompilerBenchmark
+{
+    private Compiler compiler;
+    private URL source;
+
+    @Setup(Level.Trial)
+    public void setUp(RenderedView view) throws IOException
+    {
+        FacesContext context = view.getFacesContext();
+        ViewDeclarationLanguage vdl = context.getApplication().getViewHandler()
+                .getViewDeclarationLanguage(context, MyFacesContainer.VIEW_ID);
+        while (vdl instanceof ViewDeclarationLanguageWrapper)
+        {
+            vdl = ((ViewDeclarationLanguageWrapper) vdl).getWrapped();
+        }
+        compiler = ((DefaultFaceletFactory) ((FaceletViewDeclarationLanguage) vdl).getFaceletFactory()).getCompiler();
+        source = context.getExternalContext().getResource(MyFacesContainer.VIEW_ID);
+    }
+
+    @Benchmark
+    public Compiler.CompilerResult compile() throws IOException
+    {
+        return compiler.compile(source, MyFacesContainer.VIEW_ID);
+    }
+}
@@ -0,0 +1,90 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.myfaces.benchmarks;
+
+import jakarta.el.ExpressionFactory;
+import jakarta.faces.application.ProjectStage;
+
+import org.apache.myfaces.test.core.AbstractMyFacesRequestTestCase;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+/**
+ * A MyFaces application started in the mock container of the tests, with {@link #VIEW_ID} and the
+ * {@link BenchmarkBean}. The application runs in the Production project stage with a real EL implementation, and
+ * every benchmark thread has its own.
+ */
+@State(Scope.Thread)
+public class MyFacesContainer extends AbstractMyFacesRequestTestCase
+{
+    public static final String VIEW_ID = "/benchmark.xhtml";
+
+    @Setup(Level.Trial)
+    public void start() throws Exception
+    {
+        setUp();
+        servletContext.setAttribute("benchmarkBean", new BenchmarkBean());
+        started();
+    }
+
+    /**
+     * Called once the application is started.
+     */
+    protected void started() throws Exception
+    {
+    }
+
+    @TearDown(Level.Trial)
+    public void stop() throws Exception
+    {
+        tearDown();
+    }
+
+    /**
+     * Starts a request of {@link #VIEW_ID} and renders it, the request is not ended.
+     */
+    public void renderView() throws Exception
+    {
+        startViewRequest(VIEW_ID);
+        processLifecycleExecuteAndRender();
+    }
+
+    @Override
+    protected void setUpWebConfigParams() throws Exception
+    {
+        super.setUpWebConfigParams();
+        servletContext.addInitParameter(ProjectStage.PROJECT_STAGE_PARAM_NAME, ProjectStage.Production.name());
+    }
+
+    @Override
+    protected ExpressionFactory createExpressionFactory()
+    {
+        return new org.apache.el.ExpressionFactoryImpl();
+    }
+
+    @Override
+    protected String getWebappResourcePath()
+    {
+        // not the package of getClass(), JMH generates subclasses in another package
+        return MyFacesContainer.class.getPackage().getName().replace('.', '/') + '/';
+    }
+}
@@ -0,0 +1,44 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.myfaces.benchmarks;
+
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.TearDown;
+
+/**
+ * A postback request of {@link #VIEW_ID}, submitting its form, ready to be executed. A new view is rendered and
+ * submitted for each invocation, outside of the measurement.
+ */
+public class Postback extends MyFacesContainer
+{
+    @Setup(Level.Invocation)
+    public void submit() throws Exception
+    {
+        renderView();
+        client.inputText("form:query", "benchmark");
+        client.submit("form:submit");
+    }
+
+    @TearDown(Level.Invocation)
+    public void end()
+    {
+        endRequest();
+    }
+}
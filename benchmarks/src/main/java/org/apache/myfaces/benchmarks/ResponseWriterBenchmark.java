@@ -0,0 +1,104 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.myfaces.benchmarks;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.concurrent.TimeUnit;
+
+import jakarta.faces.context.ResponseWriter;
+
+import org.apache.myfaces.renderkit.html.HtmlResponseWriterImpl;
+import org.apache.myfaces.renderkit.html.util.HTMLEncoder;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Writing a table with the {@link HtmlResponseWriterImpl}, and encoding its text with the {@link HTMLEncoder}, for
+ * text which does not need to be escaped and text which does.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ResponseWriterBenchmark
+{
+    private static final int ROWS = 200;
+
+    @Param({ "plain", "markup" })
+    public String text;
+
+    private String[] values;
+
+    @Setup(Level.Trial)
+    public void setUp(RenderedView view)
+    {
+        // the view is only needed for the current FacesContext
+        values = new String[ROWS];
+        for (int i = 0; i < ROWS; i++)
+        {
+            values[i] = "plain".equals(text)
+                    ? "The description of the row " + i + ", without markup"
+                    : "The <b>description</b> of the row " + i + " & \"markup\"";
+        }
+    }
+
+    @Benchmark
+    public StringWriter writeTable() throws IOException
+    {
+        StringWriter out = new StringWriter(ROWS * 128);
+        ResponseWriter writer = new HtmlResponseWriterImpl(out, "text/html", "UTF-8");
+        writer.startElement("table", null);
+        for (int i = 0; i < ROWS; i++)
+        {
+            writer.startElement("tr", null);
+            writer.writeAttribute("class", i % 2 == 0 ? "even" : "odd", null);
+            writer.startElement("td", null);
+            writer.writeText(values[i], null);
+            writer.endElement("td");
+            writer.endElement("tr");
+        }
+        writer.endElement("table");
+        writer.flush();
+        return out;
+    }
+
+    @Benchmark
+    public StringWriter encode() throws IOException
+    {
+        StringWriter out = new StringWriter(ROWS * 64);
+        for (int i = 0; i < ROWS; i++)
+        {
+            HTMLEncoder.encode(out, values[i]);
+        }
+        return out;
+    }
+}
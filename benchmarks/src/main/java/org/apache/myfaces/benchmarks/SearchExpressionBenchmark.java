@@ -0,0 +1,81 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.myfaces.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import jakarta.faces.component.UIComponent;
+import jakarta.faces.component.search.SearchExpressionContext;
+import jakarta.faces.component.search.SearchExpressionHandler;
+import jakarta.faces.context.FacesContext;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Resolving search expressions from a component of {@link MyFacesContainer#VIEW_ID} with the
+ * SearchExpressionHandlerImpl of the application.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SearchExpressionBenchmark
+{
+    @Param({ "@this", "@form", "@parent", "@next", "@form:search", ":form:table", "form:panel" })
+    public String expression;
+
+    private SearchExpressionHandler handler;
+    private SearchExpressionContext searchContext;
+    private String expressions;
+
+    @Setup(Level.Trial)
+    public void setUp(RenderedView view)
+    {
+        FacesContext context = view.getFacesContext();
+        UIComponent source = context.getViewRoot().findComponent("form:source");
+        handler = context.getApplication().getSearchExpressionHandler();
+        searchContext = SearchExpressionContext.createSearchExpressionContext(context, source);
+        expressions = expression + " @form " + expression;
+    }
+
+    @Benchmark
+    public String resolveClientId()
+    {
+        return handler.resolveClientId(searchContext, expression);
+    }
+
+    @Benchmark
+    public Object resolveClientIds()
+    {
+        return handler.resolveClientIds(searchContext, expressions);
+    }
+}
@@ -0,0 +1,65 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.myfaces.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import jakarta.faces.component.UIViewRoot;
+import jakarta.faces.context.FacesContext;
+import jakarta.faces.event.PhaseId;
+import jakarta.faces.render.RenderKitFactory;
+
+import org.apache.myfaces.application.StateManagerImpl;
+import org.apache.myfaces.view.facelets.PartialStateManagementStrategy;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Saving and restoring the state of {@link MyFacesContainer#VIEW_ID} with the {@link PartialStateManagementStrategy}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class StateSavingBenchmark
+{
+    @Benchmark
+    public Object saveView(RenderedView view)
+    {
+        FacesContext context = view.getFacesContext();
+        // the saved state is kept by the request once the view has been saved
+        context.getAttributes().remove(StateManagerImpl.SERIALIZED_VIEW_REQUEST_ATTR);
+        return new PartialStateManagementStrategy(context).saveView(context);
+    }
+
+    @Benchmark
+    public UIViewRoot restoreView(Postback postback)
+    {
+        FacesContext context = postback.getFacesContext();
+        context.setCurrentPhaseId(PhaseId.RESTORE_VIEW);
+        return new PartialStateManagementStrategy(context).restoreView(context, MyFacesContainer.VIEW_ID,
+                RenderKitFactory.HTML_BASIC_RENDER_KIT);
+    }
+}
@@ -0,0 +1,98 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.myfaces.benchmarks;
+
+import java.util.Iterator;
+import java.util.concurrent.TimeUnit;
+
+import jakarta.faces.component.UIComponent;
+import jakarta.faces.context.ExternalContext;
+import jakarta.faces.context.FacesContext;
+
+import org.apache.myfaces.application.viewstate.StateUtils;
+import org.apache.myfaces.test.mock.MockServletContext;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Encoding the full state of {@link MyFacesContainer#VIEW_ID} for client side state saving with {@link StateUtils},
+ * and decoding it, with the default encryption. The partial state of the view is empty as long as it is not changed,
+ * the full state is the worst case.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class StateUtilsBenchmark
+{
+    @Param({ "false", "true" })
+    public String compress;
+
+    private ExternalContext externalContext;
+    private Object state;
+    private String encodedState;
+
+    @Setup(Level.Trial)
+    public void setUp(RenderedView view)
+    {
+        FacesContext context = view.getFacesContext();
+        externalContext = context.getExternalContext();
+        // read for each state
+        ((MockServletContext) externalContext.getContext()).addInitParameter(StateUtils.COMPRESS_STATE_IN_CLIENT,
+                compress);
+
+        UIComponent root = context.getViewRoot();
+        clearInitialState(root);
+        state = root.processSaveState(context);
+        encodedState = StateUtils.construct(state, externalContext);
+    }
+
+    @Benchmark
+    public String construct()
+    {
+        return StateUtils.construct(state, externalContext);
+    }
+
+    @Benchmark
+    public Object reconstruct()
+    {
+        return StateUtils.reconstruct(encodedState, externalContext);
+    }
+
+    private static void clearInitialState(UIComponent component)
+    {
+        component.clearInitialState();
+        for (Iterator<UIComponent> it = component.getFacetsAndChildren(); it.hasNext();)
+        {
+            clearInitialState(it.next());
+        }
+    }
+}
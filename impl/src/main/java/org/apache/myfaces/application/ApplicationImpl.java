@@ -115,6 +115,7 @@
 import org.apache.myfaces.context.RequestViewContext;
 import org.apache.myfaces.context.RequestViewMetadata;
 import org.apache.myfaces.el.DefaultELResolverBuilder;
+import org.apache.myfaces.el.RoutingCompositeELResolver;
 import org.apache.myfaces.flow.FlowHandlerImpl;
 import org.apache.myfaces.lifecycle.LifecycleImpl;
 import org.apache.myfaces.core.api.shared.lang.LambdaPropertyDescriptor;
@@ -276,7 +277,7 @@ public ApplicationImpl()
         
         elResolver = new Lazy<>(() ->
         {
-            CompositeELResolver celr = new CompositeELResolver();
+            CompositeELResolver celr = new RoutingCompositeELResolver();
 
             new DefaultELResolverBuilder(_runtimeConfig, _myfacesConfig)
                     .build(getFacesContext(), celr);
@@ -45,8 +45,17 @@
         private SystemEventListener listener;
     }
     
+    private static final EventInfo[] EMPTY_EVENT_INFOS = new EventInfo[0];
+
     private ConcurrentHashMap<Class<? extends SystemEvent>, List<EventInfo>> globalListeners
             = new ConcurrentHashMap<>();
+
+    /**
+     * The global listeners which apply to a source base type, by event class and source base type. The table of an
+     * event class is removed when its listeners change.
+     */
+    private ConcurrentHashMap<Class<? extends SystemEvent>, ConcurrentHashMap<Class<?>, EventInfo[]>> dispatchTables
+            = new ConcurrentHashMap<>();
     private ConcurrentHashMap<Class<? extends SystemEvent>, Constructor<? extends SystemEvent>> constructorCache
             = new ConcurrentHashMap<>();
     
@@ -98,8 +107,11 @@ public void publishEvent(FacesContext facesContext, Class<? extends SystemEvent>
 
             
             // global listeners
-            List<EventInfo> eventInfos = globalListeners.get(systemEventClass);
-            event = processGlobalListeners(facesContext, eventInfos, systemEventClass, source, event, sourceBaseType);
+            EventInfo[] eventInfos = getGlobalListeners(systemEventClass, sourceBaseType);
+            if (eventInfos.length > 0)
+            {
+                event = processGlobalListeners(facesContext, eventInfos, systemEventClass, source, event);
+            }
         }
         catch (AbortProcessingException e)
         {
@@ -135,6 +147,7 @@ public void subscribeToEvent(Class<? extends SystemEvent> systemEventClass, Clas
         eventInfo.listener = listener;
         
         eventInfos.add(eventInfo);
+        dispatchTables.remove(systemEventClass);
     }
     
     public void unsubscribeFromEvent(Class<? extends SystemEvent> systemEventClass, SystemEventListener listener)
@@ -162,10 +175,41 @@ public void unsubscribeFromEvent(Class<? extends SystemEvent> systemEventClass,
         {
             eventInfos.removeIf(e -> e.sourceClass == sourceClass && e.listener.equals(listener));
         }
+        dispatchTables.remove(systemEventClass);
     }
-    
-  
-    
+
+    /**
+     * @return the global listeners of the event class which apply to the source base type, in subscription order
+     */
+    protected EventInfo[] getGlobalListeners(Class<? extends SystemEvent> systemEventClass, Class<?> sourceBaseType)
+    {
+        List<EventInfo> eventInfos = globalListeners.get(systemEventClass);
+        if (eventInfos == null || eventInfos.isEmpty())
+        {
+            return EMPTY_EVENT_INFOS;
+        }
+
+        // the listeners are iterated after getting the table, only a table removed by a concurrent change can be
+        // filled with the listeners from before the change
+        ConcurrentHashMap<Class<?>, EventInfo[]> dispatchTable =
+                dispatchTables.computeIfAbsent(systemEventClass, k -> new ConcurrentHashMap<>());
+        EventInfo[] dispatch = dispatchTable.get(sourceBaseType);
+        if (dispatch == null)
+        {
+            List<EventInfo> applying = new ArrayList<>(eventInfos.size());
+            for (EventInfo eventInfo : eventInfos)
+            {
+                if (eventInfo.sourceClass == null || eventInfo.sourceClass.isAssignableFrom(sourceBaseType))
+                {
+                    applying.add(eventInfo);
+                }
+            }
+            dispatch = applying.isEmpty() ? EMPTY_EVENT_INFOS : applying.toArray(new EventInfo[applying.size()]);
+            dispatchTable.put(sourceBaseType, dispatch);
+        }
+        return dispatch;
+    }
+
     
     protected SystemEvent createEvent(Class<? extends SystemEvent> systemEventClass, FacesContext facesContext,
             Object source)
@@ -270,7 +314,18 @@ protected SystemEvent processViewAttachedListeners(FacesContext facesContext,
             return event;
         }
 
+        // The list can only change once a listener is invoked, it is not copied if no listener is for the source
         int processedListenerIndex = 0;
+        int size = listeners.size();
+        while (processedListenerIndex < size && !listeners.get(processedListenerIndex).isListenerForSource(source))
+        {
+            processedListenerIndex++;
+        }
+        if (processedListenerIndex == size)
+        {
+            return event;
+        }
+        boolean forSource = true;
 
         // Do it with a copy because the list could be changed during a event see MYFACES-2935
         List<SystemEventListener> listenersCopy = new ArrayList<>(listeners);
@@ -282,8 +337,10 @@ protected SystemEvent processViewAttachedListeners(FacesContext facesContext,
             for (; processedListenerIndex < listenersCopy.size(); processedListenerIndex++ )
             {
                 SystemEventListener listener = listenersCopy.get(processedListenerIndex);
-                if (listener.isListenerForSource(source))
+                if (forSource || listener.isListenerForSource(source))
                 {
+                    forSource = false;
+
                     // Lazy construct the event; zhis same event instance must be passed to all listener instances.
                     if (event == null)
                     {
@@ -345,22 +402,11 @@ protected SystemEvent processViewAttachedListeners(FacesContext facesContext,
         return event;
     }
     
-    protected SystemEvent processGlobalListeners(FacesContext facesContext, List<EventInfo> eventInfos,
-            Class<? extends SystemEvent> systemEventClass, Object source, SystemEvent event, Class<?> sourceBaseType)
+    protected SystemEvent processGlobalListeners(FacesContext facesContext, EventInfo[] eventInfos,
+            Class<? extends SystemEvent> systemEventClass, Object source, SystemEvent event)
     {
-        if (eventInfos == null || eventInfos.isEmpty())
+        for (EventInfo eventInfo : eventInfos)
         {
-            return event;
-        }
-        
-        for (int i  = 0, size = eventInfos.size(); i < size; i++)
-        {
-            EventInfo eventInfo = eventInfos.get(i);
-            if (eventInfo.sourceClass != null && !eventInfo.sourceClass.isAssignableFrom(sourceBaseType))
-            {
-                continue;
-            }
-
             if (eventInfo.listener.isListenerForSource(source))
             {
                 if (event == null)
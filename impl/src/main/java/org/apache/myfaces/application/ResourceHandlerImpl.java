@@ -24,6 +24,7 @@
 import org.apache.myfaces.resource.ResourceHandlerSupport;
 import org.apache.myfaces.resource.ResourceImpl;
 import org.apache.myfaces.resource.ResourceLoader;
+import org.apache.myfaces.resource.ResourceLoaderUtils;
 import org.apache.myfaces.resource.ResourceMeta;
 import org.apache.myfaces.resource.ResourceValidationUtils;
 import org.apache.myfaces.util.lang.ClassUtils;
@@ -45,7 +46,9 @@
 import java.io.InputStream;
 import java.io.OutputStream;
 import java.lang.annotation.Annotation;
+import java.net.URL;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
@@ -198,9 +201,7 @@ libraryName, isAllowSlashesLibraryName()))
         if(resourceValue != null)
         {
             resource = new ResourceImpl(resourceValue.getResourceMeta(), resourceValue.getResourceLoader(),
-                    getResourceHandlerSupport(), contentType, 
-                    resourceValue.getCachedInfo() != null ? resourceValue.getCachedInfo().getURL() : null, 
-                    resourceValue.getCachedInfo() != null ? resourceValue.getCachedInfo().getRequestPath() : null);
+                    getResourceHandlerSupport(), contentType, resourceValue.getCachedInfo());
         }
         else
         {
@@ -214,13 +215,14 @@ libraryName, isAllowSlashesLibraryName()))
                         localePrefix, contractPreferred);
                     if (resourceMeta != null)
                     {
-                        resource = new ResourceImpl(resourceMeta, loader, 
+                        ResourceImpl resourceImpl = new ResourceImpl(resourceMeta, loader, 
                             getResourceHandlerSupport(), contentType);
+                        resource = resourceImpl;
 
                         // cache it
                         getResourceHandlerCache().putResource(resourceName, libraryName, contentType,
                                 localePrefix, contractPreferred, resourceMeta, loader, 
-                                new ResourceCachedInfo(resource.getURL(), resource.getRequestPath()));
+                                resourceImpl.createCachedInfo());
                         resolved = true;
                         break;
                     }
@@ -238,14 +240,15 @@ libraryName, isAllowSlashesLibraryName()))
                             localePrefix, contract);
                         if (resourceMeta != null)
                         {
-                            resource = new ResourceImpl(resourceMeta, loader, 
+                            ResourceImpl resourceImpl = new ResourceImpl(resourceMeta, loader, 
                                 getResourceHandlerSupport(), contentType);
+                            resource = resourceImpl;
 
                             // cache it
                             getResourceHandlerCache().putResource(
                                     resourceName, libraryName, contentType,
                                     localePrefix, contract, resourceMeta, loader,
-                                    new ResourceCachedInfo(resource.getURL(), resource.getRequestPath()));
+                                    resourceImpl.createCachedInfo());
                             resolved = true;
                             break;
                         }
@@ -261,13 +264,14 @@ libraryName, isAllowSlashesLibraryName()))
 
                     if (resourceMeta != null)
                     {
-                        resource = new ResourceImpl(
+                        ResourceImpl resourceImpl = new ResourceImpl(
                             resourceMeta, loader, getResourceHandlerSupport(), contentType);
+                        resource = resourceImpl;
 
                         // cache it
                         getResourceHandlerCache().putResource(resourceName, libraryName, contentType,
                                 localePrefix, null, resourceMeta, loader, 
-                                new ResourceCachedInfo(resource.getURL(), resource.getRequestPath()));
+                                resourceImpl.createCachedInfo());
                         break;
                     }
                 }
@@ -567,8 +571,44 @@ libraryName, isAllowSlashesLibraryName()))
             return;
         }
 
-        if (!resource.userAgentNeedsUpdate(facesContext))
+        String entityTag = null;
+        String contentEncoding = null;
+        URL encodedURL = null;
+        Map<String, URL> encodedURLs = Collections.emptyMap();
+        if (resource instanceof ResourceImpl && getResourceHandlerCache().isResourceHandlerCacheEnabled())
+        {
+            ResourceImpl resourceImpl = (ResourceImpl) resource;
+            entityTag = resourceImpl.getEntityTag();
+            encodedURLs = resourceImpl.getEncodedURLs();
+            if (!encodedURLs.isEmpty())
+            {
+                String acceptEncoding = extContext.getRequestHeaderMap().get("Accept-Encoding");
+                for (Map.Entry<String, URL> entry : encodedURLs.entrySet())
+                {
+                    if (isEncodingAccepted(acceptEncoding, entry.getKey()))
+                    {
+                        contentEncoding = entry.getKey();
+                        encodedURL = entry.getValue();
+                        break;
+                    }
+                }
+            }
+            if (entityTag != null && contentEncoding != null)
+            {
+                // each representation must have its own strong entity tag
+                entityTag = entityTag.substring(0, entityTag.length() - 1) + '-' + contentEncoding + '"';
+            }
+        }
+
+        // If-None-Match takes precedence over If-Modified-Since (RFC 7232 section 6)
+        String ifNoneMatch = entityTag == null ? null : extContext.getRequestHeaderMap().get("If-None-Match");
+        boolean notModified = ifNoneMatch != null
+                ? matchesEntityTag(ifNoneMatch, entityTag)
+                : !resource.userAgentNeedsUpdate(facesContext);
+        if (notModified)
         {
+            // the 304 updates the cached response, so it carries the same cache headers (RFC 7232 section 4.1)
+            setCacheHeaders(httpServletResponse, resource.getResponseHeaders(), entityTag, !encodedURLs.isEmpty());
             httpServletResponse.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
             return;
         }
@@ -576,19 +616,63 @@ libraryName, isAllowSlashesLibraryName()))
         httpServletResponse.setContentType(_getContentType(resource, facesContext.getExternalContext()));
 
         Map<String, String> headers = resource.getResponseHeaders();
-
-        for (Map.Entry<String, String> entry : headers.entrySet())
+        setCacheHeaders(httpServletResponse, headers, entityTag, !encodedURLs.isEmpty());
+        if (contentEncoding != null)
         {
-            httpServletResponse.setHeader(entry.getKey(), entry.getValue());
+            httpServletResponse.setHeader("Content-Encoding", contentEncoding);
         }
 
         // Sets the preferred buffer size for the body of the response
         extContext.setResponseBufferSize(this.getResourceBufferSize());
 
+        long contentLength = encodedURL == null && resource instanceof ResourceImpl
+                ? ((ResourceImpl) resource).getContentLength()
+                : -1;
+
         //serve up the bytes (taken from trinidad ResourceServlet)
         try
         {
-            InputStream in = resource.getInputStream();
+            if (contentLength >= 0 && contentLength <= Integer.MAX_VALUE)
+            {
+                // the length is known upfront, so the loader can transfer the content directly
+                httpServletResponse.setHeader("Accept-Ranges", "bytes");
+                long offset = 0;
+                long length = contentLength;
+
+                String range = extContext.getRequestHeaderMap().get("Range");
+                if (range != null && isIfRangeSatisfied(extContext.getRequestHeaderMap().get("If-Range"),
+                        entityTag, headers.get("Last-Modified")))
+                {
+                    long[] byteRange = parseByteRange(range, contentLength);
+                    if (byteRange != null && byteRange.length == 0)
+                    {
+                        httpServletResponse.setHeader("Content-Range", "bytes */" + contentLength);
+                        httpServletResponse.setStatus(HttpServletResponse.SC_REQUESTED_RANGE_NOT_SATISFIABLE);
+                        return;
+                    }
+                    if (byteRange != null)
+                    {
+                        offset = byteRange[0];
+                        length = byteRange[1] - byteRange[0] + 1;
+                        httpServletResponse.setStatus(HttpServletResponse.SC_PARTIAL_CONTENT);
+                        httpServletResponse.setHeader("Content-Range",
+                                "bytes " + byteRange[0] + '-' + byteRange[1] + '/' + contentLength);
+                    }
+                }
+
+                httpServletResponse.setContentLength((int) length);
+                try (OutputStream out = httpServletResponse.getOutputStream())
+                {
+                    long written = ((ResourceImpl) resource).writeTo(out, offset, length);
+                    if (written != length)
+                    {
+                        abortResponse(httpServletResponse, resourceName, libraryName, written, length);
+                    }
+                }
+                return;
+            }
+
+            InputStream in = encodedURL != null ? encodedURL.openStream() : resource.getInputStream();
             OutputStream out = httpServletResponse.getOutputStream();
             byte[] buffer = new byte[this.getResourceBufferSize()];
 
@@ -636,6 +720,217 @@ libraryName, isAllowSlashesLibraryName()))
         }
     }
 
+    /**
+     * Checks if the content coding is acceptable according to the Accept-Encoding header, either by name
+     * or by the "*" wildcard, and not excluded with q=0. The coding given by name takes precedence.
+     */
+    private static boolean isEncodingAccepted(String acceptEncoding, String encoding)
+    {
+        if (acceptEncoding == null)
+        {
+            return false;
+        }
+
+        boolean wildcardAccepted = false;
+        for (String value : acceptEncoding.split(","))
+        {
+            int separator = value.indexOf(';');
+            String coding = (separator < 0 ? value : value.substring(0, separator)).trim();
+            if (coding.equalsIgnoreCase(encoding))
+            {
+                return isQualityAccepted(value, separator);
+            }
+            if ("*".equals(coding))
+            {
+                wildcardAccepted = isQualityAccepted(value, separator);
+            }
+        }
+        return wildcardAccepted;
+    }
+
+    private static boolean isQualityAccepted(String value, int separator)
+    {
+        if (separator >= 0)
+        {
+            String parameter = value.substring(separator + 1).trim();
+            if (parameter.startsWith("q="))
+            {
+                try
+                {
+                    return Float.parseFloat(parameter.substring(2).trim()) > 0;
+                }
+                catch (NumberFormatException e)
+                {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * The content written does not match the Content-Length already set, e.g. because the resource was removed
+     * (written is -1) or shortened since it was created. If nothing was sent yet, the response is replaced by a
+     * 404, otherwise the client detects the truncated content by its length, the container closes the connection.
+     */
+    private static void abortResponse(HttpServletResponse httpServletResponse, String resourceName,
+            String libraryName, long written, long length)
+    {
+        if (written >= 0 && log.isLoggable(Level.WARNING))
+        {
+            log.warning("Sent only " + written + " of " + length + " bytes of resource " + resourceName
+                    + " with library " + libraryName);
+        }
+        else if (written < 0 && log.isLoggable(Level.FINE))
+        {
+            log.fine("Resource " + resourceName + " with library " + libraryName + " does not exist anymore");
+        }
+
+        if (!httpServletResponse.isCommitted())
+        {
+            httpServletResponse.reset();
+            httpServletResponse.setStatus(HttpServletResponse.SC_NOT_FOUND);
+        }
+    }
+
+    /**
+     * Sets the headers of the resource, its entity tag and, if precompressed representations exist,
+     * the Vary header, sent with the content as well as with a 304.
+     */
+    private static void setCacheHeaders(HttpServletResponse httpServletResponse, Map<String, String> headers,
+            String entityTag, boolean varyEncoding)
+    {
+        for (Map.Entry<String, String> entry : headers.entrySet())
+        {
+            httpServletResponse.setHeader(entry.getKey(), entry.getValue());
+        }
+
+        if (entityTag != null)
+        {
+            httpServletResponse.setHeader("ETag", entityTag);
+        }
+        if (varyEncoding)
+        {
+            httpServletResponse.setHeader("Vary", "Accept-Encoding");
+        }
+    }
+
+    /**
+     * Compares the If-None-Match header with the entity tag, using the weak comparison as required
+     * by RFC 7232.
+     */
+    private static boolean matchesEntityTag(String ifNoneMatch, String entityTag)
+    {
+        if ("*".equals(ifNoneMatch.trim()))
+        {
+            return true;
+        }
+
+        for (String value : ifNoneMatch.split(","))
+        {
+            String tag = value.trim();
+            if (tag.startsWith("W/"))
+            {
+                tag = tag.substring(2);
+            }
+            if (tag.equals(entityTag))
+            {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Checks the If-Range header, which makes the Range request conditional to an unchanged
+     * representation: the entity tag must match with the strong comparison, or the date must be
+     * exactly the last modification date.
+     */
+    private static boolean isIfRangeSatisfied(String ifRange, String entityTag, String lastModified)
+    {
+        if (ifRange == null)
+        {
+            return true;
+        }
+
+        String value = ifRange.trim();
+        if (value.startsWith("\"") || value.startsWith("W/"))
+        {
+            return value.equals(entityTag);
+        }
+
+        if (lastModified == null)
+        {
+            return false;
+        }
+        Long date = ResourceLoaderUtils.parseDateHeader(value);
+        return date != null && date.equals(ResourceLoaderUtils.parseDateHeader(lastModified));
+    }
+
+    /**
+     * Parses a Range header with a single byte range, as defined by RFC 7233.
+     * 
+     * @return the first and last byte positions, an empty array if the range cannot be satisfied,
+     *         or null if the header is not supported and the full content should be served
+     */
+    private static long[] parseByteRange(String range, long contentLength)
+    {
+        String value = range.trim();
+        if (!value.startsWith("bytes=") || value.indexOf(',') >= 0)
+        {
+            return null;
+        }
+
+        int separator = value.indexOf('-');
+        if (separator < 0)
+        {
+            return null;
+        }
+
+        try
+        {
+            String first = value.substring(6, separator).trim();
+            String last = value.substring(separator + 1).trim();
+            long start;
+            long end;
+            if (first.isEmpty())
+            {
+                // suffix range: the last N bytes
+                long suffix = Long.parseLong(last);
+                if (suffix <= 0)
+                {
+                    return new long[0];
+                }
+                start = Math.max(0, contentLength - suffix);
+                end = contentLength - 1;
+            }
+            else
+            {
+                start = Long.parseLong(first);
+                end = last.isEmpty() ? Long.MAX_VALUE : Long.parseLong(last);
+                if (end < start)
+                {
+                    return null;
+                }
+                end = Math.min(end, contentLength - 1);
+            }
+
+            if (start < 0)
+            {
+                return null;
+            }
+            if (start >= contentLength)
+            {
+                return new long[0];
+            }
+            return new long[] { start, end };
+        }
+        catch (NumberFormatException e)
+        {
+            return null;
+        }
+    }
+
     private static boolean isConnectionAbort(IOException e)
     {
         return e.getClass().getCanonicalName().equals("org.apache.catalina.connector.ClientAbortException")
@@ -1031,9 +1326,7 @@ public Resource createResourceFromId(String resourceId)
                 resourceValue.getResourceMeta().getResourceName());
 
             resource = new ResourceImpl(resourceValue.getResourceMeta(), resourceValue.getResourceLoader(),
-                    getResourceHandlerSupport(), contentType,
-                    resourceValue.getCachedInfo() != null ? resourceValue.getCachedInfo().getURL() : null, 
-                    resourceValue.getCachedInfo() != null ? resourceValue.getCachedInfo().getRequestPath() : null);
+                    getResourceHandlerSupport(), contentType, resourceValue.getCachedInfo());
         }
         else
         {
@@ -1049,12 +1342,13 @@ public Resource createResourceFromId(String resourceId)
                         String contentType = facesContext.getExternalContext().getMimeType(
                             resourceMeta.getResourceName());
                         
-                        resource = new ResourceImpl(resourceMeta, loader, 
+                        ResourceImpl resourceImpl = new ResourceImpl(resourceMeta, loader, 
                             getResourceHandlerSupport(), contentType);
+                        resource = resourceImpl;
 
                         // cache it
                         getResourceHandlerCache().putResource(resourceId, resourceMeta, loader, 
-                            new ResourceCachedInfo(resource.getURL(), resource.getRequestPath()));
+                            resourceImpl.createCachedInfo());
                         
                         resolved = true;
                         break;
@@ -1075,12 +1369,13 @@ public Resource createResourceFromId(String resourceId)
                             String contentType = facesContext.getExternalContext().getMimeType(
                                 resourceMeta.getResourceName());
 
-                            resource = new ResourceImpl(resourceMeta, loader, 
+                            ResourceImpl resourceImpl = new ResourceImpl(resourceMeta, loader, 
                                 getResourceHandlerSupport(), contentType);
+                            resource = resourceImpl;
 
                             // cache it
                             getResourceHandlerCache().putResource(resourceId, resourceMeta, loader, 
-                                new ResourceCachedInfo(resource.getURL(), resource.getRequestPath()));
+                                resourceImpl.createCachedInfo());
 
                             resolved = true;
                             break;
@@ -1099,11 +1394,13 @@ public Resource createResourceFromId(String resourceId)
                         String contentType = facesContext.getExternalContext().getMimeType(
                             resourceMeta.getResourceName());
 
-                        resource = new ResourceImpl(resourceMeta, loader, getResourceHandlerSupport(), contentType);
+                        ResourceImpl resourceImpl = new ResourceImpl(resourceMeta, loader,
+                                getResourceHandlerSupport(), contentType);
+                        resource = resourceImpl;
 
                         // cache it
                         getResourceHandlerCache().putResource(resourceId, resourceMeta, loader, 
-                            new ResourceCachedInfo(resource.getURL(), resource.getRequestPath()));
+                            resourceImpl.createCachedInfo());
                         break;
                     }
                 }
@@ -19,44 +19,60 @@
 package org.apache.myfaces.application.viewstate;
 
 import java.io.Serializable;
-import java.util.ArrayList;
-import java.util.HashMap;
-import java.util.List;
+import java.util.Collections;
 import java.util.Map;
-import java.util.logging.Logger;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
 import jakarta.faces.context.FacesContext;
+import jakarta.faces.lifecycle.ClientWindow;
 import java.util.function.Consumer;
 import org.apache.myfaces.cdi.view.ViewScopeContext;
 import org.apache.myfaces.config.webparameters.MyfacesConfig;
 import org.apache.myfaces.util.lang.LRULinkedHashMap;
 
 /**
+ * Holds the serialized views of a session.
  *
+ * <p>Parallel requests of the same session (multiple tabs, polling components) can store and restore
+ * views at the same time, so the collection avoids a global monitor: the views are kept in concurrent maps,
+ * the least recently used view is found through a per-entry stamp and only the precedence chain of
+ * sequential views is guarded, by a lock striped by client window id.</p>
  */
 class SerializedViewCollection implements Serializable
 {
-    private static final Logger log = Logger.getLogger(SerializedViewCollection.class.getName());
-
     private static final Object[] EMPTY_STATES = new Object[]{null, null};
 
-    private static final long serialVersionUID = -3734849062185115847L;
+    private static final long serialVersionUID = -2597351446227546716L;
+
+    private static final int WINDOW_LOCKS = 16;
 
-    private final List<SerializedViewKey> _keys = new ArrayList<>(MyfacesConfig.NUMBER_OF_VIEWS_IN_SESSION_DEFAULT);
-    private final Map<SerializedViewKey, Object> _serializedViews = new HashMap<>();
+    private final Map<SerializedViewKey, Entry> _serializedViews = new ConcurrentHashMap<>();
 
     /**
      * The viewScopeIds can be shared between multiple entries of the same
-     * view. To store it into session, the best is use two maps, one to 
-     * associate the view key with the view scope id and other to keep track 
+     * view. The view scope id is stored with the entry and this map keeps track 
      * of the number of times the id is used. In that way it is possible to
      * know when a view scope id has been discarded and destroy the view scope
      * in the right time.
      */
-    private HashMap<SerializedViewKey, String> _viewScopeIds = null;
-    private HashMap<String, Integer> _viewScopeIdCounts = null;
+    private final Map<String, Integer> _viewScopeIdCounts = new ConcurrentHashMap<>();
+
+    private final Map<SerializedViewKey, SerializedViewKey> _precedence = new ConcurrentHashMap<>();
+    private volatile Map<String, SerializedViewKey> _lastWindowKeys = null;
+
+    /**
+     * Source of the stamps used to know the least recently stored view.
+     */
+    private final AtomicLong _clock = new AtomicLong();
 
-    private final Map<SerializedViewKey, SerializedViewKey> _precedence = new HashMap<>();
-    private Map<String, SerializedViewKey> _lastWindowKeys = null;
+    /**
+     * Identifies the entries of this collection inside the {@link ViewStateStore}, if any. The session id
+     * cannot be used, because it can change during the lifetime of the session.
+     */
+    private final String _storeId = UUID.randomUUID().toString();
+
+    private transient volatile Object[] _windowLocks;
 
     public void put(FacesContext context, Object state, SerializedViewKey key, SerializedViewKey previousRestoredKey)
     {
@@ -64,16 +80,27 @@ public void put(FacesContext context, Object state, SerializedViewKey key, Seria
                 (oldViewScopeId) -> ViewScopeContext.destroyAll(context, oldViewScopeId));
     }
     
-    public synchronized void put(FacesContext context, Object state, 
+    public void put(FacesContext context, Object state, 
         SerializedViewKey key, SerializedViewKey previousRestoredKey, String viewScopeId)
     {
         put(context, state, key, previousRestoredKey, viewScopeId,
             (oldViewScopeId) -> ViewScopeContext.destroyAll(context, oldViewScopeId));
     }
 
-    public synchronized void put(FacesContext context, Object state, 
+    public void put(FacesContext context, Object state, 
         SerializedViewKey key, SerializedViewKey previousRestoredKey, String viewScopeId,
         Consumer<String> destroyCallback)
+    {
+        put(context, state, key, previousRestoredKey, viewScopeId, destroyCallback, null);
+    }
+
+    /**
+     * @param state the state to store or the key itself, if the state has been stored in a {@link ViewStateStore}
+     * @param discardCallback invoked with the keys of the discarded states held in a {@link ViewStateStore}
+     */
+    public void put(FacesContext context, Object state, 
+        SerializedViewKey key, SerializedViewKey previousRestoredKey, String viewScopeId,
+        Consumer<String> destroyCallback, Consumer<SerializedViewKey> discardCallback)
     {
         if (state == null)
         {
@@ -89,64 +116,110 @@ else if (state instanceof Object[] &&
             state = null;
         }
 
-        if (_serializedViews.containsKey(key))
+        final Object newState = state;
+        final long stamp = _clock.incrementAndGet();
+        final boolean[] updated = new boolean[1];
+        final Object[] oldState = new Object[1];
+        final boolean empty = _serializedViews.isEmpty();
+
+        _serializedViews.compute(key, (k, entry) ->
         {
+            if (entry == null)
+            {
+                // Count the view scope id before the entry is visible, so a parallel discard
+                // of the entry always finds it.
+                if (viewScopeId != null)
+                {
+                    _viewScopeIdCounts.merge(viewScopeId, 1, Integer::sum);
+                }
+                return new Entry(newState, viewScopeId, stamp);
+            }
             // Update the state, the viewScopeId does not change.
-            _serializedViews.put(key, state);
             // Make sure the view is at the end of the discard queue
-            while (_keys.remove(key))
+            updated[0] = true;
+            oldState[0] = entry.state;
+            entry.state = newState;
+            entry.stamp = stamp;
+            return entry;
+        });
+
+        if (updated[0])
+        {
+            if (!(newState instanceof SerializedViewKey))
             {
-                // do nothing
+                discardStoredView(key, oldState[0], discardCallback);
             }
-            _keys.add(key);
             return;
         }
 
         Integer maxCount = getNumberOfSequentialViewsInSession(context);
-        if (maxCount != null)
+        if (previousRestoredKey != null && maxCount != null)
         {
-            if (previousRestoredKey != null)
+            // Note when the session is invalidated, _serializedViews map is empty,
+            // but we could have a not null previousRestoredKey (the last one before
+            // invalidate the session), so we need to check that condition before
+            // set the precence. In that way, we ensure the precedence map will always
+            // have valid keys.
+            if (!empty)
             {
-                if (!_serializedViews.isEmpty())
-                {
-                    _precedence.put(key, previousRestoredKey);
-                }
-                else
+                _precedence.put(key, previousRestoredKey);
+
+                if (maxCount > 0)
                 {
-                    // Note when the session is invalidated, _serializedViews map is empty,
-                    // but we could have a not null previousRestoredKey (the last one before
-                    // invalidate the session), so we need to check that condition before
-                    // set the precence. In that way, we ensure the precedence map will always
-                    // have valid keys.
-                    previousRestoredKey = null;
+                    discardPrecedingViews(context, key, maxCount, destroyCallback, discardCallback);
                 }
             }
         }
-        _serializedViews.put(key, state);
-        
-        if (viewScopeId != null)
+
+        int views = getNumberOfViewsInSession(context);
+        while (_serializedViews.size() > views)
         {
-            if (_viewScopeIds == null)
+            Map.Entry<SerializedViewKey, Entry> eldest = null;
+            for (Map.Entry<SerializedViewKey, Entry> current : _serializedViews.entrySet())
+            {
+                if (eldest == null || current.getValue().stamp < eldest.getValue().stamp)
+                {
+                    eldest = current;
+                }
+            }
+            if (eldest == null)
             {
-                _viewScopeIds = new HashMap<>();
+                break;
             }
-            _viewScopeIds.put(key, viewScopeId);
-            if (_viewScopeIdCounts == null)
+
+            // If other request has removed or updated the entry, try again
+            SerializedViewKey eldestKey = eldest.getKey();
+            Entry eldestEntry = eldest.getValue();
+            if (!_serializedViews.remove(eldestKey, eldestEntry))
             {
-                _viewScopeIdCounts = new HashMap<>();
+                continue;
             }
-            Integer vscount = _viewScopeIdCounts.get(viewScopeId);
-            vscount = (vscount == null) ? 1 : vscount + 1;
-            _viewScopeIdCounts.put(viewScopeId, vscount);
-        }
 
-        while (_keys.remove(key))
-        {
-            // do nothing
+            if (maxCount != null && maxCount > 0)
+            {
+                SerializedViewKey keyToRemove = eldestKey;
+                // Note in this case the key to delete is the oldest one,
+                // so it could be at least one precedence, but to be safe
+                // do it with a loop.
+                do
+                {
+                    keyToRemove = _precedence.remove(keyToRemove);
+                }
+                while (keyToRemove != null);
+            }
+
+            discardEntry(eldestKey, eldestEntry, destroyCallback, discardCallback);
         }
-        _keys.add(key);
+    }
 
-        if (previousRestoredKey != null && maxCount != null && maxCount > 0)
+    /**
+     * Discards the views that exceeds the number of sequential views allowed for the chain of the given key.
+     * Each chain belongs to a client window, so the chain is guarded by a lock striped by window id.
+     */
+    private void discardPrecedingViews(FacesContext context, SerializedViewKey key, int maxCount,
+            Consumer<String> destroyCallback, Consumer<SerializedViewKey> discardCallback)
+    {
+        synchronized (getWindowLock(context))
         {
             int count = 0;
             SerializedViewKey previousKey = key;
@@ -165,30 +238,10 @@ else if (state instanceof Object[] &&
                 // put on that map.
                 do
                 {
-                    while (_keys.remove(keyToRemove))
-                    {
-                        // do nothing
-                    }
-
-                    _serializedViews.remove(keyToRemove);
-                    
-                    if (_viewScopeIds != null)
+                    Entry entry = _serializedViews.remove(keyToRemove);
+                    if (entry != null)
                     {
-                        String oldViewScopeId = _viewScopeIds.remove(keyToRemove);
-                        if (oldViewScopeId != null)
-                        {
-                            Integer vscount = _viewScopeIdCounts.get(oldViewScopeId);
-                            vscount = vscount - 1;
-                            if (vscount < 1)
-                            {
-                                _viewScopeIdCounts.remove(oldViewScopeId);
-                                destroyCallback.accept(oldViewScopeId);
-                            }
-                            else
-                            {
-                                _viewScopeIdCounts.put(oldViewScopeId, vscount);
-                            }
-                        }
+                        discardEntry(keyToRemove, entry, destroyCallback, discardCallback);
                     }
 
                     keyToRemove = _precedence.remove(keyToRemove);
@@ -196,46 +249,78 @@ else if (state instanceof Object[] &&
                 while (keyToRemove != null);
             }
         }
-        int views = getNumberOfViewsInSession(context);
-        while (_keys.size() > views)
+    }
+
+    private Object getWindowLock(FacesContext context)
+    {
+        Object[] locks = _windowLocks;
+        if (locks == null)
         {
-            key = _keys.remove(0);
-            if (maxCount != null && maxCount > 0)
+            // a race here only means some requests use a different set of locks for a moment
+            locks = new Object[WINDOW_LOCKS];
+            for (int i = 0; i < locks.length; i++)
             {
-                SerializedViewKey keyToRemove = key;
-                // Note in this case the key to delete is the oldest one,
-                // so it could be at least one precedence, but to be safe
-                // do it with a loop.
-                do
-                {
-                    keyToRemove = _precedence.remove(keyToRemove);
-                }
-                while (keyToRemove != null);
+                locks[i] = new Object();
             }
+            _windowLocks = locks;
+        }
+
+        ClientWindow clientWindow = context.getExternalContext().getClientWindow();
+        String windowId = clientWindow == null ? null : clientWindow.getId();
+        int hash = windowId == null ? 0 : windowId.hashCode();
+        return locks[(hash ^ (hash >>> 16)) & (WINDOW_LOCKS - 1)];
+    }
 
-            _serializedViews.remove(key);
-            
-            if (_viewScopeIds != null)
+    private void discardEntry(SerializedViewKey key, Entry entry, Consumer<String> destroyCallback,
+            Consumer<SerializedViewKey> discardCallback)
+    {
+        discardStoredView(key, entry.state, discardCallback);
+
+        String oldViewScopeId = entry.viewScopeId;
+        if (oldViewScopeId != null)
+        {
+            boolean[] destroy = new boolean[1];
+            _viewScopeIdCounts.computeIfPresent(oldViewScopeId, (id, vscount) ->
             {
-                String oldViewScopeId = _viewScopeIds.remove(key);
-                if (oldViewScopeId != null)
+                if (vscount <= 1)
                 {
-                    Integer vscount = _viewScopeIdCounts.get(oldViewScopeId);
-                    vscount = vscount - 1;
-                    if (vscount < 1)
-                    {
-                        _viewScopeIdCounts.remove(oldViewScopeId);
-                        destroyCallback.accept(oldViewScopeId);
-                    }
-                    else
-                    {
-                        _viewScopeIdCounts.put(oldViewScopeId, vscount);
-                    }
+                    destroy[0] = true;
+                    return null;
                 }
+                return vscount - 1;
+            });
+            if (destroy[0])
+            {
+                destroyCallback.accept(oldViewScopeId);
             }
         }
     }
 
+    private void discardStoredView(SerializedViewKey key, Object state, Consumer<SerializedViewKey> discardCallback)
+    {
+        // If the state is held by a ViewStateStore, only the key is stored in the map
+        if (state instanceof SerializedViewKey && discardCallback != null)
+        {
+            discardCallback.accept(key);
+        }
+    }
+
+    /**
+     * Invokes the callback with the keys of all the states held by a {@link ViewStateStore}.
+     */
+    public void discardStoredViews(Consumer<SerializedViewKey> discardCallback)
+    {
+        for (Map.Entry<SerializedViewKey, Entry> entry : _serializedViews.entrySet())
+        {
+            discardStoredView(entry.getKey(), entry.getValue().state, discardCallback);
+        }
+    }
+
+    public String getStoreId()
+    {
+        return _storeId;
+    }
+
     protected Integer getNumberOfSequentialViewsInSession(FacesContext context)
     {
         return MyfacesConfig.getCurrentInstance(context).getNumberOfSequentialViewsInSession();
@@ -252,42 +337,55 @@ protected int getNumberOfViewsInSession(FacesContext context)
         return MyfacesConfig.getCurrentInstance(context).getNumberOfViewsInSession();
     }
 
-    public synchronized void putLastWindowKey(FacesContext context, String id, SerializedViewKey key)
+    public void putLastWindowKey(FacesContext context, String id, SerializedViewKey key)
     {
-        if (_lastWindowKeys == null)
+        Map<String, SerializedViewKey> lastWindowKeys = _lastWindowKeys;
+        if (lastWindowKeys == null)
         {
-            Integer i = getNumberOfSequentialViewsInSession(context);
-            int j = getNumberOfViewsInSession(context);
-            if (i != null && i> 0)
-            {
-                _lastWindowKeys = new LRULinkedHashMap<>((j / i) + 1);
-            }
-            else
+            synchronized (this)
             {
-                _lastWindowKeys = new LRULinkedHashMap(j + 1);
+                lastWindowKeys = _lastWindowKeys;
+                if (lastWindowKeys == null)
+                {
+                    Integer i = getNumberOfSequentialViewsInSession(context);
+                    int j = getNumberOfViewsInSession(context);
+                    if (i != null && i> 0)
+                    {
+                        lastWindowKeys = Collections.synchronizedMap(new LRULinkedHashMap<>((j / i) + 1));
+                    }
+                    else
+                    {
+                        lastWindowKeys = Collections.synchronizedMap(new LRULinkedHashMap<>(j + 1));
+                    }
+                    _lastWindowKeys = lastWindowKeys;
+                }
             }
         }
-        _lastWindowKeys.put(id, key);
+        lastWindowKeys.put(id, key);
     }
 
     public SerializedViewKey getLastWindowKey(FacesContext context, String id)
     {
-        if (_lastWindowKeys != null)
+        Map<String, SerializedViewKey> lastWindowKeys = _lastWindowKeys;
+        if (lastWindowKeys != null)
         {
-            return _lastWindowKeys.get(id);
+            return lastWindowKeys.get(id);
         }
         return null;
     }
 
     public Object get(SerializedViewKey key)
     {
-        Object value = _serializedViews.get(key);
+        Entry entry = _serializedViews.get(key);
+        if (entry == null)
+        {
+            return null;
+        }
+
+        Object value = entry.state;
         if (value == null)
         {
-            if (_serializedViews.containsKey(key))
-            {
-                return EMPTY_STATES;
-            }
+            return EMPTY_STATES;
         }
         else if (value instanceof Object[] &&
             ((Object[])value).length == 2 &&
@@ -299,4 +397,20 @@ else if (value instanceof Object[] &&
         }
         return value;
     }
+
+    private static final class Entry implements Serializable
+    {
+        private static final long serialVersionUID = 4183672458313493473L;
+
+        private volatile Object state;
+        private final String viewScopeId;
+        private volatile long stamp;
+
+        Entry(Object state, String viewScopeId, long stamp)
+        {
+            this.state = state;
+            this.viewScopeId = viewScopeId;
+            this.stamp = stamp;
+        }
+    }
 }
@@ -32,6 +32,7 @@
 import java.security.PrivilegedActionException;
 import java.security.PrivilegedExceptionAction;
 import java.util.Map;
+import java.util.function.Consumer;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import java.util.zip.GZIPInputStream;
@@ -42,9 +43,11 @@
 import jakarta.faces.context.FacesContext;
 import jakarta.faces.lifecycle.ClientWindow;
 
+import org.apache.myfaces.cdi.view.ViewScopeContext;
 import org.apache.myfaces.config.webparameters.MyfacesConfig;
 import org.apache.myfaces.context.flash.FlashImpl;
 import org.apache.myfaces.renderkit.RendererUtils;
+import org.apache.myfaces.spi.SerialFactory;
 import org.apache.myfaces.util.MyFacesObjectInputStream;
 import org.apache.myfaces.view.ViewScopeProxyMap;
 
@@ -73,6 +76,7 @@ class StateCacheServerSide extends StateCache<Object, Object>
     private final int numberOfSequentialViewsInSession;
     private final boolean serializeStateInSession;
     private final boolean compressStateInSession;
+    private final SerialFactory serialFactory;
 
     private final SessionViewStorageFactory sessionViewStorageFactory;
     private final CsrfSessionTokenFactory csrfSessionTokenFactory;
@@ -86,17 +90,26 @@ public StateCacheServerSide()
         useFlashScopePurgeViewsInSession = !config.isFlashScopeDisabled()
                 && config.isUseFlashScopePurgeViewsInSession();
         numberOfSequentialViewsInSession = config.getNumberOfSequentialViewsInSession();
-        serializeStateInSession = config.isSerializeStateInSession();
         compressStateInSession = config.isCompressStateInSession();
+        // resolved once, because a view can be deserialized without FacesContext and must be read with the
+        // same format it was written with
+        serialFactory = (SerialFactory) facesContext.getExternalContext().getApplicationMap()
+                .get(StateUtils.SERIAL_FACTORY);
+
+        // A ViewStateStore can only hold serialized views
+        ViewStateStore viewStateStore = ViewStateStore.createViewStateStore(facesContext);
+        serializeStateInSession = config.isSerializeStateInSession() || viewStateStore != null;
         
         String randomMode = config.getRandomKeyInViewStateSessionToken();
         if (MyfacesConfig.RANDOM_KEY_IN_VIEW_STATE_SESSION_TOKEN_SECURE_RANDOM.equals(randomMode))
         {
-            sessionViewStorageFactory = new SessionViewStorageFactoryImpl(new KeyFactorySecureRandom(facesContext));
+            sessionViewStorageFactory = new SessionViewStorageFactoryImpl(new KeyFactorySecureRandom(facesContext),
+                    viewStateStore);
         }
         else if (MyfacesConfig.RANDOM_KEY_IN_VIEW_STATE_SESSION_TOKEN_RANDOM.equals(randomMode))
         {
-            sessionViewStorageFactory = new SessionViewStorageFactoryImpl(new KeyFactoryRandom(facesContext));
+            sessionViewStorageFactory = new SessionViewStorageFactoryImpl(new KeyFactoryRandom(facesContext),
+                    viewStateStore);
         }
         else
         {
@@ -106,7 +119,8 @@ else if (MyfacesConfig.RANDOM_KEY_IN_VIEW_STATE_SESSION_TOKEN_RANDOM.equals(rand
                         + randomMode + "\" is not supported (anymore)."
                         + " Fallback to \"secureRandom\"");
             }
-            sessionViewStorageFactory = new SessionViewStorageFactoryImpl(new KeyFactorySecureRandom(facesContext));
+            sessionViewStorageFactory = new SessionViewStorageFactoryImpl(new KeyFactorySecureRandom(facesContext),
+                    viewStateStore);
         }
         
         String csrfRandomMode = config.getRandomKeyInCsrfSessionToken();
@@ -191,16 +205,25 @@ else if (viewMap instanceof FacesWrapper)
             }
 
         }
-        if (viewScopeProxyMap != null)
+        Object state = serializeView(context, serializedView);
+        Consumer<SerializedViewKey> discardCallback = null;
+        ViewStateStore viewStateStore = sessionViewStorageFactory.getViewStateStore();
+        if (viewStateStore != null)
         {
-            viewCollection.put(context, serializeView(context, serializedView), nextKey, key,
-                    viewScopeProxyMap.getViewScopeId());
-        }
-        else
-        {
-            viewCollection.put(context, serializeView(context, serializedView), nextKey, key);
+            String storeId = viewCollection.getStoreId();
+            if (state instanceof byte[] && viewStateStore.put(storeId, nextKey, (byte[]) state))
+            {
+                // The session only holds the key, the state is in the store
+                state = nextKey;
+            }
+            discardCallback = (discardedKey) -> viewStateStore.remove(storeId, discardedKey);
         }
 
+        viewCollection.put(context, state, nextKey, key,
+                viewScopeProxyMap == null ? null : viewScopeProxyMap.getViewScopeId(),
+                (oldViewScopeId) -> ViewScopeContext.destroyAll(context, oldViewScopeId),
+                discardCallback);
+
         ClientWindow clientWindow = context.getExternalContext().getClientWindow();
         if (clientWindow != null)
         {
@@ -229,8 +252,15 @@ protected Object getSerializedViewFromSession(FacesContext context, String viewI
             {
                 if (sequence != null)
                 {
-                    Object state = viewCollection.get(
-                            sessionViewStorageFactory.createSerializedViewKey(context, viewId, sequence));
+                    SerializedViewKey key = sessionViewStorageFactory.createSerializedViewKey(
+                            context, viewId, sequence);
+                    Object state = viewCollection.get(key);
+                    if (state instanceof SerializedViewKey)
+                    {
+                        // null if the store discarded it, the view is expired
+                        state = sessionViewStorageFactory.getViewStateStore().get(
+                                viewCollection.getStoreId(), key);
+                    }
                     if (state != null)
                     {
                         serializedView = deserializeView(state);
@@ -344,9 +374,19 @@ protected Object serializeView(FacesContext context, Object serializedView)
                     os.write(UNCOMPRESSED_FLAG);
                 }
 
-                try (ObjectOutputStream out = new ObjectOutputStream(os))
+                if (serialFactory != null)
+                {
+                    try (OutputStream out = os)
+                    {
+                        serialFactory.toOutputStream(serializedView, out);
+                    }
+                }
+                else
                 {
-                    out.writeObject(serializedView);
+                    try (ObjectOutputStream out = new ObjectOutputStream(os))
+                    {
+                        out.writeObject(serializedView);
+                    }
                 }
                 
                 baos.close();
@@ -399,6 +439,14 @@ protected Object deserializeView(Object state)
                     is = new GZIPInputStream(is);
                 }
 
+                if (serialFactory != null)
+                {
+                    try (InputStream in = is)
+                    {
+                        return serialFactory.toObject(in);
+                    }
+                }
+
                 ObjectInputStream ois = null;
                 try
                 {
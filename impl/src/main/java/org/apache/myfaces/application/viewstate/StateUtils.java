@@ -20,20 +20,34 @@
 
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
+import java.io.FilterOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.io.UnsupportedEncodingException;
+import java.io.Writer;
+import java.security.GeneralSecurityException;
 import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.util.Arrays;
 import java.util.Base64;
+import java.util.Map;
+import java.util.Queue;
 import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import java.util.zip.GZIPInputStream;
 import java.util.zip.GZIPOutputStream;
 
+import javax.crypto.AEADBadTagException;
 import javax.crypto.Cipher;
+import javax.crypto.CipherOutputStream;
 import javax.crypto.KeyGenerator;
 import javax.crypto.Mac;
 import javax.crypto.SecretKey;
+import javax.crypto.spec.GCMParameterSpec;
 import javax.crypto.spec.IvParameterSpec;
 import javax.crypto.spec.SecretKeySpec;
 import jakarta.faces.FacesException;
@@ -44,6 +58,7 @@
 import org.apache.myfaces.buildtools.maven2.plugin.builder.annotation.JSFWebConfigParam;
 import org.apache.myfaces.core.api.shared.lang.Assert;
 import org.apache.myfaces.spi.SerialFactory;
+import org.apache.myfaces.util.lang.FastWriter;
 
 /**
  * <p>This Class exposes a handful of methods related to encryption,
@@ -54,14 +69,14 @@
  * <li>GZIP is used for all compression/decompression.</li>
  * <li>Base64 is used for all encoding and decoding.</li>
  * <li>AES is the default encryption algorithm</li>
- * <li>ECB is the default mode</li>
- * <li>PKCS5Padding is the default padding</li>
- * <li>HmacSHA256 is the default MAC algorithm</li>
+ * <li>GCM is the default mode for AES, ECB/PKCS5Padding for any other algorithm</li>
+ * <li>HmacSHA256 is the default MAC algorithm. The MAC is not used with GCM, because
+ * GCM already authenticates the encrypted state.</li>
  * <li>The default algorithm can be overridden using the
  * <i>org.apache.myfaces.ALGORITHM</i> parameter</li>
  * <li>The default mode and padding can be overridden using the
  * <i>org.apache.myfaces.ALGORITHM.PARAMETERS</i> parameter</li>
- * <li>This class has not been tested with modes other than ECB and CBC</li>
+ * <li>This class has not been tested with modes other than GCM, ECB and CBC</li>
  * <li>An initialization vector can be specified via the
  * <i>org.apache.myfaces.ALGORITHM.IV</i> parameter</li>
  * <li>The default MAC algorithm can be overridden using the
@@ -74,7 +89,8 @@
  * limited to just values composed of printable characters.</p>
  *
  * <p>If you are using CBC mode encryption, you <b>must</b> specify an
- * initialization vector.</p>
+ * initialization vector. With GCM mode a random initialization vector is generated for each
+ * view state and sent with it, so the configured one is ignored.</p>
  *
  * <p>If you are using the AES algorithm and getting a SecurityException
  * complaining about keysize, you most likely need to get the unlimited
@@ -90,10 +106,24 @@
 {
     private static final Logger log = Logger.getLogger(StateUtils.class.getName());
 
+    private static final SecureRandom SECURE_RANDOM = new SecureRandom();
+
+    /**
+     * Idle Cipher and Mac instances by transformation/algorithm, so Cipher.getInstance and Mac.getInstance
+     * are not called on each request. An instance is only in the pool while no request is using it, so
+     * the pool never holds more instances than the ones used concurrently.
+     */
+    private static final Map<String, Queue<PooledInstance<Cipher>>> CIPHERS = new ConcurrentHashMap<>();
+    private static final Map<String, Queue<PooledInstance<Mac>>> MACS = new ConcurrentHashMap<>();
+
     public static final String ZIP_CHARSET = "ISO-8859-1";
 
     public static final String DEFAULT_ALGORITHM = "AES";
-    public static final String DEFAULT_ALGORITHM_PARAMS = "ECB/PKCS5Padding";
+    public static final String DEFAULT_ALGORITHM_PARAMS = "GCM/NoPadding";
+    public static final String DEFAULT_BLOCK_ALGORITHM_PARAMS = "ECB/PKCS5Padding";
+
+    private static final int GCM_IV_LENGTH = 12;
+    private static final int GCM_TAG_LENGTH = 16;
 
     public static final String INIT_PREFIX = "org.apache.myfaces.";
     
@@ -134,16 +164,26 @@
     public static final String INIT_ALGORITHM_IV = INIT_ALGORITHM + ".IV";
     
     /**
-     * Defines the default mode and padding used for the encryption algorithm
+     * Defines the default mode and padding used for the encryption algorithm. By default GCM/NoPadding
+     * is used with AES and ECB/PKCS5Padding with any other algorithm.
+     * 
+     * <p>Before GCM became the default for AES, ECB/PKCS5Padding was used with a MAC. While this parameter
+     * is not set, a view state encrypted that way, e.g. by a page rendered before an upgrade, is still
+     * accepted if it does not pass the GCM authentication and the same SECRET and MAC_SECRET are configured.
+     * Setting the parameter disables this fallback, set it to ECB/PKCS5Padding to keep the former format.</p>
      */
     @JSFWebConfigParam(name="org.apache.myfaces.ALGORITHM.PARAMETERS",since="1.1",
-            defaultValue="ECB/PKCS5Padding",group="state")
+            defaultValue="GCM/NoPadding",group="state",tags="performance")
     public static final String INIT_ALGORITHM_PARAM = INIT_ALGORITHM + ".PARAMETERS";
     
     /**
      * Defines the factory class name using for serialize/deserialize the view state returned 
      * by state manager into a byte array. The expected class must implement
-     * {@link org.apache.myfaces.spi.SerialFactory} interface.
+     * {@link org.apache.myfaces.spi.SerialFactory} interface. It is also used for the views
+     * serialized in session on server side state saving.
+     * 
+     * <p>org.apache.myfaces.spi.impl.CompactSerialFactory writes the state with a compact binary
+     * format instead of Java serialization, producing smaller states.</p>
      */
     @JSFWebConfigParam(name="org.apache.myfaces.SERIAL_FACTORY", since="1.1",group="state",tags="performance")
     public static final String SERIAL_FACTORY = INIT_PREFIX + "SERIAL_FACTORY";
@@ -201,15 +241,46 @@ private static void testConfiguration(ExternalContext ctx)
         }
     }
     
+    /**
+     * Creates a Cipher for the configured algorithm. With GCM, used by default, the encrypting Cipher gets a new
+     * random initialization vector, which must be read with {@link Cipher#getIV()} and given to decrypt, see
+     * {@link #createCipher(ExternalContext, int, byte[])}.
+     */
     public static Cipher createCipher(ExternalContext externalContext, int mode) throws Exception
+    {
+        return createCipher(externalContext, mode, null);
+    }
+
+    /**
+     * Creates a Cipher for the configured algorithm.
+     *
+     * @param gcmIv the initialization vector with GCM, required to decrypt, a random one is created to encrypt
+     *        if it is null. Ignored with the other modes, which use the configured initialization vector.
+     */
+    public static Cipher createCipher(ExternalContext externalContext, int mode, byte[] gcmIv) throws Exception
     {
         SecretKey secretKey = getSecret(externalContext);
         String algorithm = findAlgorithm(externalContext);
-        String algorithmParams = findAlgorithmParams(externalContext);
+        String algorithmParams = findAlgorithmParams(externalContext, algorithm);
+        String transformation = algorithm + '/' + algorithmParams;
         byte[] iv = findInitializationVector(externalContext);
 
-        Cipher cipher = Cipher.getInstance(algorithm + '/' + algorithmParams);
-        if (iv != null)
+        Cipher cipher = Cipher.getInstance(transformation);
+        if (isAuthenticatedEncryption(transformation))
+        {
+            if (gcmIv == null)
+            {
+                if (mode != Cipher.ENCRYPT_MODE)
+                {
+                    throw new IllegalArgumentException("The initialization vector is required to decrypt with "
+                            + transformation);
+                }
+                gcmIv = new byte[GCM_IV_LENGTH];
+                SECURE_RANDOM.nextBytes(gcmIv);
+            }
+            cipher.init(mode, secretKey, new GCMParameterSpec(GCM_TAG_LENGTH * 8, gcmIv));
+        }
+        else if (iv != null)
         {
             IvParameterSpec ivSpec = new IvParameterSpec(iv);
             cipher.init(mode, secretKey, ivSpec);
@@ -237,6 +308,103 @@ public static Mac createMac(ExternalContext externalContext) throws Exception
 
         return mac;
     }
+
+    private static String findTransformation(ExternalContext externalContext)
+    {
+        String algorithm = findAlgorithm(externalContext);
+        return algorithm + '/' + findAlgorithmParams(externalContext, algorithm);
+    }
+
+    private static boolean isAuthenticatedEncryption(String transformation)
+    {
+        return transformation.regionMatches(true, transformation.indexOf('/') + 1, "GCM/", 0, 4);
+    }
+
+    /**
+     * Takes an idle Cipher from the pool or creates a new one. The pooled Cipher is only initialized again
+     * if it was initialized with another key or mode, except when gcmSpec is given, because GCM requires a
+     * new initialization vector for each state.
+     */
+    private static PooledInstance<Cipher> borrowCipher(ExternalContext externalContext, String transformation,
+            int mode, GCMParameterSpec gcmSpec) throws GeneralSecurityException
+    {
+        SecretKey secretKey = getSecret(externalContext);
+
+        PooledInstance<Cipher> cipher = borrow(CIPHERS, transformation);
+        if (cipher == null)
+        {
+            cipher = new PooledInstance<>(transformation, Cipher.getInstance(transformation));
+        }
+
+        if (gcmSpec != null)
+        {
+            cipher.instance.init(mode, secretKey, gcmSpec);
+            cipher.key = null;
+        }
+        else if (cipher.mode != mode || !secretKey.equals(cipher.key))
+        {
+            byte[] iv = findInitializationVector(externalContext);
+            if (iv != null)
+            {
+                cipher.instance.init(mode, secretKey, new IvParameterSpec(iv));
+            }
+            else
+            {
+                cipher.instance.init(mode, secretKey);
+            }
+            cipher.mode = mode;
+            cipher.key = secretKey;
+
+            if (log.isLoggable(Level.FINE))
+            {
+                log.fine("De/encrypting with " + transformation);
+            }
+        }
+
+        return cipher;
+    }
+
+    /**
+     * Takes an idle Mac from the pool or creates a new one. A Mac is reset after doFinal, so the pooled
+     * one is only initialized again if the key has changed.
+     */
+    private static PooledInstance<Mac> borrowMac(ExternalContext externalContext) throws GeneralSecurityException
+    {
+        SecretKey macSecretKey = getMacSecret(externalContext);
+        String macAlgorithm = findMacAlgorithm(externalContext);
+
+        PooledInstance<Mac> mac = borrow(MACS, macAlgorithm);
+        if (mac == null)
+        {
+            mac = new PooledInstance<>(macAlgorithm, Mac.getInstance(macAlgorithm));
+        }
+
+        if (!macSecretKey.equals(mac.key))
+        {
+            mac.instance.init(macSecretKey);
+            mac.key = macSecretKey;
+        }
+
+        return mac;
+    }
+
+    private static <T> PooledInstance<T> borrow(Map<String, Queue<PooledInstance<T>>> pool, String algorithm)
+    {
+        Queue<PooledInstance<T>> instances = pool.get(algorithm);
+        return instances == null ? null : instances.poll();
+    }
+
+    /**
+     * Returns the instance to the pool. Must only be called after the instance has been used successfully,
+     * an instance that has thrown an exception is discarded.
+     */
+    private static <T> void release(Map<String, Queue<PooledInstance<T>>> pool, PooledInstance<T> pooled)
+    {
+        if (pooled != null)
+        {
+            pool.computeIfAbsent(pooled.algorithm, k -> new ConcurrentLinkedQueue<>()).offer(pooled);
+        }
+    }
     
     public static boolean enableCompression(ExternalContext externalContext)
     {
@@ -257,25 +425,74 @@ public static boolean isSecure(ExternalContext externalContext)
      */
     public static final String construct(Object object, ExternalContext ctx)
     {
-        byte[] bytes = getAsByteArray(object, ctx);
-        if (enableCompression(ctx))
+        FastWriter writer = new FastWriter(1024);
+        try
         {
-            bytes = compress(bytes);
+            construct(object, ctx, writer);
         }
-        if (isSecure(ctx))
+        catch (IOException e)
         {
-            bytes = encrypt(bytes, ctx);
+            throw new FacesException(e);
         }
-        bytes = encode(bytes);
+        return writer.toString();
+    }
 
-        try
+    /**
+     * Same as {@link #construct(Object, ExternalContext)}, but the state is serialized, compressed, encrypted
+     * and encoded as a stream, writing the Base64 chars directly into the given writer, so no intermediate
+     * copy of the state is created for each step.
+     */
+    public static void construct(Object object, ExternalContext ctx, Writer writer) throws IOException
+    {
+        SerialFactory serialFactory = (SerialFactory) ctx.getApplicationMap().get(SERIAL_FACTORY);
+        Assert.notNull(serialFactory, "serialFactory");
+
+        OutputStream out = Base64.getEncoder().wrap(new Latin1WriterOutputStream(writer));
+        PooledInstance<Cipher> cipher = null;
+        PooledInstance<Mac> mac = null;
+        if (isSecure(ctx))
+        {
+            testConfiguration(ctx);
+
+            try
+            {
+                String transformation = findTransformation(ctx);
+                if (isAuthenticatedEncryption(transformation))
+                {
+                    byte[] iv = new byte[GCM_IV_LENGTH];
+                    SECURE_RANDOM.nextBytes(iv);
+                    cipher = borrowCipher(ctx, transformation, Cipher.ENCRYPT_MODE,
+                            new GCMParameterSpec(GCM_TAG_LENGTH * 8, iv));
+
+                    out.write(iv);
+                    out = new CipherOutputStream(out, cipher.instance);
+                }
+                else
+                {
+                    mac = borrowMac(ctx);
+                    cipher = borrowCipher(ctx, transformation, Cipher.ENCRYPT_MODE, null);
+
+                    //EtM (Encrypt-then-MAC) Composition Approach
+                    out = new CipherOutputStream(new MacOutputStream(out, mac.instance), cipher.instance);
+                }
+            }
+            catch (GeneralSecurityException e)
+            {
+                throw new FacesException(e);
+            }
+        }
+        if (enableCompression(ctx))
         {
-            return new String(bytes, ZIP_CHARSET);
+            out = new GZIPOutputStream(out, 1024);
         }
-        catch (UnsupportedEncodingException e)
+
+        try (OutputStream os = out)
         {
-            throw new FacesException(e);
+            serialFactory.toOutputStream(object, os);
         }
+
+        release(CIPHERS, cipher);
+        release(MACS, mac);
     }
 
     /**
@@ -310,16 +527,34 @@ public static byte[] encrypt(byte[] insecure, ExternalContext externalContext)
 
         try
         {
-            Mac mac = createMac(externalContext);
-            Cipher cipher = createCipher(externalContext, Cipher.ENCRYPT_MODE);
+            String transformation = findTransformation(externalContext);
+            if (isAuthenticatedEncryption(transformation))
+            {
+                byte[] iv = new byte[GCM_IV_LENGTH];
+                SECURE_RANDOM.nextBytes(iv);
+                PooledInstance<Cipher> cipher = borrowCipher(externalContext, transformation, Cipher.ENCRYPT_MODE,
+                        new GCMParameterSpec(GCM_TAG_LENGTH * 8, iv));
+
+                byte[] secure = new byte[GCM_IV_LENGTH + cipher.instance.getOutputSize(insecure.length)];
+                System.arraycopy(iv, 0, secure, 0, GCM_IV_LENGTH);
+                cipher.instance.doFinal(insecure, 0, insecure.length, secure, GCM_IV_LENGTH);
+
+                release(CIPHERS, cipher);
+                return secure;
+            }
+
+            PooledInstance<Mac> mac = borrowMac(externalContext);
+            PooledInstance<Cipher> cipher = borrowCipher(externalContext, transformation, Cipher.ENCRYPT_MODE, null);
 
             //EtM (Encrypt-then-MAC) Composition Approach
-            int macLenght = mac.getMacLength();
-            byte[] secure = new byte[cipher.getOutputSize(insecure.length) + macLenght];
-            int secureCount = cipher.doFinal(insecure, 0, insecure.length, secure);
-            mac.update(secure, 0, secureCount);
-            mac.doFinal(secure, secureCount);
-                        
+            int macLenght = mac.instance.getMacLength();
+            byte[] secure = new byte[cipher.instance.getOutputSize(insecure.length) + macLenght];
+            int secureCount = cipher.instance.doFinal(insecure, 0, insecure.length, secure);
+            mac.instance.update(secure, 0, secureCount);
+            mac.instance.doFinal(secure, secureCount);
+
+            release(CIPHERS, cipher);
+            release(MACS, mac);
             return secure;
         }
         catch (Exception e)
@@ -358,10 +593,13 @@ public static final byte[] encode(byte[] bytes)
 
     /**
      * This fires during the Restore View phase, restoring state.
+     * 
+     * <p>The state is decoded, decrypted, decompressed and deserialized as a stream. If encryption is enabled, 
+     * the decoded bytes are kept and decrypted in place, because the MAC or the GCM tag must be verified
+     * before anything is deserialized.</p>
      */
     public static final Object reconstruct(String string, ExternalContext ctx)
     {
-        byte[] bytes;
         try
         {
             if (log.isLoggable(Level.FINE))
@@ -370,18 +608,25 @@ public static final Object reconstruct(String string, ExternalContext ctx)
                 log.fine("Processing serialized viewstate string with hashCode : " + string.hashCode());
             }
 
-            bytes = string.getBytes(ZIP_CHARSET);
-            bytes = decode(bytes);
+            SerialFactory serialFactory = (SerialFactory) ctx.getApplicationMap().get(SERIAL_FACTORY);
+            Assert.notNull(serialFactory, "serialFactory");
+
+            InputStream in = Base64.getDecoder().wrap(new Latin1StringInputStream(string));
             if (isSecure(ctx))
             {
-                bytes = decrypt(bytes, ctx);
+                byte[] secure = new byte[decodedLength(string)];
+                int length = in.readNBytes(secure, 0, secure.length);
+                in = new ByteArrayInputStream(secure, 0, decrypt(secure, length, secure, ctx));
             }
             if (enableCompression(ctx))
             {
-                bytes = decompress(bytes);
+                in = new GZIPInputStream(in, 1024);
             }
 
-            return getAsObject(bytes, ctx);
+            try (InputStream is = in)
+            {
+                return serialFactory.toObject(is);
+            }
         }
         catch (Throwable e)
         {
@@ -393,6 +638,21 @@ public static final Object reconstruct(String string, ExternalContext ctx)
         }
     }
 
+    private static int decodedLength(String string)
+    {
+        int length = string.length();
+        int padding = 0;
+        if (length > 0 && string.charAt(length - 1) == '=')
+        {
+            padding++;
+            if (length > 1 && string.charAt(length - 2) == '=')
+            {
+                padding++;
+            }
+        }
+        return Math.max(0, (length / 4) * 3 + ((length % 4) * 3) / 4 - padding);
+    }
+
     public static final byte[] decode(byte[] bytes)
     {
         return Base64.getDecoder().decode(bytes);
@@ -432,39 +692,74 @@ public static byte[] decrypt(byte[] secure, ExternalContext externalContext)
     {
         Assert.notNull(externalContext, "externalContext");
 
+        byte[] insecure = new byte[secure.length];
+        int length = decrypt(secure, secure.length, insecure, externalContext);
+        return length == insecure.length ? insecure : Arrays.copyOf(insecure, length);
+    }
+
+    /**
+     * Verifies and decrypts the first length bytes of secure into insecure, which can be the same array,
+     * because the decrypted state is never longer than the encrypted one.
+     * 
+     * @return the length of the decrypted state
+     */
+    private static int decrypt(byte[] secure, int length, byte[] insecure, ExternalContext externalContext)
+    {
         testConfiguration(externalContext);
 
         try
         {
-            Mac mac = createMac(externalContext);
-            Cipher cipher = createCipher(externalContext, Cipher.DECRYPT_MODE);
-
-            //EtM (Encrypt-then-MAC) Composition Approach
-            int macLenght = mac.getMacLength();
-            mac.update(secure, 0, secure.length - macLenght);
-            byte[] signedDigestHash = mac.doFinal();
-
-            boolean isMacEqual = true;
-            for (int i = 0; i < signedDigestHash.length; i++)
+            String transformation = findTransformation(externalContext);
+            if (isAuthenticatedEncryption(transformation))
             {
-                if (signedDigestHash[i] != secure[secure.length - macLenght + i])
+                if (length < GCM_IV_LENGTH + GCM_TAG_LENGTH)
                 {
-                    isMacEqual = false;
-                    // MYFACES-2934 Must compare *ALL* bytes of the hash, 
-                    // otherwise a side-channel timing attack is theorically possible
-                    // but with a very very low probability, because the
-                    // comparison time is too small to be measured compared to
-                    // the overall request time and in real life applications,
-                    // there are too many uncertainties involved.
-                    //break;
+                    throw new ViewExpiredException();
                 }
+
+                PooledInstance<Cipher> cipher = borrowCipher(externalContext, transformation, Cipher.DECRYPT_MODE,
+                        new GCMParameterSpec(GCM_TAG_LENGTH * 8, secure, 0, GCM_IV_LENGTH));
+                PooledInstance<Mac> legacyMac = isLegacyModeAccepted(externalContext)
+                        ? borrowMac(externalContext) : null;
+                boolean legacyLength = legacyMac != null
+                        && isLegacyLength(length, cipher.instance.getBlockSize(), legacyMac.instance.getMacLength());
+
+                // a failed authentication may overwrite the output, the state must be kept for the former default
+                byte[] output = legacyLength && insecure == secure ? new byte[length] : insecure;
+                int insecureCount;
+                try
+                {
+                    insecureCount = cipher.instance.doFinal(secure, GCM_IV_LENGTH, length - GCM_IV_LENGTH,
+                            output, 0);
+                }
+                catch (AEADBadTagException e)
+                {
+                    if (!legacyLength)
+                    {
+                        throw new ViewExpiredException();
+                    }
+                    return decryptLegacy(secure, length, insecure, legacyMac, externalContext);
+                }
+                if (output != insecure)
+                {
+                    System.arraycopy(output, 0, insecure, 0, insecureCount);
+                }
+
+                release(CIPHERS, cipher);
+                release(MACS, legacyMac);
+                return insecureCount;
             }
-            if (!isMacEqual)
-            {
-                throw new ViewExpiredException();
-            }
-            
-            return cipher.doFinal(secure, 0, secure.length - macLenght);
+
+            PooledInstance<Mac> mac = borrowMac(externalContext);
+            PooledInstance<Cipher> cipher = borrowCipher(externalContext, transformation, Cipher.DECRYPT_MODE, null);
+
+            //EtM (Encrypt-then-MAC) Composition Approach
+            int macLenght = verifyMac(mac.instance, secure, length);
+            int insecureCount = cipher.instance.doFinal(secure, 0, length - macLenght, insecure, 0);
+
+            release(CIPHERS, cipher);
+            release(MACS, mac);
+            return insecureCount;
         }
         catch (Exception e)
         {
@@ -472,6 +767,84 @@ public static byte[] decrypt(byte[] secure, ExternalContext externalContext)
         }
     }
 
+    /**
+     * Before GCM became the default mode for AES, the state was encrypted with ECB/PKCS5Padding and
+     * authenticated with a MAC. Such a state, still posted by the pages rendered before an upgrade, is accepted
+     * as long as the mode is not configured and a MAC secret is available.
+     */
+    private static boolean isLegacyModeAccepted(ExternalContext ctx)
+    {
+        return DEFAULT_ALGORITHM.equals(findAlgorithm(ctx))
+                && ctx.getInitParameter(INIT_ALGORITHM_PARAM) == null
+                && (ctx.getApplicationMap().containsKey(INIT_MAC_SECRET_KEY_CACHE)
+                        || ctx.getInitParameter(INIT_MAC_SECRET) != null);
+    }
+
+    /**
+     * @return true if the length is the one of a state encrypted with a padded block mode and a MAC
+     */
+    private static boolean isLegacyLength(int length, int blockSize, int macLength)
+    {
+        return length - macLength >= blockSize && (length - macLength) % blockSize == 0;
+    }
+
+    /**
+     * Verifies and decrypts a state encrypted with the former default ECB/PKCS5Padding mode.
+     */
+    private static int decryptLegacy(byte[] secure, int length, byte[] insecure, PooledInstance<Mac> mac,
+            ExternalContext externalContext) throws GeneralSecurityException
+    {
+        String transformation = findAlgorithm(externalContext) + '/' + DEFAULT_BLOCK_ALGORITHM_PARAMS;
+        PooledInstance<Cipher> cipher = borrowCipher(externalContext, transformation, Cipher.DECRYPT_MODE, null);
+
+        int macLenght = verifyMac(mac.instance, secure, length);
+        int insecureCount = cipher.instance.doFinal(secure, 0, length - macLenght, insecure, 0);
+
+        if (log.isLoggable(Level.FINE))
+        {
+            log.fine("Decrypted a view state with the former default " + transformation);
+        }
+
+        release(CIPHERS, cipher);
+        release(MACS, mac);
+        return insecureCount;
+    }
+
+    /**
+     * @return the length of the MAC at the end of the secure bytes
+     */
+    private static int verifyMac(Mac mac, byte[] secure, int length)
+    {
+        int macLenght = mac.getMacLength();
+        if (length < macLenght)
+        {
+            throw new ViewExpiredException();
+        }
+        mac.update(secure, 0, length - macLenght);
+        byte[] signedDigestHash = mac.doFinal();
+
+        boolean isMacEqual = true;
+        for (int i = 0; i < signedDigestHash.length; i++)
+        {
+            if (signedDigestHash[i] != secure[length - macLenght + i])
+            {
+                isMacEqual = false;
+                // MYFACES-2934 Must compare *ALL* bytes of the hash, 
+                // otherwise a side-channel timing attack is theorically possible
+                // but with a very very low probability, because the
+                // comparison time is too small to be measured compared to
+                // the overall request time and in real life applications,
+                // there are too many uncertainties involved.
+                //break;
+            }
+        }
+        if (!isMacEqual)
+        {
+            throw new ViewExpiredException();
+        }
+        return macLenght;
+    }
+
     /**
      * Performs deserialization with the serialization provider created from the
      * SerialFactory.
@@ -521,12 +894,14 @@ private static byte[] findInitializationVector(ExternalContext ctx)
         return iv;
     }
 
-    private static String findAlgorithmParams(ExternalContext ctx)
+    private static String findAlgorithmParams(ExternalContext ctx, String algorithm)
     {
         String algorithmParams = ctx.getInitParameter(INIT_ALGORITHM_PARAM);        
         if (algorithmParams == null)
         {
-            algorithmParams = DEFAULT_ALGORITHM_PARAMS;
+            algorithmParams = DEFAULT_ALGORITHM.equals(algorithm)
+                    ? DEFAULT_ALGORITHM_PARAMS
+                    : DEFAULT_BLOCK_ALGORITHM_PARAMS;
         }
         
         if (log.isLoggable(Level.FINE))
@@ -811,4 +1186,146 @@ private static byte[] findMacSecret(String secret, String algorithm)
         
         return bytes;
     }
+
+    /**
+     * Writes the bytes as ISO-8859-1 chars. Used to write the Base64 encoded state into a Writer.
+     * Closing this stream does not close the writer.
+     */
+    private static final class Latin1WriterOutputStream extends OutputStream
+    {
+        private final Writer writer;
+        private final char[] buffer = new char[1024];
+
+        Latin1WriterOutputStream(Writer writer)
+        {
+            this.writer = writer;
+        }
+
+        @Override
+        public void write(int b) throws IOException
+        {
+            writer.write((char) (b & 0xFF));
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException
+        {
+            while (len > 0)
+            {
+                int count = Math.min(len, buffer.length);
+                for (int i = 0; i < count; i++)
+                {
+                    buffer[i] = (char) (b[off + i] & 0xFF);
+                }
+                writer.write(buffer, 0, count);
+                off += count;
+                len -= count;
+            }
+        }
+
+        @Override
+        public void close() throws IOException
+        {
+            writer.flush();
+        }
+    }
+
+    /**
+     * Reads the chars of a ISO-8859-1 String as bytes, without copying it.
+     */
+    private static final class Latin1StringInputStream extends InputStream
+    {
+        private final String string;
+        private int position;
+
+        Latin1StringInputStream(String string)
+        {
+            this.string = string;
+        }
+
+        @Override
+        public int read()
+        {
+            return position < string.length() ? string.charAt(position++) & 0xFF : -1;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len)
+        {
+            if (len == 0)
+            {
+                return 0;
+            }
+            int count = Math.min(len, string.length() - position);
+            if (count <= 0)
+            {
+                return -1;
+            }
+            for (int i = 0; i < count; i++)
+            {
+                b[off + i] = (byte) string.charAt(position++);
+            }
+            return count;
+        }
+
+        @Override
+        public int available()
+        {
+            return string.length() - position;
+        }
+    }
+
+    /**
+     * A pooled Cipher or Mac, with the key and mode it was last initialized with.
+     */
+    private static final class PooledInstance<T>
+    {
+        private final String algorithm;
+        private final T instance;
+        private SecretKey key;
+        private int mode;
+
+        PooledInstance(String algorithm, T instance)
+        {
+            this.algorithm = algorithm;
+            this.instance = instance;
+        }
+    }
+
+    /**
+     * Updates the MAC with the bytes written and appends it when closed.
+     */
+    private static final class MacOutputStream extends FilterOutputStream
+    {
+        private final Mac mac;
+
+        MacOutputStream(OutputStream out, Mac mac)
+        {
+            super(out);
+            this.mac = mac;
+        }
+
+        @Override
+        public void write(int b) throws IOException
+        {
+            mac.update((byte) b);
+            out.write(b);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException
+        {
+            mac.update(b, off, len);
+            out.write(b, off, len);
+        }
+
+        @Override
+        public void close() throws IOException
+        {
+            try (OutputStream os = out)
+            {
+                os.write(mac.doFinal());
+            }
+        }
+    }
 }
@@ -0,0 +1,58 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.myfaces.application.viewstate;
+
+import java.util.Objects;
+
+/**
+ * Key used by the {@link ViewStateStore} implementations, composed by the id of the owner
+ * and the key of the view.
+ */
+final class StoreKey
+{
+    private final String storeId;
+    private final Object key;
+
+    StoreKey(String storeId, Object key)
+    {
+        this.storeId = storeId;
+        this.key = key;
+    }
+
+    @Override
+    public boolean equals(Object obj)
+    {
+        if (this == obj)
+        {
+            return true;
+        }
+        if (!(obj instanceof StoreKey))
+        {
+            return false;
+        }
+        StoreKey other = (StoreKey) obj;
+        return storeId.equals(other.storeId) && key.equals(other.key);
+    }
+
+    @Override
+    public int hashCode()
+    {
+        return 31 * storeId.hashCode() + Objects.hashCode(key);
+    }
+}
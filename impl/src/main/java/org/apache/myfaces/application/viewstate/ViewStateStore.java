@@ -0,0 +1,133 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.myfaces.application.viewstate;
+
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import jakarta.faces.context.FacesContext;
+import jakarta.servlet.ServletContext;
+import jakarta.servlet.http.HttpSession;
+
+import org.apache.myfaces.config.webparameters.MyfacesConfig;
+import org.apache.myfaces.util.lang.ClassUtils;
+
+/**
+ * Stores the serialized views of server side state saving outside the session. When a store is
+ * configured, the session only keeps the {@link SerializedViewKey} referencing the serialized view.
+ *
+ * <p>The storeId identifies the owner of the entries (one per session) and the key identifies the
+ * view inside the owner, so implementations should use both to build the lookup key. Implementations
+ * must be thread safe, because the same instance is shared by all requests of the application.</p>
+ */
+public abstract class ViewStateStore
+{
+    private static final Logger log = Logger.getLogger(ViewStateStore.class.getName());
+
+    public static final String APPLICATION_MAP_KEY = ViewStateStore.class.getName();
+
+    /**
+     * Stores the serialized view.
+     *
+     * @param storeId id of the owner of the entry
+     * @param key key of the view
+     * @param state the serialized view
+     * @return false if the store is not able to keep the state, so it must be stored in session.
+     */
+    public abstract boolean put(String storeId, Object key, byte[] state);
+
+    /**
+     * @return the stored serialized view or null if it has been discarded.
+     */
+    public abstract byte[] get(String storeId, Object key);
+
+    public abstract void remove(String storeId, Object key);
+
+    /**
+     * Releases all resources hold by this store. Called when the application is destroyed.
+     */
+    public void destroy()
+    {
+    }
+
+    static ViewStateStore createViewStateStore(FacesContext facesContext)
+    {
+        MyfacesConfig config = MyfacesConfig.getCurrentInstance(facesContext);
+        String type = config.getViewStateStore();
+
+        ViewStateStore store = null;
+        if (type == null || type.isEmpty() || MyfacesConfig.VIEW_STATE_STORE_SESSION.equals(type))
+        {
+            return null;
+        }
+        else if (MyfacesConfig.VIEW_STATE_STORE_MEMORY.equals(type))
+        {
+            store = new ViewStateStoreInMemory(config.getViewStateStoreMaxSize());
+        }
+        else if (MyfacesConfig.VIEW_STATE_STORE_MAPPED_FILE.equals(type))
+        {
+            try
+            {
+                store = new ViewStateStoreMappedFile(facesContext, config.getViewStateStoreDirectory(),
+                        config.getViewStateStoreMaxSize());
+            }
+            catch (Exception e)
+            {
+                log.log(Level.SEVERE, "Cannot create the memory mapped file for " + MyfacesConfig.VIEW_STATE_STORE
+                        + ", fallback to store the views in session", e);
+                return null;
+            }
+        }
+        else
+        {
+            store = (ViewStateStore) ClassUtils.newInstance(type, ViewStateStore.class);
+        }
+
+        facesContext.getExternalContext().getApplicationMap().put(APPLICATION_MAP_KEY, store);
+        return store;
+    }
+
+    /**
+     * Discards all the serialized views of the session held outside of it.
+     */
+    public static void sessionDestroyed(HttpSession session)
+    {
+        ServletContext servletContext = session.getServletContext();
+        ViewStateStore store = servletContext == null
+                ? null
+                : (ViewStateStore) servletContext.getAttribute(APPLICATION_MAP_KEY);
+        if (store == null)
+        {
+            return;
+        }
+
+        try
+        {
+            Object viewCollection = session.getAttribute(StateCacheServerSide.SERIALIZED_VIEW_SESSION_ATTR);
+            if (viewCollection instanceof SerializedViewCollection)
+            {
+                SerializedViewCollection collection = (SerializedViewCollection) viewCollection;
+                collection.discardStoredViews(key -> store.remove(collection.getStoreId(), key));
+            }
+        }
+        catch (IllegalStateException e)
+        {
+            // session already invalidated, the entries will be discarded by the store itself
+        }
+    }
+}
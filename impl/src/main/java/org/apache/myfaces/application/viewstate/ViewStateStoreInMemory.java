@@ -0,0 +1,91 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.myfaces.application.viewstate;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * In-process {@link ViewStateStore} bounded by the total amount of bytes stored. When the store is
+ * full, the least recently used entries are discarded.
+ */
+class ViewStateStoreInMemory extends ViewStateStore
+{
+    private final long maxSize;
+    private final LinkedHashMap<StoreKey, byte[]> entries = new LinkedHashMap<>(64, 0.75f, true);
+    private long size;
+
+    public ViewStateStoreInMemory(long maxSize)
+    {
+        this.maxSize = maxSize;
+    }
+
+    @Override
+    public synchronized boolean put(String storeId, Object key, byte[] state)
+    {
+        if (state.length > maxSize)
+        {
+            return false;
+        }
+
+        byte[] old = entries.put(new StoreKey(storeId, key), state);
+        if (old != null)
+        {
+            size -= old.length;
+        }
+        size += state.length;
+
+        Iterator<Map.Entry<StoreKey, byte[]>> it = entries.entrySet().iterator();
+        while (size > maxSize && it.hasNext())
+        {
+            size -= it.next().getValue().length;
+            it.remove();
+        }
+        return true;
+    }
+
+    @Override
+    public synchronized byte[] get(String storeId, Object key)
+    {
+        return entries.get(new StoreKey(storeId, key));
+    }
+
+    @Override
+    public synchronized void remove(String storeId, Object key)
+    {
+        byte[] old = entries.remove(new StoreKey(storeId, key));
+        if (old != null)
+        {
+            size -= old.length;
+        }
+    }
+
+    @Override
+    public synchronized void destroy()
+    {
+        entries.clear();
+        size = 0;
+    }
+
+    synchronized long getSize()
+    {
+        return size;
+    }
+}
@@ -0,0 +1,244 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.myfaces.application.viewstate;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import jakarta.faces.context.FacesContext;
+import jakarta.servlet.ServletContext;
+
+/**
+ * Off-heap {@link ViewStateStore} backed by a memory mapped file.
+ *
+ * <p>The file is used as a ring buffer: the states are appended one after the other and when the end
+ * of the file is reached, writing continues at the beginning, discarding the oldest states that are
+ * overwritten. Since the states are written sequentially, the insertion order of the index is also the
+ * order of the states inside the file, so the entries to discard are always at the head of the index.</p>
+ *
+ * <p>The states are read concurrently, only writing, which moves the position and discards entries,
+ * requires the exclusive lock.</p>
+ */
+class ViewStateStoreMappedFile extends ViewStateStore
+{
+    private static final Logger log = Logger.getLogger(ViewStateStoreMappedFile.class.getName());
+
+    private final File file;
+    private final RandomAccessFile randomAccessFile;
+    private final int capacity;
+    private final LinkedHashMap<StoreKey, Slot> index = new LinkedHashMap<>();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    // null once destroyed, so the mapping can be released
+    private MappedByteBuffer buffer;
+    private int position;
+
+    public ViewStateStoreMappedFile(FacesContext facesContext, String directory, long maxSize) throws IOException
+    {
+        this(resolveDirectory(facesContext, directory), maxSize);
+    }
+
+    ViewStateStoreMappedFile(File directory, long maxSize) throws IOException
+    {
+        capacity = (int) Math.min(maxSize, Integer.MAX_VALUE);
+        file = File.createTempFile("myfaces-viewstate", ".bin", directory);
+        file.deleteOnExit();
+        randomAccessFile = new RandomAccessFile(file, "rw");
+        randomAccessFile.setLength(capacity);
+        buffer = randomAccessFile.getChannel().map(FileChannel.MapMode.READ_WRITE, 0, capacity);
+    }
+
+    private static File resolveDirectory(FacesContext facesContext, String directory)
+    {
+        if (directory != null && !directory.isEmpty())
+        {
+            File dir = new File(directory);
+            dir.mkdirs();
+            return dir;
+        }
+        return (File) facesContext.getExternalContext().getApplicationMap().get(ServletContext.TEMPDIR);
+    }
+
+    @Override
+    public boolean put(String storeId, Object key, byte[] state)
+    {
+        int length = state.length;
+        if (length > capacity)
+        {
+            return false;
+        }
+
+        StoreKey storeKey = new StoreKey(storeId, key);
+        lock.writeLock().lock();
+        try
+        {
+            if (buffer == null)
+            {
+                return false;
+            }
+            index.remove(storeKey);
+
+            if (position + length > capacity)
+            {
+                discard(position, capacity);
+                position = 0;
+            }
+            discard(position, position + length);
+
+            ByteBuffer target = buffer.duplicate();
+            target.position(position);
+            target.put(state);
+
+            index.put(storeKey, new Slot(position, length));
+            position += length;
+            return true;
+        }
+        finally
+        {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Discards all the entries written in the region [start, end) of the file.
+     */
+    private void discard(int start, int end)
+    {
+        Iterator<Map.Entry<StoreKey, Slot>> it = index.entrySet().iterator();
+        while (it.hasNext())
+        {
+            Slot slot = it.next().getValue();
+            if (slot.offset >= end || slot.offset + slot.length <= start)
+            {
+                break;
+            }
+            it.remove();
+        }
+    }
+
+    @Override
+    public byte[] get(String storeId, Object key)
+    {
+        StoreKey storeKey = new StoreKey(storeId, key);
+        lock.readLock().lock();
+        try
+        {
+            Slot slot = index.get(storeKey);
+            if (slot == null)
+            {
+                return null;
+            }
+
+            byte[] state = new byte[slot.length];
+            ByteBuffer source = buffer.duplicate();
+            source.position(slot.offset);
+            source.get(state);
+            return state;
+        }
+        finally
+        {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public void remove(String storeId, Object key)
+    {
+        StoreKey storeKey = new StoreKey(storeId, key);
+        lock.writeLock().lock();
+        try
+        {
+            index.remove(storeKey);
+        }
+        finally
+        {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Stops using the mapping and deletes the file. The mapping itself is only released when the buffer
+     * is garbage collected, until then the file cannot be deleted on some platforms, e.g. Windows, so it is
+     * deleted when the JVM exits.
+     */
+    @Override
+    public void destroy()
+    {
+        lock.writeLock().lock();
+        try
+        {
+            index.clear();
+            buffer = null;
+            try
+            {
+                randomAccessFile.close();
+            }
+            catch (IOException e)
+            {
+                log.log(Level.WARNING, "Cannot close " + file, e);
+            }
+        }
+        finally
+        {
+            lock.writeLock().unlock();
+        }
+
+        if (!file.delete() && file.exists())
+        {
+            if (log.isLoggable(Level.FINE))
+            {
+                log.fine("Cannot delete " + file + " while it is mapped, it is deleted when the JVM exits");
+            }
+        }
+    }
+
+    int getEntries()
+    {
+        lock.readLock().lock();
+        try
+        {
+            return index.size();
+        }
+        finally
+        {
+            lock.readLock().unlock();
+        }
+    }
+
+    private static final class Slot
+    {
+        private final int offset;
+        private final int length;
+
+        Slot(int offset, int length)
+        {
+            this.offset = offset;
+            this.length = length;
+        }
+    }
+}
@@ -200,6 +200,80 @@
         "org.apache.myfaces.DEFAULT_RESPONSE_WRITER_CONTENT_TYPE_MODE";
     private final static String DEFAULT_RESPONSE_WRITER_CONTENT_TYPE_MODE_DEFAULT = "text/html";
 
+    /**
+     * Max number of compiled Facelets kept in each Facelet cache, for applications with thousands of views.
+     * The least recently used ones are discarded and compiled again when needed. By default the size is not
+     * limited.
+     */
+    @JSFWebConfigParam(defaultValue = "-1", since = "5.0", group="viewhandler", tags="performance")
+    public static final String FACELETS_CACHE_SIZE = "org.apache.myfaces.FACELETS_CACHE_SIZE";
+    public static final int FACELETS_CACHE_SIZE_DEFAULT = -1;
+
+    /**
+     * Directory of the precompiled Facelets, created at build time with
+     * org.apache.myfaces.view.facelets.compiler.FaceletPrecompiler or filled at runtime. A Facelet is parsed only
+     * if its precompiled entry is missing or was created from a different source; new entries are written when the
+     * directory is writable. By default no precompiled Facelets are used.
+     */
+    @JSFWebConfigParam(since = "5.0", group="viewhandler", tags="performance")
+    public static final String FACELETS_PRECOMPILED_CACHE_DIR = "org.apache.myfaces.FACELETS_PRECOMPILED_CACHE_DIR";
+
+    /**
+     * Compile all the Facelets of the application (views, templates and composite components) and create the
+     * resources listed in org.apache.myfaces.WARMUP_RESOURCES on a background thread after the startup, so the
+     * first requests do not pay for it. Requests received meanwhile wait until the warm-up is done, at most
+     * org.apache.myfaces.WARMUP_TIMEOUT milliseconds.
+     */
+    @JSFWebConfigParam(defaultValue = "false", since = "5.0", expectedValues = "true, false",
+            group = "viewhandler", tags = "performance")
+    public static final String WARMUP_ENABLED = "org.apache.myfaces.WARMUP_ENABLED";
+    private static final boolean WARMUP_ENABLED_DEFAULT = false;
+
+    /**
+     * Max time in milliseconds a request waits for the warm-up to finish. 0 means requests never wait.
+     */
+    @JSFWebConfigParam(defaultValue = "60000", since = "5.0", group = "viewhandler", tags = "performance")
+    public static final String WARMUP_TIMEOUT = "org.apache.myfaces.WARMUP_TIMEOUT";
+    private static final long WARMUP_TIMEOUT_DEFAULT = 60000;
+
+    /**
+     * Comma separated list of the resources created during the warm-up, as libraryName:resourceName or only
+     * resourceName.
+     */
+    @JSFWebConfigParam(defaultValue = "jakarta.faces:faces.js", since = "5.0", group = "viewhandler",
+            tags = "performance")
+    public static final String WARMUP_RESOURCES = "org.apache.myfaces.WARMUP_RESOURCES";
+    private static final String WARMUP_RESOURCES_DEFAULT = "jakarta.faces:faces.js";
+
+    /**
+     * Render the components having the attribute oam.PARALLEL_RENDERING set to true concurrently, each one on its own
+     * thread, while the rest of the view is rendered; their output is written in place when the rendering of the
+     * view reaches them. Only for full page requests, and not for components inside h:dataTable or ui:repeat.
+     * <p>Each component only gets its own ResponseWriter, ELContext, FacesContext attributes and a copy of the
+     * request attributes, everything else is shared with the request, so the subtree must not depend on the rendering
+     * of the rest of the view (for example component resources rendered in the head).</p>
+     * <p>CDI contexts are bound to the thread of the request: a component whose subtree resolves a request, session
+     * or conversation scoped bean is rendered by the view, as are the ones containing a form, a script or a
+     * stylesheet, or whose rendered attribute is an expression. Application scoped beans and beans without a normal
+     * scope are rendered concurrently, the latter must not use beans bound to the request thread.</p>
+     */
+    @JSFWebConfigParam(defaultValue = "false", since = "5.0", expectedValues = "true, false", group = "render",
+            tags = "performance")
+    public static final String PARALLEL_RENDERING = "org.apache.myfaces.PARALLEL_RENDERING";
+    private static final boolean PARALLEL_RENDERING_DEFAULT = false;
+
+    /**
+     * Flush the partial response after each completed update, so the client receives and applies the updates of an
+     * ajax request while the slower components are still rendering, instead of once the whole response is rendered.
+     * <p>The response is committed with the first flush, so a rendering error after it is logged and sent as the error
+     * of the partial response instead of being handled by the ExceptionHandler, and the response is sent chunked
+     * instead of with a Content-Length.</p>
+     */
+    @JSFWebConfigParam(defaultValue = "false", since = "5.0", expectedValues = "true, false", group = "render",
+            tags = "performance")
+    public static final String STREAMING_PARTIAL_RESPONSE = "org.apache.myfaces.STREAMING_PARTIAL_RESPONSE";
+    private static final boolean STREAMING_PARTIAL_RESPONSE_DEFAULT = false;
+
     /**
      * Enable or disable a cache used to "remember" the generated facelets unique ids and reduce 
      * the impact on memory usage, only active if jakarta.faces.FACELETS_REFRESH_PERIOD is -1 (no refresh).
@@ -499,7 +573,42 @@
     @JSFWebConfigParam(defaultValue="true",since="1.1", expectedValues="true,false", group="state", tags="performance")
     public static final String COMPRESS_STATE_IN_SESSION = "org.apache.myfaces.COMPRESS_STATE_IN_SESSION";
     private static final boolean COMPRESS_STATE_IN_SESSION_DEFAULT = true;
-    
+
+    /**
+     * Defines where the serialized views of server side state saving are kept. By default ("session") the
+     * serialized views are stored inside the session.
+     *
+     * <p>If "memory" is used, the serialized views are stored in a bounded in-process store shared by all
+     * sessions and the session only holds small keys referencing them. If "mappedFile" is used, the serialized
+     * views are stored off-heap in a memory mapped file. A fully qualified class name extending
+     * org.apache.myfaces.application.viewstate.ViewStateStore can also be provided.</p>
+     *
+     * <p>Only applicable if state saving method is "server" (= default). Note the views kept outside the session
+     * are not replicated, so in clustered environments sticky sessions are required.</p>
+     */
+    @JSFWebConfigParam(since="5.0", defaultValue="session", expectedValues="session, memory, mappedFile",
+            group="state", tags="performance")
+    public static final String VIEW_STATE_STORE = "org.apache.myfaces.VIEW_STATE_STORE";
+    public static final String VIEW_STATE_STORE_SESSION = "session";
+    public static final String VIEW_STATE_STORE_MEMORY = "memory";
+    public static final String VIEW_STATE_STORE_MAPPED_FILE = "mappedFile";
+    private static final String VIEW_STATE_STORE_DEFAULT = VIEW_STATE_STORE_SESSION;
+
+    /**
+     * Max size in bytes of the store configured with org.apache.myfaces.VIEW_STATE_STORE. When the store is full
+     * the least recently stored views are discarded. By default 67108864 (64MB).
+     */
+    @JSFWebConfigParam(since="5.0", defaultValue="67108864", group="state", tags="performance")
+    public static final String VIEW_STATE_STORE_MAX_SIZE = "org.apache.myfaces.VIEW_STATE_STORE_MAX_SIZE";
+    private static final long VIEW_STATE_STORE_MAX_SIZE_DEFAULT = 64L * 1024L * 1024L;
+
+    /**
+     * Directory where the file used by the "mappedFile" view state store is created. By default the
+     * temporal directory of the web application is used.
+     */
+    @JSFWebConfigParam(since="5.0", group="state")
+    public static final String VIEW_STATE_STORE_DIRECTORY = "org.apache.myfaces.VIEW_STATE_STORE_DIRECTORY";
+
     /**
      * Allow use flash scope to keep track of the views used in session and the previous ones,
      * so server side state saving can delete old views even if POST-REDIRECT-GET pattern is used.
@@ -739,6 +848,24 @@
     @JSFWebConfigParam(name="org.apache.myfaces.WEBSOCKET_MAX_CONNECTIONS", since="2.3")
     public static final String WEBSOCKET_MAX_CONNECTIONS = "org.apache.myfaces.WEBSOCKET_MAX_CONNECTIONS";
     public static final Integer WEBSOCKET_MAX_CONNECTIONS_DEFAULT = 5000;
+
+    /**
+     * Max number of push messages waiting to be sent to a single websocket session. Messages are sent one after
+     * the other, so slow clients accumulate messages here instead of blocking the thread that sends them.
+     */
+    @JSFWebConfigParam(since="5.0", defaultValue="100", tags="performance")
+    public static final String WEBSOCKET_MAX_QUEUED_MESSAGES = "org.apache.myfaces.WEBSOCKET_MAX_QUEUED_MESSAGES";
+    public static final int WEBSOCKET_MAX_QUEUED_MESSAGES_DEFAULT = 100;
+
+    /**
+     * Defines what happens when the queue of a websocket session is full: "dropOldest" discards the oldest
+     * waiting message, "dropNewest" discards the new message and "coalesce" discards all the waiting messages,
+     * so the client only receives the latest one when it catches up.
+     */
+    @JSFWebConfigParam(since="5.0", defaultValue="dropOldest", expectedValues="dropOldest, dropNewest, coalesce",
+            tags="performance")
+    public static final String WEBSOCKET_QUEUE_OVERFLOW_POLICY = "org.apache.myfaces.WEBSOCKET_QUEUE_OVERFLOW_POLICY";
+    public static final String WEBSOCKET_QUEUE_OVERFLOW_POLICY_DEFAULT = "dropOldest";
     
     
     /**
@@ -825,6 +952,9 @@
     private String randomKeyInCsrfSessionToken = RANDOM_KEY_IN_CSRF_SESSION_TOKEN_DEFAULT;
     private boolean serializeStateInSession = false;
     private boolean compressStateInSession = COMPRESS_STATE_IN_SESSION_DEFAULT;
+    private String viewStateStore = VIEW_STATE_STORE_DEFAULT;
+    private long viewStateStoreMaxSize = VIEW_STATE_STORE_MAX_SIZE_DEFAULT;
+    private String viewStateStoreDirectory;
     private boolean useFlashScopePurgeViewsInSession = USE_FLASH_SCOPE_PURGE_VIEWS_IN_SESSION_DEFAULT;
     private boolean autocompleteOffViewState = AUTOCOMPLETE_OFF_VIEW_STATE_DEFAULT;
     private long resourceMaxTimeExpires = RESOURCE_MAX_TIME_EXPIRES_DEFAULT;
@@ -852,12 +982,21 @@
     private boolean resourceCacheLastModified = RESOURCE_CACHE_LAST_MODIFIED_DEFAULT;
     private boolean logWebContextParams = false;
     private int websocketMaxConnections = WEBSOCKET_MAX_CONNECTIONS_DEFAULT;
+    private int websocketMaxQueuedMessages = WEBSOCKET_MAX_QUEUED_MESSAGES_DEFAULT;
+    private String websocketQueueOverflowPolicy = WEBSOCKET_QUEUE_OVERFLOW_POLICY_DEFAULT;
     private boolean renderClientBehaviorScriptsAsString = RENDER_CLIENTBEHAVIOR_SCRIPTS_AS_STRING_DEFAULT;
     private boolean alwaysForceSessionCreation = ALWAYS_FORCE_SESSION_CREATION_DEFAULT;
     private ResourceBundle.Control resourceBundleControl;
     private boolean automaticExtensionlessMapping = AUTOMATIC_EXTENSIONLESS_MAPPING_DEFAULT;
     private boolean elResolverTracing = EL_RESOLVER_TRACING_DEFAULT;
     private long faceletsRefreshPeriod = -1; 
+    private int faceletsCacheSize = FACELETS_CACHE_SIZE_DEFAULT;
+    private String faceletsPrecompiledCacheDir;
+    private boolean warmupEnabled = WARMUP_ENABLED_DEFAULT;
+    private long warmupTimeout = WARMUP_TIMEOUT_DEFAULT;
+    private String warmupResources = WARMUP_RESOURCES_DEFAULT;
+    private boolean parallelRendering = PARALLEL_RENDERING_DEFAULT;
+    private boolean streamingPartialResponse = STREAMING_PARTIAL_RESPONSE_DEFAULT;
     
     private static final boolean MYFACES_IMPL_AVAILABLE;
     private static final boolean RI_IMPL_AVAILABLE;
@@ -1147,6 +1286,19 @@ else if (refreshTransientBuildOnPSS.equalsIgnoreCase("true") ||
         
         cfg.compressStateInSession = getBoolean(extCtx, COMPRESS_STATE_IN_SESSION,
                 COMPRESS_STATE_IN_SESSION_DEFAULT);
+
+        cfg.viewStateStore = getString(extCtx, VIEW_STATE_STORE,
+                VIEW_STATE_STORE_DEFAULT);
+
+        cfg.viewStateStoreMaxSize = getLong(extCtx, VIEW_STATE_STORE_MAX_SIZE,
+                VIEW_STATE_STORE_MAX_SIZE_DEFAULT);
+        if (cfg.viewStateStoreMaxSize <= 0L)
+        {
+            cfg.viewStateStoreMaxSize = VIEW_STATE_STORE_MAX_SIZE_DEFAULT;
+        }
+
+        cfg.viewStateStoreDirectory = getString(extCtx, VIEW_STATE_STORE_DIRECTORY,
+                null);
         
         cfg.useFlashScopePurgeViewsInSession = getBoolean(extCtx, USE_FLASH_SCOPE_PURGE_VIEWS_IN_SESSION,
                 USE_FLASH_SCOPE_PURGE_VIEWS_IN_SESSION_DEFAULT);
@@ -1284,6 +1436,14 @@ else if (refreshTransientBuildOnPSS.equalsIgnoreCase("true") ||
         
         cfg.websocketMaxConnections = getInt(extCtx, WEBSOCKET_MAX_CONNECTIONS,
                 WEBSOCKET_MAX_CONNECTIONS_DEFAULT);
+        cfg.websocketMaxQueuedMessages = getInt(extCtx, WEBSOCKET_MAX_QUEUED_MESSAGES,
+                WEBSOCKET_MAX_QUEUED_MESSAGES_DEFAULT);
+        if (cfg.websocketMaxQueuedMessages <= 0)
+        {
+            cfg.websocketMaxQueuedMessages = WEBSOCKET_MAX_QUEUED_MESSAGES_DEFAULT;
+        }
+        cfg.websocketQueueOverflowPolicy = getString(extCtx, WEBSOCKET_QUEUE_OVERFLOW_POLICY,
+                WEBSOCKET_QUEUE_OVERFLOW_POLICY_DEFAULT);
 
         cfg.renderClientBehaviorScriptsAsString = getBoolean(extCtx, RENDER_CLIENTBEHAVIOR_SCRIPTS_AS_STRING,
                 RENDER_CLIENTBEHAVIOR_SCRIPTS_AS_STRING_DEFAULT);
@@ -1315,6 +1475,23 @@ else if (refreshTransientBuildOnPSS.equalsIgnoreCase("true") ||
                     ViewHandler.FACELETS_REFRESH_PERIOD_PARAM_NAME,
                     0);
         }
+
+        cfg.faceletsCacheSize = getInt(extCtx, FACELETS_CACHE_SIZE,
+                FACELETS_CACHE_SIZE_DEFAULT);
+
+        cfg.faceletsPrecompiledCacheDir = getString(extCtx, FACELETS_PRECOMPILED_CACHE_DIR, null);
+
+        cfg.warmupEnabled = getBoolean(extCtx, WARMUP_ENABLED, WARMUP_ENABLED_DEFAULT);
+        cfg.warmupTimeout = getLong(extCtx, WARMUP_TIMEOUT, WARMUP_TIMEOUT_DEFAULT);
+        if (cfg.warmupTimeout < 0)
+        {
+            cfg.warmupTimeout = WARMUP_TIMEOUT_DEFAULT;
+        }
+        cfg.warmupResources = getString(extCtx, WARMUP_RESOURCES, WARMUP_RESOURCES_DEFAULT);
+
+        cfg.parallelRendering = getBoolean(extCtx, PARALLEL_RENDERING, PARALLEL_RENDERING_DEFAULT);
+        cfg.streamingPartialResponse = getBoolean(extCtx, STREAMING_PARTIAL_RESPONSE,
+                STREAMING_PARTIAL_RESPONSE_DEFAULT);
         
         return cfg;
     }
@@ -1601,6 +1778,21 @@ public boolean isCompressStateInSession()
         return compressStateInSession;
     }
 
+    public String getViewStateStore()
+    {
+        return viewStateStore;
+    }
+
+    public long getViewStateStoreMaxSize()
+    {
+        return viewStateStoreMaxSize;
+    }
+
+    public String getViewStateStoreDirectory()
+    {
+        return viewStateStoreDirectory;
+    }
+
     public boolean isUseFlashScopePurgeViewsInSession()
     {
         return useFlashScopePurgeViewsInSession;
@@ -1741,6 +1933,16 @@ public int getWebsocketMaxConnections()
         return websocketMaxConnections;
     }
 
+    public int getWebsocketMaxQueuedMessages()
+    {
+        return websocketMaxQueuedMessages;
+    }
+
+    public String getWebsocketQueueOverflowPolicy()
+    {
+        return websocketQueueOverflowPolicy;
+    }
+
     public boolean isRenderClientBehaviorScriptsAsString()
     {
         return renderClientBehaviorScriptsAsString;
@@ -1781,5 +1983,39 @@ public long getFaceletsRefreshPeriod()
         return faceletsRefreshPeriod;
     }
 
-}
+    public int getFaceletsCacheSize()
+    {
+        return faceletsCacheSize;
+    }
+
+    public String getFaceletsPrecompiledCacheDir()
+    {
+        return faceletsPrecompiledCacheDir;
+    }
+
+    public boolean isWarmupEnabled()
+    {
+        return warmupEnabled;
+    }
 
+    public long getWarmupTimeout()
+    {
+        return warmupTimeout;
+    }
+
+    public String getWarmupResources()
+    {
+        return warmupResources;
+    }
+
+    public boolean isParallelRendering()
+    {
+        return parallelRendering;
+    }
+
+    public boolean isStreamingPartialResponse()
+    {
+        return streamingPartialResponse;
+    }
+
+}
@@ -36,6 +36,7 @@
 
 import org.apache.myfaces.context.servlet.FacesContextImpl;
 import org.apache.myfaces.core.api.shared.lang.Assert;
+import org.apache.myfaces.core.api.shared.lang.ScopedLocal;
 import org.apache.myfaces.util.lang.ClassUtils;
 
 /**
@@ -70,13 +71,13 @@ public class FacesContextFactoryImpl extends FacesContextFactory implements Rele
      * 
      * We need
      */
-    private final ThreadLocal<ExternalContext> _firstExternalContextInstance;
+    private final ScopedLocal<ExternalContext> _firstExternalContextInstance;
     
     @SuppressWarnings("unchecked")
     public FacesContextFactoryImpl()
     {
         super();
-        ThreadLocal<ExternalContext> firstExternalContextInstance = null;
+        ScopedLocal<ExternalContext> firstExternalContextInstance = null;
         try
         {
             Class clazz = ClassUtils.classForName("jakarta.faces.context._MyFacesExternalContextHelper");
@@ -86,7 +87,7 @@ public FacesContextFactoryImpl()
             if (firstExternalContextInstance == null)
             {
                 firstExternalContextInstance = 
-                    (ThreadLocal<ExternalContext>) externalContextFirstInstance.get(null);
+                    (ScopedLocal<ExternalContext>) externalContextFirstInstance.get(null);
             }
         }
         catch (SecurityException e)
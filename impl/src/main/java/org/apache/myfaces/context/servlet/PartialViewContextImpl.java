@@ -23,6 +23,7 @@
 import java.util.Collection;
 import java.util.Collections;
 import java.util.EnumSet;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -51,11 +52,13 @@
 import jakarta.faces.view.ViewMetadata;
 import org.apache.myfaces.application.ResourceHandlerImpl;
 import org.apache.myfaces.application.viewstate.StateTokenProcessor;
+import org.apache.myfaces.config.webparameters.MyfacesConfig;
 
 import org.apache.myfaces.context.PartialResponseWriterImpl;
 import org.apache.myfaces.context.RequestViewContext;
 import org.apache.myfaces.renderkit.html.HtmlResponseStateManager;
 import org.apache.myfaces.renderkit.html.util.ResourceUtils;
+import org.apache.myfaces.util.lang.FastWriter;
 import org.apache.myfaces.util.lang.StringUtils;
 import org.apache.myfaces.component.visit.MyFacesVisitHints;
 import org.apache.myfaces.renderkit.html.util.ComponentAttrs;
@@ -68,6 +71,7 @@ public class PartialViewContextImpl extends PartialViewContext
     private static final String PARTIAL_AJAX = "partial/ajax";
     private static final String PARTIAL_AJAX_REQ = "jakarta.faces.partial.ajax";
     private static final String PARTIAL_PROCESS = "partial/process";
+    private static final String NO_PARTIAL_PHASE_CLIENT_IDS = "@none";
     
     private static final Set<VisitHint> PARTIAL_EXECUTE_HINTS = Collections.unmodifiableSet( 
             EnumSet.of(VisitHint.EXECUTE_LIFECYCLE, VisitHint.SKIP_UNRENDERED));
@@ -88,6 +92,8 @@ public class PartialViewContextImpl extends PartialViewContext
     private VisitContextFactory visitContextFactory = null;
     private Boolean _resetValues = null;
     private List<String> _evalScripts = new ArrayList<>();
+    private boolean _streamingPartialResponse = false;
+    private boolean _partialResponseFlushed = false;
 
     public PartialViewContextImpl(FacesContext context)
     {
@@ -126,7 +132,7 @@ public boolean isExecuteAll()
         {
             String executeMode = context.getExternalContext().
                     getRequestParameterMap().get(PartialViewContext.PARTIAL_EXECUTE_PARAM_NAME);
-            if (PartialViewContext.ALL_PARTIAL_PHASE_CLIENT_IDS.equals(executeMode))
+            if (_isAllPartialPhaseClientIds(executeMode))
             {
                 return true;
             }
@@ -158,7 +164,7 @@ public boolean isRenderAll()
             {
                 String executeMode = context.getExternalContext().
                         getRequestParameterMap().get(PartialViewContext.PARTIAL_RENDER_PARAM_NAME);
-                if (PartialViewContext.ALL_PARTIAL_PHASE_CLIENT_IDS.equals(executeMode))
+                if (_isAllPartialPhaseClientIds(executeMode))
                 {
                     _renderAll = true;
                 }
@@ -198,21 +204,9 @@ public Collection<String> getExecuteIds()
                     getRequestParameterMap().get(PartialViewContext.PARTIAL_EXECUTE_PARAM_NAME);
 
             if (executeMode != null && !executeMode.isEmpty()
-                    && !PartialViewContext.ALL_PARTIAL_PHASE_CLIENT_IDS.equals(executeMode))
+                    && !_isAllPartialPhaseClientIds(executeMode))
             {
-
-                String[] clientIds
-                        = StringUtils.splitShortString(_replaceTabOrEnterCharactersWithSpaces(executeMode), ' ');
-
-                //The collection must be mutable
-                List<String> tempList = new ArrayList<>(clientIds.length);
-                for (String clientId : clientIds)
-                {
-                    if (clientId.length() > 0)
-                    {
-                        tempList.add(clientId);
-                    }
-                }
+                List<String> tempList = _splitClientIds(executeMode);
                 // The "jakarta.faces.source" parameter needs to be added to the list of
                 // execute ids if missing (otherwise, we'd never execute an action associated
                 // with, e.g., a button).
@@ -240,6 +234,47 @@ public Collection<String> getExecuteIds()
         return _executeClientIds;
     }
 
+    /**
+     * The ids of a list which can be the merge of the lists of several requests, like the requests coalesced by
+     * faces.js: blank, duplicated and @none ids are skipped.
+     *
+     * @return a mutable list of the ids
+     */
+    private List<String> _splitClientIds(String mode)
+    {
+        String[] clientIds = StringUtils.splitShortString(_replaceTabOrEnterCharactersWithSpaces(mode), ' ');
+
+        //The collection must be mutable
+        List<String> tempList = new ArrayList<>(clientIds.length);
+        Set<String> added = clientIds.length > 8 ? new HashSet<>(clientIds.length * 2) : null;
+        for (String clientId : clientIds)
+        {
+            if (clientId.length() > 0 && !NO_PARTIAL_PHASE_CLIENT_IDS.equals(clientId)
+                    && (added == null ? !tempList.contains(clientId) : added.add(clientId)))
+            {
+                tempList.add(clientId);
+            }
+        }
+        return tempList;
+    }
+
+    /**
+     * @return true if the list is @all, or a merged list containing @all
+     */
+    private boolean _isAllPartialPhaseClientIds(String mode)
+    {
+        if (mode == null)
+        {
+            return false;
+        }
+        if (PartialViewContext.ALL_PARTIAL_PHASE_CLIENT_IDS.equals(mode))
+        {
+            return true;
+        }
+        return mode.contains(PartialViewContext.ALL_PARTIAL_PHASE_CLIENT_IDS)
+                && _splitClientIds(mode).contains(PartialViewContext.ALL_PARTIAL_PHASE_CLIENT_IDS);
+    }
+
     private String _replaceTabOrEnterCharactersWithSpaces(String mode)
     {
         if (mode == null)
@@ -283,26 +318,14 @@ public Collection<String> getRenderIds()
                     PartialViewContext.PARTIAL_RENDER_PARAM_NAME);
 
             if (renderMode != null && !renderMode.isEmpty()
-                    && !PartialViewContext.ALL_PARTIAL_PHASE_CLIENT_IDS.equals(renderMode))
+                    && !_isAllPartialPhaseClientIds(renderMode))
             {
-                String[] clientIds
-                        = StringUtils.splitShortString(_replaceTabOrEnterCharactersWithSpaces(renderMode), ' ');
-
-                //The collection must be mutable
-                List<String> tempList = new ArrayList<>(clientIds.length);
-                for (String clientId : clientIds)
-                {
-                    if (clientId.length() > 0)
-                    {
-                        tempList.add(clientId);
-                    }
-                }
-                _renderClientIds = tempList;
+                _renderClientIds = _splitClientIds(renderMode);
             }
             else
             {
                 _renderClientIds = new ArrayList<>(5);
-                if (PartialViewContext.ALL_PARTIAL_PHASE_CLIENT_IDS.equals(renderMode))
+                if (_isAllPartialPhaseClientIds(renderMode))
                 {
                     _renderClientIds.add(PartialResponseWriter.RENDER_ALL_MARKER);
                 }
@@ -428,6 +451,8 @@ private void processPartialRendering(UIViewRoot viewRoot, PhaseId phaseId)
         //http://support.microsoft.com/kb/234067
         externalContext.addResponseHeader("Expires", "-1");
 
+        _streamingPartialResponse = MyfacesConfig.getCurrentInstance(context).isStreamingPartialResponse();
+
         try
         {
             writer.startDocument();
@@ -539,6 +564,43 @@ else if (viewRoot.isTransient())
                 log.log(Level.SEVERE, "", ex);
             }
         }
+        catch (RuntimeException ex)
+        {
+            if (!_partialResponseFlushed)
+            {
+                throw ex;
+            }
+            // the updates already sent cannot be replaced by the response of the ExceptionHandler anymore,
+            // so the error ends the streamed response
+            if (log.isLoggable(Level.SEVERE))
+            {
+                log.log(Level.SEVERE, "Error rendering the streamed partial response", ex);
+            }
+            try
+            {
+                // the error follows the changes, the updates are completed
+                writer.endElement("changes");
+                writer.startError(ex.getClass().getName());
+                if (ex.getCause() != null)
+                {
+                    writer.write(ex.getCause().toString());
+                }
+                else if (ex.getMessage() != null)
+                {
+                    writer.write(ex.getMessage());
+                }
+                writer.endError();
+                writer.endElement("partial-response");
+                inDocument = false;
+            }
+            catch (IOException e)
+            {
+                if (log.isLoggable(Level.SEVERE))
+                {
+                    log.log(Level.SEVERE, "Cannot render exception on ajax request", e);
+                }
+            }
+        }
         finally
         {
             try
@@ -570,53 +632,99 @@ private void processRenderResource(FacesContext facesContext, PartialResponseWri
             List<UIComponent> list = rvc.getRenderTargetComponentList(target);
             if (list != null && !list.isEmpty())
             {
-                writer.startUpdate("jakarta.faces.Resource");
-                for (UIComponent component : list)
+                if (_streamingPartialResponse)
                 {
-                    boolean resourceRendered = false;
-                    if (ResourceUtils.DEFAULT_SCRIPT_RENDERER_TYPE.equals(component.getRendererType())
-                            || ResourceUtils.DEFAULT_STYLESHEET_RENDERER_TYPE.equals(component.getRendererType()))
-                    {
-                        String resourceName = (String) component.getAttributes().get(ComponentAttrs.NAME_ATTR);
-                        String libraryName = (String) component.getAttributes().get(ComponentAttrs.LIBRARY_ATTR);
+                    streamUpdate(writer, "jakarta.faces.Resource",
+                            () -> encodeResources(facesContext, list, updatedComponents));
+                }
+                else
+                {
+                    writer.startUpdate("jakarta.faces.Resource");
+                    encodeResources(facesContext, list, updatedComponents);
+                    writer.endUpdate();
+                }
+            }
+        }
+    }
 
-                        if (resourceName == null || resourceName.isEmpty())
-                        {
-                            // No resource, render all
-                            component.encodeAll(facesContext);
-                            continue;
-                        }
+    private void encodeResources(FacesContext facesContext, List<UIComponent> list,
+            List<UIComponent> updatedComponents) throws IOException
+    {
+        for (UIComponent component : list)
+        {
+            boolean resourceRendered = false;
+            if (ResourceUtils.DEFAULT_SCRIPT_RENDERER_TYPE.equals(component.getRendererType())
+                    || ResourceUtils.DEFAULT_STYLESHEET_RENDERER_TYPE.equals(component.getRendererType()))
+            {
+                String resourceName = (String) component.getAttributes().get(ComponentAttrs.NAME_ATTR);
+                String libraryName = (String) component.getAttributes().get(ComponentAttrs.LIBRARY_ATTR);
 
-                        int index = resourceName.indexOf('?');
-                        if (index >= 0)
-                        {
-                            resourceName = resourceName.substring(0, index);
-                        }
-                        // Is resource, render only if it has not been rendered before.
-                        if (!context.getApplication().getResourceHandler().isResourceRendered(
-                                context, resourceName, libraryName))
-                        {
-                            component.encodeAll(facesContext);
-                        }
-                    }
-                    else
-                    {
-                        component.encodeAll(facesContext);
-                    }
-                    if (!resourceRendered)
-                    {
-                        if (updatedComponents == null)
-                        {
-                            updatedComponents = new ArrayList<>();
-                        }
-                        updatedComponents.add(component);
-                    }
+                if (resourceName == null || resourceName.isEmpty())
+                {
+                    // No resource, render all
+                    component.encodeAll(facesContext);
+                    continue;
                 }
-                writer.endUpdate();
+
+                int index = resourceName.indexOf('?');
+                if (index >= 0)
+                {
+                    resourceName = resourceName.substring(0, index);
+                }
+                // Is resource, render only if it has not been rendered before.
+                if (!context.getApplication().getResourceHandler().isResourceRendered(
+                        context, resourceName, libraryName))
+                {
+                    component.encodeAll(facesContext);
+                }
+            }
+            else
+            {
+                component.encodeAll(facesContext);
+            }
+            if (!resourceRendered)
+            {
+                if (updatedComponents == null)
+                {
+                    updatedComponents = new ArrayList<>();
+                }
+                updatedComponents.add(component);
             }
         }
     }
 
+    /**
+     * Writes an update of the streamed partial response and sends it to the client. The content is rendered ahead,
+     * so nothing of an update whose rendering fails is sent.
+     */
+    private void streamUpdate(PartialResponseWriter writer, String targetId, UpdateContent content)
+            throws IOException
+    {
+        FastWriter buffer = new FastWriter();
+        context.setResponseWriter(writer.cloneWithWriter(buffer));
+        try
+        {
+            content.encode();
+        }
+        finally
+        {
+            context.setResponseWriter(writer);
+        }
+
+        writer.startUpdate(targetId);
+        writer.write(buffer.toString());
+        writer.endUpdate();
+        writer.flush();
+        context.getExternalContext().responseFlushBuffer();
+        _partialResponseFlushed = true;
+    }
+
+    @FunctionalInterface
+    private interface UpdateContent
+    {
+        void encode() throws IOException;
+    }
+
     private void processRenderAll(UIViewRoot viewRoot, PartialResponseWriter writer) throws IOException
     {
         // Before render all we need to clear rendered resources set to be sure every component resource is
@@ -759,6 +867,11 @@ private void processRenderComponent(UIComponent target)
             }
             try
             {
+                if (_streamingPartialResponse)
+                {
+                    streamUpdate(writer, target.getClientId(_facesContext), () -> target.encodeAll(_facesContext));
+                    return;
+                }
                 writer.startUpdate(target.getClientId(_facesContext));
                 inUpdate = true;
                 target.encodeAll(_facesContext);
@@ -0,0 +1,287 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.myfaces.el;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.ResourceBundle;
+import java.util.concurrent.ConcurrentHashMap;
+
+import jakarta.el.ArrayELResolver;
+import jakarta.el.BeanELResolver;
+import jakarta.el.CompositeELResolver;
+import jakarta.el.ELClass;
+import jakarta.el.ELContext;
+import jakarta.el.ELResolver;
+import jakarta.el.ListELResolver;
+import jakarta.el.MapELResolver;
+import jakarta.el.ResourceBundleELResolver;
+import jakarta.el.StaticFieldELResolver;
+import jakarta.faces.application.ResourceHandler;
+import jakarta.faces.component.UIComponent;
+import jakarta.faces.context.Flash;
+
+import org.apache.myfaces.el.resolver.CompositeComponentELResolver;
+import org.apache.myfaces.el.resolver.EmptyStringToNullELResolver;
+import org.apache.myfaces.el.resolver.FlashELResolver;
+import org.apache.myfaces.el.resolver.ImportConstantsELResolver;
+import org.apache.myfaces.el.resolver.LambdaBeanELResolver;
+import org.apache.myfaces.el.resolver.ResourceBundleResolver;
+import org.apache.myfaces.el.resolver.ResourceResolver;
+import org.apache.myfaces.el.resolver.ScopedAttributeResolver;
+import org.apache.myfaces.el.resolver.implicitobject.ImplicitObjectResolver;
+
+/**
+ * A CompositeELResolver which skips the resolvers which cannot resolve a base, for getValue, getType, setValue and
+ * isReadOnly. The resolvers are routed by base class, or by identifier when the base is null, and the resolvers of a
+ * base class are cached. The routed resolvers keep the order of the chain.
+ *
+ * <p>Only resolvers of the known classes below are ever skipped, by their exact class, resolvers of other classes
+ * like custom or CDI resolvers are never skipped.</p>
+ */
+public class RoutingCompositeELResolver extends CompositeELResolver
+{
+    private volatile Chain chain = new Chain(new ELResolver[0]);
+
+    @Override
+    public synchronized void add(ELResolver elResolver)
+    {
+        super.add(elResolver);
+
+        ELResolver[] resolvers = Arrays.copyOf(chain.resolvers, chain.resolvers.length + 1);
+        resolvers[resolvers.length - 1] = elResolver;
+        chain = new Chain(resolvers);
+    }
+
+    @Override
+    public Object getValue(ELContext context, Object base, Object property)
+    {
+        context.setPropertyResolved(false);
+
+        for (ELResolver resolver : route(base, property))
+        {
+            Object value = resolver.getValue(context, base, property);
+            if (context.isPropertyResolved())
+            {
+                return value;
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public Class<?> getType(ELContext context, Object base, Object property)
+    {
+        context.setPropertyResolved(false);
+
+        for (ELResolver resolver : route(base, property))
+        {
+            Class<?> type = resolver.getType(context, base, property);
+            if (context.isPropertyResolved())
+            {
+                return type;
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public void setValue(ELContext context, Object base, Object property, Object value)
+    {
+        context.setPropertyResolved(false);
+
+        for (ELResolver resolver : route(base, property))
+        {
+            resolver.setValue(context, base, property, value);
+            if (context.isPropertyResolved())
+            {
+                return;
+            }
+        }
+    }
+
+    @Override
+    public boolean isReadOnly(ELContext context, Object base, Object property)
+    {
+        context.setPropertyResolved(false);
+
+        for (ELResolver resolver : route(base, property))
+        {
+            boolean readOnly = resolver.isReadOnly(context, base, property);
+            if (context.isPropertyResolved())
+            {
+                return readOnly;
+            }
+        }
+        return false;
+    }
+
+    private ELResolver[] route(Object base, Object property)
+    {
+        Chain current = chain;
+
+        // the FlashELResolver resolves "flash" whatever the base, and fails on a null property
+        if (property == null || FlashELResolver.FLASH.equals(property))
+        {
+            return current.resolvers;
+        }
+
+        if (base == null)
+        {
+            if (property instanceof String)
+            {
+                for (ImplicitObjectResolver resolver : current.implicitObjectResolvers)
+                {
+                    if (resolver.isImplicitObject((String) property))
+                    {
+                        return current.nullBaseImplicitObjectResolvers;
+                    }
+                }
+            }
+            return current.nullBaseResolvers;
+        }
+
+        Class<?> baseClass = base.getClass();
+        ELResolver[] resolvers = current.resolversByBaseClass.get(baseClass);
+        if (resolvers == null)
+        {
+            List<ELResolver> routed = new ArrayList<>(current.resolvers.length);
+            for (ELResolver resolver : current.resolvers)
+            {
+                if (canResolve(resolver, baseClass))
+                {
+                    routed.add(resolver);
+                }
+            }
+            resolvers = routed.toArray(new ELResolver[routed.size()]);
+            current.resolversByBaseClass.put(baseClass, resolvers);
+        }
+        return resolvers;
+    }
+
+    /**
+     * @return false if the resolver never resolves a base of this class, whatever the property
+     */
+    private static boolean canResolve(ELResolver resolver, Class<?> baseClass)
+    {
+        Class<?> resolverClass = resolver.getClass();
+        if (resolverClass == ImplicitObjectResolver.class
+                || resolverClass == ResourceBundleResolver.class
+                || resolverClass == ImportConstantsELResolver.class
+                || resolverClass == ScopedAttributeResolver.class
+                || resolverClass == EmptyStringToNullELResolver.class)
+        {
+            return false;
+        }
+        if (resolverClass == MapELResolver.class)
+        {
+            return Map.class.isAssignableFrom(baseClass);
+        }
+        if (resolverClass == ListELResolver.class)
+        {
+            return List.class.isAssignableFrom(baseClass);
+        }
+        if (resolverClass == ArrayELResolver.class)
+        {
+            return baseClass.isArray();
+        }
+        if (resolverClass == ResourceBundleELResolver.class)
+        {
+            return ResourceBundle.class.isAssignableFrom(baseClass);
+        }
+        if (resolverClass == StaticFieldELResolver.class)
+        {
+            return ELClass.class.isAssignableFrom(baseClass);
+        }
+        if (resolverClass == FlashELResolver.class)
+        {
+            return Flash.class.isAssignableFrom(baseClass);
+        }
+        if (resolverClass == ResourceResolver.class)
+        {
+            return ResourceHandler.class.isAssignableFrom(baseClass);
+        }
+        if (resolverClass == CompositeComponentELResolver.class)
+        {
+            // the attributes map of a composite component is a Map
+            return UIComponent.class.isAssignableFrom(baseClass) || Map.class.isAssignableFrom(baseClass);
+        }
+        return true;
+    }
+
+    /**
+     * @return false if the resolver never resolves a null base, the "flash" property excepted
+     */
+    private static boolean canResolveNullBase(ELResolver resolver)
+    {
+        Class<?> resolverClass = resolver.getClass();
+        return resolverClass != MapELResolver.class
+                && resolverClass != ListELResolver.class
+                && resolverClass != ArrayELResolver.class
+                && resolverClass != BeanELResolver.class
+                && resolverClass != LambdaBeanELResolver.class
+                && resolverClass != ResourceBundleELResolver.class
+                && resolverClass != StaticFieldELResolver.class
+                && resolverClass != FlashELResolver.class
+                && resolverClass != ResourceResolver.class
+                && resolverClass != CompositeComponentELResolver.class
+                && resolverClass != EmptyStringToNullELResolver.class;
+    }
+
+    /**
+     * The resolvers of the chain, and their routes.
+     */
+    private static final class Chain
+    {
+        private final ELResolver[] resolvers;
+        private final ELResolver[] nullBaseResolvers;
+        private final ELResolver[] nullBaseImplicitObjectResolvers;
+        private final ImplicitObjectResolver[] implicitObjectResolvers;
+        private final Map<Class<?>, ELResolver[]> resolversByBaseClass = new ConcurrentHashMap<>();
+
+        private Chain(ELResolver[] resolvers)
+        {
+            this.resolvers = resolvers;
+
+            List<ELResolver> nullBase = new ArrayList<>(resolvers.length);
+            List<ELResolver> nullBaseImplicitObject = new ArrayList<>(resolvers.length);
+            List<ImplicitObjectResolver> implicitObject = new ArrayList<>(1);
+            for (ELResolver resolver : resolvers)
+            {
+                if (resolver.getClass() == ImplicitObjectResolver.class)
+                {
+                    // only resolves its implicit objects
+                    implicitObject.add((ImplicitObjectResolver) resolver);
+                    nullBaseImplicitObject.add(resolver);
+                }
+                else if (canResolveNullBase(resolver))
+                {
+                    nullBase.add(resolver);
+                    nullBaseImplicitObject.add(resolver);
+                }
+            }
+            this.nullBaseResolvers = nullBase.toArray(new ELResolver[nullBase.size()]);
+            this.nullBaseImplicitObjectResolvers =
+                    nullBaseImplicitObject.toArray(new ELResolver[nullBaseImplicitObject.size()]);
+            this.implicitObjectResolvers = implicitObject.toArray(new ImplicitObjectResolver[implicitObject.size()]);
+        }
+    }
+}
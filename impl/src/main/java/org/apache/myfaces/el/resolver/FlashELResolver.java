@@ -39,7 +39,7 @@
 public class FlashELResolver extends ELResolver
 {
 
-    private final static String FLASH = "flash";
+    public final static String FLASH = "flash";
 
     private final static String KEEP = "keep";
 
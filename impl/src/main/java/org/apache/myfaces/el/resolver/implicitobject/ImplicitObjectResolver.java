@@ -118,6 +118,14 @@ private ImplicitObjectResolver(Map<String, ImplicitObject> implicitObjects)
         this.implicitObjects = implicitObjects;
     }
 
+    /**
+     * @return true if the name is the name of an implicit object of this resolver, the only names it resolves
+     */
+    public boolean isImplicitObject(String name)
+    {
+        return implicitObjects.containsKey(name);
+    }
+
     @Override
     public void setValue(ELContext context, Object base, Object property, Object value) throws NullPointerException,
         PropertyNotFoundException, PropertyNotWritableException, ELException
@@ -32,7 +32,9 @@
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import org.apache.myfaces.cdi.util.CDIUtils;
+import org.apache.myfaces.config.webparameters.MyfacesConfig;
 import org.apache.myfaces.push.cdi.WebsocketSessionManager;
+import org.apache.myfaces.push.cdi.WebsocketSessionOutbox;
 import org.apache.myfaces.util.lang.Lazy;
 
 /**
@@ -66,6 +68,12 @@ public void onOpen(Session session, EndpointConfig config)
             session.setMaxIdleTimeout((Long) config.getUserProperties().getOrDefault(
                     WebsocketConfigurator.MAX_IDLE_TIMEOUT, 0));
 
+            sessionManager.createOutbox(session,
+                    (Integer) config.getUserProperties().getOrDefault(WebsocketConfigurator.MAX_QUEUED_MESSAGES,
+                            MyfacesConfig.WEBSOCKET_MAX_QUEUED_MESSAGES_DEFAULT),
+                    WebsocketSessionOutbox.OverflowPolicy.parse(
+                            (String) config.getUserProperties().get(WebsocketConfigurator.QUEUE_OVERFLOW_POLICY)));
+
             Serializable user = (Serializable) session.getUserProperties().get(WebsocketConfigurator.WEBSOCKET_USER);
 
             if (LOG.isLoggable(Level.FINE))
@@ -18,19 +18,29 @@
  */
 package org.apache.myfaces.push;
 
-import java.beans.BeanInfo;
 import java.beans.IntrospectionException;
 import java.beans.Introspector;
 import java.beans.PropertyDescriptor;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
 import java.lang.reflect.Array;
+import java.lang.reflect.Method;
 import java.text.ParseException;
 import java.text.SimpleDateFormat;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Date;
+import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 import java.util.Map.Entry;
-import java.util.TimeZone;
+import java.util.function.Function;
+import org.apache.myfaces.core.api.shared.lang.LambdaPropertyDescriptor;
+import org.apache.myfaces.core.api.shared.lang.PropertyDescriptorUtils;
 
 /**
  * A simple JSON encoder.
@@ -48,6 +58,18 @@
     private static final String ERROR_INVALID_BEAN = "Cannot introspect object of type '%s' as bean.";
     private static final String ERROR_INVALID_GETTER = "Cannot invoke getter of property '%s' of bean '%s'.";
 
+    /**
+     * The bean encoders, introspected only once per class.
+     */
+    private static final ClassValue<BeanEncoder> BEAN_ENCODERS = new ClassValue<BeanEncoder>()
+    {
+        @Override
+        protected BeanEncoder computeValue(Class<?> type)
+        {
+            return new BeanEncoder(type);
+        }
+    };
+
     // Constructors ---------------------------------------------------------------------------------------------------
     private Json()
     {
@@ -75,9 +97,14 @@ public static String encode(Object object)
     }
 
     /**
-     * Method allowing tail recursion (prevents potential stack overflow on deeply nested structures).
+     * Encodes the given object as JSON into the given builder, so it can be reused by the caller.
+     *
+     * @param object The object to be encoded as JSON.
+     * @param builder The builder to append the JSON-encoded representation to.
+     * @throws IllegalArgumentException When the given object or one of its properties cannot be inspected as a bean.
+     * @see #encode(Object)
      */
-    private static void encode(Object object, StringBuilder builder)
+    public static void encode(Object object, StringBuilder builder)
     {
         if (object == null)
         {
@@ -89,11 +116,15 @@ else if (object instanceof Boolean || object instanceof Number)
         }
         else if (object instanceof CharSequence)
         {
-            builder.append('"').append(escapeJS(object.toString(), false)).append('"');
+            builder.append('"');
+            escapeJS(object.toString(), false, builder);
+            builder.append('"');
         }
         else if (object instanceof Date)
         {
-            builder.append('"').append(formatRFC1123((Date) object)).append('"');
+            builder.append('"');
+            RFC1123_DATE_FORMATTER.formatTo(Instant.ofEpochMilli(((Date) object).getTime()), builder);
+            builder.append('"');
         }
         else if (object instanceof Collection<?>)
         {
@@ -187,56 +218,157 @@ private static void encodeMap(Map<?, ?> map, StringBuilder builder)
      */
     private static void encodeBean(Object bean, StringBuilder builder)
     {
-        BeanInfo beanInfo;
-
-        try
-        {
-            beanInfo = Introspector.getBeanInfo(bean.getClass());
-        }
-        catch (IntrospectionException e)
-        {
-            throw new IllegalArgumentException(
-                    String.format(ERROR_INVALID_BEAN, bean.getClass()), e);
-        }
+        BEAN_ENCODERS.get(bean.getClass()).encode(bean, builder);
+    }
 
-        builder.append('{');
-        int i = 0;
+    /**
+     * Encodes the beans of a class with the getters of its public properties, looked up only once. The getters are
+     * generated with the LambdaMetafactory if possible, like {@link PropertyDescriptorUtils} does, and fall back to
+     * method handles otherwise.
+     */
+    private static final class BeanEncoder
+    {
+        private final String[] names;
+        private final String[] keys;
+        private final List<Function<Object, Object>> getters;
 
-        for (PropertyDescriptor property : beanInfo.getPropertyDescriptors())
+        BeanEncoder(Class<?> type)
         {
-            if (property.getReadMethod() == null || "class".equals(property.getName()))
+            PropertyDescriptor[] propertyDescriptors;
+            try
             {
-                continue;
+                propertyDescriptors = Introspector.getBeanInfo(type).getPropertyDescriptors();
+            }
+            catch (IntrospectionException e)
+            {
+                throw new IllegalArgumentException(String.format(ERROR_INVALID_BEAN, type), e);
             }
 
-            Object value;
-
+            MethodHandles.Lookup lookup = null;
             try
             {
-                value = property.getReadMethod().invoke(bean);
+                lookup = MethodHandles.privateLookupIn(type, MethodHandles.lookup());
             }
-            catch (Exception e)
+            catch (IllegalAccessException | RuntimeException e)
             {
-                throw new IllegalArgumentException(
-                        String.format(ERROR_INVALID_GETTER, property.getName(), bean.getClass()), e);
+                // not accessible, the getters will be unreflected with the public lookup
             }
 
-            if (value == null)
+            List<String> names = new ArrayList<>(propertyDescriptors.length);
+            List<Function<Object, Object>> getters = new ArrayList<>(propertyDescriptors.length);
+            for (PropertyDescriptor property : propertyDescriptors)
             {
-                continue;
+                if (property.getReadMethod() == null || "class".equals(property.getName()))
+                {
+                    continue;
+                }
+                names.add(property.getName());
+                getters.add(createGetter(type, property, lookup));
             }
 
-            if (i++ > 0)
+            this.names = names.toArray(new String[names.size()]);
+            this.keys = new String[this.names.length];
+            for (int i = 0; i < this.names.length; i++)
             {
-                builder.append(',');
+                StringBuilder key = new StringBuilder(this.names[i].length() + 3).append('"');
+                escapeJS(this.names[i], false, key);
+                this.keys[i] = key.append('"').append(':').toString();
             }
+            this.getters = getters;
+        }
 
-            encode(property.getName(), builder);
-            builder.append(':');
-            encode(value, builder);
+        private static Function<Object, Object> createGetter(Class<?> type, PropertyDescriptor property,
+                MethodHandles.Lookup lookup)
+        {
+            if (lookup != null)
+            {
+                try
+                {
+                    LambdaPropertyDescriptor lpd =
+                            PropertyDescriptorUtils.createLambdaPropertyDescriptor(type, property, lookup);
+                    if (lpd != null && lpd.getReadFunction() != null)
+                    {
+                        return lpd.getReadFunction();
+                    }
+                }
+                catch (Throwable e)
+                {
+                    // fall back to a method handle
+                }
+            }
+
+            Method readMethod = property.getReadMethod();
+            try
+            {
+                MethodHandle handle = MethodHandles.publicLookup().unreflect(readMethod)
+                        .asType(MethodType.methodType(Object.class, Object.class));
+                return bean ->
+                {
+                    try
+                    {
+                        return handle.invokeExact(bean);
+                    }
+                    catch (RuntimeException | Error e)
+                    {
+                        throw e;
+                    }
+                    catch (Throwable e)
+                    {
+                        throw new IllegalStateException(e);
+                    }
+                };
+            }
+            catch (IllegalAccessException e)
+            {
+                return bean ->
+                {
+                    try
+                    {
+                        return readMethod.invoke(bean);
+                    }
+                    catch (ReflectiveOperationException e1)
+                    {
+                        throw new IllegalStateException(e1);
+                    }
+                };
+            }
         }
 
-        builder.append('}');
+        void encode(Object bean, StringBuilder builder)
+        {
+            builder.append('{');
+            int i = 0;
+
+            for (int j = 0; j < getters.size(); j++)
+            {
+                Object value;
+
+                try
+                {
+                    value = getters.get(j).apply(bean);
+                }
+                catch (Exception e)
+                {
+                    throw new IllegalArgumentException(
+                            String.format(ERROR_INVALID_GETTER, names[j], bean.getClass()), e);
+                }
+
+                if (value == null)
+                {
+                    continue;
+                }
+
+                if (i++ > 0)
+                {
+                    builder.append(',');
+                }
+
+                builder.append(keys[j]);
+                Json.encode(value, builder);
+            }
+
+            builder.append('}');
+        }
     }
 
     
@@ -266,9 +398,15 @@ public static String escapeJS(String string, boolean escapeSingleQuote)
         }
 
         StringBuilder builder = new StringBuilder(string.length());
+        escapeJS(string, escapeSingleQuote, builder);
+        return builder.toString();
+    }
 
-        for (char c : string.toCharArray())
+    private static void escapeJS(String string, boolean escapeSingleQuote, StringBuilder builder)
+    {
+        for (int i = 0; i < string.length(); i++)
         {
+            char c = string.charAt(i);
             if (c > UNICODE_3_BYTES)
             {
                 builder.append("\\u").append(Integer.toHexString(c));
@@ -290,8 +428,6 @@ else if (c < UNICODE_BEGIN_PRINTABLE_ASCII)
                 escapeJSASCIICharacter(builder, c, escapeSingleQuote);
             }
         }
-
-        return builder.toString();
     }
 
     private static void escapeJSControlCharacter(StringBuilder builder, char c)
@@ -356,7 +492,8 @@ private static void escapeJSASCIICharacter(StringBuilder builder, char c, boolea
     // Dates ----------------------------------------------------------------------------------------------------------
     
     private static final String PATTERN_RFC1123_DATE = "EEE, dd MMM yyyy HH:mm:ss zzz";
-    private static final TimeZone TIMEZONE_GMT = TimeZone.getTimeZone("GMT");
+    private static final DateTimeFormatter RFC1123_DATE_FORMATTER =
+            DateTimeFormatter.ofPattern(PATTERN_RFC1123_DATE, Locale.US).withZone(ZoneId.of("GMT"));
     
     /**
      * Formats the given {@link Date} to a string in RFC1123 format. This format is used in HTTP headers and in
@@ -368,9 +505,7 @@ private static void escapeJSASCIICharacter(StringBuilder builder, char c, boolea
      */
     public static String formatRFC1123(Date date)
     {
-        SimpleDateFormat sdf = new SimpleDateFormat(PATTERN_RFC1123_DATE, Locale.US);
-        sdf.setTimeZone(TIMEZONE_GMT);
-        return sdf.format(date);
+        return RFC1123_DATE_FORMATTER.format(Instant.ofEpochMilli(date.getTime()));
     }
 
     /**
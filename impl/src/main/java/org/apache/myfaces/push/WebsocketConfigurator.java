@@ -37,12 +37,23 @@ public class WebsocketConfigurator extends ServerEndpointConfig.Configurator
     public static final String WEBSOCKET_VALID = "oam.websocket.valid";
     
     public static final String WEBSOCKET_USER = "oam.websocket.user";
+
+    public static final String MAX_QUEUED_MESSAGES = "oam.websocket.maxQueuedMessages";
+
+    public static final String QUEUE_OVERFLOW_POLICY = "oam.websocket.queueOverflowPolicy";
     
     private final Long maxIdleTimeout;
+
+    private final int maxQueuedMessages;
+
+    private final String queueOverflowPolicy;
     
     public WebsocketConfigurator(ExternalContext context)
     {
-        this.maxIdleTimeout = MyfacesConfig.getCurrentInstance(context).getWebsocketMaxIdleTimeout();
+        MyfacesConfig config = MyfacesConfig.getCurrentInstance(context);
+        this.maxIdleTimeout = config.getWebsocketMaxIdleTimeout();
+        this.maxQueuedMessages = config.getWebsocketMaxQueuedMessages();
+        this.queueOverflowPolicy = config.getWebsocketQueueOverflowPolicy();
     }
 
     @Override
@@ -52,6 +63,8 @@ public void modifyHandshake(ServerEndpointConfig sec, HandshakeRequest request,
         {
             sec.getUserProperties().put(MAX_IDLE_TIMEOUT, this.maxIdleTimeout);
         }
+        sec.getUserProperties().put(MAX_QUEUED_MESSAGES, this.maxQueuedMessages);
+        sec.getUserProperties().put(QUEUE_OVERFLOW_POLICY, this.queueOverflowPolicy);
         
         String channelToken = request.getQueryString();
         if (channelToken == null)
@@ -20,6 +20,7 @@
 package org.apache.myfaces.push.cdi;
 
 import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import jakarta.enterprise.context.ApplicationScoped;
 
 import java.io.IOException;
@@ -37,7 +38,13 @@
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import java.util.stream.Collectors;
@@ -61,9 +68,21 @@
 
     private Lazy<ConcurrentHashMap<UserChannelKey, Set<String>>> userMap;
     private Queue<String> restoreQueue;
+    private ExecutorService executor;
+
+    /**
+     * Idle builders to encode the messages, so each push does not grow a new one.
+     * A pool rather than a ThreadLocal, which would keep an entry per sending thread.
+     */
+    private Queue<StringBuilder> jsonBuilders;
 
     private static final CloseReason REASON_EXPIRED = new CloseReason(NORMAL_CLOSURE, "Expired");
 
+    /**
+     * A builder grown beyond this capacity by a large message is not kept.
+     */
+    private static final int MAX_POOLED_JSON_BUILDER_CAPACITY = 8192;
+
     private static final Logger LOG = Logger.getLogger(WebsocketSessionManager.class.getName());
 
     @PostConstruct
@@ -76,6 +95,75 @@ public void init()
         });
         restoreQueue = new ConcurrentLinkedQueue<>();
         userMap = new Lazy<>(ConcurrentHashMap::new);
+        jsonBuilders = new ConcurrentLinkedQueue<>();
+        executor = createExecutor();
+    }
+
+    @PreDestroy
+    public void destroy()
+    {
+        executor.shutdown();
+    }
+
+    /**
+     * Creates the executor which sends the push messages. The tasks only start asynchronous writes, so virtual
+     * threads are used if available, otherwise a small pool of daemon threads.
+     */
+    protected ExecutorService createExecutor()
+    {
+        try
+        {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        }
+        catch (ReflectiveOperationException | RuntimeException e)
+        {
+            // not available before Java 21
+        }
+
+        AtomicInteger counter = new AtomicInteger();
+        int threads = Math.max(2, Runtime.getRuntime().availableProcessors());
+        ThreadPoolExecutor pool = new ThreadPoolExecutor(threads, threads, 60L, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(), runnable ->
+                {
+                    Thread thread = new Thread(runnable, "myfaces-websocket-" + counter.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        pool.allowCoreThreadTimeOut(true);
+        return pool;
+    }
+
+    /**
+     * Creates the outbox used to send the push messages to the session.
+     */
+    public WebsocketSessionOutbox createOutbox(Session session, int maxQueuedMessages,
+            WebsocketSessionOutbox.OverflowPolicy overflowPolicy)
+    {
+        WebsocketSessionOutbox outbox = new WebsocketSessionOutbox(session, maxQueuedMessages, overflowPolicy,
+                executor);
+        session.getUserProperties().put(WebsocketSessionOutbox.OUTBOX, outbox);
+        return outbox;
+    }
+
+    protected WebsocketSessionOutbox getOutbox(Session session)
+    {
+        WebsocketSessionOutbox outbox =
+                (WebsocketSessionOutbox) session.getUserProperties().get(WebsocketSessionOutbox.OUTBOX);
+        if (outbox == null)
+        {
+            // restored sessions are not opened through EndpointImpl
+            synchronized (session)
+            {
+                outbox = (WebsocketSessionOutbox) session.getUserProperties().get(WebsocketSessionOutbox.OUTBOX);
+                if (outbox == null)
+                {
+                    outbox = createOutbox(session, MyfacesConfig.WEBSOCKET_MAX_QUEUED_MESSAGES_DEFAULT,
+                            WebsocketSessionOutbox.OverflowPolicy.parse(
+                                    MyfacesConfig.WEBSOCKET_QUEUE_OVERFLOW_POLICY_DEFAULT));
+                }
+            }
+        }
+        return outbox;
     }
 
     public ConcurrentLRUCache<String, Collection<Reference<Session>>> getSessionMap()
@@ -263,7 +351,7 @@ protected Set<Future<Void>> send(String channelToken, Object message)
 
         if (sessions != null && !sessions.isEmpty())
         {
-            String json = Json.encode(message);
+            String json = encode(message);
 
             sessions.forEach(sessionRef ->
             {
@@ -272,7 +360,7 @@ protected Set<Future<Void>> send(String channelToken, Object message)
                     Session session = sessionRef.get();
                     if (session.isOpen())
                     {
-                        send(session, json, results, 0);
+                        results.add(getOutbox(session).offer(json));
                     }
                     else
                     {
@@ -291,53 +379,28 @@ protected Set<Future<Void>> send(String channelToken, Object message)
         }
     }
 
-    private final String WARNING_TOMCAT_WEB_SOCKET_BOMBED =
-            "Tomcat cannot handle concurrent push messages. A push message has been sent only after %s retries."
-            + " Consider rate limiting sending push messages. For example, once every 500ms.";    
-    
-    private void send(Session session, String text, Set<Future<Void>> results, int retries)
+    private String encode(Object message)
     {
+        StringBuilder builder = jsonBuilders.poll();
+        if (builder == null)
+        {
+            builder = new StringBuilder(256);
+        }
         try
         {
-            results.add(session.getAsyncRemote().sendText(text));
-            if (retries > 0)
-            {
-                LOG.warning(String.format(WARNING_TOMCAT_WEB_SOCKET_BOMBED, retries));
-            }
+            Json.encode(message, builder);
+            return builder.toString();
         }
-        catch (IllegalStateException e)
+        finally
         {
-            if (isTomcatWebSocketBombed(session, e))
+            if (builder.capacity() <= MAX_POOLED_JSON_BUILDER_CAPACITY)
             {
-                synchronized (session)
-                {
-                    send(session, text, results, retries + 1);
-                }
-            }
-            else
-            {
-                throw e;
+                builder.setLength(0);
+                jsonBuilders.offer(builder);
             }
         }
     }
-    
-    // Tomcat related -------------------------------------------------------------------------------------------------
-    /**
-     * Returns true if the given WS session is from Tomcat and given illegal state exception is caused by a push bomb
-     * which Tomcat couldn't handle. See also https://bz.apache.org/bugzilla/show_bug.cgi?id=56026 and
-     * https://github.com/omnifaces/omnifaces/issues/234
-     *
-     * @param session The WS session.
-     * @param illegalStateException The illegal state exception.
-     * @return Whether it was Tomcat who couldn't handle the push bomb.
-     * @since 2.5
-     */
-    private boolean isTomcatWebSocketBombed(Session session, IllegalStateException illegalStateException)
-    {
-        return session.getClass().getName().startsWith("org.apache.tomcat.websocket.")
-                && illegalStateException.getMessage().contains("[TEXT_FULL_WRITING]");
-    }
-    
+
     public void synchronizeSessionInstances()
     {
         Queue<String> queue = getRestoredQueue();
@@ -0,0 +1,223 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.myfaces.push.cdi;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import jakarta.websocket.Session;
+
+/**
+ * Bounded queue of the push messages waiting to be sent to a websocket session.
+ *
+ * <p>Only one message per session is being written at a time, the next one is sent from the completion callback of
+ * the previous one. This way the thread that pushes a message never waits for a slow client, and containers which do
+ * not allow concurrent writes on the same session (like Tomcat) are never called concurrently. When the queue is
+ * full, the {@link OverflowPolicy} decides which messages are discarded. The futures of discarded messages are
+ * cancelled.</p>
+ */
+public class WebsocketSessionOutbox
+{
+    public static final String OUTBOX = "oam.websocket.outbox";
+
+    public enum OverflowPolicy
+    {
+        DROP_OLDEST, DROP_NEWEST, COALESCE;
+
+        public static OverflowPolicy parse(String value)
+        {
+            if ("dropNewest".equalsIgnoreCase(value))
+            {
+                return DROP_NEWEST;
+            }
+            if ("coalesce".equalsIgnoreCase(value))
+            {
+                return COALESCE;
+            }
+            return DROP_OLDEST;
+        }
+    }
+
+    private final Session session;
+    private final int maxQueuedMessages;
+    private final OverflowPolicy overflowPolicy;
+    private final Executor executor;
+
+    // guarded by this
+    private final ArrayDeque<Message> queue;
+    private boolean sending;
+
+    public WebsocketSessionOutbox(Session session, int maxQueuedMessages, OverflowPolicy overflowPolicy,
+            Executor executor)
+    {
+        this.session = session;
+        this.maxQueuedMessages = Math.max(1, maxQueuedMessages);
+        this.overflowPolicy = overflowPolicy;
+        this.executor = executor;
+        this.queue = new ArrayDeque<>(Math.min(this.maxQueuedMessages, 16));
+    }
+
+    /**
+     * Queues the message and returns immediately.
+     *
+     * @return the future completed when the message is sent, or cancelled if the message is discarded
+     */
+    public Future<Void> offer(String text)
+    {
+        Message message = new Message(text);
+        List<Message> discarded = Collections.emptyList();
+        boolean start = false;
+
+        synchronized (this)
+        {
+            if (queue.size() >= maxQueuedMessages)
+            {
+                switch (overflowPolicy)
+                {
+                    case DROP_NEWEST:
+                        discarded = Collections.singletonList(message);
+                        break;
+                    case COALESCE:
+                        discarded = new ArrayList<>(queue);
+                        queue.clear();
+                        break;
+                    default:
+                        discarded = Collections.singletonList(queue.poll());
+                        break;
+                }
+            }
+            if (discarded.isEmpty() || discarded.get(0) != message)
+            {
+                queue.add(message);
+                if (!sending)
+                {
+                    sending = true;
+                    start = true;
+                }
+            }
+        }
+
+        for (Message m : discarded)
+        {
+            m.future.cancel(false);
+        }
+        if (start)
+        {
+            schedule();
+        }
+        return message.future;
+    }
+
+    /**
+     * @return the number of messages waiting to be sent
+     */
+    public synchronized int size()
+    {
+        return queue.size();
+    }
+
+    private void schedule()
+    {
+        try
+        {
+            executor.execute(this::sendNext);
+        }
+        catch (RejectedExecutionException e)
+        {
+            // shutting down
+            fail(e);
+        }
+    }
+
+    private void sendNext()
+    {
+        Message message;
+        synchronized (this)
+        {
+            message = queue.poll();
+            if (message == null)
+            {
+                sending = false;
+                return;
+            }
+        }
+
+        if (!session.isOpen())
+        {
+            message.future.completeExceptionally(new IOException("Websocket session " + session.getId()
+                    + " is closed"));
+            fail(new IOException("Websocket session " + session.getId() + " is closed"));
+            return;
+        }
+
+        try
+        {
+            session.getAsyncRemote().sendText(message.text, result ->
+            {
+                if (result.isOK())
+                {
+                    message.future.complete(null);
+                }
+                else
+                {
+                    message.future.completeExceptionally(result.getException());
+                }
+                // continue on the executor, the container could invoke this handler within sendText
+                schedule();
+            });
+        }
+        catch (RuntimeException e)
+        {
+            message.future.completeExceptionally(e);
+            schedule();
+        }
+    }
+
+    private void fail(Exception e)
+    {
+        List<Message> pending;
+        synchronized (this)
+        {
+            pending = new ArrayList<>(queue);
+            queue.clear();
+            sending = false;
+        }
+        for (Message m : pending)
+        {
+            m.future.completeExceptionally(e);
+        }
+    }
+
+    private static final class Message
+    {
+        private final String text;
+        private final CompletableFuture<Void> future = new CompletableFuture<>();
+
+        Message(String text)
+        {
+            this.text = text;
+        }
+    }
+}
@@ -30,6 +30,8 @@
 import jakarta.faces.render.ResponseStateManager;
 
 import org.apache.myfaces.application.viewstate.StateCache;
+import org.apache.myfaces.application.viewstate.StateTokenProcessor;
+import org.apache.myfaces.application.viewstate.StateTokenProcessorClientSide;
 import org.apache.myfaces.config.webparameters.MyfacesConfig;
 import org.apache.myfaces.renderkit.MyfacesResponseStateManager;
 import org.apache.myfaces.renderkit.html.util.HTML;
@@ -117,12 +119,20 @@ private void writeViewStateField(FacesContext facesContext, ResponseWriter respo
             String viewNamespace)
         throws IOException
     {
-        String serializedState = getStateCache(facesContext).getStateTokenProcessor(facesContext)
-                .encode(facesContext, savedState);
+        StateTokenProcessor stateTokenProcessor = getStateCache(facesContext).getStateTokenProcessor(facesContext);
 
-        if (log.isLoggable(Level.FINE)) 
+        // If possible, the client side state is streamed directly into the response, without create it as String
+        String serializedState = null;
+        boolean streamed = responseWriter instanceof HtmlResponseWriterImpl
+                && stateTokenProcessor instanceof StateTokenProcessorClientSide;
+        if (!streamed)
         {
-             log.fine("Writing serialized ViewState string with hashCode: " + serializedState.hashCode());
+            serializedState = stateTokenProcessor.encode(facesContext, savedState);
+
+            if (log.isLoggable(Level.FINE)) 
+            {
+                 log.fine("Writing serialized ViewState string with hashCode: " + serializedState.hashCode());
+            }
         }
 
         responseWriter.startElement(HTML.INPUT_ELEM, null);
@@ -137,7 +147,17 @@ private void writeViewStateField(FacesContext facesContext, ResponseWriter respo
                 HtmlResponseStateManager.generateUpdateViewStateId(facesContext),
                 null);
         }
-        responseWriter.writeAttribute(HTML.VALUE_ATTR, serializedState, null);
+        if (streamed)
+        {
+            HtmlResponseWriterImpl htmlResponseWriter = (HtmlResponseWriterImpl) responseWriter;
+            ((StateTokenProcessorClientSide) stateTokenProcessor).encode(facesContext, savedState,
+                    htmlResponseWriter.startAttribute(HTML.VALUE_ATTR));
+            htmlResponseWriter.endAttribute();
+        }
+        else
+        {
+            responseWriter.writeAttribute(HTML.VALUE_ATTR, serializedState, null);
+        }
         if (myfacesConfig.isAutocompleteOffViewState())
         {
             responseWriter.writeAttribute(HTML.AUTOCOMPLETE_ATTR, "off", null);
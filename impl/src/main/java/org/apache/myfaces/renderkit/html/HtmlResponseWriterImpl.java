@@ -19,6 +19,7 @@
 package org.apache.myfaces.renderkit.html;
 
 import java.io.IOException;
+import java.io.StringWriter;
 import java.io.Writer;
 import java.nio.charset.Charset;
 import java.util.ArrayList;
@@ -801,6 +802,32 @@ public void writeAttribute(String name, Object value, String componentPropertyNa
         }
     }
     
+    /**
+     * Starts an attribute whose value is written directly into the returned writer, so a big value does not 
+     * need to be created as String first. The value is not escaped, so only chars that do not need to be escaped 
+     * can be written. {@link #endAttribute()} must be called after the value has been written.
+     */
+    public Writer startAttribute(String name) throws IOException
+    {
+        Assert.notNull(name, "name");
+
+        if (!_startTagOpen)
+        {
+            throw new IllegalStateException("Must be called before the start element is closed (attribute '"
+                    + name + "')");
+        }
+
+        _currentWriter.write(' ');
+        _currentWriter.write(name);
+        _currentWriter.write("=\"");
+        return _currentWriter;
+    }
+
+    public void endAttribute() throws IOException
+    {
+        _currentWriter.write('"');
+    }
+    
     private void encodeAndWriteAttribute(String name, Object value) throws IOException
     {
         _currentWriter.write(' ');
@@ -888,6 +915,44 @@ public void writeText(Object value, String componentPropertyName) throws IOExcep
         }
     }
 
+    /**
+     * Writes a text which never changes, like the literal text of a Facelets template, whose encoding has been done
+     * once ahead by {@link #encodeText(String)}. Same as {@link #writeText(Object, String)}, without encoding the
+     * text again.
+     */
+    public void writeEncodedText(String text, String encodedText) throws IOException
+    {
+        if (_isUTF8 && !isScriptOrStyle())
+        {
+            closeStartTagIfNecessary();
+            _currentWriter.write(encodedText);
+        }
+        else
+        {
+            writeText(text, null);
+        }
+    }
+
+    /**
+     * @return the text encoded as {@link #writeText(Object, String)} does for UTF-8, outside script and style
+     * elements
+     */
+    public static String encodeText(String text)
+    {
+        StringWriter writer = new StringWriter(text.length() + 16);
+        try
+        {
+            HTMLEncoder.encode(writer, text, false, false, false);
+        }
+        catch (IOException e)
+        {
+            // never thrown by a StringWriter
+            throw new IllegalStateException(e);
+        }
+        String encodedText = writer.toString();
+        return encodedText.equals(text) ? text : encodedText;
+    }
+
     @Override
     public void writeText(char[] cbuf, int off, int len) throws IOException
     {
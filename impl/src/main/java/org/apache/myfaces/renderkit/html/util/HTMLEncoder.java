@@ -97,12 +97,18 @@ public static String encode(FacesContext context, String string,
             return "";
         }
 
+        int length = string.length();
+        int first = indexOfEncoded(string, length, encodeNewline, encodeSubsequentBlanksToNbsp, encodeNonLatin);
+        if (first == length)
+        {
+            return string;
+        }
+
         StringBuilder sb = null;    //create later on demand
         String app;
-        char c = ' ';
+        char c = first == 0 ? ' ' : string.charAt(first - 1);
         char prevC;
-        int length = string.length();
-        for (int i = 0; i < length; ++i)
+        for (int i = first; i < length; ++i)
         {
             app = null;
             prevC = c;
@@ -255,12 +261,19 @@ public static void encode(Writer writer, String string,
             return;
         }
 
+        int length = string.length();
+        int first = indexOfEncoded(string, length, encodeNewline, encodeSubsequentBlanksToNbsp, encodeNonLatin);
+        if (first == length)
+        {
+            writer.write(string);
+            return;
+        }
+
         int start = 0;
         String app;
-        char c = ' ';
+        char c = first == 0 ? ' ' : string.charAt(first - 1);
         char prevC;
-        int length = string.length();
-        for (int i = 0; i < length; ++i)
+        for (int i = first; i < length; ++i)
         {
             app = null;
             prevC = c;
@@ -425,12 +438,20 @@ public static void encode(char[] string, int offset, int length,
         offset = Math.max(0, offset);
         int realLength = Math.min(length, string.length - offset);
 
+        int end = offset + realLength;
+        int first = indexOfEncoded(string, offset, end, encodeNewline, encodeSubsequentBlanksToNbsp, encodeNonLatin);
+        if (first == end)
+        {
+            writer.write(string, offset, realLength);
+            return;
+        }
+
         String app;
-        char c = ' ';
+        char c = first == offset ? ' ' : string[first - 1];
         char prevC;
         int start = offset;
         
-        for (int i = offset; i < offset + realLength; ++i)
+        for (int i = first; i < end; ++i)
         {
             app = null;
             prevC = c;
@@ -518,6 +539,69 @@ else if (start < offset+realLength)
         }
     }
     
+    /**
+     * @return the index of the first character the encode methods replace, or length if there is none. Most text
+     * has none, and is written as is after this quick scan.
+     */
+    private static int indexOfEncoded(String string, int length, boolean encodeNewline,
+            boolean encodeSubsequentBlanksToNbsp, boolean encodeNonLatin)
+    {
+        char prevC = ' ';
+        for (int i = 0; i < length; i++)
+        {
+            char c = string.charAt(i);
+            if (c < 0x41 ? isEncoded(c, prevC, encodeNewline, encodeSubsequentBlanksToNbsp)
+                    : encodeNonLatin && c > 0x80)
+            {
+                return i;
+            }
+            prevC = c;
+        }
+        return length;
+    }
+
+    private static int indexOfEncoded(char[] string, int offset, int end, boolean encodeNewline,
+            boolean encodeSubsequentBlanksToNbsp, boolean encodeNonLatin)
+    {
+        char prevC = ' ';
+        for (int i = offset; i < end; i++)
+        {
+            char c = string[i];
+            if (c < 0x41 ? isEncoded(c, prevC, encodeNewline, encodeSubsequentBlanksToNbsp)
+                    : encodeNonLatin && c > 0x80)
+            {
+                return i;
+            }
+            prevC = c;
+        }
+        return end;
+    }
+
+    /**
+     * @param c a character below 0x41
+     */
+    private static boolean isEncoded(char c, char prevC, boolean encodeNewline, boolean encodeSubsequentBlanksToNbsp)
+    {
+        switch (c)
+        {
+            case '"':
+            case '&':
+            case '<':
+            case '>':
+                return true;
+            case ' ':
+                return encodeSubsequentBlanksToNbsp && prevC == ' ';
+            case '\n':
+                return encodeNewline;
+            case '\t':
+            case '\r':
+                return false;
+            default:
+                // the other control characters are removed
+                return c <= 0x1F;
+        }
+    }
+
     private static final String HEX_CHARSET = "0123456789ABCDEF";
     
     private static final String UTF8 = "UTF-8";
@@ -19,15 +19,22 @@
 package org.apache.myfaces.resource;
 
 import java.net.URL;
+import java.util.Map;
 
 /**
  * Holds the information that is static but can only be derived after
  * a Resource instance is created.
+ * 
+ * <p>The entity tag, the content length and the pre-compressed variants are only derived when the resource is served
+ * for the first time, so they are set later on the same instance.</p>
  */
 public class ResourceCachedInfo
 {
     private final URL url;
     private final String requestPath;
+    private volatile String entityTag;
+    private volatile Map<String, URL> encodedURLs;
+    private volatile Long contentLength;
 
     public ResourceCachedInfo(URL url, String requestPath)
     {
@@ -44,4 +51,44 @@ public String getRequestPath()
     {
         return requestPath;
     }
+
+    /**
+     * @return the strong entity tag computed from the content of the resource or null if not computed yet.
+     */
+    public String getEntityTag()
+    {
+        return entityTag;
+    }
+
+    public void setEntityTag(String entityTag)
+    {
+        this.entityTag = entityTag;
+    }
+
+    /**
+     * @return the URLs of the pre-compressed variants of the resource by content coding (br, gzip),
+     *         or null if not looked up yet.
+     */
+    public Map<String, URL> getEncodedURLs()
+    {
+        return encodedURLs;
+    }
+
+    public void setEncodedURLs(Map<String, URL> encodedURLs)
+    {
+        this.encodedURLs = encodedURLs;
+    }
+
+    /**
+     * @return the length of the resource in bytes, -1 if unknown, or null if not looked up yet.
+     */
+    public Long getContentLength()
+    {
+        return contentLength;
+    }
+
+    public void setContentLength(Long contentLength)
+    {
+        this.contentLength = contentLength;
+    }
 }
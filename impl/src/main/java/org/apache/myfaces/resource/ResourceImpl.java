@@ -20,9 +20,15 @@
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
 import java.net.URL;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Base64;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.Map;
 
 import jakarta.faces.application.ProjectStage;
@@ -40,6 +46,19 @@ public class ResourceImpl extends Resource implements ContractResource
     protected final static String JAKARTA_FACES_LIBRARY_NAME = "jakarta.faces";
     protected final static String FACES_JS_RESOURCE_NAME = "faces.js";
 
+    /**
+     * Request parameter holding the version of versioned resources, so a new version has a new URL.
+     */
+    public static final String VERSION_PARAM = "v";
+
+    /**
+     * The content codings of the pre-compressed variants, by order of preference, and the extension of
+     * the files holding them.
+     */
+    private static final String[][] ENCODINGS = { { "br", ".br" }, { "gzip", ".gz" } };
+
+    private static final long IMMUTABLE_MAX_AGE = 31536000L;
+
 
     private ResourceMeta _resourceMeta;
     private ResourceLoader _resourceLoader;
@@ -47,6 +66,7 @@ public class ResourceImpl extends Resource implements ContractResource
     
     private URL _url;
     private String _requestPath;
+    private ResourceCachedInfo _cachedInfo;
     
     public ResourceImpl(ResourceMeta resourceMeta, 
             ResourceLoader resourceLoader, ResourceHandlerSupport support, String contentType)
@@ -73,6 +93,26 @@ public ResourceImpl(ResourceMeta resourceMeta,
         setResourceName(resourceMeta.getResourceName());
         setContentType(contentType);
     }
+
+    public ResourceImpl(ResourceMeta resourceMeta, 
+            ResourceLoader resourceLoader, ResourceHandlerSupport support, String contentType,
+            ResourceCachedInfo cachedInfo)
+    {
+        this(resourceMeta, resourceLoader, support, contentType,
+                cachedInfo != null ? cachedInfo.getURL() : null,
+                cachedInfo != null ? cachedInfo.getRequestPath() : null);
+        _cachedInfo = cachedInfo;
+    }
+
+    /**
+     * Creates the information of this resource to put in the cache. This instance keeps it, so the
+     * information derived later while serving the resource is cached too.
+     */
+    public ResourceCachedInfo createCachedInfo()
+    {
+        _cachedInfo = new ResourceCachedInfo(getURL(), getRequestPath());
+        return _cachedInfo;
+    }
     
     public ResourceLoader getResourceLoader()
     {
@@ -93,6 +133,71 @@ public InputStream getInputStream() throws IOException
         }
     }
     
+    /**
+     * Returns the length of the content, if it is known without reading the resource. It is provided
+     * by the resource loader or, for cached resources, looked up once from the URL of the resource.
+     * 
+     * @return the length in bytes or -1 if unknown
+     */
+    public long getContentLength()
+    {
+        if (couldResourceContainValueExpressions())
+        {
+            return -1;
+        }
+
+        long length = getResourceLoader().getResourceLength(_resourceMeta);
+        if (length < 0 && _cachedInfo != null)
+        {
+            Long contentLength = _cachedInfo.getContentLength();
+            if (contentLength == null)
+            {
+                URL url = getURL();
+                try
+                {
+                    contentLength = url == null ? -1L : ResourceLoaderUtils.getResourceLength(url);
+                }
+                catch (IOException e)
+                {
+                    contentLength = -1L;
+                }
+                _cachedInfo.setContentLength(contentLength);
+            }
+            length = contentLength;
+        }
+        return length;
+    }
+
+    /**
+     * Writes the content of the resource into the stream, letting the resource loader choose the
+     * most efficient way to transfer it.
+     * 
+     * @return the number of bytes written or -1 if the resource does not exist
+     */
+    public long writeTo(OutputStream out) throws IOException
+    {
+        return writeTo(out, 0, -1);
+    }
+
+    /**
+     * Writes a range of the content of the resource into the stream.
+     * 
+     * @param offset the position of the first byte to write
+     * @param length the number of bytes to write or -1 to write until the end of the resource
+     * @return the number of bytes written or -1 if the resource does not exist
+     */
+    public long writeTo(OutputStream out, long offset, long length) throws IOException
+    {
+        if (couldResourceContainValueExpressions())
+        {
+            try (InputStream in = getInputStream())
+            {
+                return in == null ? -1 : ResourceLoaderUtils.copy(in, out, offset, length);
+            }
+        }
+        return getResourceLoader().writeResource(_resourceMeta, out, offset, length);
+    }
+
     private boolean couldResourceContainValueExpressions()
     {
         if (_resourceMeta.couldResourceContainValueExpressions())
@@ -154,6 +259,12 @@ public String getRequestPath()
                 path = path + (useAmp ? '&' : '?') + "loc=" + _resourceMeta.getLocalePrefix();
                 useAmp = true;
             }
+            String version = getVersion();
+            if (version != null)
+            {
+                path = path + (useAmp ? '&' : '?') + VERSION_PARAM + '=' + version;
+                useAmp = true;
+            }
             if (_resourceMeta.getContractName() != null)
             {
                 path = path + (useAmp ? '&' : '?') + "con=" + _resourceMeta.getContractName();
@@ -199,6 +310,11 @@ else if (_resourceMeta instanceof AliasResourceMetaImpl
                 {
                     headers.put("Cache-Control", "no-cache");
                 }
+                else if (isRequestedVersion(facesContext))
+                {
+                    // The version is part of the URL, so the content of this URL never changes
+                    headers.put("Cache-Control", "max-age=" + IMMUTABLE_MAX_AGE + ", immutable");
+                }
                 else
                 {
                     headers.put("Cache-Control", "max-age=" + (_resourceHandlerSupport.getMaxTimeExpires()/1000));
@@ -278,6 +394,121 @@ public boolean userAgentNeedsUpdate(FacesContext context)
         return true;
     }
     
+    /**
+     * @return the library and resource version of this resource or null if it is not versioned
+     */
+    protected String getVersion()
+    {
+        String libraryVersion = _resourceMeta.getLibraryVersion();
+        String resourceVersion = _resourceMeta.getResourceVersion();
+        if (libraryVersion == null && resourceVersion == null)
+        {
+            return null;
+        }
+        if (resourceVersion == null)
+        {
+            return libraryVersion;
+        }
+        return libraryVersion == null ? '-' + resourceVersion : libraryVersion + '-' + resourceVersion;
+    }
+
+    private boolean isRequestedVersion(FacesContext facesContext)
+    {
+        String version = getVersion();
+        return version != null
+                && version.equals(facesContext.getExternalContext().getRequestParameterMap().get(VERSION_PARAM));
+    }
+
+    /**
+     * Returns the strong entity tag of the resource, derived from a hash of its content. It is only
+     * available for cached resources whose content does not depend on value expressions, and it is
+     * computed only once.
+     * 
+     * @return the quoted entity tag or null if not available
+     */
+    public String getEntityTag()
+    {
+        if (_cachedInfo == null || couldResourceContainValueExpressions())
+        {
+            return null;
+        }
+
+        String entityTag = _cachedInfo.getEntityTag();
+        if (entityTag == null)
+        {
+            try (InputStream in = getInputStream())
+            {
+                MessageDigest digest = MessageDigest.getInstance("SHA-256");
+                byte[] buffer = new byte[4096];
+                int length;
+                while ((length = in.read(buffer)) >= 0)
+                {
+                    digest.update(buffer, 0, length);
+                }
+                byte[] hash = digest.digest();
+                entityTag = '"' + Base64.getUrlEncoder().withoutPadding().encodeToString(
+                        hash.length > 16 ? Arrays.copyOf(hash, 16) : hash) + '"';
+            }
+            catch (IOException | NoSuchAlgorithmException e)
+            {
+                return null;
+            }
+            _cachedInfo.setEntityTag(entityTag);
+        }
+        return entityTag;
+    }
+
+    /**
+     * Returns the pre-compressed variants of the resource, looked up once as files next to the resource
+     * with the .br and .gz extensions. As {@link #getEntityTag()}, they are only available for cached
+     * resources whose content does not depend on value expressions.
+     * 
+     * @return the URLs by content coding, by order of preference
+     */
+    public Map<String, URL> getEncodedURLs()
+    {
+        if (_cachedInfo == null || couldResourceContainValueExpressions())
+        {
+            return Collections.emptyMap();
+        }
+
+        Map<String, URL> encodedURLs = _cachedInfo.getEncodedURLs();
+        if (encodedURLs == null)
+        {
+            URL url = getURL();
+            encodedURLs = new LinkedHashMap<>(2);
+            if (url != null)
+            {
+                for (String[] encoding : ENCODINGS)
+                {
+                    URL encodedURL = findVariant(url, encoding[1]);
+                    if (encodedURL != null)
+                    {
+                        encodedURLs.put(encoding[0], encodedURL);
+                    }
+                }
+            }
+            encodedURLs = encodedURLs.isEmpty() ? Collections.emptyMap() : Collections.unmodifiableMap(encodedURLs);
+            _cachedInfo.setEncodedURLs(encodedURLs);
+        }
+        return encodedURLs;
+    }
+
+    private static URL findVariant(URL url, String extension)
+    {
+        try
+        {
+            URL variant = new URL(url.toExternalForm() + extension);
+            // the variant exists if it can be opened
+            variant.openStream().close();
+            return variant;
+        }
+        catch (IOException e)
+        {
+            return null;
+        }
+    }
+
     protected ResourceHandlerSupport getResourceHandlerSupport()
     {
         return _resourceHandlerSupport;
@@ -18,7 +18,9 @@
  */
 package org.apache.myfaces.resource;
 
+import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
 import java.net.URL;
 import java.util.Comparator;
 import java.util.Iterator;
@@ -72,6 +74,47 @@ public ResourceLoader(String prefix)
 
     public abstract InputStream getResourceInputStream(ResourceMeta resourceMeta);
     
+    /**
+     * Returns the length of the resource, if it is known without reading the resource. Loaders that keep
+     * the resources in local files or in memory override it, together with
+     * {@link #writeResource(ResourceMeta, OutputStream)}.
+     * 
+     * @return the length in bytes or -1 if unknown
+     */
+    public long getResourceLength(ResourceMeta resourceMeta)
+    {
+        return -1;
+    }
+
+    /**
+     * Writes the content of the resource into the stream.
+     * 
+     * @return the number of bytes written or -1 if the resource does not exist
+     */
+    public long writeResource(ResourceMeta resourceMeta, OutputStream out) throws IOException
+    {
+        try (InputStream in = getResourceInputStream(resourceMeta))
+        {
+            return in == null ? -1 : in.transferTo(out);
+        }
+    }
+
+    /**
+     * Writes a range of the content of the resource into the stream.
+     * 
+     * @param offset the position of the first byte to write
+     * @param length the number of bytes to write or -1 to write until the end of the resource
+     * @return the number of bytes written or -1 if the resource does not exist
+     */
+    public long writeResource(ResourceMeta resourceMeta, OutputStream out, long offset, long length)
+            throws IOException
+    {
+        try (InputStream in = getResourceInputStream(resourceMeta))
+        {
+            return in == null ? -1 : ResourceLoaderUtils.copy(in, out, offset, length);
+        }
+    }
+
     public abstract ResourceMeta createResourceMeta(String prefix, String libraryName, String libraryVersion,
             String resourceName, String resourceVersion);
 
@@ -20,6 +20,7 @@
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
 import java.net.JarURLConnection;
 import java.net.URL;
 import java.net.URLConnection;
@@ -111,6 +112,56 @@ public static long getResourceLastModified(URL url) throws IOException
         return lastModified;
     }
 
+    /**
+     * @return the length of the resource as reported by the connection, or -1 if unknown
+     */
+    public static long getResourceLength(URL url) throws IOException
+    {
+        URLConnection connection = url.openConnection();
+        // opening the stream connects, it is closed so file connections release their handle
+        connection.getInputStream().close();
+        return connection.getContentLengthLong();
+    }
+
+    /**
+     * Copies the given range of the input stream into the output stream.
+     * 
+     * @param length the number of bytes to copy or -1 to copy until the end of the stream
+     * @return the number of bytes copied
+     */
+    public static long copy(InputStream in, OutputStream out, long offset, long length) throws IOException
+    {
+        long skipped = 0;
+        while (skipped < offset)
+        {
+            long count = in.skip(offset - skipped);
+            if (count <= 0)
+            {
+                if (in.read() < 0)
+                {
+                    return 0;
+                }
+                count = 1;
+            }
+            skipped += count;
+        }
+
+        byte[] buffer = new byte[8192];
+        long written = 0;
+        while (length < 0 || written < length)
+        {
+            int count = in.read(buffer, 0,
+                    length < 0 ? buffer.length : (int) Math.min(buffer.length, length - written));
+            if (count < 0)
+            {
+                break;
+            }
+            out.write(buffer, 0, count);
+            written += count;
+        }
+        return written;
+    }
+
     public static int getDepth(String path)
     {
         int depth = 0;
@@ -18,7 +18,9 @@
  */
 package org.apache.myfaces.resource;
 
+import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
 import java.net.URL;
 import java.util.Comparator;
 import java.util.Iterator;
@@ -58,6 +60,25 @@ public InputStream getResourceInputStream(ResourceMeta resourceMeta)
         return getWrapped().getResourceInputStream(resourceMeta);
     }
 
+    @Override
+    public long getResourceLength(ResourceMeta resourceMeta)
+    {
+        return getWrapped().getResourceLength(resourceMeta);
+    }
+
+    @Override
+    public long writeResource(ResourceMeta resourceMeta, OutputStream out) throws IOException
+    {
+        return getWrapped().writeResource(resourceMeta, out);
+    }
+
+    @Override
+    public long writeResource(ResourceMeta resourceMeta, OutputStream out, long offset, long length)
+            throws IOException
+    {
+        return getWrapped().writeResource(resourceMeta, out, offset, length);
+    }
+
     @Override
     public ResourceMeta createResourceMeta(String prefix, String libraryName,
             String libraryVersion, String resourceName, String resourceVersion)
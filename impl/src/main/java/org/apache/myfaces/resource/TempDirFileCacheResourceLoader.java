@@ -28,6 +28,12 @@
 import java.io.OutputStream;
 import java.net.MalformedURLException;
 import java.net.URL;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
 import jakarta.faces.FacesException;
@@ -37,6 +43,7 @@
 import org.apache.myfaces.buildtools.maven2.plugin.builder.annotation.JSFWebConfigParam;
 import org.apache.myfaces.config.webparameters.MyfacesConfig;
 import org.apache.myfaces.util.WebConfigParamUtils;
+import org.apache.myfaces.util.lang.ConcurrentLRUCache;
 
 /**
  * ResourceLoader that uses a temporal folder to cache resources, avoiding the problem
@@ -58,6 +65,24 @@ public class TempDirFileCacheResourceLoader extends ResourceLoaderWrapper
         "org.apache.myfaces.TEMPORAL_RESOURCEHANDLER_CACHE_ENABLED";
     public final static boolean INIT_PARAM_TEMPORAL_RESOURCEHANDLER_CACHE_ENABLED_DEFAULT = false;
     
+    /**
+     * Number of small cached resources that are additionally kept in memory, so they can be served without
+     * touching the temporal files. Set it to 0 to disable the memory cache.
+     */
+    @JSFWebConfigParam(since="5.0", defaultValue="100", group="resources")
+    public final static String INIT_PARAM_TEMPORAL_RESOURCEHANDLER_MEMORY_CACHE_SIZE =
+        "org.apache.myfaces.TEMPORAL_RESOURCEHANDLER_MEMORY_CACHE_SIZE";
+    public final static int INIT_PARAM_TEMPORAL_RESOURCEHANDLER_MEMORY_CACHE_SIZE_DEFAULT = 100;
+
+    /**
+     * Max size in bytes of a resource to be kept in the memory cache. Bigger resources are always
+     * transferred from the temporal file.
+     */
+    @JSFWebConfigParam(since="5.0", defaultValue="65536", group="resources")
+    public final static String INIT_PARAM_TEMPORAL_RESOURCEHANDLER_MEMORY_CACHE_MAX_FILE_SIZE =
+        "org.apache.myfaces.TEMPORAL_RESOURCEHANDLER_MEMORY_CACHE_MAX_FILE_SIZE";
+    public final static int INIT_PARAM_TEMPORAL_RESOURCEHANDLER_MEMORY_CACHE_MAX_FILE_SIZE_DEFAULT = 65536;
+
     public final static String TEMP_FILES_LOCK_MAP = "oam.rh.TEMP_FILES_LOCK_MAP";
     
     /**
@@ -75,6 +100,10 @@ public class TempDirFileCacheResourceLoader extends ResourceLoaderWrapper
     private volatile File _tempDir;
     
     private int _resourceBufferSize = -1;
+
+    private ConcurrentLRUCache<String, byte[]> _memoryCache;
+
+    private int _memoryCacheMaxFileSize;
     
     public TempDirFileCacheResourceLoader(ResourceLoader delegate)
     {
@@ -135,6 +164,19 @@ protected void initialize()
         //2. Create map for register temporal resources
         Map<String, FileProducer> temporalFilesLockMap = new ConcurrentHashMap<>();
         facesContext.getExternalContext().getApplicationMap().put(TEMP_FILES_LOCK_MAP, temporalFilesLockMap);
+
+        //3. Create the memory cache for small resources
+        int memoryCacheSize = WebConfigParamUtils.getIntegerInitParameter(facesContext.getExternalContext(),
+                INIT_PARAM_TEMPORAL_RESOURCEHANDLER_MEMORY_CACHE_SIZE,
+                INIT_PARAM_TEMPORAL_RESOURCEHANDLER_MEMORY_CACHE_SIZE_DEFAULT);
+        if (memoryCacheSize > 0)
+        {
+            _memoryCache = new ConcurrentLRUCache<>((memoryCacheSize * 4 + 3) / 3, memoryCacheSize);
+            _memoryCacheMaxFileSize = WebConfigParamUtils.getIntegerInitParameter(
+                    facesContext.getExternalContext(),
+                    INIT_PARAM_TEMPORAL_RESOURCEHANDLER_MEMORY_CACHE_MAX_FILE_SIZE,
+                    INIT_PARAM_TEMPORAL_RESOURCEHANDLER_MEMORY_CACHE_MAX_FILE_SIZE_DEFAULT);
+        }
     }
 
     private static boolean deleteDir(File dir)
@@ -207,6 +249,105 @@ public InputStream getResourceInputStream(ResourceMeta resourceMeta)
         return getResourceInputStream(resourceMeta, null);
     }
 
+    @Override
+    public long getResourceLength(ResourceMeta resourceMeta)
+    {
+        if (_memoryCache != null)
+        {
+            byte[] content = _memoryCache.get(resourceMeta.getResourceIdentifier());
+            if (content != null)
+            {
+                return content.length;
+            }
+        }
+
+        if (resourceExists(resourceMeta))
+        {
+            return createOrGetTempFile(FacesContext.getCurrentInstance(), resourceMeta).length();
+        }
+        return -1;
+    }
+
+    @Override
+    public long writeResource(ResourceMeta resourceMeta, OutputStream out) throws IOException
+    {
+        return writeResource(resourceMeta, out, 0, -1);
+    }
+
+    /**
+     * Small resources are served from memory, the others are transferred from the temporal file
+     * through its {@link FileChannel}, without an intermediate buffered stream.
+     */
+    @Override
+    public long writeResource(ResourceMeta resourceMeta, OutputStream out, long offset, long length)
+            throws IOException
+    {
+        String identifier = resourceMeta.getResourceIdentifier();
+        if (_memoryCache != null)
+        {
+            byte[] content = _memoryCache.get(identifier);
+            if (content != null)
+            {
+                return writeRange(content, out, offset, length);
+            }
+        }
+
+        if (!resourceExists(resourceMeta))
+        {
+            return -1;
+        }
+
+        File file = createOrGetTempFile(FacesContext.getCurrentInstance(), resourceMeta);
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ))
+        {
+            long size = channel.size();
+            if (_memoryCache != null && size <= _memoryCacheMaxFileSize)
+            {
+                ByteBuffer buffer = ByteBuffer.allocate((int) size);
+                while (buffer.hasRemaining())
+                {
+                    if (channel.read(buffer) < 0)
+                    {
+                        break;
+                    }
+                }
+                byte[] content = buffer.hasRemaining()
+                        ? Arrays.copyOf(buffer.array(), buffer.position())
+                        : buffer.array();
+                if (!buffer.hasRemaining())
+                {
+                    _memoryCache.put(identifier, content);
+                }
+                return writeRange(content, out, offset, length);
+            }
+
+            long end = length < 0 ? size : Math.min(size, offset + length);
+            WritableByteChannel target = Channels.newChannel(out);
+            long position = offset;
+            while (position < end)
+            {
+                long transferred = channel.transferTo(position, end - position, target);
+                if (transferred <= 0)
+                {
+                    break;
+                }
+                position += transferred;
+            }
+            return Math.max(0, position - offset);
+        }
+    }
+
+    private static long writeRange(byte[] content, OutputStream out, long offset, long length) throws IOException
+    {
+        if (offset >= content.length)
+        {
+            return 0;
+        }
+        int count = (int) (length < 0 ? content.length - offset : Math.min(content.length - offset, length));
+        out.write(content, (int) offset, count);
+        return count;
+    }
+
     @SuppressWarnings("unchecked")
     private File createOrGetTempFile(FacesContext facesContext, ResourceMeta resourceMeta)
     {
@@ -258,7 +399,7 @@ protected void createTemporalFileVersion(FacesContext facesContext, ResourceMeta
         target.delete();  // remove any existing file
 
         InputStream inputStream = null;
-        FileOutputStream fileOutputStream;
+        FileOutputStream fileOutputStream = null;
         try
         {
             /*
@@ -299,6 +440,17 @@ protected void createTemporalFileVersion(FacesContext facesContext, ResourceMeta
                     // Ignore
                 }
             }
+            if (fileOutputStream != null)
+            {
+                try
+                {
+                    fileOutputStream.close();
+                }
+                catch (IOException e)
+                {
+                    // Ignore
+                }
+            }
         }
     }
     
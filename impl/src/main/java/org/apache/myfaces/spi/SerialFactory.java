@@ -61,6 +61,32 @@ public Object toObject(byte[] bytes) throws IOException, PrivilegedActionExcepti
         }
     }
 
+    /**
+     * Writes the object into the given stream. The stream is not closed, so further processing
+     * (compression, encryption, encoding) can be chained after it without intermediate copies.
+     */
+    public void toOutputStream(Object object, OutputStream outputStream) throws IOException
+    {
+        ObjectOutputStream oos = getObjectOutputStream(outputStream);
+        oos.writeObject(object);
+        oos.flush();
+    }
+
+    /**
+     * Reads the object from the given stream. The stream is not closed.
+     */
+    public Object toObject(InputStream inputStream)
+            throws IOException, PrivilegedActionException, ClassNotFoundException
+    {
+        ObjectInputStream ois = getObjectInputStream(inputStream);
+        if (System.getSecurityManager() != null)
+        {
+            return AccessController.doPrivileged((PrivilegedExceptionAction) () -> ois.readObject());
+        }
+
+        return ois.readObject();
+    }
+
     protected abstract ObjectOutputStream getObjectOutputStream(OutputStream outputStream) throws IOException;
 
     protected abstract ObjectInputStream getObjectInputStream(InputStream inputStream) throws IOException;
@@ -0,0 +1,555 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.myfaces.spi.impl;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.ObjectOutputStream;
+import java.io.OutputStream;
+import java.io.SequenceInputStream;
+import java.io.StreamCorruptedException;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Method;
+import java.nio.charset.StandardCharsets;
+import java.security.PrivilegedActionException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import org.apache.myfaces.util.lang.ClassUtils;
+import org.apache.myfaces.util.lang.FastByteArrayInputStream;
+import org.apache.myfaces.util.lang.FastByteArrayOutputStream;
+
+/**
+ * {@link org.apache.myfaces.spi.SerialFactory} writing the state with a compact binary format instead of
+ * Java serialization. The shapes produced by the component state saving (nested Object[], PropertyKeys enums,
+ * strings, small numbers, booleans, classes and the attached state wrappers) are written as a tag byte followed
+ * by their value, and every string is only written once and referenced by its index afterwards.
+ *
+ * <p>Any other object is written with Java serialization, so it is still possible to save any Serializable
+ * state. Shared references are only preserved inside those objects, for the rest of the tree each reference is
+ * written as a copy, which is what the state saving expects anyway.</p>
+ *
+ * <p>Data written with Java serialization is detected and still read, so the factory can be enabled without
+ * invalidating the views already stored.</p>
+ */
+public class CompactSerialFactory extends DefaultSerialFactory
+{
+    private static final Logger log = Logger.getLogger(CompactSerialFactory.class.getName());
+
+    private static final int MAGIC = 0xC5;
+    private static final int VERSION = 1;
+    private static final int JAVA_SERIALIZATION_MAGIC = 0xAC;
+
+    private static final int TAG_NULL = 0;
+    private static final int TAG_TRUE = 1;
+    private static final int TAG_FALSE = 2;
+    private static final int TAG_INTEGER = 3;
+    private static final int TAG_LONG = 4;
+    private static final int TAG_DOUBLE = 5;
+    private static final int TAG_CHARACTER = 6;
+    private static final int TAG_STRING = 7;
+    private static final int TAG_STRING_REF = 8;
+    private static final int TAG_OBJECT_ARRAY = 9;
+    private static final int TAG_ENUM = 10;
+    private static final int TAG_CLASS = 11;
+    private static final int TAG_HASH_MAP = 12;
+    private static final int TAG_ARRAY_LIST = 13;
+    private static final int TAG_WRAPPER = 14;
+    private static final int TAG_SERIALIZED = 15;
+
+    /**
+     * The package private wrappers used by UIComponentBase and BehaviorBase to save the attached objects.
+     * The index is part of the format, so new wrappers must be appended.
+     */
+    private static final String[] WRAPPER_CLASS_NAMES = {
+        "jakarta.faces.component._AttachedStateWrapper",
+        "jakarta.faces.component._AttachedDeltaWrapper",
+        "jakarta.faces.component.behavior._AttachedStateWrapper",
+        "jakarta.faces.component.behavior._AttachedDeltaWrapper"
+    };
+
+    private static final WrapperCodec[] WRAPPERS = new WrapperCodec[WRAPPER_CLASS_NAMES.length];
+    private static final Map<Class<?>, WrapperCodec> WRAPPERS_BY_CLASS = new HashMap<>();
+
+    static
+    {
+        for (int i = 0; i < WRAPPER_CLASS_NAMES.length; i++)
+        {
+            try
+            {
+                Class<?> clazz = Class.forName(WRAPPER_CLASS_NAMES[i], false,
+                        CompactSerialFactory.class.getClassLoader());
+                WRAPPERS[i] = new WrapperCodec(i, clazz);
+                WRAPPERS_BY_CLASS.put(clazz, WRAPPERS[i]);
+            }
+            catch (Exception | LinkageError e)
+            {
+                // the wrapper is written with Java serialization
+                if (log.isLoggable(Level.FINE))
+                {
+                    log.log(Level.FINE, "Cannot access " + WRAPPER_CLASS_NAMES[i], e);
+                }
+            }
+        }
+    }
+
+    @Override
+    public byte[] toByteArray(Object object) throws IOException
+    {
+        FastByteArrayOutputStream out = new FastByteArrayOutputStream(1024);
+        toOutputStream(object, out);
+        byte[] bytes = new byte[out.getSize()];
+        System.arraycopy(out.getByteArray(), 0, bytes, 0, bytes.length);
+        return bytes;
+    }
+
+    @Override
+    public Object toObject(byte[] bytes) throws IOException, PrivilegedActionException, ClassNotFoundException
+    {
+        return toObject(new FastByteArrayInputStream(bytes));
+    }
+
+    @Override
+    public void toOutputStream(Object object, OutputStream outputStream) throws IOException
+    {
+        BufferedOutputStream out = new BufferedOutputStream(outputStream, 1024);
+        out.write(MAGIC);
+        out.write(VERSION);
+        new StateWriter(out).writeObject(object);
+        out.flush();
+    }
+
+    @Override
+    public Object toObject(InputStream inputStream)
+            throws IOException, PrivilegedActionException, ClassNotFoundException
+    {
+        int magic = inputStream.read();
+        if (magic == JAVA_SERIALIZATION_MAGIC)
+        {
+            InputStream in = new SequenceInputStream(new ByteArrayInputStream(new byte[] { (byte) magic }),
+                    inputStream);
+            return super.toObject(in);
+        }
+        if (magic != MAGIC)
+        {
+            throw new StreamCorruptedException("Invalid state header " + magic);
+        }
+        int version = inputStream.read();
+        if (version != VERSION)
+        {
+            throw new StreamCorruptedException("Unsupported state version " + version);
+        }
+        return new StateReader(inputStream).readObject();
+    }
+
+    private class StateWriter
+    {
+        private final OutputStream out;
+        private final Map<String, Integer> strings = new HashMap<>();
+
+        StateWriter(OutputStream out)
+        {
+            this.out = out;
+        }
+
+        void writeObject(Object object) throws IOException
+        {
+            if (object == null)
+            {
+                out.write(TAG_NULL);
+                return;
+            }
+
+            Class<?> clazz = object.getClass();
+            if (clazz == String.class)
+            {
+                writeString((String) object);
+            }
+            else if (clazz == Object[].class)
+            {
+                Object[] array = (Object[]) object;
+                out.write(TAG_OBJECT_ARRAY);
+                writeVarInt(array.length);
+                for (Object item : array)
+                {
+                    writeObject(item);
+                }
+            }
+            else if (clazz == Boolean.class)
+            {
+                out.write((Boolean) object ? TAG_TRUE : TAG_FALSE);
+            }
+            else if (clazz == Integer.class)
+            {
+                out.write(TAG_INTEGER);
+                writeVarLong(zigZag((Integer) object));
+            }
+            else if (object instanceof Enum)
+            {
+                Enum<?> value = (Enum<?>) object;
+                out.write(TAG_ENUM);
+                writeString(value.getDeclaringClass().getName());
+                writeString(value.name());
+            }
+            else if (clazz == HashMap.class)
+            {
+                Map<?, ?> map = (Map<?, ?>) object;
+                out.write(TAG_HASH_MAP);
+                writeVarInt(map.size());
+                for (Map.Entry<?, ?> entry : map.entrySet())
+                {
+                    writeObject(entry.getKey());
+                    writeObject(entry.getValue());
+                }
+            }
+            else if (clazz == ArrayList.class)
+            {
+                ArrayList<?> list = (ArrayList<?>) object;
+                out.write(TAG_ARRAY_LIST);
+                writeVarInt(list.size());
+                for (int i = 0, size = list.size(); i < size; i++)
+                {
+                    writeObject(list.get(i));
+                }
+            }
+            else if (clazz == Class.class && !((Class<?>) object).isPrimitive()
+                    && !((Class<?>) object).isArray())
+            {
+                out.write(TAG_CLASS);
+                writeString(((Class<?>) object).getName());
+            }
+            else if (clazz == Long.class)
+            {
+                out.write(TAG_LONG);
+                writeVarLong(zigZag((Long) object));
+            }
+            else if (clazz == Double.class)
+            {
+                out.write(TAG_DOUBLE);
+                long bits = Double.doubleToRawLongBits((Double) object);
+                for (int shift = 56; shift >= 0; shift -= 8)
+                {
+                    out.write((int) (bits >>> shift));
+                }
+            }
+            else if (clazz == Character.class)
+            {
+                out.write(TAG_CHARACTER);
+                writeVarInt((Character) object);
+            }
+            else if (WRAPPERS_BY_CLASS.containsKey(clazz))
+            {
+                WrapperCodec codec = WRAPPERS_BY_CLASS.get(clazz);
+                out.write(TAG_WRAPPER);
+                writeVarInt(codec.index);
+                codec.write(this, object);
+            }
+            else
+            {
+                out.write(TAG_SERIALIZED);
+                FastByteArrayOutputStream bytes = new FastByteArrayOutputStream(256);
+                try (ObjectOutputStream oos = getObjectOutputStream(bytes))
+                {
+                    oos.writeObject(object);
+                }
+                writeVarInt(bytes.getSize());
+                out.write(bytes.getByteArray(), 0, bytes.getSize());
+            }
+        }
+
+        private void writeString(String value) throws IOException
+        {
+            Integer index = strings.get(value);
+            if (index != null)
+            {
+                out.write(TAG_STRING_REF);
+                writeVarInt(index);
+                return;
+            }
+
+            strings.put(value, strings.size());
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            out.write(TAG_STRING);
+            writeVarInt(bytes.length);
+            out.write(bytes);
+        }
+
+        private void writeVarInt(int value) throws IOException
+        {
+            writeVarLong(value & 0xFFFFFFFFL);
+        }
+
+        private void writeVarLong(long value) throws IOException
+        {
+            while ((value & ~0x7FL) != 0)
+            {
+                out.write((int) ((value & 0x7F) | 0x80));
+                value >>>= 7;
+            }
+            out.write((int) value);
+        }
+
+        private long zigZag(long value)
+        {
+            return (value << 1) ^ (value >> 63);
+        }
+    }
+
+    private class StateReader
+    {
+        private final InputStream in;
+        private final ArrayList<String> strings = new ArrayList<>();
+
+        StateReader(InputStream in)
+        {
+            this.in = in;
+        }
+
+        Object readObject() throws IOException, PrivilegedActionException, ClassNotFoundException
+        {
+            int tag = readByte();
+            switch (tag)
+            {
+                case TAG_NULL:
+                    return null;
+                case TAG_TRUE:
+                    return Boolean.TRUE;
+                case TAG_FALSE:
+                    return Boolean.FALSE;
+                case TAG_INTEGER:
+                    return (int) unZigZag(readVarLong());
+                case TAG_LONG:
+                    return unZigZag(readVarLong());
+                case TAG_DOUBLE:
+                    long bits = 0;
+                    for (int i = 0; i < 8; i++)
+                    {
+                        bits = (bits << 8) | readByte();
+                    }
+                    return Double.longBitsToDouble(bits);
+                case TAG_CHARACTER:
+                    return (char) readVarInt();
+                case TAG_STRING:
+                case TAG_STRING_REF:
+                    return readString(tag);
+                case TAG_OBJECT_ARRAY:
+                    Object[] array = new Object[readVarInt()];
+                    for (int i = 0; i < array.length; i++)
+                    {
+                        array[i] = readObject();
+                    }
+                    return array;
+                case TAG_ENUM:
+                    return readEnum();
+                case TAG_CLASS:
+                    return ClassUtils.classForName(readString(readByte()));
+                case TAG_HASH_MAP:
+                    int size = readVarInt();
+                    HashMap<Object, Object> map = new HashMap<>(Math.max(16, (int) (size / 0.75f) + 1));
+                    for (int i = 0; i < size; i++)
+                    {
+                        Object key = readObject();
+                        map.put(key, readObject());
+                    }
+                    return map;
+                case TAG_ARRAY_LIST:
+                    int length = readVarInt();
+                    ArrayList<Object> list = new ArrayList<>(length);
+                    for (int i = 0; i < length; i++)
+                    {
+                        list.add(readObject());
+                    }
+                    return list;
+                case TAG_WRAPPER:
+                    int index = readVarInt();
+                    if (index >= WRAPPERS.length || WRAPPERS[index] == null)
+                    {
+                        throw new StreamCorruptedException("Unknown state wrapper " + index);
+                    }
+                    return WRAPPERS[index].read(this);
+                case TAG_SERIALIZED:
+                    byte[] bytes = readBytes(readVarInt());
+                    return CompactSerialFactory.super.toObject(new FastByteArrayInputStream(bytes));
+                default:
+                    throw new StreamCorruptedException("Invalid state tag " + tag);
+            }
+        }
+
+        private Object readEnum() throws IOException, ClassNotFoundException
+        {
+            Class<?> enumClass = ClassUtils.classForName(readString(readByte()));
+            if (!enumClass.isEnum())
+            {
+                throw new StreamCorruptedException(enumClass.getName() + " is not an enum");
+            }
+            String name = readString(readByte());
+            for (Object constant : enumClass.getEnumConstants())
+            {
+                if (((Enum<?>) constant).name().equals(name))
+                {
+                    return constant;
+                }
+            }
+            throw new StreamCorruptedException("No enum constant " + enumClass.getName() + '.' + name);
+        }
+
+        private String readString(int tag) throws IOException
+        {
+            if (tag == TAG_STRING_REF)
+            {
+                int index = readVarInt();
+                if (index >= strings.size())
+                {
+                    throw new StreamCorruptedException("Invalid string reference " + index);
+                }
+                return strings.get(index);
+            }
+            if (tag != TAG_STRING)
+            {
+                throw new StreamCorruptedException("Expected string, found tag " + tag);
+            }
+            String value = new String(readBytes(readVarInt()), StandardCharsets.UTF_8);
+            strings.add(value);
+            return value;
+        }
+
+        private byte[] readBytes(int length) throws IOException
+        {
+            byte[] bytes = new byte[length];
+            if (in.readNBytes(bytes, 0, length) != length)
+            {
+                throw new EOFException();
+            }
+            return bytes;
+        }
+
+        private int readByte() throws IOException
+        {
+            int b = in.read();
+            if (b < 0)
+            {
+                throw new EOFException();
+            }
+            return b;
+        }
+
+        private int readVarInt() throws IOException
+        {
+            long value = readVarLong();
+            if (value > Integer.MAX_VALUE)
+            {
+                throw new StreamCorruptedException("Invalid length " + value);
+            }
+            return (int) value;
+        }
+
+        private long readVarLong() throws IOException
+        {
+            long value = 0;
+            for (int shift = 0; shift < 64; shift += 7)
+            {
+                int b = readByte();
+                value |= (long) (b & 0x7F) << shift;
+                if ((b & 0x80) == 0)
+                {
+                    return value;
+                }
+            }
+            throw new StreamCorruptedException("Invalid variable length number");
+        }
+
+        private long unZigZag(long value)
+        {
+            return (value >>> 1) ^ -(value & 1);
+        }
+    }
+
+    /**
+     * Writes the attached state wrappers as their wrapped class and state, without the class descriptor
+     * of the wrapper itself.
+     */
+    private static final class WrapperCodec
+    {
+        private final int index;
+        private final Constructor<?> constructor;
+        private final Method getClazz;
+        private final Method getWrappedStateObject;
+
+        WrapperCodec(int index, Class<?> clazz) throws ReflectiveOperationException
+        {
+            this.index = index;
+            constructor = clazz.getDeclaredConstructor(Class.class, Object.class);
+            constructor.setAccessible(true);
+            getWrappedStateObject = clazz.getDeclaredMethod("getWrappedStateObject");
+            getWrappedStateObject.setAccessible(true);
+
+            Method method = null;
+            try
+            {
+                method = clazz.getDeclaredMethod("getClazz");
+                method.setAccessible(true);
+            }
+            catch (NoSuchMethodException e)
+            {
+                // the delta wrappers do not keep the class
+            }
+            getClazz = method;
+        }
+
+        void write(StateWriter writer, Object wrapper) throws IOException
+        {
+            try
+            {
+                if (getClazz != null)
+                {
+                    writer.writeObject(getClazz.invoke(wrapper));
+                }
+                writer.writeObject(getWrappedStateObject.invoke(wrapper));
+            }
+            catch (ReflectiveOperationException e)
+            {
+                throw new IOException(e);
+            }
+        }
+
+        Object read(StateReader reader) throws IOException, PrivilegedActionException, ClassNotFoundException
+        {
+            Object clazz = getClazz == null ? null : reader.readObject();
+            if (clazz != null && !(clazz instanceof Class))
+            {
+                throw new StreamCorruptedException("Invalid wrapped class " + clazz);
+            }
+            Object wrapped = reader.readObject();
+            try
+            {
+                return constructor.newInstance(clazz, wrapped);
+            }
+            catch (ReflectiveOperationException e)
+            {
+                throw new IOException(e);
+            }
+        }
+    }
+}
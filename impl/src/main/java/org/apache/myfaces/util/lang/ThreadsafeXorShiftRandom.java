@@ -18,41 +18,21 @@
  */
 package org.apache.myfaces.util.lang;
 
-import java.util.Random;
+import java.util.concurrent.ThreadLocalRandom;
 
 /**
  * A threadsafe implementation of {@link XorShiftRandom}.
- * We use a ThreadLocal to give each thread it's own implementation.
+ * Each thread uses its own {@link ThreadLocalRandom}, which keeps its state in the Thread itself: unlike a
+ * ThreadLocal it does not add an entry per thread, which matters when requests run on virtual threads.
  */
 public class ThreadsafeXorShiftRandom extends XorShiftRandom
 {
-    /**
-     * Only used for creating the initial seed for each thread!
-     *
-     * We use a threadsafe java.util.Random for making sure that
-     * each thread get it's very own initial seed value.
-     *
-     * If we would not do this then starting dozen Threads at the same time
-     * would result in all having the same seed and thus generate
-     * the same random numbers.
-     */
-    private static Random seedRandom = new Random(System.nanoTime());
-
     public ThreadsafeXorShiftRandom()
     {
-        // seed is not used but created by the ThreadLocal
+        // seed is not used, each thread has its own generator
         super(0);
     }
 
-    private static final ThreadLocal<XorShiftRandom> randomThreadLocal = new ThreadLocal<XorShiftRandom>()
-    {
-        @Override
-        protected XorShiftRandom initialValue()
-        {
-            return new XorShiftRandom(seedRandom.nextLong());
-        }
-    };
-
     /**
      * We use the random generator for this very thread.
      * This method is perfectly threadsafe. It is also guaranteed
@@ -61,6 +41,6 @@ protected XorShiftRandom initialValue()
     @Override
     public long random()
     {
-        return randomThreadLocal.get().random();
+        return ThreadLocalRandom.current().nextLong();
     }
 }
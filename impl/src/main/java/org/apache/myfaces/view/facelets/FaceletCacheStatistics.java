@@ -0,0 +1,121 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.myfaces.view.facelets;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counters of a Facelet cache, shared by all the Facelet types (views, view metadata and composite
+ * component metadata) it holds.
+ *
+ * @since 5.0
+ */
+public class FaceletCacheStatistics
+{
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder compilations = new LongAdder();
+    private final LongAdder waits = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder compileTime = new LongAdder();
+
+    public void hit()
+    {
+        hits.increment();
+    }
+
+    public void miss()
+    {
+        misses.increment();
+    }
+
+    public void compiled(long nanos)
+    {
+        compilations.increment();
+        compileTime.add(nanos);
+    }
+
+    public void waited()
+    {
+        waits.increment();
+    }
+
+    public void evicted()
+    {
+        evictions.increment();
+    }
+
+    /**
+     * @return the number of lookups answered with a cached Facelet
+     */
+    public long getHits()
+    {
+        return hits.sum();
+    }
+
+    /**
+     * @return the number of lookups which did not find a valid Facelet in the cache
+     */
+    public long getMisses()
+    {
+        return misses.sum();
+    }
+
+    /**
+     * @return the number of Facelets compiled
+     */
+    public long getCompilations()
+    {
+        return compilations.sum();
+    }
+
+    /**
+     * @return the number of misses that waited for the compilation started by another thread,
+     *         instead of compiling the same Facelet again
+     */
+    public long getWaits()
+    {
+        return waits.sum();
+    }
+
+    /**
+     * @return the number of Facelets discarded because the cache was full
+     */
+    public long getEvictions()
+    {
+        return evictions.sum();
+    }
+
+    /**
+     * @return the total time spent compiling Facelets, in milliseconds
+     */
+    public long getCompileTimeMillis()
+    {
+        return TimeUnit.NANOSECONDS.toMillis(compileTime.sum());
+    }
+
+    @Override
+    public String toString()
+    {
+        return "FaceletCacheStatistics[hits=" + getHits() + ", misses=" + getMisses()
+                + ", compilations=" + getCompilations() + ", waits=" + getWaits()
+                + ", evictions=" + getEvictions() + ", compileTimeMillis=" + getCompileTimeMillis() + ']';
+    }
+}
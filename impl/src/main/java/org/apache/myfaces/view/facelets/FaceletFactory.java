@@ -27,6 +27,7 @@
 import jakarta.faces.context.FacesContext;
 import jakarta.faces.view.facelets.Facelet;
 import jakarta.faces.view.facelets.FaceletContext;
+import org.apache.myfaces.core.api.shared.lang.ScopedLocal;
 
 /**
  * FaceletFactory for producing Facelets relative to the context of the underlying implementation.
@@ -37,7 +38,7 @@
 public abstract class FaceletFactory
 {
 
-    private static ThreadLocal<FaceletFactory> instance = new ThreadLocal<FaceletFactory>();
+    private static ScopedLocal<FaceletFactory> instance = new ScopedLocal<FaceletFactory>(true);
 
     public final static String LAST_RESOURCE_RESOLVED = "oam.facelets.LAST_RESOURCE_RESOLVED";
 
@@ -1776,7 +1776,15 @@ public void renderView(FacesContext context, UIViewRoot view) throws IOException
                     // render the view to the response
                     writer.startDocument();
 
-                    view.encodeAll(context);
+                    FacesContext renderingContext = ParallelRendering.start(context, view);
+                    try
+                    {
+                        view.encodeAll(renderingContext);
+                    }
+                    finally
+                    {
+                        ParallelRendering.finish(renderingContext);
+                    }
 
                     writer.endDocument();
 
@@ -0,0 +1,758 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.myfaces.view.facelets;
+
+import java.io.IOException;
+import java.lang.annotation.Annotation;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import jakarta.el.ELContext;
+import jakarta.el.ELContextEvent;
+import jakarta.el.ELContextListener;
+import jakarta.el.ELResolver;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.context.ContextNotActiveException;
+import jakarta.enterprise.inject.spi.Bean;
+import jakarta.enterprise.inject.spi.BeanManager;
+import jakarta.faces.FacesException;
+import jakarta.faces.FacesWrapper;
+import jakarta.faces.component.UIComponent;
+import jakarta.faces.component.UIData;
+import jakarta.faces.component.UIForm;
+import jakarta.faces.component.UIViewRoot;
+import jakarta.faces.context.ExternalContext;
+import jakarta.faces.context.ExternalContextWrapper;
+import jakarta.faces.context.FacesContext;
+import jakarta.faces.context.FacesContextWrapper;
+import jakarta.faces.context.ResponseWriter;
+import jakarta.faces.render.RenderKit;
+import jakarta.faces.render.RenderKitWrapper;
+import jakarta.faces.render.Renderer;
+import jakarta.faces.render.RendererWrapper;
+import jakarta.servlet.ServletContext;
+
+import org.apache.myfaces.cdi.util.CDIUtils;
+import org.apache.myfaces.config.webparameters.MyfacesConfig;
+import org.apache.myfaces.core.api.shared.lang.ScopedLocal;
+import org.apache.myfaces.el.FacesELContext;
+import org.apache.myfaces.renderkit.html.util.ResourceUtils;
+import org.apache.myfaces.util.lang.StreamCharBuffer;
+import org.apache.myfaces.view.facelets.component.UIRepeat;
+
+/**
+ * Renders the components marked with the {@link #ATTRIBUTE} attribute concurrently, while the rest of the view is
+ * rendered, see {@link MyfacesConfig#PARALLEL_RENDERING}.
+ *
+ * <p>Each marked component is rendered by a task into its own buffer, with a FacesContext which has its own
+ * ResponseWriter, ELContext, attributes and request attributes. The view is rendered with a FacesContext whose
+ * RenderKit writes the buffers in place of the marked components, waiting for the tasks if needed.</p>
+ *
+ * <p>A marked component containing a form, a script or a stylesheet is rendered by the view, since they modify the
+ * state of the whole view: the StateWriter and the rendered resources. So is a marked component whose rendered
+ * attribute is an expression, or which has no renderer.</p>
+ *
+ * <p>The CDI contexts of the request, the session or the conversation are bound to the thread of the request. If
+ * the rendering of a marked component resolves a bean of such a scope, its task is abandoned and the component is
+ * rendered by the view.</p>
+ */
+public final class ParallelRendering
+{
+    private static final Logger log = Logger.getLogger(ParallelRendering.class.getName());
+
+    /**
+     * The attribute marking a component whose subtree is rendered concurrently, true or "true".
+     */
+    public static final String ATTRIBUTE = "oam.PARALLEL_RENDERING";
+
+    private static final String EXECUTOR = ParallelRendering.class.getName() + ".EXECUTOR";
+
+    // same keys as UIComponent, the component stack is not shared with the rendering tasks
+    private static final String COMPONENT_STACK = "componentStack:" + UIComponent.class.getName();
+    private static final String CURRENT_COMPOSITE_COMPONENT = "compositeComponent:" + UIComponent.class.getName();
+
+    private ParallelRendering()
+    {
+    }
+
+    /**
+     * Starts the rendering of the marked components of the view. Must be called once the ResponseWriter of the view
+     * is set, and followed by {@link #finish(FacesContext)} with the returned FacesContext once the view is rendered.
+     *
+     * @return the FacesContext to render the view with, the given one if no component is rendered concurrently
+     */
+    public static FacesContext start(FacesContext context, UIViewRoot view)
+    {
+        if (!MyfacesConfig.getCurrentInstance(context).isParallelRendering()
+                || context.getPartialViewContext().isPartialRequest())
+        {
+            return context;
+        }
+
+        List<UIComponent> marked = new ArrayList<>();
+        collect(view, marked);
+        if (marked.isEmpty())
+        {
+            return context;
+        }
+
+        ExecutorService executor = getExecutor(context);
+        ResponseWriter writer = context.getResponseWriter();
+        Map<Object, Object> attributes = new HashMap<>(context.getAttributes());
+        attributes.remove(COMPONENT_STACK);
+        attributes.remove(CURRENT_COMPOSITE_COMPONENT);
+        Map<String, Object> requestMap = new HashMap<>(context.getExternalContext().getRequestMap());
+        Locale locale = context.getELContext().getLocale();
+        BeanManager beanManager = CDIUtils.getBeanManager(context);
+        ThreadBoundBeans threadBoundBeans = beanManager == null ? null : new ThreadBoundBeans(beanManager);
+        ScopedLocal.Snapshot snapshot = ScopedLocal.capture();
+
+        ViewRenderingContext viewContext = new ViewRenderingContext(context);
+        boolean started = false;
+        try
+        {
+            for (UIComponent component : marked)
+            {
+                StreamCharBuffer buffer = new StreamCharBuffer();
+                RenderingContext taskContext = new RenderingContext(context, new HashMap<>(attributes),
+                        new HashMap<>(requestMap), writer.cloneWithWriter(buffer.getWriter()), locale,
+                        threadBoundBeans);
+
+                viewContext.add(component, executor.submit(snapshot.wrap(() ->
+                {
+                    taskContext.render(component);
+                    return buffer;
+                })));
+            }
+            started = true;
+        }
+        finally
+        {
+            if (!started)
+            {
+                // the view is not rendered, the submitted tasks must not outlive the request
+                finish(viewContext);
+            }
+        }
+        return viewContext;
+    }
+
+    /**
+     * Waits for the rendering tasks which are still running, the FacesContext must not be released before.
+     *
+     * @param context the FacesContext returned by {@link #start(FacesContext, UIViewRoot)}
+     */
+    public static void finish(FacesContext context)
+    {
+        if (context instanceof ViewRenderingContext)
+        {
+            ((ViewRenderingContext) context).finish();
+        }
+    }
+
+    /**
+     * Stops the executor of the rendering tasks, if it has been created.
+     */
+    public static void stop(ServletContext servletContext)
+    {
+        ExecutorService executor = (ExecutorService) servletContext.getAttribute(EXECUTOR);
+        if (executor != null)
+        {
+            servletContext.removeAttribute(EXECUTOR);
+            executor.shutdownNow();
+        }
+    }
+
+    private static void collect(UIComponent parent, List<UIComponent> marked)
+    {
+        if (parent.getFacetCount() > 0)
+        {
+            for (UIComponent child : parent.getFacets().values())
+            {
+                collectChild(child, marked);
+            }
+        }
+        for (int i = 0, childCount = parent.getChildCount(); i < childCount; i++)
+        {
+            collectChild(parent.getChildren().get(i), marked);
+        }
+    }
+
+    private static void collectChild(UIComponent child, List<UIComponent> marked)
+    {
+        // rows are rendered several times with different states
+        if (child instanceof UIData || child instanceof UIRepeat)
+        {
+            return;
+        }
+
+        // the rendered expressions are only evaluated by the view, once, when the component is rendered: a subtree
+        // which may not be rendered is rendered by the view
+        if (child.getValueExpression("rendered") != null || !child.isRendered())
+        {
+            return;
+        }
+
+        Object value = child.getAttributes().get(ATTRIBUTE);
+        if (value != null && Boolean.parseBoolean(value.toString()) && child.getRendererType() != null
+                && isConcurrent(child))
+        {
+            marked.add(child);
+        }
+        else
+        {
+            collect(child, marked);
+        }
+    }
+
+    /**
+     * Whether the subtree of the component contains no form, script or stylesheet.
+     */
+    private static boolean isConcurrent(UIComponent component)
+    {
+        if (component instanceof UIForm)
+        {
+            return false;
+        }
+        String rendererType = component.getRendererType();
+        if (ResourceUtils.DEFAULT_SCRIPT_RENDERER_TYPE.equals(rendererType)
+                || ResourceUtils.DEFAULT_STYLESHEET_RENDERER_TYPE.equals(rendererType))
+        {
+            return false;
+        }
+
+        if (component.getFacetCount() > 0)
+        {
+            for (UIComponent facet : component.getFacets().values())
+            {
+                if (!isConcurrent(facet))
+                {
+                    return false;
+                }
+            }
+        }
+        for (int i = 0, childCount = component.getChildCount(); i < childCount; i++)
+        {
+            if (!isConcurrent(component.getChildren().get(i)))
+            {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Waits for the output of a task.
+     *
+     * @return the output, or null if the task has been abandoned and the component must be rendered by the view
+     */
+    private static StreamCharBuffer await(Future<StreamCharBuffer> future) throws IOException
+    {
+        try
+        {
+            return future.get();
+        }
+        catch (InterruptedException e)
+        {
+            Thread.currentThread().interrupt();
+            throw new FacesException(e);
+        }
+        catch (ExecutionException e)
+        {
+            Throwable cause = e.getCause();
+            for (Throwable t = cause; t != null; t = t.getCause())
+            {
+                if (t instanceof ThreadBoundBeanException || t instanceof ContextNotActiveException)
+                {
+                    if (log.isLoggable(Level.FINE))
+                    {
+                        log.log(Level.FINE, "The component is rendered by the view", t);
+                    }
+                    return null;
+                }
+            }
+            if (cause instanceof IOException)
+            {
+                throw (IOException) cause;
+            }
+            if (cause instanceof RuntimeException)
+            {
+                throw (RuntimeException) cause;
+            }
+            throw new FacesException(cause);
+        }
+    }
+
+    private static ExecutorService getExecutor(FacesContext context)
+    {
+        Map<String, Object> applicationMap = context.getExternalContext().getApplicationMap();
+        ExecutorService executor = (ExecutorService) applicationMap.get(EXECUTOR);
+        if (executor == null)
+        {
+            synchronized (ParallelRendering.class)
+            {
+                executor = (ExecutorService) applicationMap.get(EXECUTOR);
+                if (executor == null)
+                {
+                    executor = createExecutor();
+                    applicationMap.put(EXECUTOR, executor);
+                }
+            }
+        }
+        return executor;
+    }
+
+    /**
+     * The tasks mostly wait for backing beans, so virtual threads are used if available, otherwise a pool of daemon
+     * threads.
+     */
+    private static ExecutorService createExecutor()
+    {
+        try
+        {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        }
+        catch (ReflectiveOperationException | RuntimeException e)
+        {
+            // not available before Java 21
+        }
+
+        AtomicInteger counter = new AtomicInteger();
+        int threads = Math.max(4, Runtime.getRuntime().availableProcessors() * 2);
+        ThreadPoolExecutor pool = new ThreadPoolExecutor(threads, threads, 60L, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(), runnable ->
+                {
+                    Thread thread = new Thread(runnable, "myfaces-render-" + counter.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        pool.allowCoreThreadTimeOut(true);
+        return pool;
+    }
+
+    /**
+     * The FacesContext the view is rendered with: its RenderKit writes the outputs of the tasks in place of the
+     * marked components. It is only used by the thread rendering the view.
+     */
+    private static final class ViewRenderingContext extends FacesContextWrapper
+    {
+        private final Map<UIComponent, Future<StreamCharBuffer>> outputs = new IdentityHashMap<>();
+        private final Set<String> rendererKeys = new HashSet<>();
+        private PrerenderedRenderKit renderKit;
+
+        ViewRenderingContext(FacesContext wrapped)
+        {
+            super(wrapped);
+        }
+
+        void add(UIComponent component, Future<StreamCharBuffer> output)
+        {
+            outputs.put(component, output);
+            rendererKeys.add(component.getFamily() + '/' + component.getRendererType());
+        }
+
+        @Override
+        public RenderKit getRenderKit()
+        {
+            RenderKit wrappedRenderKit = getWrapped().getRenderKit();
+            if (wrappedRenderKit == null)
+            {
+                return null;
+            }
+            if (renderKit == null || renderKit.getWrapped() != wrappedRenderKit)
+            {
+                renderKit = new PrerenderedRenderKit(wrappedRenderKit);
+            }
+            return renderKit;
+        }
+
+        /**
+         * Waits for the outputs which have not been written, the view failed before reaching their components.
+         */
+        void finish()
+        {
+            boolean interrupted = false;
+            for (Future<StreamCharBuffer> future : outputs.values())
+            {
+                while (true)
+                {
+                    try
+                    {
+                        future.get();
+                        break;
+                    }
+                    catch (InterruptedException e)
+                    {
+                        interrupted = true;
+                    }
+                    catch (ExecutionException e)
+                    {
+                        if (log.isLoggable(Level.FINE))
+                        {
+                            log.log(Level.FINE, "Concurrent rendering failed", e.getCause());
+                        }
+                        break;
+                    }
+                }
+            }
+            outputs.clear();
+            if (interrupted)
+            {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        private final class PrerenderedRenderKit extends RenderKitWrapper
+        {
+            private final Map<String, Renderer> renderers = new HashMap<>();
+
+            PrerenderedRenderKit(RenderKit delegate)
+            {
+                super(delegate);
+            }
+
+            @Override
+            public Renderer getRenderer(String family, String rendererType)
+            {
+                Renderer renderer = super.getRenderer(family, rendererType);
+                String key = family + '/' + rendererType;
+                if (renderer == null || !rendererKeys.contains(key))
+                {
+                    return renderer;
+                }
+                return renderers.computeIfAbsent(key, k -> new PrerenderedRenderer(renderer));
+            }
+        }
+
+        /**
+         * Writes the output of a marked component instead of rendering it, unless its task has been abandoned.
+         */
+        private final class PrerenderedRenderer extends RendererWrapper
+        {
+            PrerenderedRenderer(Renderer delegate)
+            {
+                super(delegate);
+            }
+
+            @Override
+            public void encodeBegin(FacesContext context, UIComponent component) throws IOException
+            {
+                Future<StreamCharBuffer> output = outputs.get(component);
+                if (output != null)
+                {
+                    StreamCharBuffer buffer = await(output);
+                    if (buffer != null)
+                    {
+                        buffer.writeTo(context.getResponseWriter());
+                        return;
+                    }
+                    outputs.remove(component);
+                }
+                super.encodeBegin(context, component);
+            }
+
+            @Override
+            public void encodeChildren(FacesContext context, UIComponent component) throws IOException
+            {
+                if (outputs.containsKey(component))
+                {
+                    return;
+                }
+                if (getWrapped().getRendersChildren())
+                {
+                    super.encodeChildren(context, component);
+                }
+                else
+                {
+                    for (int i = 0, childCount = component.getChildCount(); i < childCount; i++)
+                    {
+                        component.getChildren().get(i).encodeAll(context);
+                    }
+                }
+            }
+
+            @Override
+            public void encodeEnd(FacesContext context, UIComponent component) throws IOException
+            {
+                if (outputs.remove(component) != null)
+                {
+                    return;
+                }
+                super.encodeEnd(context, component);
+            }
+
+            @Override
+            public boolean getRendersChildren()
+            {
+                // the children of the marked components must not be rendered
+                return true;
+            }
+        }
+    }
+
+    /**
+     * The FacesContext of a rendering task: the request is shared, but not what rendering modifies.
+     */
+    private static final class RenderingContext extends FacesContextWrapper
+    {
+        private final Map<Object, Object> attributes;
+        private final ExternalContext externalContext;
+        private ResponseWriter responseWriter;
+        private final Locale locale;
+        private final ThreadBoundBeans threadBoundBeans;
+        private ELContext elContext;
+
+        RenderingContext(FacesContext wrapped, Map<Object, Object> attributes, Map<String, Object> requestMap,
+                ResponseWriter responseWriter, Locale locale, ThreadBoundBeans threadBoundBeans)
+        {
+            super(wrapped);
+            this.attributes = attributes;
+            this.externalContext = new ExternalContextWrapper(wrapped.getExternalContext())
+            {
+                @Override
+                public Map<String, Object> getRequestMap()
+                {
+                    return requestMap;
+                }
+            };
+            this.responseWriter = responseWriter;
+            this.locale = locale;
+            this.threadBoundBeans = threadBoundBeans;
+        }
+
+        /**
+         * Renders the component as its encodeAll does, except that the events of the component are only published
+         * by the view.
+         */
+        void render(UIComponent component) throws IOException
+        {
+            FacesContext.setCurrentInstance(this);
+            try
+            {
+                // the ancestors are on the component stack, as when the view renders the component
+                List<UIComponent> ancestors = new ArrayList<>();
+                for (UIComponent parent = component.getParent(); parent != null; parent = parent.getParent())
+                {
+                    ancestors.add(parent);
+                }
+                for (int i = ancestors.size() - 1; i >= 0; i--)
+                {
+                    UIComponent ancestor = ancestors.get(i);
+                    ancestor.pushComponentToEL(this, ancestor);
+                }
+                component.pushComponentToEL(this, component);
+
+                Renderer renderer = getRenderKit().getRenderer(component.getFamily(), component.getRendererType());
+                renderer.encodeBegin(this, component);
+                if (renderer.getRendersChildren())
+                {
+                    renderer.encodeChildren(this, component);
+                }
+                else
+                {
+                    for (int i = 0, childCount = component.getChildCount(); i < childCount; i++)
+                    {
+                        component.getChildren().get(i).encodeAll(this);
+                    }
+                }
+                renderer.encodeEnd(this, component);
+                responseWriter.flush();
+            }
+            finally
+            {
+                FacesContext.setCurrentInstance(null);
+            }
+        }
+
+        @Override
+        public Map<Object, Object> getAttributes()
+        {
+            return attributes;
+        }
+
+        @Override
+        public ExternalContext getExternalContext()
+        {
+            return externalContext;
+        }
+
+        @Override
+        public ResponseWriter getResponseWriter()
+        {
+            return responseWriter;
+        }
+
+        @Override
+        public void setResponseWriter(ResponseWriter responseWriter)
+        {
+            this.responseWriter = responseWriter;
+        }
+
+        @Override
+        public ELContext getELContext()
+        {
+            if (elContext == null)
+            {
+                ELResolver resolver = getApplication().getELResolver();
+                if (threadBoundBeans != null)
+                {
+                    resolver = new ThreadBoundBeanGuard(resolver, threadBoundBeans);
+                }
+                elContext = new FacesELContext(resolver, this);
+                elContext.setLocale(locale);
+                ELContextEvent event = new ELContextEvent(elContext);
+                for (ELContextListener listener : getApplication().getELContextListeners())
+                {
+                    listener.contextCreated(event);
+                }
+            }
+            return elContext;
+        }
+    }
+
+    /**
+     * The names of the beans whose scope is bound to the thread of the request, shared by the tasks of a request.
+     */
+    private static final class ThreadBoundBeans
+    {
+        private final BeanManager beanManager;
+        private final Map<String, Boolean> names = new ConcurrentHashMap<>();
+
+        ThreadBoundBeans(BeanManager beanManager)
+        {
+            this.beanManager = beanManager;
+        }
+
+        boolean contains(String name)
+        {
+            return names.computeIfAbsent(name, this::isThreadBound);
+        }
+
+        private boolean isThreadBound(String name)
+        {
+            Set<Bean<?>> beans = beanManager.getBeans(name);
+            if (beans.isEmpty())
+            {
+                return false;
+            }
+            Bean<?> bean = beanManager.resolve(beans);
+            if (bean == null)
+            {
+                return false;
+            }
+            Class<? extends Annotation> scope = bean.getScope();
+            return beanManager.isNormalScope(scope) && scope != ApplicationScoped.class;
+        }
+    }
+
+    /**
+     * Abandons the task when a bean bound to the thread of the request is resolved: its CDI context is not active
+     * on the thread of the task, or would be another one.
+     */
+    private static final class ThreadBoundBeanGuard extends ELResolver implements FacesWrapper<ELResolver>
+    {
+        private final ELResolver wrapped;
+        private final ThreadBoundBeans threadBoundBeans;
+
+        ThreadBoundBeanGuard(ELResolver wrapped, ThreadBoundBeans threadBoundBeans)
+        {
+            this.wrapped = wrapped;
+            this.threadBoundBeans = threadBoundBeans;
+        }
+
+        @Override
+        public Object getValue(ELContext context, Object base, Object property)
+        {
+            if (base == null && property instanceof String && threadBoundBeans.contains((String) property))
+            {
+                throw new ThreadBoundBeanException((String) property);
+            }
+            return wrapped.getValue(context, base, property);
+        }
+
+        @Override
+        public Class<?> getType(ELContext context, Object base, Object property)
+        {
+            return wrapped.getType(context, base, property);
+        }
+
+        @Override
+        public void setValue(ELContext context, Object base, Object property, Object value)
+        {
+            wrapped.setValue(context, base, property, value);
+        }
+
+        @Override
+        public boolean isReadOnly(ELContext context, Object base, Object property)
+        {
+            return wrapped.isReadOnly(context, base, property);
+        }
+
+        @Override
+        public Class<?> getCommonPropertyType(ELContext context, Object base)
+        {
+            return wrapped.getCommonPropertyType(context, base);
+        }
+
+        @Override
+        public Object invoke(ELContext context, Object base, Object method, Class<?>[] paramTypes, Object[] params)
+        {
+            return wrapped.invoke(context, base, method, paramTypes, params);
+        }
+
+        @Override
+        public <T> T convertToType(ELContext context, Object obj, Class<T> targetType)
+        {
+            return wrapped.convertToType(context, obj, targetType);
+        }
+
+        @Override
+        public ELResolver getWrapped()
+        {
+            return wrapped;
+        }
+    }
+
+    private static final class ThreadBoundBeanException extends RuntimeException
+    {
+        private static final long serialVersionUID = 1L;
+
+        ThreadBoundBeanException(String name)
+        {
+            super("The bean " + name + " is bound to the thread of the request", null, false, false);
+        }
+    }
+}
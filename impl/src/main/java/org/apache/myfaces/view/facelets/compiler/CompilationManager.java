@@ -52,7 +52,7 @@
  * @author Jacob Hookom
  * @version $Id$
  */
-final class CompilationManager
+class CompilationManager
 {
 
     private final static Logger log = Logger.getLogger(CompilationManager.class.getName());
@@ -69,6 +69,7 @@
     private final Map<String, String> features = new HashMap<>();
     private boolean developmentProjectStage = false;
     private Collection<FaceletsProcessing> faceletsProcessingConfigurations;
+    private PrecompiledFaceletCache precompiledFaceletCache;
 
     public Compiler()
     {
@@ -262,6 +263,24 @@ public void setFaceletsProcessingConfigurations(
     {
         this.faceletsProcessingConfigurations = faceletsProcessingConfigurations;
     }
+
+    /**
+     * @return the cache of precompiled Facelets, or null if Facelets are always parsed
+     * @since 5.0
+     */
+    public PrecompiledFaceletCache getPrecompiledFaceletCache()
+    {
+        return precompiledFaceletCache;
+    }
+
+    /**
+     * @param precompiledFaceletCache the cache of precompiled Facelets, or null to always parse the Facelets
+     * @since 5.0
+     */
+    public void setPrecompiledFaceletCache(PrecompiledFaceletCache precompiledFaceletCache)
+    {
+        this.precompiledFaceletCache = precompiledFaceletCache;
+    }
     
     public static class CompilerResult
     {
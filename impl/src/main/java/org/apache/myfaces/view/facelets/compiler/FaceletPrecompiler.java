@@ -0,0 +1,114 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.myfaces.view.facelets.compiler;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Collections;
+import java.util.List;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import jakarta.faces.view.facelets.FaceletException;
+
+/**
+ * Build time compilation of the Facelets of a web application into a directory used by
+ * org.apache.myfaces.FACELETS_PRECOMPILED_CACHE_DIR, so the first request of each view after a deployment does not
+ * parse its Facelet. It can be run during the build, for example with the exec-maven-plugin:
+ *
+ * <pre>
+ * java org.apache.myfaces.view.facelets.compiler.FaceletPrecompiler src/main/webapp target/facelets-cache
+ * </pre>
+ *
+ * <p>Every .xhtml file is compiled as a view and as view metadata, the ones under /resources also as composite
+ * component metadata. Only the parser events are stored, the tag libraries of the application are not needed here:
+ * they are applied when the application replays the events at runtime.</p>
+ *
+ * @since 5.0
+ */
+public final class FaceletPrecompiler
+{
+    private static final Logger log = Logger.getLogger(FaceletPrecompiler.class.getName());
+
+    private static final String SUFFIX = ".xhtml";
+
+    private FaceletPrecompiler()
+    {
+    }
+
+    public static void main(String[] args) throws IOException
+    {
+        if (args.length != 2)
+        {
+            System.err.println("Usage: FaceletPrecompiler <web application directory> <output directory>");
+            System.exit(1);
+        }
+        int count = precompile(Paths.get(args[0]), Paths.get(args[1]));
+        System.out.println("Precompiled " + count + " Facelets into " + args[1]);
+    }
+
+    /**
+     * Precompiles all the Facelets of the web application directory. Facelets which can not be parsed are skipped,
+     * they are reported again when they are compiled at runtime.
+     *
+     * @return the number of precompiled Facelets
+     */
+    public static int precompile(Path webappDirectory, Path outputDirectory) throws IOException
+    {
+        SAXCompiler compiler = new SAXCompiler();
+        compiler.setFaceletsProcessingConfigurations(Collections.emptyList());
+        compiler.setPrecompiledFaceletCache(new PrecompiledFaceletCache(outputDirectory));
+
+        List<Path> files;
+        try (Stream<Path> stream = Files.walk(webappDirectory))
+        {
+            files = stream.filter(p -> Files.isRegularFile(p) && p.getFileName().toString().endsWith(SUFFIX))
+                    .collect(Collectors.toList());
+        }
+
+        int count = 0;
+        for (Path file : files)
+        {
+            // same aliases as DefaultFaceletFactory
+            String path = webappDirectory.relativize(file).toString().replace(file.getFileSystem().getSeparator(),
+                    "/");
+            try
+            {
+                compiler.precompile(file.toUri().toURL(), '/' + path, PrecompiledFaceletCache.VIEW);
+                compiler.precompile(file.toUri().toURL(), "/viewMetadata/" + path,
+                        PrecompiledFaceletCache.VIEW_METADATA);
+                if (path.startsWith("resources/"))
+                {
+                    compiler.precompile(file.toUri().toURL(), "/compositeComponentMetadata/" + path,
+                            PrecompiledFaceletCache.COMPOSITE_COMPONENT_METADATA);
+                }
+                count++;
+            }
+            catch (FaceletException e)
+            {
+                log.log(Level.WARNING, "Skipping " + path + ": " + e.getMessage());
+            }
+        }
+        return count;
+    }
+}
@@ -18,6 +18,7 @@
  */
 package org.apache.myfaces.view.facelets.compiler;
 
+import java.nio.file.Paths;
 import java.util.List;
 import java.util.logging.Level;
 import java.util.logging.Logger;
@@ -187,6 +188,16 @@ public void loadOptions(FacesContext context, Compiler compiler)
         compiler.setFaceletsProcessingConfigurations(
                 RuntimeConfig.getCurrentInstance(
                         context.getExternalContext()).getFaceletProcessingConfigurations());
+
+        String precompiledCacheDir = MyfacesConfig.getCurrentInstance(context).getFaceletsPrecompiledCacheDir();
+        if (precompiledCacheDir != null && !precompiledCacheDir.isBlank())
+        {
+            // a directory inside the web application, like /WEB-INF/facelets-cache
+            String realPath = precompiledCacheDir.startsWith("/WEB-INF/")
+                    ? eContext.getRealPath(precompiledCacheDir) : null;
+            compiler.setPrecompiledFaceletCache(new PrecompiledFaceletCache(
+                    Paths.get(realPath != null ? realPath : precompiledCacheDir.trim())));
+        }
     }
     
     private static class LoadComponentTagDeclarationFacesContextWrapper extends FacesContextWrapper
@@ -23,20 +23,37 @@
 import jakarta.el.ELContext;
 import jakarta.el.ExpressionFactory;
 import jakarta.faces.context.FacesContext;
+import jakarta.faces.context.ResponseWriter;
+
+import org.apache.myfaces.renderkit.html.HtmlResponseWriterImpl;
 
 final class LiteralTextInstruction implements Instruction
 {
     private final String text;
 
+    /**
+     * The text encoded for the html writer, once for all the renderings
+     */
+    private final String encodedText;
+
     public LiteralTextInstruction(String text)
     {
         this.text = text;
+        this.encodedText = HtmlResponseWriterImpl.encodeText(text);
     }
 
     @Override
     public void write(FacesContext context) throws IOException
     {
-        context.getResponseWriter().writeText(this.text, null);
+        ResponseWriter writer = context.getResponseWriter();
+        if (writer instanceof HtmlResponseWriterImpl)
+        {
+            ((HtmlResponseWriterImpl) writer).writeEncodedText(this.text, this.encodedText);
+        }
+        else
+        {
+            writer.writeText(this.text, null);
+        }
     }
 
     @Override
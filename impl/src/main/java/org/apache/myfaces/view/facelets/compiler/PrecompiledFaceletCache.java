@@ -0,0 +1,244 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.myfaces.view.facelets.compiler;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Directory of precompiled Facelets: the parser events of each Facelet, recorded by
+ * {@link RecordingCompilationManager}, together with the SHA-256 hash of the source they were recorded from.
+ * An entry is only used if the hash of the current source is the same, so a changed Facelet is always parsed again.
+ *
+ * <p>Each entry is written to a temporary file which is then moved, so several nodes can share the same
+ * directory and readers never see a partially written entry.</p>
+ *
+ * @since 5.0
+ */
+public class PrecompiledFaceletCache
+{
+    public static final int VIEW = 0;
+    public static final int VIEW_METADATA = 1;
+    public static final int COMPOSITE_COMPONENT_METADATA = 2;
+
+    private static final Logger log = Logger.getLogger(PrecompiledFaceletCache.class.getName());
+
+    private static final int MAGIC = 0x4D464643;
+    private static final int VERSION = 1;
+    private static final String SUFFIX = ".fc";
+
+    private final Path directory;
+
+    public PrecompiledFaceletCache(Path directory)
+    {
+        this.directory = directory;
+    }
+
+    public Path getDirectory()
+    {
+        return directory;
+    }
+
+    /**
+     * @return the precompiled entry of the Facelet, or null if there is none for this source
+     */
+    Entry load(int kind, String alias, FaceletsProcessingInstructions instructions, byte[] digest)
+    {
+        byte[] content;
+        try
+        {
+            content = Files.readAllBytes(getFile(kind, alias));
+        }
+        catch (NoSuchFileException e)
+        {
+            return null;
+        }
+        catch (IOException e)
+        {
+            log.log(Level.FINE, "Could not read precompiled Facelet " + alias, e);
+            return null;
+        }
+
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(content)))
+        {
+            if (in.readInt() != MAGIC || in.readInt() != VERSION || in.readByte() != kind
+                    || !alias.equals(in.readUTF()) || in.readInt() != getFlags(instructions))
+            {
+                return null;
+            }
+            byte[] storedDigest = new byte[digest.length];
+            in.readFully(storedDigest);
+            if (!Arrays.equals(digest, storedDigest))
+            {
+                return null;
+            }
+            String encoding = in.readBoolean() ? in.readUTF() : null;
+            int length = in.readInt();
+            if (length < 0 || length != in.available())
+            {
+                return null;
+            }
+            byte[] events = new byte[length];
+            in.readFully(events);
+            return new Entry(encoding, events);
+        }
+        catch (IOException e)
+        {
+            log.log(Level.FINE, "Ignoring corrupted precompiled Facelet " + alias, e);
+            return null;
+        }
+    }
+
+    /**
+     * Stores the recorded events of the Facelet, replacing any previous entry. Failures are only logged, the cache
+     * is an optimization.
+     */
+    void store(int kind, String alias, FaceletsProcessingInstructions instructions, byte[] digest, String encoding,
+            byte[] events)
+    {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(events.length + 128);
+        Path file = getFile(kind, alias);
+        Path tmp = null;
+        try
+        {
+            try (DataOutputStream out = new DataOutputStream(bytes))
+            {
+                out.writeInt(MAGIC);
+                out.writeInt(VERSION);
+                out.writeByte(kind);
+                out.writeUTF(alias);
+                out.writeInt(getFlags(instructions));
+                out.write(digest);
+                out.writeBoolean(encoding != null);
+                if (encoding != null)
+                {
+                    out.writeUTF(encoding);
+                }
+                out.writeInt(events.length);
+                out.write(events);
+            }
+
+            Files.createDirectories(directory);
+            tmp = Files.createTempFile(directory, file.getFileName().toString(), ".tmp");
+            Files.write(tmp, bytes.toByteArray());
+            try
+            {
+                Files.move(tmp, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            }
+            catch (AtomicMoveNotSupportedException e)
+            {
+                Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING);
+            }
+        }
+        catch (IOException | SecurityException e)
+        {
+            log.log(Level.FINE, "Could not store precompiled Facelet " + alias, e);
+            if (tmp != null)
+            {
+                try
+                {
+                    Files.deleteIfExists(tmp);
+                }
+                catch (IOException ex)
+                {
+                    // ignore
+                }
+            }
+        }
+    }
+
+    Path getFile(int kind, String alias)
+    {
+        byte[] hash = digest((kind + ":" + alias).getBytes(StandardCharsets.UTF_8));
+        StringBuilder sb = new StringBuilder(hash.length * 2 + SUFFIX.length());
+        for (byte b : hash)
+        {
+            sb.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+        }
+        return directory.resolve(sb.append(SUFFIX).toString());
+    }
+
+    /**
+     * @return the SHA-256 hash of the given source
+     */
+    static byte[] digest(byte[] source)
+    {
+        try
+        {
+            return MessageDigest.getInstance("SHA-256").digest(source);
+        }
+        catch (NoSuchAlgorithmException e)
+        {
+            // every Java platform supports SHA-256
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * The parser skips some events depending on the processing instructions, an entry recorded with other
+     * instructions can not be used.
+     */
+    private static int getFlags(FaceletsProcessingInstructions instructions)
+    {
+        int flags = 0;
+        flags |= instructions.isConsumeXmlDocType() ? 1 : 0;
+        flags |= instructions.isConsumeXmlDeclaration() ? 1 << 1 : 0;
+        flags |= instructions.isConsumeProcessingInstructions() ? 1 << 2 : 0;
+        flags |= instructions.isConsumeCDataSections() ? 1 << 3 : 0;
+        flags |= instructions.isConsumeXMLComments() ? 1 << 4 : 0;
+        flags |= instructions.isSwallowCDataContent() ? 1 << 5 : 0;
+        return flags;
+    }
+
+    static final class Entry
+    {
+        private final String encoding;
+        private final byte[] events;
+
+        Entry(String encoding, byte[] events)
+        {
+            this.encoding = encoding;
+            this.events = events;
+        }
+
+        String getEncoding()
+        {
+            return encoding;
+        }
+
+        byte[] getEvents()
+        {
+            return events;
+        }
+    }
+}
@@ -0,0 +1,412 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.myfaces.view.facelets.compiler;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+import jakarta.faces.view.Location;
+import jakarta.faces.view.facelets.Tag;
+import jakarta.faces.view.facelets.TagAttribute;
+
+import org.apache.myfaces.view.facelets.tag.TagAttributeImpl;
+import org.apache.myfaces.view.facelets.tag.TagAttributesImpl;
+
+/**
+ * CompilationManager that records the events received from the parser in a compact binary form, so the same
+ * Facelet can be compiled later by {@link #replay(byte[], CompilationManager) replaying} them, without parsing
+ * the document again.
+ *
+ * <p>The compiled FaceletHandler tree can not be stored itself, because its handlers hold runtime objects like
+ * tag libraries, component handlers or expression factories. The events are all what the parser contributes to
+ * the compilation, everything else depends on the current configuration and is done again by the
+ * CompilationManager that receives them.</p>
+ *
+ * @since 5.0
+ */
+class RecordingCompilationManager extends CompilationManager
+{
+    private static final byte INSTRUCTION = 1;
+    private static final byte DOCTYPE = 2;
+    private static final byte TEXT = 3;
+    private static final byte COMMENT = 4;
+    private static final byte WHITESPACE = 5;
+    private static final byte PUSH_TAG = 6;
+    private static final byte POP_TAG = 7;
+    private static final byte PUSH_NAMESPACE = 8;
+    private static final byte POP_NAMESPACE = 9;
+
+    private static final int NULL_STRING = -1;
+    private static final int NEW_STRING = -2;
+
+    private final boolean compile;
+    private final ByteArrayOutputStream bytes = new ByteArrayOutputStream(4096);
+    private final DataOutputStream out = new DataOutputStream(bytes);
+    private final Map<String, Integer> strings = new HashMap<>();
+
+    /**
+     * @param compile if false, the events are only recorded and no FaceletHandler is created
+     */
+    public RecordingCompilationManager(String alias, Compiler compiler, FaceletsProcessingInstructions instructions,
+            boolean compile)
+    {
+        super(alias, compiler, instructions);
+        this.compile = compile;
+    }
+
+    /**
+     * @return the events recorded so far
+     */
+    public byte[] getEvents()
+    {
+        return bytes.toByteArray();
+    }
+
+    @Override
+    public void writeInstruction(String value, Location location)
+    {
+        record(INSTRUCTION, value, location);
+        if (compile)
+        {
+            super.writeInstruction(value, location);
+        }
+    }
+
+    @Override
+    public void writeDoctype(String name, String publicId, String systemId)
+    {
+        try
+        {
+            out.writeByte(DOCTYPE);
+            writeString(name);
+            writeString(publicId);
+            writeString(systemId);
+        }
+        catch (IOException e)
+        {
+            throw new UncheckedIOException(e);
+        }
+        if (compile)
+        {
+            super.writeDoctype(name, publicId, systemId);
+        }
+    }
+
+    @Override
+    public void writeText(String value, Location location)
+    {
+        record(TEXT, value, location);
+        if (compile)
+        {
+            super.writeText(value, location);
+        }
+    }
+
+    @Override
+    public void writeComment(String text, Location location)
+    {
+        record(COMMENT, text, location);
+        if (compile)
+        {
+            super.writeComment(text, location);
+        }
+    }
+
+    @Override
+    public void writeWhitespace(String text, Location location)
+    {
+        record(WHITESPACE, text, location);
+        if (compile)
+        {
+            super.writeWhitespace(text, location);
+        }
+    }
+
+    @Override
+    public void pushTag(Tag orig)
+    {
+        try
+        {
+            out.writeByte(PUSH_TAG);
+            writeLocation(orig.getLocation());
+            writeString(orig.getNamespace());
+            writeString(orig.getLocalName());
+            writeString(orig.getQName());
+            TagAttribute[] attributes = orig.getAttributes().getAll();
+            out.writeInt(attributes.length);
+            for (TagAttribute attribute : attributes)
+            {
+                writeLocation(attribute.getLocation());
+                writeString(attribute.getNamespace());
+                writeString(attribute.getLocalName());
+                writeString(attribute.getQName());
+                writeString(attribute.getValue());
+            }
+        }
+        catch (IOException e)
+        {
+            throw new UncheckedIOException(e);
+        }
+        if (compile)
+        {
+            super.pushTag(orig);
+        }
+    }
+
+    @Override
+    public void popTag()
+    {
+        try
+        {
+            out.writeByte(POP_TAG);
+        }
+        catch (IOException e)
+        {
+            throw new UncheckedIOException(e);
+        }
+        if (compile)
+        {
+            super.popTag();
+        }
+    }
+
+    @Override
+    public void pushNamespace(String prefix, String uri)
+    {
+        try
+        {
+            out.writeByte(PUSH_NAMESPACE);
+            writeString(prefix);
+            writeString(uri);
+        }
+        catch (IOException e)
+        {
+            throw new UncheckedIOException(e);
+        }
+        if (compile)
+        {
+            super.pushNamespace(prefix, uri);
+        }
+    }
+
+    @Override
+    public void popNamespace(String ns)
+    {
+        try
+        {
+            out.writeByte(POP_NAMESPACE);
+            writeString(ns);
+        }
+        catch (IOException e)
+        {
+            throw new UncheckedIOException(e);
+        }
+        if (compile)
+        {
+            super.popNamespace(ns);
+        }
+    }
+
+    private void record(byte type, String value, Location location)
+    {
+        try
+        {
+            out.writeByte(type);
+            writeString(value);
+            writeLocation(location);
+        }
+        catch (IOException e)
+        {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void writeLocation(Location location) throws IOException
+    {
+        if (location == null)
+        {
+            out.writeBoolean(false);
+            return;
+        }
+        out.writeBoolean(true);
+        writeString(location.getPath());
+        out.writeInt(location.getLine());
+        out.writeInt(location.getColumn());
+    }
+
+    /**
+     * Strings are written once, the next occurrences only refer to the index of the first one.
+     */
+    private void writeString(String value) throws IOException
+    {
+        if (value == null)
+        {
+            out.writeInt(NULL_STRING);
+            return;
+        }
+        Integer index = strings.get(value);
+        if (index != null)
+        {
+            out.writeInt(index);
+            return;
+        }
+        strings.put(value, strings.size());
+        byte[] utf8 = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(NEW_STRING);
+        out.writeInt(utf8.length);
+        out.write(utf8);
+    }
+
+    /**
+     * Sends the recorded events to the given CompilationManager, in the same order as the parser did.
+     *
+     * @throws IOException if the events are corrupted
+     */
+    public static void replay(byte[] events, CompilationManager mngr) throws IOException
+    {
+        new Replay(events).replay(mngr);
+    }
+
+    private static final class Replay
+    {
+        private final DataInputStream in;
+        private final List<String> strings = new ArrayList<>();
+        private Location lastLocation;
+
+        Replay(byte[] events)
+        {
+            this.in = new DataInputStream(new ByteArrayInputStream(events));
+        }
+
+        void replay(CompilationManager mngr) throws IOException
+        {
+            int type;
+            while ((type = in.read()) != -1)
+            {
+                switch (type)
+                {
+                    case INSTRUCTION:
+                        mngr.writeInstruction(readString(), readLocation());
+                        break;
+                    case DOCTYPE:
+                        mngr.writeDoctype(readString(), readString(), readString());
+                        break;
+                    case TEXT:
+                        mngr.writeText(readString(), readLocation());
+                        break;
+                    case COMMENT:
+                        mngr.writeComment(readString(), readLocation());
+                        break;
+                    case WHITESPACE:
+                        mngr.writeWhitespace(readString(), readLocation());
+                        break;
+                    case PUSH_TAG:
+                        mngr.pushTag(readTag());
+                        break;
+                    case POP_TAG:
+                        mngr.popTag();
+                        break;
+                    case PUSH_NAMESPACE:
+                        mngr.pushNamespace(readString(), readString());
+                        break;
+                    case POP_NAMESPACE:
+                        mngr.popNamespace(readString());
+                        break;
+                    default:
+                        throw new IOException("Unknown compilation event " + type);
+                }
+            }
+        }
+
+        private Tag readTag() throws IOException
+        {
+            Location location = readLocation();
+            String namespace = readString();
+            String localName = readString();
+            String qName = readString();
+            int length = in.readInt();
+            if (length < 0)
+            {
+                throw new IOException("Invalid attribute count " + length);
+            }
+            TagAttribute[] attributes = new TagAttribute[length];
+            for (int i = 0; i < length; i++)
+            {
+                attributes[i] = new TagAttributeImpl(readLocation(), readString(), readString(), readString(),
+                        readString());
+            }
+            return new Tag(location, namespace, localName, qName, new TagAttributesImpl(attributes));
+        }
+
+        private Location readLocation() throws IOException
+        {
+            if (!in.readBoolean())
+            {
+                return null;
+            }
+            String path = readString();
+            int line = in.readInt();
+            int column = in.readInt();
+            // a tag and its attributes share the same location, share the instance too
+            if (lastLocation == null || lastLocation.getLine() != line || lastLocation.getColumn() != column
+                    || !Objects.equals(lastLocation.getPath(), path))
+            {
+                lastLocation = new Location(path, line, column);
+            }
+            return lastLocation;
+        }
+
+        private String readString() throws IOException
+        {
+            int index = in.readInt();
+            if (index == NULL_STRING)
+            {
+                return null;
+            }
+            if (index == NEW_STRING)
+            {
+                int length = in.readInt();
+                if (length < 0 || length > in.available())
+                {
+                    throw new IOException("Invalid string length " + length);
+                }
+                byte[] utf8 = new byte[length];
+                in.readFully(utf8);
+                String value = new String(utf8, StandardCharsets.UTF_8);
+                strings.add(value);
+                return value;
+            }
+            if (index < 0 || index >= strings.size())
+            {
+                throw new IOException("Invalid string reference " + index);
+            }
+            return strings.get(index);
+        }
+    }
+}
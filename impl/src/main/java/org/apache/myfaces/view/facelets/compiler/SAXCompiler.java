@@ -19,6 +19,7 @@
 package org.apache.myfaces.view.facelets.compiler;
 
 import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.net.URL;
@@ -30,6 +31,7 @@
 import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
+import java.util.logging.Level;
 
 import jakarta.el.ELException;
 import jakarta.el.MethodExpression;
@@ -812,79 +814,127 @@ public SAXCompiler()
     public CompilerResult doCompile(URL src, String alias)
             throws IOException, FaceletException, ELException, FacesException
     {
-        CompilationManager mngr = null;
-        InputStream is = null;
-        String encoding = null;
-        try
-        {
-            is = new BufferedInputStream(src.openStream(), 1024);
-            mngr = new CompilationManager(alias, this, getFaceletsProcessingInstructions(src, alias));
-            encoding = writeXmlDecl(is, mngr);
-            CompilationHandler handler = new CompilationHandler(mngr, alias);
-            SAXParser parser = this.createSAXParser(handler);
-            parser.parse(is, handler);
-        }
-        catch (SAXException e)
+        return compile(src, alias, PrecompiledFaceletCache.VIEW);
+    }
+
+    /**
+     * @since 2.0
+     */
+    @Override
+    protected CompilerResult doCompileViewMetadata(URL src, String alias)
+            throws IOException, FaceletException, ELException, FacesException
+    {
+        return compile(src, alias, PrecompiledFaceletCache.VIEW_METADATA);
+    }
+
+    /**
+     * @since 2.0.1
+     */
+    @Override
+    protected CompilerResult doCompileCompositeComponentMetadata(URL src, String alias)
+            throws IOException, FaceletException, ELException, FacesException
+    {
+        return compile(src, alias, PrecompiledFaceletCache.COMPOSITE_COMPONENT_METADATA);
+    }
+
+    private CompilerResult compile(URL src, String alias, int kind) throws IOException
+    {
+        FaceletsProcessingInstructions instructions = getFaceletsProcessingInstructions(src, alias);
+        PrecompiledFaceletCache cache = getPrecompiledFaceletCache();
+        if (cache == null)
         {
-            throw new FaceletException("Error Parsing " + alias + ": " + e.getMessage(), e.getCause());
+            CompilationManager mngr = new CompilationManager(alias, this, instructions);
+            String encoding;
+            try (InputStream is = new BufferedInputStream(src.openStream(), 1024))
+            {
+                encoding = parse(is, mngr, alias, kind);
+            }
+            return new CompilerResult(new EncodingHandler(mngr.createFaceletHandler(), encoding), mngr.getDoctype());
         }
-        catch (ParserConfigurationException e)
+
+        byte[] source;
+        try (InputStream is = src.openStream())
         {
-            throw new FaceletException("Error Configuring Parser " + alias + ": " + e.getMessage(), e.getCause());
+            source = is.readAllBytes();
         }
-        finally
+        byte[] digest = PrecompiledFaceletCache.digest(source);
+
+        PrecompiledFaceletCache.Entry entry = cache.load(kind, alias, instructions, digest);
+        if (entry != null)
         {
-            if (is != null)
+            try
+            {
+                CompilationManager mngr = new CompilationManager(alias, this, instructions);
+                if (kind == PrecompiledFaceletCache.VIEW_METADATA)
+                {
+                    // the same privileges as the parse of the view metadata
+                    runPrivileged(() -> RecordingCompilationManager.replay(entry.getEvents(), mngr));
+                }
+                else
+                {
+                    RecordingCompilationManager.replay(entry.getEvents(), mngr);
+                }
+                return new CompilerResult(new EncodingHandler(mngr.createFaceletHandler(), entry.getEncoding()),
+                        mngr.getDoctype());
+            }
+            catch (IOException | SAXException e)
             {
-                is.close();
+                log.log(Level.FINE, "Ignoring corrupted precompiled Facelet " + alias, e);
             }
         }
+
+        RecordingCompilationManager mngr = new RecordingCompilationManager(alias, this, instructions, true);
+        String encoding = parse(new ByteArrayInputStream(source), mngr, alias, kind);
+        cache.store(kind, alias, instructions, digest, encoding, mngr.getEvents());
         return new CompilerResult(new EncodingHandler(mngr.createFaceletHandler(), encoding), mngr.getDoctype());
     }
 
     /**
-     * @since 2.0
+     * Parses the Facelet and stores its events in the precompiled Facelet cache, without creating its handlers.
+     *
+     * @since 5.0
      */
-    @Override
-    protected CompilerResult doCompileViewMetadata(URL src, String alias)
-            throws IOException, FaceletException, ELException, FacesException
+    void precompile(URL src, String alias, int kind) throws IOException
     {
-        CompilationManager mngr = null;
-        InputStream is = null;
-        String encoding = null;
+        byte[] source;
+        try (InputStream is = src.openStream())
+        {
+            source = is.readAllBytes();
+        }
+        FaceletsProcessingInstructions instructions = getFaceletsProcessingInstructions(src, alias);
+        RecordingCompilationManager mngr = new RecordingCompilationManager(alias, this, instructions, false);
+        String encoding = parse(new ByteArrayInputStream(source), mngr, alias, kind);
+        getPrecompiledFaceletCache().store(kind, alias, instructions, PrecompiledFaceletCache.digest(source),
+                encoding, mngr.getEvents());
+    }
+
+    /**
+     * @return the encoding declared by the document, if any
+     */
+    private String parse(InputStream is, CompilationManager mngr, String alias, int kind) throws IOException
+    {
+        String encoding;
         try
         {
-            is = new BufferedInputStream(src.openStream(), 1024);
-            mngr = new CompilationManager(alias, this, getFaceletsProcessingInstructions(src, alias));
-            encoding = getXmlDecl(is, mngr);
-            final ViewMetadataHandler handler = new ViewMetadataHandler(mngr, alias);
-            final SAXParser parser = this.createSAXParser(handler);
-            
-            if (System.getSecurityManager() != null)
+            if (kind == PrecompiledFaceletCache.VIEW)
             {
-                try
-                {
-                    final InputStream finalInputStream = is;
-                    AccessController.doPrivileged((PrivilegedExceptionAction) () -> {
-                        parser.parse(finalInputStream, handler);
-                        return null;
-                    });
-                }
-                catch (PrivilegedActionException pae)
-                {
-                    Exception e = pae.getException();
-                    if(e instanceof SAXException)
-                    {
-                        throw new FaceletException("Error Parsing " + alias + ": " + e.getMessage(), e.getCause());
-                    } 
-                    else if(e instanceof IOException)
-                    {
-                        throw (IOException)e;
-                    }
-                }
+                encoding = writeXmlDecl(is, mngr);
+                CompilationHandler handler = new CompilationHandler(mngr, alias);
+                SAXParser parser = this.createSAXParser(handler);
+                parser.parse(is, handler);
+            }
+            else if (kind == PrecompiledFaceletCache.VIEW_METADATA)
+            {
+                encoding = getXmlDecl(is, mngr);
+                final ViewMetadataHandler handler = new ViewMetadataHandler(mngr, alias);
+                final SAXParser parser = this.createSAXParser(handler);
+                runPrivileged(() -> parser.parse(is, handler));
             }
             else
             {
+                encoding = getXmlDecl(is, mngr);
+                CompositeComponentMetadataHandler handler = new CompositeComponentMetadataHandler(mngr, alias);
+                SAXParser parser = this.createSAXParser(handler);
                 parser.parse(is, handler);
             }
         }
@@ -896,53 +946,45 @@ else if(e instanceof IOException)
         {
             throw new FaceletException("Error Configuring Parser " + alias + ": " + e.getMessage(), e.getCause());
         }
-        finally
-        {
-            if (is != null)
-            {
-                is.close();
-            }
-        }
-        return new CompilerResult(new EncodingHandler(mngr.createFaceletHandler(), encoding), mngr.getDoctype());
+        return encoding;
     }
 
     /**
-     * @since 2.0.1
+     * Runs the action within a privileged block if a SecurityManager is installed.
      */
-    @Override
-    protected CompilerResult doCompileCompositeComponentMetadata(URL src, String alias)
-            throws IOException, FaceletException, ELException, FacesException
+    private static void runPrivileged(FaceletAction action) throws IOException, SAXException
     {
-        CompilationManager mngr = null;
-        InputStream is = null;
-        String encoding = null;
-        try
+        if (System.getSecurityManager() == null)
         {
-            is = new BufferedInputStream(src.openStream(), 1024);
-            mngr = new CompilationManager(alias, this, getFaceletsProcessingInstructions(src, alias));
-            encoding = getXmlDecl(is, mngr);
-            CompositeComponentMetadataHandler handler = new CompositeComponentMetadataHandler(mngr, alias);
-            SAXParser parser = this.createSAXParser(handler);
-            parser.parse(is, handler);
-            
-            
-        }
-        catch (SAXException e)
-        {
-            throw new FaceletException("Error Parsing " + alias + ": " + e.getMessage(), e.getCause());
+            action.run();
+            return;
         }
-        catch (ParserConfigurationException e)
+
+        try
         {
-            throw new FaceletException("Error Configuring Parser " + alias + ": " + e.getMessage(), e.getCause());
+            AccessController.doPrivileged((PrivilegedExceptionAction<Void>) () -> {
+                action.run();
+                return null;
+            });
         }
-        finally
+        catch (PrivilegedActionException pae)
         {
-            if (is != null)
+            Exception e = pae.getException();
+            if (e instanceof SAXException)
             {
-                is.close();
+                throw (SAXException) e;
             }
+            throw (IOException) e;
         }
-        return new CompilerResult(new EncodingHandler(mngr.createFaceletHandler(), encoding), mngr.getDoctype());
+    }
+
+    /**
+     * Parses or replays a Facelet.
+     */
+    @FunctionalInterface
+    private interface FaceletAction
+    {
+        void run() throws IOException, SAXException;
     }
     
     @Override
@@ -59,6 +59,7 @@
 import org.apache.myfaces.buildtools.maven2.plugin.builder.annotation.JSFProperty;
 import org.apache.myfaces.cdi.model.FacesDataModelManager;
 import org.apache.myfaces.core.api.shared.EditableValueHolderState;
+import org.apache.myfaces.core.api.shared.RowStateMap;
 import org.apache.myfaces.core.api.shared.lang.Assert;
 import org.apache.myfaces.core.api.shared.lang.SharedStringBuilder;
 import org.apache.myfaces.util.ExternalSpecifications;
@@ -87,13 +88,15 @@ public class UIRepeat extends UIComponentBase implements NamingContainer
 
     protected Object _initialDescendantFullComponentState = null;
 
-    protected Map<String, Map<String, Object>> _rowDeltaStates = new HashMap<>();
-    protected Map<String, Map<String, Object>> _rowTransientStates = new HashMap<>();
+    // The rows are stored by the clientId of this component (which includes the
+    // row of an enclosing iteration component) and the row index.
+    protected RowStateMap<Map<String, Object>> _rowDeltaStates = new RowStateMap<>();
+    protected RowStateMap<Map<String, Object>> _rowTransientStates = new RowStateMap<>();
 
     // Holds for each row the states of the child components of this UIData.
     // Note that only "partial" component state is saved: the component fields
     // that are expected to vary between rows.
-    private Map<String, Collection<Object[]>> _rowStates = new HashMap<>();
+    private RowStateMap<Collection<Object[]>> _rowStates = new RowStateMap<>();
     
     /**
      * Handle case where this table is nested inside another table. See method getDataModel for more details.
@@ -912,11 +915,11 @@ private void _setIndexPreserveComponentState(int index)
                                                                       getChildren().iterator(), false);
            if (sm != null && !sm.isEmpty())
            {
-               _rowDeltaStates.put(getContainerClientId(facesContext), sm);
+               _rowDeltaStates.put(getClientId(facesContext), _index, sm);
            }
            if (index != -1)
            {
-               _rowTransientStates.put(getContainerClientId(facesContext),
+               _rowTransientStates.put(getClientId(facesContext), _index,
                        saveTransientDescendantComponentStates(facesContext, null, getChildren().iterator(), false));
            }
        }
@@ -950,7 +953,7 @@ private void _setIndexPreserveComponentState(int index)
 
        if (_initialDescendantFullComponentState != null)
        {
-           Map<String, Object> rowState = _rowDeltaStates.get(getContainerClientId(facesContext));
+           Map<String, Object> rowState = _rowDeltaStates.get(getClientId(facesContext), _index);
            if (rowState == null)
            {
                //Restore as original
@@ -969,7 +972,7 @@ private void _setIndexPreserveComponentState(int index)
            }
            else
            {
-               rowState = _rowTransientStates.get(getContainerClientId(facesContext));
+               rowState = _rowTransientStates.get(getClientId(facesContext), _index);
                if (rowState == null)
                {
                    restoreTransientDescendantComponentStates(facesContext, getChildren().iterator(), null, false);
@@ -1022,7 +1025,7 @@ private void _setIndexWithoutPreserveComponentState(int index)
                Collection<Object[]> savedRowState = saveDescendantComponentStates(this, true, true);
                if (savedRowState != null)
                {
-                   _rowStates.put(getContainerClientId(facesContext), savedRowState);
+                   _rowStates.put(getClientId(facesContext), _index, savedRowState);
                }
            }
        }
@@ -1069,7 +1072,7 @@ private void _setIndexWithoutPreserveComponentState(int index)
        }
        else
        {
-           Object rowState = _rowStates.get(getContainerClientId(facesContext));
+           Collection<Object[]> rowState = _rowStates.get(getClientId(facesContext), _index);
            if (rowState == null)
            {
                // We haven't been positioned on this row before, so just
@@ -2050,48 +2053,14 @@ public void restoreState(FacesContext context, Object state)
         Object[] values = (Object[]) state;
         super.restoreState(context, values[0]);
 
-        Object restoredRowStates = UIComponentBase.restoreAttachedState(context, values[1]);
-        if (restoredRowStates == null)
-        {
-            if (!_rowDeltaStates.isEmpty())
-            {
-                _rowDeltaStates.clear();
-            }
-        }
-        else
-        {
-            _rowDeltaStates = (Map<String, Map<String, Object> >) restoredRowStates;
-        }
-
+        _rowDeltaStates.restoreState(values[1]);
         if (values.length > 2)
         {
-            Object rs = UIComponentBase.restoreAttachedState(context, values[2]);
-            if (rs == null)
-            {
-                if (!_rowStates.isEmpty())
-                {
-                    _rowStates.clear();
-                }
-            }
-            else
-            {
-                _rowStates = (Map<String, Collection<Object[]> >) rs;
-            }
+            _rowStates.restoreState(values[2]);
         }
         if (values.length > 3)
         {
-            Object rs = UIComponentBase.restoreAttachedState(context, values[3]);
-            if (rs == null)
-            {
-                if (!_rowTransientStates.isEmpty())
-                {
-                    _rowTransientStates.clear();
-                }
-            }
-            else
-            {
-                _rowTransientStates = (Map<String, Map<String, Object> >) rs;
-            }
+            _rowTransientStates.restoreState(values[3]);
         }
     }
 
@@ -2131,9 +2100,9 @@ else if (context.getViewRoot().getAttributes().get(ViewPoolProcessor.RESET_SAVE_
                 {
                     Object[] values = new Object[4];
                     values[0] = super.saveState(context);
-                    values[1] = UIComponentBase.saveAttachedState(context, _rowDeltaStates);
-                    values[2] = UIComponentBase.saveAttachedState(context, _rowStates);
-                    values[3] = UIComponentBase.saveAttachedState(context, _rowTransientStates);
+                    values[1] = _rowDeltaStates.saveState();
+                    values[2] = _rowStates.saveState();
+                    values[3] = _rowTransientStates.saveState();
                     return values;
                 }
             }
@@ -2147,7 +2116,7 @@ else if (context.getViewRoot().getAttributes().get(ViewPoolProcessor.RESET_SAVE_
                 {
                     Object[] values = new Object[2];
                     values[0] = super.saveState(context);
-                    values[1] = UIComponentBase.saveAttachedState(context, _rowDeltaStates);
+                    values[1] = _rowDeltaStates.saveState();
                     return values;
                 }
             }
@@ -2160,7 +2129,7 @@ else if (context.getViewRoot().getAttributes().get(ViewPoolProcessor.RESET_SAVE_
                 Object[] values = new Object[3];
                 values[0] = super.saveState(context);
                 values[1] = null;
-                values[2] = UIComponentBase.saveAttachedState(context, _rowStates);
+                values[2] = _rowStates.saveState();
                 return values; 
             }
             else
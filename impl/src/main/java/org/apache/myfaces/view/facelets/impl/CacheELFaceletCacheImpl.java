@@ -22,9 +22,7 @@
 import java.net.URL;
 import java.util.Collections;
 import java.util.HashSet;
-import java.util.Map;
 import java.util.Set;
-import java.util.concurrent.ConcurrentHashMap;
 
 import jakarta.faces.view.facelets.FaceletContext;
 import jakarta.faces.view.facelets.FaceletException;
@@ -33,6 +31,7 @@
 import org.apache.myfaces.core.api.shared.lang.Assert;
 import org.apache.myfaces.view.facelets.AbstractFaceletCache;
 import org.apache.myfaces.view.facelets.AbstractFaceletContext;
+import org.apache.myfaces.view.facelets.FaceletCacheStatistics;
 
 /**
  * Extended MyFaces specific FaceletCache implementation that recompile
@@ -55,21 +54,28 @@ class CacheELFaceletCacheImpl extends AbstractFaceletCache<DefaultFacelet>
      * and composite component metadata only takes into account composite:xxx tags,
      * ignoring ui:xxx tags.
      */
-    private Map<String, FaceletNode> _facelets;
+    private final FaceletCacheMap<FaceletNode> _facelets;
     
-    private Map<String, DefaultFacelet> _viewMetadataFacelets;
+    private final FaceletCacheMap<DefaultFacelet> _viewMetadataFacelets;
     
-    private Map<String, DefaultFacelet> _compositeComponentMetadataFacelets;
+    private final FaceletCacheMap<DefaultFacelet> _compositeComponentMetadataFacelets;
+
+    private final FaceletCacheStatistics _statistics = new FaceletCacheStatistics();
     
     private long _refreshPeriod;
     
     CacheELFaceletCacheImpl(long refreshPeriod)
+    {
+        this(refreshPeriod, -1);
+    }
+
+    CacheELFaceletCacheImpl(long refreshPeriod, int maxSize)
     {
         _refreshPeriod = refreshPeriod < 0 ? INFINITE_DELAY : refreshPeriod * 1000;
 
-        _facelets = new ConcurrentHashMap<>();
-        _viewMetadataFacelets = new ConcurrentHashMap<>();
-        _compositeComponentMetadataFacelets = new ConcurrentHashMap<>();
+        _facelets = new FaceletCacheMap<>(maxSize, _statistics);
+        _viewMetadataFacelets = new FaceletCacheMap<>(maxSize, _statistics);
+        _compositeComponentMetadataFacelets = new FaceletCacheMap<>(maxSize, _statistics);
     }
 
     @Override
@@ -77,34 +83,22 @@ public DefaultFacelet getFacelet(URL url) throws IOException
     {
         Assert.notNull(url, "url");
         
-        String key = url.toString();
-        
-        FaceletNode node = _facelets.get(key);
-        DefaultFacelet f = node != null ? node.getFacelet() : null;
-        
-        if (f == null || this.needsToBeRefreshed(f))
+        if (_refreshPeriod == NO_CACHE_DELAY)
         {
-            Set<String> paramsSet = null;
-            if (node != null)
-            {
-                paramsSet = node.getParams();
-            }
-            f = getMemberFactory().newInstance(url);
-            if (_refreshPeriod != NO_CACHE_DELAY)
-            {
-                _facelets.put(key, (paramsSet != null && !paramsSet.isEmpty()) ? 
-                        new FaceletNode(f, paramsSet) : new FaceletNode(f) );
-            }
+            return getMemberFactory().newInstance(url);
         }
-        
-        return f;
+
+        return _facelets.get(url.toString(), node -> !needsToBeRefreshed(node.getFacelet()), previous ->
+        {
+            DefaultFacelet f = getMemberFactory().newInstance(url);
+            return (previous != null && !previous.getParams().isEmpty())
+                    ? new FaceletNode(f, previous.getParams()) : new FaceletNode(f);
+        }).getFacelet();
     }
 
     @Override
     public DefaultFacelet getFacelet(FaceletContext ctx, URL url) throws IOException
     {
-        String key = url.toString();
-        
         //1. Check that the current parameters on the template are known
         //   for the template.
         //2. If all current parameters are known return the template
@@ -112,44 +106,23 @@ public DefaultFacelet getFacelet(FaceletContext ctx, URL url) throws IOException
         //   template, register the known params in the template context and
         //   recompile the facelet, to clean up al EL expressions at once.
 
-        FaceletNode node = _facelets.get(key);
-        DefaultFacelet f = (node != null) ? node.getFacelet() : null;
-        
-        Set<String> paramsSet = Collections.emptySet();
-        paramsSet = (node != null) ? node.getParams() : paramsSet;
-
         AbstractFaceletContext actx = (AbstractFaceletContext) ctx;
         Set<String> knownParameters = actx.getTemplateContext().isKnownParametersEmpty() ?
             (Set) Collections.emptySet() : actx.getTemplateContext().getKnownParameters();
-        
-        boolean create = false;
-        for (String paramKey : knownParameters)
+
+        FaceletNode node;
+        if (_refreshPeriod == NO_CACHE_DELAY)
         {
-            if (!paramsSet.contains(paramKey))
-            {
-                create = true;
-                break;
-            }
+            node = createFaceletNode(url, null, knownParameters);
         }
-        
-        if (f == null || this.needsToBeRefreshed(f) || create)
+        else
         {
-            f = getMemberFactory().newInstance(url);
-            if (_refreshPeriod != NO_CACHE_DELAY)
-            {
-                if (!paramsSet.isEmpty()|| !knownParameters.isEmpty() )
-                {
-                    paramsSet = new HashSet(paramsSet);
-                    paramsSet.addAll(knownParameters);
-                    _facelets.put(key, new FaceletNode(f, paramsSet));
-                }
-                else
-                {
-                    _facelets.put(key, new FaceletNode(f));
-                }
-            }
+            node = _facelets.get(url.toString(),
+                    n -> !needsToBeRefreshed(n.getFacelet()) && n.getParams().containsAll(knownParameters),
+                    previous -> createFaceletNode(url, previous, knownParameters));
         }
 
+        Set<String> paramsSet = node.getParams();
         if (!paramsSet.isEmpty())
         {
             for (String param : paramsSet)
@@ -161,7 +134,21 @@ public DefaultFacelet getFacelet(FaceletContext ctx, URL url) throws IOException
             }
         }
         
-        return f;
+        return node.getFacelet();
+    }
+
+    private FaceletNode createFaceletNode(URL url, FaceletNode previous, Set<String> knownParameters)
+            throws IOException
+    {
+        DefaultFacelet f = getMemberFactory().newInstance(url);
+        Set<String> paramsSet = previous != null ? previous.getParams() : Collections.emptySet();
+        if (!paramsSet.isEmpty() || !knownParameters.isEmpty())
+        {
+            paramsSet = new HashSet<>(paramsSet);
+            paramsSet.addAll(knownParameters);
+            return new FaceletNode(f, paramsSet);
+        }
+        return new FaceletNode(f);
     }
     
     @Override
@@ -175,20 +162,13 @@ public DefaultFacelet getViewMetadataFacelet(URL url) throws IOException
     {
         Assert.notNull(url, "url");
         
-        String key = url.toString();
-        
-        DefaultFacelet f = _viewMetadataFacelets.get(key);
-        
-        if (f == null || this.needsToBeRefreshed(f))
+        if (_refreshPeriod == NO_CACHE_DELAY)
         {
-            f = getMetadataMemberFactory().newInstance(url);
-            if (_refreshPeriod != NO_CACHE_DELAY)
-            {
-                _viewMetadataFacelets.put(key, f);
-            }
+            return getMetadataMemberFactory().newInstance(url);
         }
-        
-        return f;
+
+        return _viewMetadataFacelets.get(url.toString(), f -> !needsToBeRefreshed(f),
+                previous -> getMetadataMemberFactory().newInstance(url));
     }
 
     @Override
@@ -197,6 +177,11 @@ public boolean isViewMetadataFaceletCached(URL url)
         return _viewMetadataFacelets.containsKey(url.toString());
     }
 
+    public FaceletCacheStatistics getStatistics()
+    {
+        return _statistics;
+    }
+
     /**
      * Template method for determining if the Facelet needs to be refreshed.
      * 
@@ -242,19 +227,13 @@ public DefaultFacelet getCompositeComponentMetadataFacelet(URL url) throws IOExc
     {
         Assert.notNull(url, "url");
 
-        String key = url.toString();
-
-        DefaultFacelet f = _compositeComponentMetadataFacelets.get(key);
-
-        if (f == null || this.needsToBeRefreshed(f))
+        if (_refreshPeriod == NO_CACHE_DELAY)
         {
-            f = getCompositeComponentMetadataMemberFactory().newInstance(url);
-            if (_refreshPeriod != NO_CACHE_DELAY)
-            {
-                _compositeComponentMetadataFacelets.put(key, f);
-            }
+            return getCompositeComponentMetadataMemberFactory().newInstance(url);
         }
-        return f;
+
+        return _compositeComponentMetadataFacelets.get(url.toString(), f -> !needsToBeRefreshed(f),
+                previous -> getCompositeComponentMetadataMemberFactory().newInstance(url));
     }
 
     @Override
@@ -46,6 +46,7 @@
 import org.apache.myfaces.core.api.shared.lang.Assert;
 import org.apache.myfaces.util.ExternalSpecifications;
 import org.apache.myfaces.view.facelets.AbstractFaceletCache;
+import org.apache.myfaces.view.facelets.FaceletCacheStatistics;
 import org.apache.myfaces.view.facelets.FaceletFactory;
 import org.apache.myfaces.view.facelets.compiler.Compiler;
 
@@ -254,6 +255,23 @@ public long getRefreshPeriod()
         return _refreshPeriod;
     }
 
+    /**
+     * @return the statistics of the Facelet cache, or null if the cache is not provided by MyFaces
+     */
+    public FaceletCacheStatistics getFaceletCacheStatistics()
+    {
+        Object faceletCache = _faceletCache;
+        if (faceletCache instanceof FaceletCacheImpl)
+        {
+            return ((FaceletCacheImpl) faceletCache).getStatistics();
+        }
+        if (faceletCache instanceof CacheELFaceletCacheImpl)
+        {
+            return ((CacheELFaceletCacheImpl) faceletCache).getStatistics();
+        }
+        return null;
+    }
+
     /**
      * Resolves a path based on the passed URL. If the path starts with '/', then resolve the path against
      * {@link jakarta.faces.context.ExternalContext#getResource(java.lang.String)
@@ -41,14 +41,15 @@ public FaceletCache getFaceletCache()
         MyfacesConfig myfacesConfig = MyfacesConfig.getCurrentInstance(context.getExternalContext());
 
         long refreshPeriod = myfacesConfig.getFaceletsRefreshPeriod();
+        int maxSize = myfacesConfig.getFaceletsCacheSize();
 
         if (ELExpressionCacheMode.alwaysRecompile == myfacesConfig.getELExpressionCacheMode())
         {
-            return new CacheELFaceletCacheImpl(refreshPeriod);
+            return new CacheELFaceletCacheImpl(refreshPeriod, maxSize);
         }
         else
         {
-            return new FaceletCacheImpl(refreshPeriod);
+            return new FaceletCacheImpl(refreshPeriod, maxSize);
         }
     }
 
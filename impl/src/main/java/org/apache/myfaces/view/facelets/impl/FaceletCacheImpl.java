@@ -20,14 +20,13 @@
 
 import java.io.IOException;
 import java.net.URL;
-import java.util.HashMap;
-import java.util.Map;
 
 import jakarta.faces.view.facelets.FaceletCache;
 import jakarta.faces.view.facelets.FaceletException;
 
 import org.apache.myfaces.resource.ResourceLoaderUtils;
 import org.apache.myfaces.core.api.shared.lang.Assert;
+import org.apache.myfaces.view.facelets.FaceletCacheStatistics;
 
 /**
  * TODO: Note MyFaces core has another type of Facelet for read composite component
@@ -52,17 +51,24 @@ class FaceletCacheImpl extends FaceletCache<DefaultFacelet>
     private static final long INFINITE_DELAY = -1;
     private static final long NO_CACHE_DELAY = 0;
     
-    private Map<String, DefaultFacelet> _facelets;
+    private final FaceletCacheStatistics _statistics = new FaceletCacheStatistics();
+
+    private final FaceletCacheMap<DefaultFacelet> _facelets;
     
-    private Map<String, DefaultFacelet> _viewMetadataFacelets;
+    private final FaceletCacheMap<DefaultFacelet> _viewMetadataFacelets;
 
     private long _refreshPeriod;
     
     FaceletCacheImpl(long refreshPeriod)
+    {
+        this(refreshPeriod, -1);
+    }
+
+    FaceletCacheImpl(long refreshPeriod, int maxSize)
     {
         _refreshPeriod = refreshPeriod < 0 ? INFINITE_DELAY : refreshPeriod * 1000;
-        _facelets = new HashMap<>();
-        _viewMetadataFacelets = new HashMap<>();
+        _facelets = new FaceletCacheMap<>(maxSize, _statistics);
+        _viewMetadataFacelets = new FaceletCacheMap<>(maxSize, _statistics);
     }
 
     @Override
@@ -70,22 +76,13 @@ public DefaultFacelet getFacelet(URL url) throws IOException
     {
         Assert.notNull(url, "url");
         
-        String key = url.toString();
-
-        DefaultFacelet f = _facelets.get(key);
-        if (f == null || this.needsToBeRefreshed(f))
+        if (_refreshPeriod == NO_CACHE_DELAY)
         {
-            //f = this._createFacelet(url);
-            f = getMemberFactory().newInstance(url);
-            if (_refreshPeriod != NO_CACHE_DELAY)
-            {
-                Map<String, DefaultFacelet> newLoc = new HashMap<>(_facelets);
-                newLoc.put(key, f);
-                _facelets = newLoc;
-            }
+            return getMemberFactory().newInstance(url);
         }
-        
-        return f;
+
+        return _facelets.get(url.toString(), f -> !needsToBeRefreshed(f),
+                previous -> getMemberFactory().newInstance(url));
     }
     
     @Override
@@ -99,23 +96,13 @@ public DefaultFacelet getViewMetadataFacelet(URL url) throws IOException
     {
         Assert.notNull(url, "url");
         
-        String key = url.toString();
-        
-        DefaultFacelet f = _viewMetadataFacelets.get(key);
-        
-        if (f == null || this.needsToBeRefreshed(f))
+        if (_refreshPeriod == NO_CACHE_DELAY)
         {
-            //f = this._createViewMetadataFacelet(url);
-            f = getMetadataMemberFactory().newInstance(url);
-            if (_refreshPeriod != NO_CACHE_DELAY)
-            {
-                Map<String, DefaultFacelet> newLoc = new HashMap<>(_viewMetadataFacelets);
-                newLoc.put(key, f);
-                _viewMetadataFacelets = newLoc;
-            }
+            return getMetadataMemberFactory().newInstance(url);
         }
-        
-        return f;
+
+        return _viewMetadataFacelets.get(url.toString(), f -> !needsToBeRefreshed(f),
+                previous -> getMetadataMemberFactory().newInstance(url));
     }
 
     @Override
@@ -124,6 +111,11 @@ public boolean isViewMetadataFaceletCached(URL url)
         return _viewMetadataFacelets.containsKey(url.toString());
     }
 
+    public FaceletCacheStatistics getStatistics()
+    {
+        return _statistics;
+    }
+
     /**
      * Template method for determining if the Facelet needs to be refreshed.
      * 
@@ -0,0 +1,170 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.myfaces.view.facelets.impl;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.function.Predicate;
+
+import org.apache.myfaces.util.lang.ConcurrentLRUCache;
+import org.apache.myfaces.view.facelets.FaceletCacheStatistics;
+
+/**
+ * Concurrent map of compiled Facelets, optionally bounded, that compiles each key only once at a time:
+ * when several threads miss the same key, only the first one compiles it and the others wait for its result.
+ *
+ * @param <V> the cached value
+ */
+class FaceletCacheMap<V>
+{
+    /**
+     * Creates the value to cache. The previous value is given when it is being refreshed, otherwise null.
+     */
+    interface Compiler<V>
+    {
+        V compile(V previous) throws IOException;
+    }
+
+    private final Map<String, V> _map;
+    private final ConcurrentLRUCache<String, V> _lru;
+    private final Map<String, CompletableFuture<V>> _compiling = new ConcurrentHashMap<>();
+    private final FaceletCacheStatistics _statistics;
+
+    FaceletCacheMap(int maxSize, FaceletCacheStatistics statistics)
+    {
+        _statistics = statistics;
+        if (maxSize > 0)
+        {
+            int upperWaterMark = (maxSize * 4 + 3) / 3;
+            _lru = new ConcurrentLRUCache<>(upperWaterMark, maxSize, (upperWaterMark + maxSize) / 2,
+                    Math.min(maxSize, 1000), false, false, (key, value) -> statistics.evicted());
+            _map = null;
+        }
+        else
+        {
+            _lru = null;
+            _map = new ConcurrentHashMap<>();
+        }
+    }
+
+    V get(String key)
+    {
+        return _lru != null ? _lru.get(key) : _map.get(key);
+    }
+
+    boolean containsKey(String key)
+    {
+        return _lru != null ? _lru.getMap().containsKey(key) : _map.containsKey(key);
+    }
+
+    /**
+     * Returns the cached value if it is still valid, otherwise compiles and caches a new one.
+     */
+    V get(String key, Predicate<V> valid, Compiler<V> compiler) throws IOException
+    {
+        V value = get(key);
+        if (value != null && valid.test(value))
+        {
+            _statistics.hit();
+            return value;
+        }
+        _statistics.miss();
+
+        CompletableFuture<V> future = new CompletableFuture<>();
+        CompletableFuture<V> running;
+        while ((running = _compiling.putIfAbsent(key, future)) != null)
+        {
+            _statistics.waited();
+            V compiled = join(running);
+            if (valid.test(compiled))
+            {
+                return compiled;
+            }
+            // compiled for other needs (e.g. other template parameters), compile it again
+        }
+
+        try
+        {
+            // another thread could have cached it between the lookup and the registration of the future
+            V current = get(key);
+            if (current != null && current != value && valid.test(current))
+            {
+                future.complete(current);
+                return current;
+            }
+
+            long start = System.nanoTime();
+            V compiled = compiler.compile(current);
+            _statistics.compiled(System.nanoTime() - start);
+
+            if (_lru != null)
+            {
+                _lru.put(key, compiled);
+            }
+            else
+            {
+                _map.put(key, compiled);
+            }
+            future.complete(compiled);
+            return compiled;
+        }
+        catch (IOException | RuntimeException | Error e)
+        {
+            future.completeExceptionally(e);
+            throw e;
+        }
+        finally
+        {
+            _compiling.remove(key, future);
+        }
+    }
+
+    private static <V> V join(CompletableFuture<V> future) throws IOException
+    {
+        try
+        {
+            return future.get();
+        }
+        catch (InterruptedException e)
+        {
+            Thread.currentThread().interrupt();
+            throw new IOException(e);
+        }
+        catch (ExecutionException e)
+        {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException)
+            {
+                throw (IOException) cause;
+            }
+            if (cause instanceof RuntimeException)
+            {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error)
+            {
+                throw (Error) cause;
+            }
+            throw new IOException(cause);
+        }
+    }
+}
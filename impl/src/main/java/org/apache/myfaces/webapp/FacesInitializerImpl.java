@@ -18,6 +18,7 @@
  */
 package org.apache.myfaces.webapp;
 
+import org.apache.myfaces.application.viewstate.ViewStateStore;
 import org.apache.myfaces.config.FacesConfigValidator;
 import org.apache.myfaces.config.FacesConfigurator;
 import org.apache.myfaces.config.RuntimeConfig;
@@ -78,6 +79,7 @@
 import org.apache.myfaces.util.lang.ClassUtils;
 import org.apache.myfaces.spi.ServiceProviderFinder;
 import org.apache.myfaces.spi.ServiceProviderFinderFactory;
+import org.apache.myfaces.view.facelets.ParallelRendering;
 import org.apache.myfaces.view.facelets.ViewPoolProcessor;
 import org.apache.myfaces.util.lang.StringUtils;
 
@@ -262,6 +264,11 @@ public void initFaces(ServletContext servletContext)
             log.log(Level.INFO, "MyFaces Core has started, it took ["
                     + (System.currentTimeMillis() - start)
                     + "] ms.");
+
+            if (config.isWarmupEnabled())
+            {
+                FacesWarmup.start(servletContext, this, config);
+            }
         }
         catch (Exception ex)
         {
@@ -321,6 +328,9 @@ public void destroyFaces(ServletContext servletContext)
             return;
         }
 
+        FacesWarmup.stop(servletContext);
+        ParallelRendering.stop(servletContext);
+
         FacesContext facesContext = initShutdownFacesContext(servletContext);
         
         dispatchInitializationEvent(servletContext, FACES_INIT_PHASE_PREDESTROY);
@@ -339,6 +349,13 @@ public void destroyFaces(ServletContext servletContext)
             sessionManager.clearSessions();
         }
 
+        ViewStateStore viewStateStore = (ViewStateStore) facesContext.getExternalContext().getApplicationMap()
+                .remove(ViewStateStore.APPLICATION_MAP_KEY);
+        if (viewStateStore != null)
+        {
+            viewStateStore.destroy();
+        }
+
         // clear UIViewParameter default renderer map
         try
         {
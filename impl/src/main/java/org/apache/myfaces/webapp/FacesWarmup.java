@@ -0,0 +1,415 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.myfaces.webapp;
+
+import java.net.URL;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import jakarta.faces.FactoryFinder;
+import jakarta.faces.application.ResourceHandler;
+import jakarta.faces.application.ViewHandler;
+import jakarta.faces.context.ExternalContext;
+import jakarta.faces.context.FacesContext;
+import jakarta.faces.event.PhaseEvent;
+import jakarta.faces.event.PhaseId;
+import jakarta.faces.event.PhaseListener;
+import jakarta.faces.lifecycle.Lifecycle;
+import jakarta.faces.lifecycle.LifecycleFactory;
+import jakarta.faces.view.ViewDeclarationLanguage;
+import jakarta.faces.view.ViewDeclarationLanguageWrapper;
+import jakarta.servlet.ServletContext;
+
+import org.apache.myfaces.application.ViewIdSupport;
+import org.apache.myfaces.config.webparameters.MyfacesConfig;
+import org.apache.myfaces.util.WebConfigParamUtils;
+import org.apache.myfaces.util.lang.StringUtils;
+import org.apache.myfaces.view.facelets.FaceletFactory;
+import org.apache.myfaces.view.facelets.FaceletViewDeclarationLanguage;
+
+/**
+ * Warm-up of the application on a background thread after the startup: compiles the Facelets of all the views,
+ * templates and composite components, fills the view id caches and creates the configured resources, so the first
+ * requests find everything in the caches.
+ *
+ * <p>Requests received before the warm-up is done wait for it before restoring the view, at most
+ * {@link MyfacesConfig#WARMUP_TIMEOUT} milliseconds. The {@link AwaitPhaseListener} doing it is only added to the
+ * lifecycles while the warm-up runs. Once done, the {@link #COMPLETED} attribute of the
+ * ServletContext is set, for example for a readiness probe.</p>
+ *
+ * @since 5.0
+ */
+public class FacesWarmup
+{
+    private static final Logger log = Logger.getLogger(FacesWarmup.class.getName());
+
+    /**
+     * ServletContext attribute set to Boolean.TRUE when the warm-up is done.
+     */
+    public static final String COMPLETED = "org.apache.myfaces.WARMUP_COMPLETED";
+
+    private static final String INSTANCE = "oam.FacesWarmup";
+
+    private final ServletContext servletContext;
+    private final FacesInitializer initializer;
+    private final long timeout;
+    private final String resources;
+    private final CountDownLatch completed = new CountDownLatch(1);
+    private volatile ExecutorService executor;
+
+    FacesWarmup(ServletContext servletContext, FacesInitializer initializer, MyfacesConfig config)
+    {
+        this.servletContext = servletContext;
+        this.initializer = initializer;
+        this.timeout = config.getWarmupTimeout();
+        this.resources = config.getWarmupResources();
+    }
+
+    /**
+     * Starts the warm-up of the application, with its own startup FacesContext.
+     */
+    public static void start(ServletContext servletContext, FacesInitializer initializer, MyfacesConfig config)
+    {
+        FacesWarmup warmup = new FacesWarmup(servletContext, initializer, config);
+        servletContext.setAttribute(INSTANCE, warmup);
+        if (warmup.timeout > 0)
+        {
+            addAwaitPhaseListener();
+        }
+
+        warmup.executor = Executors.newSingleThreadExecutor(r ->
+        {
+            Thread thread = new Thread(r, "MyFaces warm-up");
+            thread.setDaemon(true);
+            return thread;
+        });
+        warmup.executor.execute(warmup::run);
+        warmup.executor.shutdown();
+    }
+
+    /**
+     * Interrupts the warm-up if it is still running, and waits a little for it to stop.
+     */
+    public static void stop(ServletContext servletContext)
+    {
+        FacesWarmup warmup = (FacesWarmup) servletContext.getAttribute(INSTANCE);
+        if (warmup != null && warmup.executor != null)
+        {
+            warmup.executor.shutdownNow();
+            try
+            {
+                warmup.executor.awaitTermination(5, TimeUnit.SECONDS);
+            }
+            catch (InterruptedException e)
+            {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    /**
+     * Waits until the warm-up is done, if it is running. Returns immediately if there is no warm-up.
+     */
+    public static void await(FacesContext facesContext)
+    {
+        FacesWarmup warmup = (FacesWarmup) facesContext.getExternalContext().getApplicationMap().get(INSTANCE);
+        if (warmup != null && warmup.timeout > 0)
+        {
+            try
+            {
+                if (!warmup.completed.await(warmup.timeout, TimeUnit.MILLISECONDS) && log.isLoggable(Level.FINE))
+                {
+                    log.fine("Warm-up not done after " + warmup.timeout + " ms, serving the request anyway");
+                }
+            }
+            catch (InterruptedException e)
+            {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    public static boolean isCompleted(ExternalContext externalContext)
+    {
+        return Boolean.TRUE.equals(externalContext.getApplicationMap().get(COMPLETED));
+    }
+
+    private static void addAwaitPhaseListener()
+    {
+        LifecycleFactory lifecycleFactory = (LifecycleFactory) FactoryFinder.getFactory(
+                FactoryFinder.LIFECYCLE_FACTORY);
+        PhaseListener listener = new AwaitPhaseListener();
+        for (Iterator<String> it = lifecycleFactory.getLifecycleIds(); it.hasNext();)
+        {
+            lifecycleFactory.getLifecycle(it.next()).addPhaseListener(listener);
+        }
+    }
+
+    private void run()
+    {
+        long start = System.currentTimeMillis();
+        FacesContext facesContext = null;
+        try
+        {
+            facesContext = initializer.initStartupFacesContext(servletContext);
+            int facelets = warmupFacelets(facesContext);
+            int createdResources = warmupResources(facesContext);
+
+            log.log(Level.INFO, "MyFaces warm-up compiled [" + facelets + "] Facelets and created ["
+                    + createdResources + "] resources, it took [" + (System.currentTimeMillis() - start) + "] ms.");
+        }
+        catch (RuntimeException e)
+        {
+            log.log(Level.WARNING, "MyFaces warm-up failed: " + e.getMessage(), e);
+        }
+        finally
+        {
+            if (facesContext != null)
+            {
+                initializer.destroyStartupFacesContext(facesContext);
+            }
+            servletContext.setAttribute(COMPLETED, Boolean.TRUE);
+            servletContext.removeAttribute(INSTANCE);
+            completed.countDown();
+        }
+    }
+
+    /**
+     * @return the number of view, template or composite component files compiled
+     */
+    int warmupFacelets(FacesContext facesContext)
+    {
+        ExternalContext externalContext = facesContext.getExternalContext();
+        ViewHandler viewHandler = facesContext.getApplication().getViewHandler();
+        ResourceHandler resourceHandler = facesContext.getApplication().getResourceHandler();
+        ViewIdSupport viewIdSupport = ViewIdSupport.getInstance(facesContext);
+        String resourcesDirectory = '/' + WebConfigParamUtils.getStringInitParameter(externalContext,
+                ResourceHandler.WEBAPP_RESOURCES_DIRECTORY_PARAM_NAME, "resources") + '/';
+
+        Set<String> paths;
+        try (Stream<String> stream = resourceHandler.getViewResources(facesContext, "/", Integer.MAX_VALUE))
+        {
+            paths = stream.collect(Collectors.toCollection(LinkedHashSet::new));
+        }
+        // composite components are not views, look for them in the resources directory
+        collectResourcePaths(externalContext, resourcesDirectory, getSuffixes(externalContext), paths);
+
+        int count = 0;
+        for (String path : paths)
+        {
+            if (Thread.currentThread().isInterrupted())
+            {
+                break;
+            }
+            try
+            {
+                FaceletFactory faceletFactory = getFaceletFactory(
+                        viewHandler.getViewDeclarationLanguage(facesContext, path));
+                if (faceletFactory == null)
+                {
+                    continue;
+                }
+
+                FaceletFactory.setInstance(faceletFactory);
+                try
+                {
+                    if (path.startsWith(resourcesDirectory))
+                    {
+                        URL url = externalContext.getResource(path);
+                        if (url == null)
+                        {
+                            continue;
+                        }
+                        faceletFactory.getCompositeComponentMetadataFacelet(url);
+                        faceletFactory.getFacelet(url);
+                        createResource(resourceHandler, path.substring(resourcesDirectory.length()));
+                    }
+                    else
+                    {
+                        faceletFactory.getFacelet(facesContext, path);
+                        if (!path.startsWith("/WEB-INF/") && !path.startsWith("/META-INF/"))
+                        {
+                            faceletFactory.getViewMetadataFacelet(facesContext, path);
+                            viewIdSupport.isViewExistent(facesContext, path);
+                        }
+                    }
+                    count++;
+                }
+                finally
+                {
+                    FaceletFactory.setInstance(null);
+                }
+            }
+            catch (Exception e)
+            {
+                // not every file with a view suffix is a valid Facelet on its own, it fails again when used
+                if (log.isLoggable(Level.FINE))
+                {
+                    log.log(Level.FINE, "Skipping warm-up of " + path, e);
+                }
+            }
+        }
+        return count;
+    }
+
+    private static void collectResourcePaths(ExternalContext externalContext, String directory,
+            String[] suffixes, Set<String> paths)
+    {
+        Set<String> children = externalContext.getResourcePaths(directory);
+        if (children == null)
+        {
+            return;
+        }
+        for (String child : children)
+        {
+            if (child.endsWith("/"))
+            {
+                collectResourcePaths(externalContext, child, suffixes, paths);
+            }
+            else
+            {
+                for (String suffix : suffixes)
+                {
+                    if (child.endsWith(suffix))
+                    {
+                        paths.add(child);
+                        break;
+                    }
+                }
+            }
+        }
+    }
+
+    private static String[] getSuffixes(ExternalContext externalContext)
+    {
+        String suffixes = WebConfigParamUtils.getStringInitParameter(externalContext,
+                ViewHandler.FACELETS_SUFFIX_PARAM_NAME, ViewHandler.DEFAULT_FACELETS_SUFFIX);
+        return StringUtils.splitShortString(suffixes.trim(), ' ');
+    }
+
+    /**
+     * @return the number of resources created
+     */
+    int warmupResources(FacesContext facesContext)
+    {
+        if (StringUtils.isBlank(resources))
+        {
+            return 0;
+        }
+
+        ResourceHandler resourceHandler = facesContext.getApplication().getResourceHandler();
+        int count = 0;
+        for (String resource : StringUtils.splitShortString(resources, ','))
+        {
+            resource = resource.trim();
+            if (resource.isEmpty())
+            {
+                continue;
+            }
+            int separator = resource.indexOf(':');
+            try
+            {
+                if (separator < 0
+                        ? resourceHandler.createResource(resource) != null
+                        : resourceHandler.createResource(resource.substring(separator + 1),
+                                resource.substring(0, separator)) != null)
+                {
+                    count++;
+                }
+            }
+            catch (RuntimeException e)
+            {
+                if (log.isLoggable(Level.FINE))
+                {
+                    log.log(Level.FINE, "Skipping warm-up of resource " + resource, e);
+                }
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Creates the resource of a composite component, the path is relative to the resources directory.
+     */
+    private static void createResource(ResourceHandler resourceHandler, String path)
+    {
+        int separator = path.lastIndexOf('/');
+        if (separator < 0)
+        {
+            resourceHandler.createResource(path);
+        }
+        else
+        {
+            resourceHandler.createResource(path.substring(separator + 1), path.substring(0, separator));
+        }
+    }
+
+    private static FaceletFactory getFaceletFactory(ViewDeclarationLanguage vdl)
+    {
+        while (vdl instanceof ViewDeclarationLanguageWrapper)
+        {
+            vdl = ((ViewDeclarationLanguageWrapper) vdl).getWrapped();
+        }
+        if (vdl instanceof FaceletViewDeclarationLanguage)
+        {
+            return ((FaceletViewDeclarationLanguage) vdl).getFaceletFactory();
+        }
+        return null;
+    }
+
+    /**
+     * Makes the requests received during the warm-up wait for it before the view is restored, and removes itself
+     * from the lifecycle once the warm-up is done.
+     */
+    static final class AwaitPhaseListener implements PhaseListener
+    {
+        private static final long serialVersionUID = 1L;
+
+        @Override
+        public void beforePhase(PhaseEvent event)
+        {
+            FacesContext facesContext = event.getFacesContext();
+            await(facesContext);
+            if (isCompleted(facesContext.getExternalContext()))
+            {
+                ((Lifecycle) event.getSource()).removePhaseListener(this);
+            }
+        }
+
+        @Override
+        public void afterPhase(PhaseEvent event)
+        {
+        }
+
+        @Override
+        public PhaseId getPhaseId()
+        {
+            return PhaseId.RESTORE_VIEW;
+        }
+    }
+}
@@ -24,6 +24,7 @@
 import jakarta.servlet.ServletContext;
 import jakarta.servlet.http.HttpSessionEvent;
 import jakarta.servlet.http.HttpSessionListener;
+import org.apache.myfaces.application.viewstate.ViewStateStore;
 import org.apache.myfaces.cdi.clientwindow.ClientWindowScopeContext;
 import org.apache.myfaces.cdi.view.ViewScopeContext;
 import org.apache.myfaces.context.ExceptionHandlerImpl;
@@ -43,6 +44,8 @@ public void sessionCreated(HttpSessionEvent event)
     @Override
     public void sessionDestroyed(HttpSessionEvent event)
     {
+        ViewStateStore.sessionDestroyed(event.getSession());
+
         // If we don't propagate this event, CDI will do for us but outside Faces control
         // so when @PreDestroy methods are called there will not be an active FacesContext.
         // The trick here is ensure clean the affected scopes to avoid duplicates.
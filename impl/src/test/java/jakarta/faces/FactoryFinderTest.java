@@ -58,46 +58,34 @@ public void tearDown() throws Exception
     private void releaseRegisteredFactoryNames() throws Exception
     {
         ClassLoader classLoader = Thread.currentThread().getContextClassLoader();
-        Map<ClassLoader, Map<String, List<String>>> _registeredFactoryNames = getRegisteredFactoryNames();
-        _registeredFactoryNames.remove(classLoader);
+        getRegistries().remove(classLoader);
     }
 
+    @SuppressWarnings("unchecked")
     private List<String> registeredFactoryNames(String factoryName) throws Exception
     {
         ClassLoader classLoader = Thread.currentThread().getContextClassLoader();
-        Map<ClassLoader, Map<String, List<String>>> _registeredFactoryNames = getRegisteredFactoryNames();
-        Map<String, List<String>> map = _registeredFactoryNames.get(classLoader);
+        Object registry = getRegistries().get(classLoader);
+        Field field = registry.getClass().getDeclaredField("factoryClassNames");
+        field.setAccessible(true);
+        Map<String, List<String>> map = (Map<String, List<String>>) field.get(registry);
         return map.get(factoryName);
     }
 
     /*
-     * This method allows us access to the _registeredFactoryNames field so we can test the content of that map during
+     * This method allows us access to the registries field so we can test the registered factory names during
      * the running of this test.
      * 
-     * @return Returns the _registeredFactoryNames Map from the FactoryFinder class. @throws NoSuchFieldException
+     * @return Returns the registries Map from the FactoryFinder class. @throws NoSuchFieldException
      * 
      * @throws IllegalAccessException
      */
     @SuppressWarnings("unchecked")
-    private Map<ClassLoader, Map<String, List<String>>> getRegisteredFactoryNames() throws IllegalAccessException
+    private Map<Object, Object> getRegistries() throws Exception
     {
-        Class<FactoryFinder> factoryFinderClass = FactoryFinder.class;
-        Field fields[] = factoryFinderClass.getDeclaredFields();
-        Field field = null;
-        for (int i = 0; i < fields.length; i++)
-        {
-            if (fields[i].getName().equals("registeredFactoryNames"))
-            {
-                field = fields[i];
-                field.setAccessible(true);
-                break;
-            }
-        }
-
-        Map<ClassLoader, Map<String, List<String>>> _registeredFactoryNames = (Map<ClassLoader, Map<String, List<String>>>) field
-                                                                                                                                 .get(null);
-
-        return _registeredFactoryNames;
+        Field field = FactoryFinder.class.getDeclaredField("registries");
+        field.setAccessible(true);
+        return (Map<Object, Object>) field.get(null);
     }
 
     /*
@@ -105,4 +105,23 @@ public void testGetAsObject()
             Assertions.assertTrue(false, "this date should not be parsable - and it is, so this is wrong.");
         }
     }
+
+    @Test
+    public void testSharedFormatUsesTimeZone()
+    {
+        UIInput input = new UIInput();
+        Date date = new Date(0);
+
+        mock.setPattern("yyyy-MM-dd HH:mm");
+        mock.setTimeZone(TimeZone.getTimeZone("GMT"));
+        Assertions.assertEquals("1970-01-01 00:00", mock.getAsString(facesContext, input, date));
+
+        DateTimeConverter other = new DateTimeConverter();
+        other.setPattern("yyyy-MM-dd HH:mm");
+        other.setTimeZone(TimeZone.getTimeZone("GMT+02:00"));
+        Assertions.assertEquals("1970-01-01 02:00", other.getAsString(facesContext, input, date));
+        Assertions.assertEquals(date, other.getAsObject(facesContext, input, "1970-01-01 02:00"));
+
+        Assertions.assertEquals("1970-01-01 00:00", mock.getAsString(facesContext, input, date));
+    }
 }
@@ -242,4 +242,22 @@ public void testGetAsObjectParseIntOnly(){
             Assertions.fail();
         }
     }
+
+    @Test
+    public void testSharedFormatIsNotModified()
+    {
+        UIInput input = new UIInput();
+        mock.setLocale(Locale.US);
+        mock.setType("currency");
+        mock.setCurrencySymbol("X");
+        mock.setGroupingUsed(false);
+        mock.setMaxFractionDigits(0);
+        Assertions.assertEquals("X12346", mock.getAsString(facesContext, input, 12345.68d));
+
+        // same locale and type, the settings of the other converter must not be seen here
+        NumberConverter other = new NumberConverter();
+        other.setLocale(Locale.US);
+        other.setType("currency");
+        Assertions.assertEquals("$12,345.68", other.getAsString(facesContext, input, 12345.68d));
+    }
 }
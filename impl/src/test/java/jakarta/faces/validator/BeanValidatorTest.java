@@ -0,0 +1,198 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package jakarta.faces.validator;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+import jakarta.el.ELContext;
+import jakarta.el.ValueExpression;
+import jakarta.el.ValueReference;
+import jakarta.faces.component.UIInput;
+import jakarta.validation.Constraint;
+import jakarta.validation.ConstraintValidator;
+import jakarta.validation.ConstraintValidatorContext;
+import jakarta.validation.Payload;
+
+import org.apache.myfaces.test.base.junit.AbstractJsfTestCase;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class BeanValidatorTest extends AbstractJsfTestCase
+{
+    public interface Strict
+    {
+    }
+
+    @Target(ElementType.FIELD)
+    @Retention(RetentionPolicy.RUNTIME)
+    @Constraint(validatedBy = RequiredValidator.class)
+    public @interface Required
+    {
+        String message() default "required";
+
+        Class<?>[] groups() default {};
+
+        Class<? extends Payload>[] payload() default {};
+    }
+
+    public static class RequiredValidator implements ConstraintValidator<Required, Object>
+    {
+        @Override
+        public boolean isValid(Object value, ConstraintValidatorContext context)
+        {
+            return value != null;
+        }
+    }
+
+    public static class Person
+    {
+        @Required
+        private String name;
+
+        @Required(groups = Strict.class)
+        private String nickname;
+
+        private String comment;
+    }
+
+    public static class Unconstrained
+    {
+        private String name;
+    }
+
+    private UIInput input(Object bean, String property)
+    {
+        UIInput input = new UIInput();
+        input.setValueExpression("value", new PropertyExpression(bean, property));
+        return input;
+    }
+
+    @Test
+    public void testValidate()
+    {
+        BeanValidator validator = new BeanValidator();
+        Person person = new Person();
+
+        validator.validate(facesContext, input(person, "name"), "abc");
+        Assertions.assertThrows(ValidatorException.class,
+                () -> validator.validate(facesContext, input(person, "name"), null));
+
+        // not constrained, the value is not validated at all
+        validator.validate(facesContext, input(person, "comment"), null);
+        validator.validate(facesContext, input(new Unconstrained(), "name"), null);
+
+        // the Validator is shared by the validations of the application
+        Object cached = externalContext.getApplicationMap().get("oam.BV.cachedValidator");
+        Assertions.assertNotNull(cached);
+        new BeanValidator().validate(facesContext, input(person, "name"), "abc");
+        Assertions.assertSame(cached, externalContext.getApplicationMap().get("oam.BV.cachedValidator"));
+    }
+
+    @Test
+    public void testValidationGroups()
+    {
+        BeanValidator validator = new BeanValidator();
+        Person person = new Person();
+
+        validator.validate(facesContext, input(person, "nickname"), null);
+
+        validator.setValidationGroups(Strict.class.getName());
+        Assertions.assertThrows(ValidatorException.class,
+                () -> validator.validate(facesContext, input(person, "nickname"), null));
+
+        validator.setValidationGroups(" , ");
+        validator.validate(facesContext, input(person, "nickname"), null);
+        Assertions.assertThrows(ValidatorException.class,
+                () -> validator.validate(facesContext, input(person, "name"), null));
+    }
+
+    private static class PropertyExpression extends ValueExpression
+    {
+        private final Object base;
+        private final String property;
+
+        PropertyExpression(Object base, String property)
+        {
+            this.base = base;
+            this.property = property;
+        }
+
+        @Override
+        public ValueReference getValueReference(ELContext context)
+        {
+            return new ValueReference(base, property);
+        }
+
+        @Override
+        public <T> T getValue(ELContext context)
+        {
+            return null;
+        }
+
+        @Override
+        public void setValue(ELContext context, Object value)
+        {
+        }
+
+        @Override
+        public boolean isReadOnly(ELContext context)
+        {
+            return false;
+        }
+
+        @Override
+        public Class<?> getType(ELContext context)
+        {
+            return String.class;
+        }
+
+        @Override
+        public Class<?> getExpectedType()
+        {
+            return String.class;
+        }
+
+        @Override
+        public String getExpressionString()
+        {
+            return "#{bean." + property + "}";
+        }
+
+        @Override
+        public boolean equals(Object obj)
+        {
+            return obj == this;
+        }
+
+        @Override
+        public int hashCode()
+        {
+            return System.identityHashCode(this);
+        }
+
+        @Override
+        public boolean isLiteralText()
+        {
+            return false;
+        }
+    }
+}
@@ -25,16 +25,22 @@
 import org.junit.jupiter.api.Test;
 
 import jakarta.faces.application.Resource;
+import jakarta.faces.application.ResourceHandler;
+import jakarta.servlet.http.HttpServletResponse;
 import java.net.URL;
+import java.util.Arrays;
 import java.util.Locale;
+import java.util.Map;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import org.apache.myfaces.resource.ClassLoaderResourceLoader;
 import org.apache.myfaces.resource.ResourceHandlerCache;
 import org.apache.myfaces.resource.ResourceHandlerSupport;
+import org.apache.myfaces.resource.ResourceImpl;
 import org.apache.myfaces.resource.ResourceLoader;
 import org.apache.myfaces.resource.ResourceMeta;
 import org.apache.myfaces.resource.ResourceMetaImpl;
+import org.apache.myfaces.test.mock.MockServletOutputStream;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.mockito.Mockito;
@@ -318,4 +324,196 @@ public void testResourceExistsCache()
         Mockito.verify(loader, Mockito.never()).getResourceInputStream(Mockito.any());
         
     }
+
+    @Test
+    public void testHandleResourceRequestEntityTag() throws Exception
+    {
+        setResourceRequest("test.js", "precompressed");
+
+        ResourceImpl resource = (ResourceImpl) resourceHandler.createResource("test.js", "precompressed");
+        String entityTag = resource.getEntityTag();
+        Assertions.assertNotNull(entityTag);
+
+        resourceHandler.handleResourceRequest(facesContext);
+
+        Assertions.assertEquals(HttpServletResponse.SC_OK, response.getStatus());
+        Assertions.assertEquals(entityTag, response.getHeader("ETag"));
+        Assertions.assertEquals("Accept-Encoding", response.getHeader("Vary"));
+        Assertions.assertNull(response.getHeader("Content-Encoding"));
+        Assertions.assertArrayEquals(readResource("precompressed/test.js"), getResponseContent());
+    }
+
+    @Test
+    public void testHandleResourceRequestPrecompressed() throws Exception
+    {
+        setResourceRequest("test.js", "precompressed");
+        request.addHeader("Accept-Encoding", "br;q=0, gzip, deflate");
+
+        resourceHandler.handleResourceRequest(facesContext);
+
+        Assertions.assertEquals(HttpServletResponse.SC_OK, response.getStatus());
+        Assertions.assertEquals("gzip", response.getHeader("Content-Encoding"));
+        Assertions.assertTrue(response.getHeader("ETag").endsWith("-gzip\""));
+        Assertions.assertArrayEquals(readResource("precompressed/test.js.gz"), getResponseContent());
+    }
+
+    @Test
+    public void testHandleResourceRequestPrecompressedWildcardExcluded() throws Exception
+    {
+        setResourceRequest("test.js", "precompressed");
+        request.addHeader("Accept-Encoding", "*;q=0, gzip;q=1");
+
+        resourceHandler.handleResourceRequest(facesContext);
+
+        Assertions.assertEquals(HttpServletResponse.SC_OK, response.getStatus());
+        Assertions.assertEquals("gzip", response.getHeader("Content-Encoding"));
+        Assertions.assertArrayEquals(readResource("precompressed/test.js.gz"), getResponseContent());
+    }
+
+    @Test
+    public void testHandleResourceRequestIfNoneMatch() throws Exception
+    {
+        setResourceRequest("test.js", "precompressed");
+
+        ResourceImpl resource = (ResourceImpl) resourceHandler.createResource("test.js", "precompressed");
+        request.addHeader("If-None-Match", "\"other\", W/" + resource.getEntityTag());
+
+        resourceHandler.handleResourceRequest(facesContext);
+
+        Assertions.assertEquals(HttpServletResponse.SC_NOT_MODIFIED, response.getStatus());
+        Assertions.assertEquals(resource.getEntityTag(), response.getHeader("ETag"));
+        Assertions.assertEquals("Accept-Encoding", response.getHeader("Vary"));
+        Map<String, String> headers = resource.getResponseHeaders();
+        Assertions.assertNotNull(headers.get("Cache-Control"));
+        Assertions.assertEquals(headers.get("Cache-Control"), response.getHeader("Cache-Control"));
+        Assertions.assertEquals(headers.get("Last-Modified"), response.getHeader("Last-Modified"));
+        Assertions.assertEquals(0, getResponseContent().length);
+    }
+
+    @Test
+    public void testHandleResourceRequestRemovedResource() throws Exception
+    {
+        mockWrittenBytes(-1);
+
+        resourceHandler.handleResourceRequest(facesContext);
+
+        Assertions.assertEquals(HttpServletResponse.SC_NOT_FOUND, response.getStatus());
+        Assertions.assertEquals(0, getResponseContent().length);
+    }
+
+    @Test
+    public void testHandleResourceRequestShortenedResource() throws Exception
+    {
+        mockWrittenBytes(2);
+
+        resourceHandler.handleResourceRequest(facesContext);
+
+        Assertions.assertEquals(HttpServletResponse.SC_NOT_FOUND, response.getStatus());
+    }
+
+    /**
+     * The resource changes after it was created, so writing it does not match its length anymore.
+     */
+    private void mockWrittenBytes(long written) throws Exception
+    {
+        ResourceImpl resource = Mockito.spy((ResourceImpl) resourceHandler.createResource("test.js", "precompressed"));
+        Mockito.doReturn(written).when(resource).writeTo(Mockito.any(), Mockito.anyLong(), Mockito.anyLong());
+
+        resourceHandler = Mockito.spy(resourceHandler);
+        Mockito.doReturn(resource).when(resourceHandler).createResource("test.js", "precompressed");
+        setResourceRequest("test.js", "precompressed");
+    }
+
+    @Test
+    public void testHandleResourceRequestRange() throws Exception
+    {
+        setResourceRequest("test.js", "precompressed");
+        request.addHeader("Range", "bytes=2-5");
+
+        resourceHandler.handleResourceRequest(facesContext);
+
+        byte[] content = readResource("precompressed/test.js");
+        Assertions.assertEquals(HttpServletResponse.SC_PARTIAL_CONTENT, response.getStatus());
+        Assertions.assertEquals("bytes 2-5/" + content.length, response.getHeader("Content-Range"));
+        Assertions.assertEquals("bytes", response.getHeader("Accept-Ranges"));
+        Assertions.assertArrayEquals(Arrays.copyOfRange(content, 2, 6), getResponseContent());
+    }
+
+    @Test
+    public void testHandleResourceRequestSuffixRange() throws Exception
+    {
+        setResourceRequest("test.js", "precompressed");
+        request.addHeader("Range", "bytes=-4");
+
+        resourceHandler.handleResourceRequest(facesContext);
+
+        byte[] content = readResource("precompressed/test.js");
+        Assertions.assertEquals(HttpServletResponse.SC_PARTIAL_CONTENT, response.getStatus());
+        Assertions.assertArrayEquals(Arrays.copyOfRange(content, content.length - 4, content.length),
+                getResponseContent());
+    }
+
+    @Test
+    public void testHandleResourceRequestRangeNotSatisfiable() throws Exception
+    {
+        setResourceRequest("test.js", "precompressed");
+        request.addHeader("Range", "bytes=100000-");
+
+        resourceHandler.handleResourceRequest(facesContext);
+
+        Assertions.assertEquals(HttpServletResponse.SC_REQUESTED_RANGE_NOT_SATISFIABLE, response.getStatus());
+        Assertions.assertEquals("bytes */" + readResource("precompressed/test.js").length,
+                response.getHeader("Content-Range"));
+        Assertions.assertEquals(0, getResponseContent().length);
+    }
+
+    @Test
+    public void testHandleResourceRequestIfRangeChanged() throws Exception
+    {
+        setResourceRequest("test.js", "precompressed");
+        request.addHeader("Range", "bytes=2-5");
+        request.addHeader("If-Range", "\"other\"");
+
+        resourceHandler.handleResourceRequest(facesContext);
+
+        Assertions.assertEquals(HttpServletResponse.SC_OK, response.getStatus());
+        Assertions.assertNull(response.getHeader("Content-Range"));
+        Assertions.assertArrayEquals(readResource("precompressed/test.js"), getResponseContent());
+    }
+
+    @Test
+    public void testVersionedResourceIsImmutable() throws Exception
+    {
+        setResourceRequest("test.js", "versioned");
+        request.addParameter(ResourceImpl.VERSION_PARAM, "1_0");
+
+        ResourceImpl resource = new ResourceImpl(
+                new ResourceMetaImpl(null, "versioned", "1_0", "test.js", null),
+                new ClassLoaderResourceLoader("META-INF/resources"), new DefaultResourceHandlerSupport(),
+                "text/javascript");
+
+        Assertions.assertTrue(resource.getRequestPath().contains("v=1_0"), resource.getRequestPath());
+        Assertions.assertTrue(resource.getResponseHeaders().get("Cache-Control").endsWith("immutable"));
+    }
+
+    private void setResourceRequest(String resourceName, String libraryName)
+    {
+        application.setResourceHandler(resourceHandler);
+        request.setPathElements("/xxx", "/faces", ResourceHandler.RESOURCE_IDENTIFIER + '/' + resourceName,
+                "ln=" + libraryName);
+        request.addParameter("ln", libraryName);
+    }
+
+    private byte[] getResponseContent() throws Exception
+    {
+        return ((MockServletOutputStream) response.getOutputStream()).content();
+    }
+
+    private byte[] readResource(String path) throws Exception
+    {
+        try (InputStream in = getClass().getClassLoader().getResourceAsStream("META-INF/resources/" + path))
+        {
+            return in.readAllBytes();
+        }
+    }
 }
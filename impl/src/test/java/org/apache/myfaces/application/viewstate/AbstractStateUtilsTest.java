@@ -24,7 +24,9 @@
 import org.apache.myfaces.test.base.junit.AbstractJsfTestCase;
 
 import java.io.Serializable;
+import java.io.StringWriter;
 import java.util.Arrays;
+import javax.crypto.Cipher;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.BeforeEach;
@@ -84,6 +86,58 @@ public void testConstruction()
         Assertions.assertTrue(TEST_DATA.equals(object));
     }
 
+    /**
+     * The streamed state must be readable by the byte[] based methods and vice versa.
+     */
+    @Test
+    public void testStreamingConstructionCompatibility() throws Exception
+    {
+        StringWriter writer = new StringWriter();
+        StateUtils.construct(TEST_DATA, externalContext, writer);
+        Assertions.assertEquals(TEST_DATA, StateUtils.reconstruct(writer.toString(), externalContext));
+
+        byte[] bytes = StateUtils.decode(writer.toString().getBytes(StateUtils.ZIP_CHARSET));
+        if (StateUtils.isSecure(externalContext))
+        {
+            bytes = StateUtils.decrypt(bytes, externalContext);
+        }
+        if (StateUtils.enableCompression(externalContext))
+        {
+            bytes = StateUtils.decompress(bytes);
+        }
+        Assertions.assertEquals(TEST_DATA, StateUtils.getAsObject(bytes, externalContext));
+
+        bytes = StateUtils.getAsByteArray(TEST_DATA, externalContext);
+        if (StateUtils.enableCompression(externalContext))
+        {
+            bytes = StateUtils.compress(bytes);
+        }
+        if (StateUtils.isSecure(externalContext))
+        {
+            bytes = StateUtils.encrypt(bytes, externalContext);
+        }
+        String constructed = new String(StateUtils.encode(bytes), StateUtils.ZIP_CHARSET);
+        Assertions.assertEquals(TEST_DATA, StateUtils.reconstruct(constructed, externalContext));
+    }
+
+    /**
+     * The Cipher created to decrypt needs the initialization vector of the Cipher which encrypted.
+     */
+    @Test
+    public void testCreateCipher() throws Exception
+    {
+        if (!StateUtils.isSecure(externalContext))
+        {
+            return;
+        }
+        byte[] sensitiveBytes = sensitiveString.getBytes();
+        Cipher encrypt = StateUtils.createCipher(externalContext, Cipher.ENCRYPT_MODE);
+        byte[] secure = encrypt.doFinal(sensitiveBytes);
+
+        Cipher decrypt = StateUtils.createCipher(externalContext, Cipher.DECRYPT_MODE, encrypt.getIV());
+        Assertions.assertArrayEquals(sensitiveBytes, decrypt.doFinal(secure));
+    }
+
     @Test
     public void testSerialization()
     {
@@ -103,6 +157,33 @@ public void testCryptography()
         Assertions.assertTrue(Arrays.equals(insecure, sensitiveBytes));
     }
 
+    /**
+     * The Cipher and Mac instances are pooled, so a failed decryption must not affect the next ones.
+     */
+    @Test
+    public void testCryptographyReusesInstances()
+    {
+        byte[] sensitiveBytes = sensitiveString.getBytes();
+        for (int i = 0; i < 3; i++)
+        {
+            byte[] secure = StateUtils.encrypt(sensitiveBytes, externalContext);
+            byte[] corrupt = secure.clone();
+            corrupt[corrupt.length - 5] ^= 1;
+            try
+            {
+                byte[] insecure = StateUtils.decrypt(corrupt, externalContext);
+                Assertions.assertFalse(Arrays.equals(insecure, sensitiveBytes));
+            }
+            catch (Exception e)
+            {
+                // do nothing
+            }
+            Assertions.assertArrayEquals(sensitiveBytes, StateUtils.decrypt(secure, externalContext));
+            Assertions.assertEquals(TEST_DATA, StateUtils.reconstruct(
+                    StateUtils.construct(TEST_DATA, externalContext), externalContext));
+        }
+    }
+
     @Test
     public void testCompression()
     {
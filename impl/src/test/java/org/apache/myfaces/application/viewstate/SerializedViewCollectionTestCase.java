@@ -16,6 +16,11 @@
 
 package org.apache.myfaces.application.viewstate;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.concurrent.atomic.AtomicInteger;
 
 import org.apache.myfaces.config.webparameters.MyfacesConfig;
@@ -266,4 +271,56 @@ public void testSerializedViewCollection6()
         
         Assertions.assertEquals(destroyed.get(), 5);
     }
+
+    @Test
+    public void testSerializedViewCollectionConcurrentPut() throws Exception
+    {
+        servletContext.addInitParameter(MyfacesConfig.NUMBER_OF_VIEWS_IN_SESSION, "5");
+        MyfacesConfig.getCurrentInstance(facesContext);
+
+        SerializedViewCollection collection = new SerializedViewCollection();
+        String viewId = "/test.xhtml";
+        AtomicInteger destroyed = new AtomicInteger();
+        int threads = 4;
+        int viewsPerThread = 500;
+
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try
+        {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < threads; t++)
+            {
+                int offset = t * viewsPerThread;
+                futures.add(executor.submit(() ->
+                {
+                    for (int i = 0; i < viewsPerThread; i++)
+                    {
+                        int sequence = offset + i;
+                        collection.put(facesContext, new Object[]{null,null,2},
+                                new SerializedViewKeyIntInt(viewId.hashCode(), sequence), null,
+                                String.valueOf(sequence), (id) -> destroyed.incrementAndGet());
+                    }
+                }));
+            }
+            for (Future<?> future : futures)
+            {
+                future.get();
+            }
+        }
+        finally
+        {
+            executor.shutdown();
+        }
+
+        int stored = 0;
+        for (int i = 0; i < threads * viewsPerThread; i++)
+        {
+            if (collection.get(new SerializedViewKeyIntInt(viewId.hashCode(), i)) != null)
+            {
+                stored++;
+            }
+        }
+        Assertions.assertEquals(5, stored);
+        Assertions.assertEquals(threads * viewsPerThread - 5, destroyed.get());
+    }
 }
@@ -25,7 +25,9 @@
 import java.util.Map;
 import jakarta.faces.application.ProjectStage;
 import jakarta.faces.application.StateManager;
+import jakarta.faces.context.FacesContext;
 
+import org.apache.myfaces.spi.impl.CompactSerialFactory;
 import org.apache.myfaces.test.base.junit.AbstractJsfConfigurableMultipleRequestsTestCase;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
@@ -197,6 +199,33 @@ public void testNonExistingViewId() throws Exception
 
     }
 
+    @Test
+    public void testDeserializeViewWithoutFacesContext() throws Exception
+    {
+        servletContext.addInitParameter(StateManager.STATE_SAVING_METHOD_PARAM_NAME, StateManager.STATE_SAVING_METHOD_SERVER);
+        servletContext.addInitParameter(StateManager.SERIALIZE_SERVER_STATE_PARAM_NAME, "true");
+
+        Object[] view = new Object[] { "view1.xhtml", 1, new Object[] { "state", null } };
+        StateCacheServerSide stateCache;
+        Object state;
+        try
+        {
+            setupRequest();
+            externalContext.getApplicationMap().put(StateUtils.SERIAL_FACTORY, new CompactSerialFactory());
+
+            stateCache = new StateCacheServerSide();
+            state = stateCache.serializeView(facesContext, view);
+        }
+        finally
+        {
+            tearDownRequest();
+        }
+
+        // e.g. a session restored by the container, the view is read with the format it was written with
+        Assertions.assertNull(FacesContext.getCurrentInstance());
+        Assertions.assertArrayEquals(view, (Object[]) stateCache.deserializeView(state));
+    }
+
     public void tryStateKeySerialization() throws Exception
     {
         // Initialization
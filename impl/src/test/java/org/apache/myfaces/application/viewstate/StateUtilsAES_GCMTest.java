@@ -0,0 +1,111 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.myfaces.application.viewstate;
+
+import java.util.Arrays;
+import java.util.Base64;
+import javax.crypto.Cipher;
+import javax.crypto.Mac;
+import javax.crypto.SecretKey;
+
+import jakarta.faces.FacesException;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * This TestCase uses AES in GCM mode, without any MAC secret, because GCM
+ * authenticates the state by itself.
+ */
+public class StateUtilsAES_GCMTest extends AbstractStateUtilsTest
+{
+    @Override
+    @BeforeEach
+    public void setUp() throws Exception
+    {
+        super.setUp();
+
+        servletContext.addInitParameter(StateUtils.INIT_SECRET, BASE64_KEY_SIZE_16);
+        servletContext.addInitParameter(StateUtils.INIT_ALGORITHM, "AES");
+        StateUtils.initSecret(servletContext);
+    }
+
+    @Test
+    public void testInitializationVectorIsNotReused()
+    {
+        byte[] sensitiveBytes = sensitiveString.getBytes();
+        byte[] secure1 = StateUtils.encrypt(sensitiveBytes, externalContext);
+        byte[] secure2 = StateUtils.encrypt(sensitiveBytes, externalContext);
+
+        Assertions.assertFalse(Arrays.equals(Arrays.copyOf(secure1, 12), Arrays.copyOf(secure2, 12)));
+        Assertions.assertFalse(Arrays.equals(secure1, secure2));
+        Assertions.assertArrayEquals(sensitiveBytes, StateUtils.decrypt(secure1, externalContext));
+        Assertions.assertArrayEquals(sensitiveBytes, StateUtils.decrypt(secure2, externalContext));
+    }
+
+    @Test
+    public void testTamperedStateIsRejected()
+    {
+        byte[] secure = StateUtils.encrypt(sensitiveString.getBytes(), externalContext);
+        secure[secure.length / 2] ^= 1;
+
+        Assertions.assertThrows(FacesException.class, () -> StateUtils.decrypt(secure, externalContext));
+        Assertions.assertThrows(FacesException.class, () -> StateUtils.decrypt(new byte[20], externalContext));
+    }
+
+    @Test
+    public void testStateOfTheFormerDefaultModeIsAccepted() throws Exception
+    {
+        byte[] sensitiveBytes = sensitiveString.getBytes();
+        Assertions.assertArrayEquals(sensitiveBytes,
+                StateUtils.decrypt(encryptLegacy(sensitiveBytes), externalContext));
+
+        // decrypted in place
+        String legacyState = Base64.getEncoder().encodeToString(
+                encryptLegacy(StateUtils.getAsByteArray(sensitiveString, externalContext)));
+        Assertions.assertEquals(sensitiveString, StateUtils.reconstruct(legacyState, externalContext));
+    }
+
+    @Test
+    public void testStateOfTheFormerDefaultModeIsRejectedWithConfiguredMode() throws Exception
+    {
+        servletContext.addInitParameter(StateUtils.INIT_ALGORITHM_PARAM, "GCM/NoPadding");
+
+        byte[] legacy = encryptLegacy(sensitiveString.getBytes());
+        Assertions.assertThrows(FacesException.class, () -> StateUtils.decrypt(legacy, externalContext));
+    }
+
+    /**
+     * Encrypts like before GCM became the default mode: AES/ECB/PKCS5Padding, then the MAC.
+     */
+    private byte[] encryptLegacy(byte[] insecure) throws Exception
+    {
+        Cipher cipher = Cipher.getInstance("AES/ECB/PKCS5Padding");
+        cipher.init(Cipher.ENCRYPT_MODE,
+                (SecretKey) externalContext.getApplicationMap().get(StateUtils.INIT_SECRET_KEY_CACHE));
+        Mac mac = Mac.getInstance(StateUtils.DEFAULT_MAC_ALGORITHM);
+        mac.init((SecretKey) externalContext.getApplicationMap().get(StateUtils.INIT_MAC_SECRET_KEY_CACHE));
+
+        byte[] encrypted = cipher.doFinal(insecure);
+        byte[] secure = Arrays.copyOf(encrypted, encrypted.length + mac.getMacLength());
+        mac.update(encrypted);
+        mac.doFinal(secure, encrypted.length);
+        return secure;
+    }
+}
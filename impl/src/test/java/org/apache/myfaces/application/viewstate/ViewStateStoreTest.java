@@ -0,0 +1,135 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.myfaces.application.viewstate;
+
+import java.io.File;
+import java.nio.file.Files;
+
+import org.apache.myfaces.config.webparameters.MyfacesConfig;
+import org.apache.myfaces.test.base.junit.AbstractJsfTestCase;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class ViewStateStoreTest extends AbstractJsfTestCase
+{
+    @Test
+    public void testInMemoryStoreEvictsLeastRecentlyUsed()
+    {
+        ViewStateStoreInMemory store = new ViewStateStoreInMemory(10);
+
+        Assertions.assertTrue(store.put("s1", 1, new byte[4]));
+        Assertions.assertTrue(store.put("s1", 2, new byte[4]));
+        // touch 1, so 2 is the least recently used
+        Assertions.assertNotNull(store.get("s1", 1));
+        Assertions.assertTrue(store.put("s2", 1, new byte[4]));
+
+        Assertions.assertNotNull(store.get("s1", 1));
+        Assertions.assertNull(store.get("s1", 2));
+        Assertions.assertNotNull(store.get("s2", 1));
+        Assertions.assertEquals(8, store.getSize());
+
+        Assertions.assertFalse(store.put("s1", 3, new byte[11]));
+
+        store.remove("s1", 1);
+        Assertions.assertNull(store.get("s1", 1));
+        Assertions.assertEquals(4, store.getSize());
+    }
+
+    @Test
+    public void testMappedFileStoreWrapsAround() throws Exception
+    {
+        File dir = Files.createTempDirectory("viewstate").toFile();
+        ViewStateStoreMappedFile store = new ViewStateStoreMappedFile(dir, 10);
+        try
+        {
+            Assertions.assertTrue(store.put("s1", 1, new byte[]{1, 1, 1, 1}));
+            Assertions.assertTrue(store.put("s1", 2, new byte[]{2, 2, 2, 2}));
+            Assertions.assertArrayEquals(new byte[]{1, 1, 1, 1}, store.get("s1", 1));
+            Assertions.assertArrayEquals(new byte[]{2, 2, 2, 2}, store.get("s1", 2));
+
+            // does not fit at the end, so the first one is overwritten
+            Assertions.assertTrue(store.put("s1", 3, new byte[]{3, 3, 3}));
+            Assertions.assertNull(store.get("s1", 1));
+            Assertions.assertArrayEquals(new byte[]{2, 2, 2, 2}, store.get("s1", 2));
+            Assertions.assertArrayEquals(new byte[]{3, 3, 3}, store.get("s1", 3));
+
+            Assertions.assertTrue(store.put("s1", 4, new byte[]{4, 4}));
+            Assertions.assertNull(store.get("s1", 2));
+            Assertions.assertArrayEquals(new byte[]{3, 3, 3}, store.get("s1", 3));
+            Assertions.assertArrayEquals(new byte[]{4, 4}, store.get("s1", 4));
+            Assertions.assertEquals(2, store.getEntries());
+
+            Assertions.assertFalse(store.put("s1", 5, new byte[11]));
+        }
+        finally
+        {
+            store.destroy();
+            dir.delete();
+        }
+    }
+
+    @Test
+    public void testMappedFileStoreDestroy() throws Exception
+    {
+        File dir = Files.createTempDirectory("viewstate").toFile();
+        ViewStateStoreMappedFile store = new ViewStateStoreMappedFile(dir, 10);
+        try
+        {
+            Assertions.assertTrue(store.put("s1", 1, new byte[]{1, 1, 1, 1}));
+            store.destroy();
+
+            // the mapping is not used anymore
+            Assertions.assertNull(store.get("s1", 1));
+            Assertions.assertFalse(store.put("s1", 2, new byte[]{2, 2}));
+            Assertions.assertEquals(0, store.getEntries());
+            Assertions.assertEquals(0, dir.list().length);
+        }
+        finally
+        {
+            dir.delete();
+        }
+    }
+
+    @Test
+    public void testCollectionDiscardsStoredViews()
+    {
+        servletContext.addInitParameter(MyfacesConfig.NUMBER_OF_VIEWS_IN_SESSION, "1");
+
+        ViewStateStoreInMemory store = new ViewStateStoreInMemory(1024);
+        SerializedViewCollection collection = new SerializedViewCollection();
+        String storeId = collection.getStoreId();
+        SerializedViewKey key1 = new SerializedViewKeyIntInt("/test.xhtml".hashCode(), 1);
+        SerializedViewKey key2 = new SerializedViewKeyIntInt("/test.xhtml".hashCode(), 2);
+
+        store.put(storeId, key1, new byte[]{1});
+        collection.put(facesContext, key1, key1, null, null, (id) -> { },
+                (key) -> store.remove(storeId, key));
+        Assertions.assertSame(key1, collection.get(key1));
+
+        store.put(storeId, key2, new byte[]{2});
+        collection.put(facesContext, key2, key2, null, null, (id) -> { },
+                (key) -> store.remove(storeId, key));
+        Assertions.assertNull(collection.get(key1));
+        Assertions.assertNull(store.get(storeId, key1));
+        Assertions.assertNotNull(store.get(storeId, key2));
+
+        collection.discardStoredViews((key) -> store.remove(storeId, key));
+        Assertions.assertNull(store.get(storeId, key2));
+    }
+}
@@ -20,6 +20,7 @@
 
 import jakarta.faces.FactoryFinder;
 import jakarta.faces.context.FacesContext;
+import jakarta.faces.context.PartialResponseWriter;
 import jakarta.faces.context.PartialViewContext;
 
 import org.apache.myfaces.context.servlet.FacesContextImpl;
@@ -140,4 +141,41 @@ public void testRequestParams6() {
 //
 //        Assertions.assertTrue("Value match",pprContext.getRenderIds().get(3).equals("component4"));
     }
+
+    /**
+     * merged list of coalesced requests, the duplicates and @none are skipped
+     */
+    @Test
+    public void testMergedRequestParams() {
+        String params = "component1 component2 @none component1 component3 component2";
+        Map<String, String> requestParamMap = new HashMap<String, String>();
+        requestParamMap.put(PartialViewContext.PARTIAL_RENDER_PARAM_NAME, params);
+        ContextTestRequestWrapper wrapper = new ContextTestRequestWrapper(request, requestParamMap);
+
+        FacesContext context = new FacesContextImpl(servletContext, wrapper, response);
+
+        PartialViewContext pprContext = context.getPartialViewContext();
+
+        Assertions.assertEquals(3, pprContext.getRenderIds().size());
+        Assertions.assertTrue(pprContext.getRenderIds().contains("component3"));
+        Assertions.assertFalse(pprContext.getRenderIds().contains("@none"));
+    }
+
+    /**
+     * merged list of coalesced requests containing @all
+     */
+    @Test
+    public void testMergedRequestParamsAll() {
+        Map<String, String> requestParamMap = new HashMap<String, String>();
+        requestParamMap.put(PartialViewContext.PARTIAL_RENDER_PARAM_NAME, "component1 @all");
+        requestParamMap.put("jakarta.faces.partial.ajax", "true");
+        ContextTestRequestWrapper wrapper = new ContextTestRequestWrapper(request, requestParamMap);
+
+        FacesContext context = new FacesContextImpl(servletContext, wrapper, response);
+
+        PartialViewContext pprContext = context.getPartialViewContext();
+
+        Assertions.assertTrue(pprContext.isRenderAll());
+        Assertions.assertTrue(pprContext.getRenderIds().contains(PartialResponseWriter.RENDER_ALL_MARKER));
+    }
 }
@@ -0,0 +1,142 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.myfaces.context.servlet;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.myfaces.config.webparameters.MyfacesConfig;
+import org.apache.myfaces.test.core.AbstractMyFacesRequestTestCase;
+import org.apache.myfaces.test.mock.MockHttpServletResponse;
+import org.apache.myfaces.test.mock.MockPrintWriter;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class StreamingPartialResponseTest extends AbstractMyFacesRequestTestCase
+{
+    private List<String> flushes = new ArrayList<>();
+
+    @Override
+    protected void setUpWebConfigParams() throws Exception
+    {
+        super.setUpWebConfigParams();
+        servletContext.addInitParameter(MyfacesConfig.STREAMING_PARTIAL_RESPONSE, "true");
+    }
+
+    @Override
+    protected void setupRequest(String pathInfo, String query)
+    {
+        super.setupRequest(pathInfo, query);
+
+        // the same request with a response recording what is sent at each flush
+        facesContext.release();
+        response = new MockHttpServletResponse()
+        {
+            @Override
+            public void flushBuffer()
+            {
+                try
+                {
+                    flushes.add(String.valueOf(((MockPrintWriter) getWriter()).content()));
+                }
+                catch (IOException e)
+                {
+                    throw new IllegalStateException(e);
+                }
+            }
+        };
+        facesContext = facesContextFactory.getFacesContext(servletContext, request, response, lifecycle);
+        externalContext = facesContext.getExternalContext();
+        application = facesContext.getApplication();
+    }
+
+    @Test
+    public void testFlushEachUpdate() throws Exception
+    {
+        startViewRequest("/streaming.xhtml");
+        processLifecycleExecuteAndRender();
+
+        client.ajax("form:button", "action", "form:button", "form:first form:second", true);
+        flushes.clear();
+        processLifecycleExecuteAndRender();
+
+        Assertions.assertEquals(2, flushes.size());
+        Assertions.assertTrue(flushes.get(0).endsWith("</update>"));
+        Assertions.assertTrue(flushes.get(0).contains("<update id=\"form:first\">"));
+        Assertions.assertFalse(flushes.get(0).contains("form:second"));
+        Assertions.assertTrue(flushes.get(1).endsWith("</update>"));
+        Assertions.assertTrue(flushes.get(1).contains("<update id=\"form:second\">"));
+
+        String text = getRenderedContent(facesContext);
+        Assertions.assertTrue(text.endsWith("</partial-response>"));
+        Assertions.assertTrue(text.contains("jakarta.faces.ViewState"));
+        endRequest();
+    }
+
+    public static class FailingBean
+    {
+        public String getText()
+        {
+            throw new IllegalStateException("failed");
+        }
+    }
+
+    @Test
+    public void testErrorAfterFlushedUpdate() throws Exception
+    {
+        startViewRequest("/streaming.xhtml");
+        processLifecycleExecuteAndRender();
+
+        client.ajax("form:button", "action", "form:button", "form:first form:failing", true);
+        request.setAttribute("streamingBean", new FailingBean());
+        flushes.clear();
+        processLifecycleExecuteAndRender();
+
+        Assertions.assertEquals(1, flushes.size());
+        Assertions.assertTrue(flushes.get(0).endsWith("</update>"));
+
+        // only the completed update, then the error after the changes
+        String text = getRenderedContent(facesContext);
+        Assertions.assertTrue(text.contains("<update id=\"form:first\">"), text);
+        Assertions.assertFalse(text.contains("form:failing"), text);
+        Assertions.assertTrue(text.contains("</changes><error><error-name>"), text);
+        Assertions.assertTrue(text.endsWith("</error></partial-response>"), text);
+        endRequest();
+    }
+
+    @Test
+    public void testErrorBeforeFlushedUpdate() throws Exception
+    {
+        startViewRequest("/streaming.xhtml");
+        processLifecycleExecuteAndRender();
+
+        client.ajax("form:button", "action", "form:button", "form:failing form:second", true);
+        request.setAttribute("streamingBean", new FailingBean());
+        flushes.clear();
+        processLifecycleExecuteAndRender();
+
+        // nothing has been sent, the exception is handled by the ExceptionHandler
+        Assertions.assertTrue(flushes.isEmpty());
+        String text = getRenderedContent(facesContext);
+        Assertions.assertFalse(text.contains("<update id=\"form:second\">"), text);
+        Assertions.assertTrue(text.contains("<error>"), text);
+        endRequest();
+    }
+}
@@ -0,0 +1,104 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.myfaces.core.api.shared;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class RowStateMapTest
+{
+    @Test
+    public void testPutAndGet()
+    {
+        RowStateMap<String> map = new RowStateMap<>();
+        Assertions.assertTrue(map.isEmpty());
+        Assertions.assertNull(map.get("table", 0));
+
+        // in order, out of order, -1 and replaced rows
+        for (int i = 0; i < 20; i++)
+        {
+            map.put("table", i * 2, "row" + (i * 2));
+        }
+        map.put("table", 7, "row7");
+        map.put("table", -1, "none");
+        map.put("table", 4, "changed");
+        map.put("outer:1:table", 4, "nested");
+
+        Assertions.assertFalse(map.isEmpty());
+        Assertions.assertEquals("row0", map.get("table", 0));
+        Assertions.assertEquals("row7", map.get("table", 7));
+        Assertions.assertEquals("row38", map.get("table", 38));
+        Assertions.assertEquals("none", map.get("table", -1));
+        Assertions.assertEquals("changed", map.get("table", 4));
+        Assertions.assertEquals("nested", map.get("outer:1:table", 4));
+        Assertions.assertNull(map.get("table", 3));
+        Assertions.assertNull(map.get("table", 40));
+        Assertions.assertNull(map.get("outer:0:table", 4));
+
+        map.clear();
+        Assertions.assertTrue(map.isEmpty());
+        Assertions.assertNull(map.get("table", 0));
+    }
+
+    @Test
+    public void testSaveAndRestore() throws Exception
+    {
+        RowStateMap<String> map = new RowStateMap<>();
+        Assertions.assertNull(map.saveState());
+
+        map.put("table", 3, "row3");
+        map.put("table", 1, "row1");
+        map.put("outer:1:table", 0, "nested");
+        Object state = map.saveState();
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream out = new ObjectOutputStream(bytes))
+        {
+            out.writeObject(state);
+        }
+        try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray())))
+        {
+            state = in.readObject();
+        }
+
+        RowStateMap<String> restored = new RowStateMap<>();
+        restored.put("table", 5, "stale");
+        restored.restoreState(state);
+        Assertions.assertEquals("row1", restored.get("table", 1));
+        Assertions.assertEquals("row3", restored.get("table", 3));
+        Assertions.assertEquals("nested", restored.get("outer:1:table", 0));
+        Assertions.assertNull(restored.get("table", 5));
+
+        // the saved state is not modified by the restored map
+        restored.put("table", 2, "row2");
+        restored.put("table", 1, "changed");
+        RowStateMap<String> again = new RowStateMap<>();
+        again.restoreState(state);
+        Assertions.assertNull(again.get("table", 2));
+        Assertions.assertEquals("row1", again.get("table", 1));
+
+        restored.restoreState(null);
+        Assertions.assertTrue(restored.isEmpty());
+    }
+}
@@ -0,0 +1,91 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.myfaces.core.api.shared.lang;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import jakarta.faces.context.FacesContext;
+
+import org.apache.myfaces.test.mock.MockFacesContext;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class ScopedLocalTest
+{
+    @AfterEach
+    public void tearDown()
+    {
+        FacesContext facesContext = FacesContext.getCurrentInstance();
+        if (facesContext != null)
+        {
+            facesContext.release();
+        }
+    }
+
+    @Test
+    public void testWhereRestoresValue()
+    {
+        ScopedLocal<String> local = new ScopedLocal<>();
+        local.set("outer");
+
+        local.where("inner", () -> Assertions.assertEquals("inner", local.get()));
+        Assertions.assertEquals("outer", local.get());
+
+        local.remove();
+        local.where("inner", () -> Assertions.assertEquals("inner", local.get()));
+        Assertions.assertNull(local.get());
+    }
+
+    @Test
+    public void testFacesContextIsCarriedIntoChildTask() throws Exception
+    {
+        FacesContext facesContext = new MockFacesContext();
+        Assertions.assertSame(facesContext, FacesContext.getCurrentInstance());
+
+        ScopedLocal.Snapshot snapshot = ScopedLocal.capture();
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try
+        {
+            Assertions.assertNull(executor.submit(FacesContext::getCurrentInstance).get());
+            Assertions.assertSame(facesContext, executor.submit(snapshot.wrap(FacesContext::getCurrentInstance))
+                    .get());
+
+            // nothing is left behind on the pooled thread
+            Assertions.assertNull(executor.submit(FacesContext::getCurrentInstance).get());
+        }
+        finally
+        {
+            executor.shutdown();
+            executor.awaitTermination(5, TimeUnit.SECONDS);
+        }
+    }
+
+    @Test
+    public void testSnapshotHidesStaleValue() throws Exception
+    {
+        ScopedLocal.Snapshot empty = ScopedLocal.capture();
+
+        FacesContext facesContext = new MockFacesContext();
+        Assertions.assertNull(empty.call(FacesContext::getCurrentInstance));
+        Assertions.assertSame(facesContext, FacesContext.getCurrentInstance());
+    }
+}
@@ -0,0 +1,137 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.myfaces.el;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import jakarta.el.ArrayELResolver;
+import jakarta.el.BeanELResolver;
+import jakarta.el.CompositeELResolver;
+import jakarta.el.ELContext;
+import jakarta.el.ELResolver;
+import jakarta.el.ListELResolver;
+import jakarta.el.MapELResolver;
+
+import org.apache.myfaces.el.resolver.ScopedAttributeResolver;
+import org.apache.myfaces.el.resolver.implicitobject.ImplicitObjectResolver;
+import org.apache.myfaces.test.base.junit.AbstractJsfTestCase;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class RoutingCompositeELResolverTest extends AbstractJsfTestCase
+{
+    /**
+     * Resolves "custom" for any base.
+     */
+    private static class CustomResolver extends NoOpElResolver
+    {
+        @Override
+        public Object getValue(ELContext context, Object base, Object property)
+        {
+            if ("custom".equals(property))
+            {
+                context.setPropertyResolved(true);
+                return "custom:" + base;
+            }
+            return null;
+        }
+    }
+
+    private List<ELResolver> createResolvers()
+    {
+        return Arrays.asList(ImplicitObjectResolver.makeResolver(), new CustomResolver(), new MapELResolver(),
+                new ListELResolver(), new ArrayELResolver(), new BeanELResolver(), new ScopedAttributeResolver());
+    }
+
+    @Test
+    public void testSameValuesAsCompositeELResolver() throws Exception
+    {
+        CompositeELResolver composite = new CompositeELResolver();
+        RoutingCompositeELResolver routing = new RoutingCompositeELResolver();
+        for (ELResolver resolver : createResolvers())
+        {
+            composite.add(resolver);
+            routing.add(resolver);
+        }
+        request.setAttribute("attribute", "value");
+
+        Map<String, Object> map = new HashMap<>();
+        map.put("key", "mapped");
+        map.put("custom", "shadowed");
+        List<Object> list = new ArrayList<>(Arrays.asList("first", "second"));
+        Object[] bases = { null, map, list, new String[] { "element" }, new DummyBean(map) };
+        Object[] properties = { "attribute", "requestScope", "custom", "key", "map", 1, 0L, "missing" };
+
+        ELContext elContext = facesContext.getELContext();
+        for (Object base : bases)
+        {
+            for (Object property : properties)
+            {
+                Object expected = getValue(composite, elContext, base, property);
+                boolean expectedResolved = elContext.isPropertyResolved();
+                Object actual = getValue(routing, elContext, base, property);
+                Assertions.assertEquals(expected, actual, base + "." + property);
+                Assertions.assertEquals(expectedResolved, elContext.isPropertyResolved(), base + "." + property);
+            }
+        }
+    }
+
+    @Test
+    public void testOrderIsKept() throws Exception
+    {
+        RoutingCompositeELResolver routing = new RoutingCompositeELResolver();
+        for (ELResolver resolver : createResolvers())
+        {
+            routing.add(resolver);
+        }
+        Map<String, Object> map = new HashMap<>();
+        map.put("custom", "shadowed");
+        map.put("key", "mapped");
+
+        // the custom resolver is before the MapELResolver
+        ELContext elContext = facesContext.getELContext();
+        Assertions.assertEquals("custom:" + map, routing.getValue(elContext, map, "custom"));
+        Assertions.assertEquals("mapped", routing.getValue(elContext, map, "key"));
+        Assertions.assertEquals("custom:null", routing.getValue(elContext, null, "custom"));
+
+        // the routes are not kept when the chain changes
+        RoutingCompositeELResolver late = new RoutingCompositeELResolver();
+        late.add(new CustomResolver());
+        Assertions.assertNull(late.getValue(elContext, map, "key"));
+        Assertions.assertFalse(elContext.isPropertyResolved());
+        late.add(new MapELResolver());
+        Assertions.assertEquals("mapped", late.getValue(elContext, map, "key"));
+    }
+
+    private static Object getValue(ELResolver resolver, ELContext elContext, Object base, Object property)
+    {
+        try
+        {
+            return resolver.getValue(elContext, base, property);
+        }
+        catch (RuntimeException e)
+        {
+            return e.getClass();
+        }
+    }
+}
@@ -95,4 +95,25 @@ public void testPostAddToViewSourceUnmatching() throws Exception
 
         Assertions.assertFalse(facesContext.getAttributes().containsKey("SystemEventListenerInvokedForHead"));
     }
+    
+    @Test
+    public void testPostAddToViewSubscribeAfterPublish() throws Exception
+    {
+        ApplicationImplEventManager eventManager = new ApplicationImplEventManager();
+        HeadResourceListener listener = new HeadResourceListener();
+        
+        eventManager.subscribeToEvent(PostAddToViewEvent.class, HtmlInputText.class, listener);
+        eventManager.publishEvent(facesContext, PostAddToViewEvent.class, HtmlHead.class, new HtmlHead());
+        Assertions.assertFalse(facesContext.getAttributes().containsKey("SystemEventListenerInvokedForHead"));
+
+        // the listeners of the source type are updated
+        eventManager.subscribeToEvent(PostAddToViewEvent.class, UIOutput.class, listener);
+        eventManager.publishEvent(facesContext, PostAddToViewEvent.class, HtmlHead.class, new HtmlHead());
+        Assertions.assertTrue(facesContext.getAttributes().containsKey("SystemEventListenerInvokedForHead"));
+
+        facesContext.getAttributes().remove("SystemEventListenerInvokedForHead");
+        eventManager.unsubscribeFromEvent(PostAddToViewEvent.class, listener);
+        eventManager.publishEvent(facesContext, PostAddToViewEvent.class, HtmlHead.class, new HtmlHead());
+        Assertions.assertFalse(facesContext.getAttributes().containsKey("SystemEventListenerInvokedForHead"));
+    }
 }
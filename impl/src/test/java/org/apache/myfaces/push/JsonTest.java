@@ -0,0 +1,107 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.myfaces.push;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.UUID;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class JsonTest
+{
+    public static class Message
+    {
+        private final String text;
+        private final int count;
+        private final Message reply;
+
+        public Message(String text, int count, Message reply)
+        {
+            this.text = text;
+            this.count = count;
+            this.reply = reply;
+        }
+
+        public String getText()
+        {
+            return text;
+        }
+
+        public int getCount()
+        {
+            return count;
+        }
+
+        public boolean isRead()
+        {
+            return true;
+        }
+
+        public Message getReply()
+        {
+            return reply;
+        }
+    }
+
+    public static class FailingBean
+    {
+        public String getValue() throws Exception
+        {
+            throw new Exception("failed");
+        }
+    }
+
+    @Test
+    public void testEncodeBean()
+    {
+        Message message = new Message("say \"hi\"", 2, new Message("</script>", 0, null));
+
+        String json = Json.encode(message);
+
+        Assertions.assertEquals("{\"count\":2,\"read\":true,\"reply\":{\"count\":0,\"read\":true,"
+                + "\"text\":\"<\\/script>\"},\"text\":\"say \\\"hi\\\"\"}", json);
+        Assertions.assertEquals(json, Json.encode(message));
+    }
+
+    @Test
+    public void testEncodeStandardTypes()
+    {
+        Assertions.assertEquals("[null,1,true,\"\\u00e9\\n\",{\"a\":[1,2]}]", Json.encode(Arrays.asList(null, 1,
+                true, "é\n", Collections.singletonMap("a", new int[] { 1, 2 }))));
+        Assertions.assertEquals("\"Thu, 01 Jan 1970 00:00:00 GMT\"", Json.encode(new Date(0)));
+        Assertions.assertEquals("\"Thu, 01 Jan 1970 00:00:00 GMT\"", Json.encode(new java.sql.Date(0)));
+    }
+
+    @Test
+    public void testEncodeInaccessibleBean()
+    {
+        UUID uuid = new UUID(1, 2);
+
+        Assertions.assertEquals("{\"leastSignificantBits\":2,\"mostSignificantBits\":1}", Json.encode(uuid));
+    }
+
+    @Test
+    public void testEncodeFailingGetter()
+    {
+        Assertions.assertThrows(IllegalArgumentException.class, () -> Json.encode(new FailingBean()));
+    }
+}
@@ -0,0 +1,76 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.myfaces.push.cdi;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import jakarta.websocket.Session;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+public class WebsocketSessionManagerTest
+{
+    @Test
+    public void testSendEncodesEachMessage()
+    {
+        List<String> offered = new ArrayList<>();
+        WebsocketSessionOutbox outbox = Mockito.mock(WebsocketSessionOutbox.class);
+        Mockito.when(outbox.offer(Mockito.anyString())).thenAnswer(invocation ->
+        {
+            offered.add(invocation.getArgument(0));
+            return CompletableFuture.completedFuture(null);
+        });
+
+        WebsocketSessionManager manager = new WebsocketSessionManager()
+        {
+            @Override
+            protected WebsocketSessionOutbox getOutbox(Session session)
+            {
+                return outbox;
+            }
+        };
+        manager.init();
+        try
+        {
+            Session session = Mockito.mock(Session.class);
+            Mockito.when(session.isOpen()).thenReturn(true);
+            manager.addOrUpdateSession("token", session);
+
+            // the builders are reused, a message must not contain anything of the previous one
+            String large = String.join("", Collections.nCopies(10000, "x"));
+            manager.send("token", Collections.singletonMap("text", "a longer first message"));
+            manager.send("token", "second");
+            manager.send("token", large);
+            manager.send("token", 3);
+
+            Assertions.assertEquals(Arrays.asList("{\"text\":\"a longer first message\"}", "\"second\"",
+                    '"' + large + '"', "3"), offered);
+        }
+        finally
+        {
+            manager.destroy();
+        }
+    }
+}
@@ -0,0 +1,160 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.myfaces.push.cdi;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+
+import jakarta.websocket.RemoteEndpoint;
+import jakarta.websocket.SendHandler;
+import jakarta.websocket.SendResult;
+import jakarta.websocket.Session;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+public class WebsocketSessionOutboxTest
+{
+    private Session session;
+    private List<String> sent;
+    private List<SendHandler> handlers;
+
+    @BeforeEach
+    public void setUp()
+    {
+        sent = new ArrayList<>();
+        handlers = new ArrayList<>();
+
+        // a slow client: the messages are only written when the test completes the handlers
+        RemoteEndpoint.Async remote = Mockito.mock(RemoteEndpoint.Async.class);
+        Mockito.doAnswer(invocation ->
+        {
+            sent.add(invocation.getArgument(0));
+            handlers.add(invocation.getArgument(1));
+            return null;
+        }).when(remote).sendText(Mockito.anyString(), Mockito.any(SendHandler.class));
+
+        session = Mockito.mock(Session.class);
+        Mockito.when(session.isOpen()).thenReturn(true);
+        Mockito.when(session.getAsyncRemote()).thenReturn(remote);
+    }
+
+    private List<Future<Void>> offer(WebsocketSessionOutbox outbox, String... messages)
+    {
+        List<Future<Void>> futures = new ArrayList<>();
+        for (String message : messages)
+        {
+            futures.add(outbox.offer(message));
+        }
+        return futures;
+    }
+
+    private void complete()
+    {
+        handlers.remove(0).onResult(new SendResult());
+    }
+
+    @Test
+    public void testSendsOneMessageAtATime()
+    {
+        WebsocketSessionOutbox outbox = new WebsocketSessionOutbox(session, 10,
+                WebsocketSessionOutbox.OverflowPolicy.DROP_OLDEST, Runnable::run);
+
+        List<Future<Void>> futures = offer(outbox, "1", "2", "3");
+        Assertions.assertEquals(List.of("1"), sent);
+        Assertions.assertEquals(2, outbox.size());
+
+        complete();
+        Assertions.assertTrue(futures.get(0).isDone());
+        Assertions.assertFalse(futures.get(1).isDone());
+        Assertions.assertEquals(List.of("1", "2"), sent);
+
+        complete();
+        complete();
+        Assertions.assertEquals(List.of("1", "2", "3"), sent);
+        Assertions.assertTrue(futures.get(2).isDone());
+        Assertions.assertEquals(0, outbox.size());
+
+        offer(outbox, "4");
+        Assertions.assertEquals(List.of("1", "2", "3", "4"), sent);
+    }
+
+    @Test
+    public void testDropOldest()
+    {
+        WebsocketSessionOutbox outbox = new WebsocketSessionOutbox(session, 2,
+                WebsocketSessionOutbox.OverflowPolicy.DROP_OLDEST, Runnable::run);
+
+        List<Future<Void>> futures = offer(outbox, "1", "2", "3", "4", "5");
+        Assertions.assertTrue(futures.get(1).isCancelled());
+        Assertions.assertTrue(futures.get(2).isCancelled());
+
+        complete();
+        complete();
+        Assertions.assertEquals(List.of("1", "4", "5"), sent);
+    }
+
+    @Test
+    public void testDropNewest()
+    {
+        WebsocketSessionOutbox outbox = new WebsocketSessionOutbox(session, 2,
+                WebsocketSessionOutbox.OverflowPolicy.DROP_NEWEST, Runnable::run);
+
+        List<Future<Void>> futures = offer(outbox, "1", "2", "3", "4", "5");
+        Assertions.assertTrue(futures.get(3).isCancelled());
+        Assertions.assertTrue(futures.get(4).isCancelled());
+
+        complete();
+        complete();
+        Assertions.assertEquals(List.of("1", "2", "3"), sent);
+    }
+
+    @Test
+    public void testCoalesce()
+    {
+        WebsocketSessionOutbox outbox = new WebsocketSessionOutbox(session, 2,
+                WebsocketSessionOutbox.OverflowPolicy.COALESCE, Runnable::run);
+
+        List<Future<Void>> futures = offer(outbox, "1", "2", "3", "4");
+        Assertions.assertTrue(futures.get(1).isCancelled());
+        Assertions.assertTrue(futures.get(2).isCancelled());
+
+        complete();
+        Assertions.assertEquals(List.of("1", "4"), sent);
+    }
+
+    @Test
+    public void testClosedSession()
+    {
+        WebsocketSessionOutbox outbox = new WebsocketSessionOutbox(session, 10,
+                WebsocketSessionOutbox.OverflowPolicy.DROP_OLDEST, Runnable::run);
+
+        List<Future<Void>> futures = offer(outbox, "1", "2");
+        Mockito.when(session.isOpen()).thenReturn(false);
+        complete();
+
+        Assertions.assertTrue(futures.get(1).isDone());
+        Assertions.assertThrows(ExecutionException.class, () -> futures.get(1).get());
+        Assertions.assertEquals(List.of("1"), sent);
+    }
+}
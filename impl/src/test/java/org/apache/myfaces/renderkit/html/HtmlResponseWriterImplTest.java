@@ -386,4 +386,30 @@ public void testEmptyTagNotRenderEndOnXhtmlUppercase() throws IOException
         Assertions.assertTrue(output.contains("<BR>"));
         Assertions.assertTrue(output.contains("</BR>"));
     }
-}
\ No newline at end of file
+
+    @Test
+    public void testWriteEncodedText() throws IOException
+    {
+        String text = "a < b";
+        String encodedText = HtmlResponseWriterImpl.encodeText(text);
+        Assertions.assertEquals("a &lt; b", encodedText);
+        Assertions.assertSame("ab", HtmlResponseWriterImpl.encodeText("ab"));
+
+        _writer = new HtmlResponseWriterImpl(_stringWriter, "text/html", "UTF-8");
+        _writer.startElement("div", null);
+        _writer.writeEncodedText(text, encodedText);
+        _writer.startElement("script", null);
+        _writer.writeEncodedText(text, encodedText);
+        _writer.endElement("script");
+        _writer.endElement("div");
+        String output = _stringWriter.toString();
+        Assertions.assertTrue(output.startsWith("<div>a &lt; b<script>"), output);
+        Assertions.assertTrue(output.contains("a < b"), output);
+
+        // the text is encoded again for other encodings
+        _stringWriter = new StringWriter();
+        _writer = new HtmlResponseWriterImpl(_stringWriter, "text/html", "ISO-8859-1");
+        _writer.writeEncodedText("\u00e9", HtmlResponseWriterImpl.encodeText("\u00e9"));
+        Assertions.assertEquals("&#233;", _stringWriter.toString());
+    }
+}
@@ -379,6 +379,27 @@ public void testWriteURIAttribute() throws Exception
       //assertEquals(cad14,cad15);
   }
     
+  @Test
+  public void testEncodeFirstEncodedCharacterAnywhere() throws IOException {
+    // the plain prefix is written as is, the rest encoded as before
+    String[] sources = {"a", "<", "ab<", "  a", "a  b", "a\u0001b", "a\tb\r", "a\u00e9", "abc\n"};
+    String[] expected = {"a", "&lt;", "ab&lt;", "&#160;&#160;a", "a &#160;b", "ab", "a\tb\r", "a&#233;",
+        "abc<br/>"};
+    for (int i = 0; i < sources.length; i++) {
+      Assertions.assertEquals(expected[i],
+          HTMLEncoder.encode(new MockFacesContext(), sources[i], true, true, true));
+
+      CharArrayWriter writer = new CharArrayWriter();
+      HTMLEncoder.encode(writer, sources[i], true, true, true);
+      Assertions.assertEquals(expected[i], writer.toString());
+
+      writer = new CharArrayWriter();
+      char[] source = ("x" + sources[i] + "x").toCharArray();
+      HTMLEncoder.encode(source, 1, source.length - 2, true, true, true, writer);
+      Assertions.assertEquals(expected[i], writer.toString());
+    }
+  }
+
   private void assertCharArrayEquals(char[] expected, char[] actual) {
     if ((expected == null ^ actual == null) || expected.length != actual.length) {
       Assertions.fail();
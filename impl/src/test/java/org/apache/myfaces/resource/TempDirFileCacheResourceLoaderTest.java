@@ -0,0 +1,99 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.myfaces.resource;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.util.Arrays;
+
+import jakarta.servlet.ServletContext;
+
+import org.apache.myfaces.test.base.junit.AbstractJsfTestCase;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public class TempDirFileCacheResourceLoaderTest extends AbstractJsfTestCase
+{
+    private ResourceMeta resourceMeta;
+
+    private byte[] expected;
+
+    @Override
+    @BeforeEach
+    public void setUp() throws Exception
+    {
+        super.setUp();
+
+        File tempDir = Files.createTempDirectory("oam-rh-test").toFile();
+        tempDir.deleteOnExit();
+        externalContext.getApplicationMap().put(ServletContext.TEMPDIR, tempDir);
+
+        resourceMeta = new ResourceMetaImpl(null, "precompressed", null, "test.js", null);
+        try (InputStream in = getClass().getClassLoader()
+                .getResourceAsStream("META-INF/resources/precompressed/test.js"))
+        {
+            expected = in.readAllBytes();
+        }
+    }
+
+    @Test
+    public void testWriteResourceFromMemory() throws Exception
+    {
+        TempDirFileCacheResourceLoader loader = new TempDirFileCacheResourceLoader(
+                new ClassLoaderResourceLoader("META-INF/resources"));
+
+        for (int i = 0; i < 2; i++)
+        {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            Assertions.assertEquals(expected.length, loader.writeResource(resourceMeta, out));
+            Assertions.assertArrayEquals(expected, out.toByteArray());
+            Assertions.assertEquals(expected.length, loader.getResourceLength(resourceMeta));
+        }
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        Assertions.assertEquals(4, loader.writeResource(resourceMeta, out, expected.length - 4, -1));
+        Assertions.assertArrayEquals(Arrays.copyOfRange(expected, expected.length - 4, expected.length),
+                out.toByteArray());
+    }
+
+    @Test
+    public void testWriteResourceFromFile() throws Exception
+    {
+        servletContext.addInitParameter(
+                TempDirFileCacheResourceLoader.INIT_PARAM_TEMPORAL_RESOURCEHANDLER_MEMORY_CACHE_SIZE, "0");
+        TempDirFileCacheResourceLoader loader = new TempDirFileCacheResourceLoader(
+                new ClassLoaderResourceLoader("META-INF/resources"));
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        Assertions.assertEquals(expected.length, loader.writeResource(resourceMeta, out));
+        Assertions.assertArrayEquals(expected, out.toByteArray());
+        Assertions.assertEquals(expected.length, loader.getResourceLength(resourceMeta));
+
+        out = new ByteArrayOutputStream();
+        Assertions.assertEquals(4, loader.writeResource(resourceMeta, out, 2, 4));
+        Assertions.assertArrayEquals(Arrays.copyOfRange(expected, 2, 6), out.toByteArray());
+
+        ResourceMeta missing = new ResourceMetaImpl(null, "precompressed", null, "missing.js", null);
+        Assertions.assertEquals(-1, loader.writeResource(missing, new ByteArrayOutputStream()));
+        Assertions.assertEquals(-1, loader.getResourceLength(missing));
+    }
+}
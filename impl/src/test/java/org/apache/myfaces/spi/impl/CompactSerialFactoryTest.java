@@ -0,0 +1,110 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.myfaces.spi.impl;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+import jakarta.faces.component.UIInput;
+import jakarta.faces.component.html.HtmlInputText;
+import jakarta.faces.convert.NumberConverter;
+import jakarta.faces.validator.LengthValidator;
+
+import org.apache.myfaces.test.base.junit.AbstractJsfTestCase;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class CompactSerialFactoryTest extends AbstractJsfTestCase
+{
+    private enum PropertyKeys
+    {
+        value, rendered
+    }
+
+    @Test
+    public void testRoundTrip() throws Exception
+    {
+        CompactSerialFactory factory = new CompactSerialFactory();
+
+        Map<Object, Object> map = new HashMap<>();
+        map.put("j_id1", new Object[] { PropertyKeys.value, "text" });
+        map.put(PropertyKeys.rendered, Boolean.FALSE);
+        ArrayList<Object> list = new ArrayList<>();
+        list.add(-1);
+        list.add(Long.MIN_VALUE);
+        list.add('x');
+        list.add(Math.PI);
+        list.add(new BigDecimal("12.50"));
+        Object[] state = new Object[] { null, Boolean.TRUE, 0, Integer.MAX_VALUE, "text", "j_id1", "é中",
+            map, list, String.class, new Object[0] };
+
+        Object[] restored = (Object[]) factory.toObject(factory.toByteArray(state));
+
+        Assertions.assertEquals(Arrays.asList(state).subList(0, 7), Arrays.asList(restored).subList(0, 7));
+        Assertions.assertEquals(map.keySet(), ((Map<?, ?>) restored[7]).keySet());
+        Assertions.assertArrayEquals((Object[]) map.get("j_id1"), (Object[]) ((Map<?, ?>) restored[7]).get("j_id1"));
+        Assertions.assertEquals(Boolean.FALSE, ((Map<?, ?>) restored[7]).get(PropertyKeys.rendered));
+        Assertions.assertEquals(list, restored[8]);
+        Assertions.assertSame(String.class, restored[9]);
+        Assertions.assertEquals(0, ((Object[]) restored[10]).length);
+    }
+
+    @Test
+    public void testComponentState() throws Exception
+    {
+        HtmlInputText input = new HtmlInputText();
+        input.setId("input");
+        input.setValue("value");
+        input.setMaxlength(10);
+        input.setConverter(new NumberConverter());
+        LengthValidator validator = new LengthValidator();
+        validator.setMaximum(5);
+        input.addValidator(validator);
+        Object state = input.saveState(facesContext);
+
+        CompactSerialFactory compact = new CompactSerialFactory();
+        byte[] compactBytes = compact.toByteArray(state);
+        byte[] javaBytes = new DefaultSerialFactory().toByteArray(state);
+        Assertions.assertTrue(compactBytes.length < javaBytes.length / 2,
+                compactBytes.length + " should be smaller than " + javaBytes.length);
+
+        HtmlInputText restored = new HtmlInputText();
+        restored.restoreState(facesContext, compact.toObject(compactBytes));
+        Assertions.assertEquals("value", restored.getValue());
+        Assertions.assertEquals(10, restored.getMaxlength());
+        Assertions.assertTrue(restored.getConverter() instanceof NumberConverter);
+        Assertions.assertEquals(1, restored.getValidators().length);
+        Assertions.assertEquals(5, ((LengthValidator) restored.getValidators()[0]).getMaximum());
+    }
+
+    @Test
+    public void testReadsJavaSerialization() throws Exception
+    {
+        UIInput input = new UIInput();
+        input.setValue("value");
+        byte[] javaBytes = new DefaultSerialFactory().toByteArray(input.saveState(facesContext));
+
+        UIInput restored = new UIInput();
+        restored.restoreState(facesContext, new CompactSerialFactory().toObject(javaBytes));
+        Assertions.assertEquals("value", restored.getValue());
+    }
+}
@@ -0,0 +1,52 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.myfaces.view.facelets;
+
+import org.apache.myfaces.config.webparameters.MyfacesConfig;
+import org.apache.myfaces.test.core.AbstractMyFacesCDIRequestTestCase;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class ParallelRenderingCDITest extends AbstractMyFacesCDIRequestTestCase
+{
+    @Override
+    protected void setUpWebConfigParams() throws Exception
+    {
+        super.setUpWebConfigParams();
+        servletContext.addInitParameter(MyfacesConfig.PARALLEL_RENDERING, "true");
+    }
+
+    @Test
+    public void testRequestScopedBeanRenderedByView() throws Exception
+    {
+        startViewRequest("/parallelRenderingCDI.xhtml");
+        ParallelRequestBean bean = facesContext.getApplication().evaluateExpressionGet(facesContext,
+                "#{parallelRequestBean}", ParallelRequestBean.class);
+        bean.setText("request value");
+        processLifecycleExecuteAndRender();
+
+        String content = getRenderedContent();
+        int before = content.indexOf("before");
+        int value = content.indexOf("<div id=\"request\">request value</div>");
+        int after = content.indexOf("after");
+        Assertions.assertTrue(before >= 0 && before < value && value < after, content);
+        Assertions.assertSame(Thread.currentThread(), bean.getRenderingThread());
+        endRequest();
+    }
+}
@@ -0,0 +1,124 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.myfaces.view.facelets;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import jakarta.faces.context.FacesContext;
+
+import org.apache.myfaces.application.ViewHandlerImpl;
+import org.apache.myfaces.config.webparameters.MyfacesConfig;
+import org.apache.myfaces.test.core.AbstractMyFacesRequestTestCase;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class ParallelRenderingTest extends AbstractMyFacesRequestTestCase
+{
+    @Override
+    protected void setUpWebConfigParams() throws Exception
+    {
+        super.setUpWebConfigParams();
+        servletContext.addInitParameter(MyfacesConfig.PARALLEL_RENDERING, "true");
+    }
+
+    public static class ParallelBean
+    {
+        private final CountDownLatch bothStarted = new CountDownLatch(2);
+        private final Thread requestThread = Thread.currentThread();
+        private volatile boolean concurrent = true;
+
+        public String getFirst() throws InterruptedException
+        {
+            return render("first");
+        }
+
+        public String getSecond() throws InterruptedException
+        {
+            return render("second");
+        }
+
+        public String getHidden()
+        {
+            throw new IllegalStateException("not rendered");
+        }
+
+        private String render(String text) throws InterruptedException
+        {
+            // both panels must be rendered at the same time, on other threads
+            bothStarted.countDown();
+            if (!bothStarted.await(10, TimeUnit.SECONDS) || Thread.currentThread() == requestThread
+                    || FacesContext.getCurrentInstance() == null)
+            {
+                concurrent = false;
+            }
+            return text;
+        }
+    }
+
+    @Test
+    public void testPanelsRenderedConcurrentlyInOrder() throws Exception
+    {
+        ParallelBean bean = new ParallelBean();
+        startViewRequest("/parallelRendering.xhtml");
+        request.setAttribute("parallelBean", bean);
+        processLifecycleExecuteAndRender();
+
+        String content = getRenderedContent();
+        Assertions.assertTrue(bean.concurrent);
+
+        int before = content.indexOf("before");
+        int first = content.indexOf("<div id=\"first\">first</div>");
+        int middle = content.indexOf("middle");
+        int second = content.indexOf("<div id=\"second\">second</div>");
+        int after = content.indexOf("after");
+        Assertions.assertTrue(before >= 0 && before < first && first < middle && middle < second
+                && second < after, content);
+        endRequest();
+    }
+
+    public static class FormBean
+    {
+        private final Thread requestThread = Thread.currentThread();
+        private volatile boolean concurrent;
+
+        public String getText()
+        {
+            concurrent = Thread.currentThread() != requestThread;
+            return "text";
+        }
+    }
+
+    @Test
+    public void testPanelWithFormAndScriptRenderedByView() throws Exception
+    {
+        FormBean bean = new FormBean();
+        startViewRequest("/parallelRenderingForm.xhtml");
+        request.setAttribute("formBean", bean);
+        processLifecycleExecuteAndRender();
+
+        String content = getRenderedContent();
+        Assertions.assertFalse(bean.concurrent);
+        Assertions.assertTrue(content.contains("text"), content);
+        Assertions.assertTrue(content.contains("jakarta.faces.ViewState"), content);
+        Assertions.assertFalse(content.contains(ViewHandlerImpl.FORM_STATE_MARKER), content);
+        Assertions.assertEquals(content.indexOf("faces.js"), content.lastIndexOf("faces.js"), content);
+        endRequest();
+    }
+}
@@ -0,0 +1,169 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.myfaces.view.facelets.compiler;
+
+import java.io.InputStream;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+
+import org.apache.myfaces.view.facelets.FaceletTestCase;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class PrecompiledFaceletCacheTestCase extends FaceletTestCase
+{
+    private static final String ALIAS = "/testSkipNamespaceUnit.xhtml";
+
+    @TempDir
+    Path directory;
+
+    private SAXCompiler compiler;
+    private PrecompiledFaceletCache cache;
+
+    @Override
+    @BeforeEach
+    public void setUp() throws Exception
+    {
+        super.setUp();
+        cache = new PrecompiledFaceletCache(directory);
+        compiler = new SAXCompiler();
+        compiler.setFaceletsProcessingConfigurations(Collections.emptyList());
+        compiler.setPrecompiledFaceletCache(cache);
+    }
+
+    private static byte[] digest(URL url) throws Exception
+    {
+        try (InputStream is = url.openStream())
+        {
+            return PrecompiledFaceletCache.digest(is.readAllBytes());
+        }
+    }
+
+    private FaceletsProcessingInstructions instructions()
+    {
+        return FaceletsProcessingInstructions.getProcessingInstructions(null, false);
+    }
+
+    @Test
+    public void testReplayReproducesParserEvents() throws Exception
+    {
+        URL url = getLocalFile("testXHTMLProcessing1.xhtml");
+        compiler.precompile(url, ALIAS, PrecompiledFaceletCache.VIEW);
+
+        PrecompiledFaceletCache.Entry entry = cache.load(PrecompiledFaceletCache.VIEW, ALIAS, instructions(),
+                digest(url));
+        Assertions.assertNotNull(entry);
+        Assertions.assertEquals("ISO-8859-1", entry.getEncoding());
+
+        RecordingCompilationManager replayed = new RecordingCompilationManager(ALIAS, compiler, instructions(),
+                false);
+        RecordingCompilationManager.replay(entry.getEvents(), replayed);
+        Assertions.assertArrayEquals(entry.getEvents(), replayed.getEvents());
+
+        // the other kinds of Facelets are separate entries
+        Assertions.assertNull(cache.load(PrecompiledFaceletCache.VIEW_METADATA, ALIAS, instructions(),
+                digest(url)));
+    }
+
+    @Test
+    public void testCompileUsesPrecompiledEntry() throws Exception
+    {
+        URL url = getLocalFile("testSkipNamespaceUnit.xhtml");
+        URL withDoctype = getLocalFile("testXHTMLProcessing1.xhtml");
+
+        Assertions.assertNull(compiler.compile(url, ALIAS).getDoctype());
+        Assertions.assertTrue(Files.exists(cache.getFile(PrecompiledFaceletCache.VIEW, ALIAS)));
+
+        // an entry recorded from another document, but for the hash of this one: only the entry is used
+        RecordingCompilationManager mngr = new RecordingCompilationManager(ALIAS, compiler, instructions(), false);
+        compiler.precompile(withDoctype, ALIAS, PrecompiledFaceletCache.VIEW);
+        PrecompiledFaceletCache.Entry other = cache.load(PrecompiledFaceletCache.VIEW, ALIAS, instructions(),
+                digest(withDoctype));
+        RecordingCompilationManager.replay(other.getEvents(), mngr);
+        cache.store(PrecompiledFaceletCache.VIEW, ALIAS, instructions(), digest(url), other.getEncoding(),
+                mngr.getEvents());
+
+        Assertions.assertNotNull(compiler.compile(url, ALIAS).getDoctype());
+    }
+
+    @Test
+    public void testChangedSourceIsParsedAgain() throws Exception
+    {
+        URL url = getLocalFile("testSkipNamespaceUnit.xhtml");
+        URL withDoctype = getLocalFile("testXHTMLProcessing1.xhtml");
+
+        compiler.precompile(withDoctype, ALIAS, PrecompiledFaceletCache.VIEW);
+        Assertions.assertNull(cache.load(PrecompiledFaceletCache.VIEW, ALIAS, instructions(), digest(url)));
+
+        Assertions.assertNull(compiler.compile(url, ALIAS).getDoctype());
+        Assertions.assertNotNull(cache.load(PrecompiledFaceletCache.VIEW, ALIAS, instructions(), digest(url)));
+    }
+
+    @Test
+    public void testCorruptedEntryIsIgnored() throws Exception
+    {
+        URL url = getLocalFile("testSkipNamespaceUnit.xhtml");
+        compiler.precompile(url, ALIAS, PrecompiledFaceletCache.VIEW);
+
+        Path file = cache.getFile(PrecompiledFaceletCache.VIEW, ALIAS);
+        byte[] content = Files.readAllBytes(file);
+        Files.write(file, Arrays.copyOf(content, content.length - 10));
+
+        Assertions.assertNull(cache.load(PrecompiledFaceletCache.VIEW, ALIAS, instructions(), digest(url)));
+        Assertions.assertNotNull(compiler.compile(url, ALIAS).getFaceletHandler());
+    }
+
+    @Test
+    public void testFaceletPrecompiler() throws Exception
+    {
+        Path webapp = Files.createDirectories(directory.resolve("webapp"));
+        Path output = directory.resolve("output");
+        Files.createDirectories(webapp.resolve("pages"));
+        Files.createDirectories(webapp.resolve("resources/cc"));
+        URL url = getLocalFile("testSkipNamespaceUnit.xhtml");
+        try (InputStream is = url.openStream())
+        {
+            Files.copy(is, webapp.resolve("pages/page.xhtml"));
+        }
+        try (InputStream is = url.openStream())
+        {
+            Files.copy(is, webapp.resolve("resources/cc/component.xhtml"));
+        }
+        Files.write(webapp.resolve("pages/broken.xhtml"), "<html><body></html>".getBytes(StandardCharsets.UTF_8));
+
+        Assertions.assertEquals(2, FaceletPrecompiler.precompile(webapp, output));
+
+        PrecompiledFaceletCache precompiled = new PrecompiledFaceletCache(output);
+        byte[] digest = digest(url);
+        Assertions.assertNotNull(precompiled.load(PrecompiledFaceletCache.VIEW, "/pages/page.xhtml",
+                instructions(), digest));
+        Assertions.assertNotNull(precompiled.load(PrecompiledFaceletCache.VIEW_METADATA,
+                "/viewMetadata/pages/page.xhtml", instructions(), digest));
+        Assertions.assertNull(precompiled.load(PrecompiledFaceletCache.COMPOSITE_COMPONENT_METADATA,
+                "/compositeComponentMetadata/pages/page.xhtml", instructions(), digest));
+        Assertions.assertNotNull(precompiled.load(PrecompiledFaceletCache.COMPOSITE_COMPONENT_METADATA,
+                "/compositeComponentMetadata/resources/cc/component.xhtml", instructions(), digest));
+    }
+}
@@ -0,0 +1,130 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.myfaces.view.facelets.impl;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.myfaces.view.facelets.FaceletCacheStatistics;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class FaceletCacheMapTest
+{
+    @Test
+    public void testCompilesOnceForConcurrentMisses() throws Exception
+    {
+        FaceletCacheStatistics statistics = new FaceletCacheStatistics();
+        FaceletCacheMap<String> map = new FaceletCacheMap<>(-1, statistics);
+        AtomicInteger compilations = new AtomicInteger();
+        CountDownLatch compiling = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        int threads = 8;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try
+        {
+            List<Future<String>> results = new ArrayList<>();
+            for (int i = 0; i < threads; i++)
+            {
+                results.add(executor.submit(() -> map.get("/view.xhtml", v -> true, previous ->
+                {
+                    compilations.incrementAndGet();
+                    compiling.countDown();
+                    try
+                    {
+                        release.await(10, TimeUnit.SECONDS);
+                    }
+                    catch (InterruptedException e)
+                    {
+                        throw new IOException(e);
+                    }
+                    return "compiled";
+                })));
+            }
+
+            Assertions.assertTrue(compiling.await(10, TimeUnit.SECONDS));
+            // let the other threads reach the cache while the first one is compiling
+            Thread.sleep(100);
+            release.countDown();
+
+            for (Future<String> result : results)
+            {
+                Assertions.assertEquals("compiled", result.get(10, TimeUnit.SECONDS));
+            }
+        }
+        finally
+        {
+            executor.shutdownNow();
+        }
+
+        Assertions.assertEquals(1, compilations.get());
+        Assertions.assertEquals(1, statistics.getCompilations());
+        Assertions.assertEquals("compiled", map.get("/view.xhtml", v -> true, previous -> "again"));
+        Assertions.assertTrue(statistics.getHits() >= 1);
+    }
+
+    @Test
+    public void testRefreshGetsPreviousValue() throws Exception
+    {
+        FaceletCacheMap<String> map = new FaceletCacheMap<>(-1, new FaceletCacheStatistics());
+
+        Assertions.assertEquals("1", map.get("/view.xhtml", v -> true, previous -> "1"));
+        Assertions.assertEquals("1+2", map.get("/view.xhtml", v -> false, previous -> previous + "+2"));
+        Assertions.assertEquals("1+2", map.get("/view.xhtml"));
+    }
+
+    @Test
+    public void testFailedCompilationIsNotCached() throws Exception
+    {
+        FaceletCacheMap<String> map = new FaceletCacheMap<>(-1, new FaceletCacheStatistics());
+
+        Assertions.assertThrows(IOException.class, () -> map.get("/view.xhtml", v -> true, previous ->
+        {
+            throw new IOException("syntax error");
+        }));
+        Assertions.assertFalse(map.containsKey("/view.xhtml"));
+        Assertions.assertEquals("fixed", map.get("/view.xhtml", v -> true, previous -> "fixed"));
+    }
+
+    @Test
+    public void testBoundedSize() throws Exception
+    {
+        FaceletCacheStatistics statistics = new FaceletCacheStatistics();
+        FaceletCacheMap<String> map = new FaceletCacheMap<>(10, statistics);
+
+        for (int i = 0; i < 100; i++)
+        {
+            String key = "/view" + i + ".xhtml";
+            map.get(key, v -> true, previous -> key);
+        }
+
+        Assertions.assertTrue(statistics.getEvictions() > 0);
+        Assertions.assertTrue(map.containsKey("/view99.xhtml"));
+        Assertions.assertFalse(map.containsKey("/view0.xhtml"));
+        Assertions.assertEquals(100, statistics.getMisses());
+    }
+}
@@ -0,0 +1,134 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.myfaces.webapp;
+
+import java.util.Arrays;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import jakarta.faces.FactoryFinder;
+import jakarta.faces.application.ViewHandler;
+import jakarta.faces.context.FacesContext;
+import jakarta.faces.event.PhaseEvent;
+import jakarta.faces.event.PhaseId;
+import jakarta.faces.event.PhaseListener;
+import jakarta.faces.lifecycle.Lifecycle;
+import jakarta.faces.lifecycle.LifecycleFactory;
+import jakarta.servlet.ServletContext;
+
+import org.apache.myfaces.config.webparameters.MyfacesConfig;
+import org.apache.myfaces.view.facelets.FaceletCacheStatistics;
+import org.apache.myfaces.view.facelets.FaceletFactory;
+import org.apache.myfaces.view.facelets.FaceletTestCase;
+import org.apache.myfaces.view.facelets.impl.DefaultFaceletFactory;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class FacesWarmupTest extends FaceletTestCase
+{
+    @Override
+    protected void setUpServletObjects() throws Exception
+    {
+        super.setUpServletObjects();
+        servletContext.addInitParameter(ViewHandler.FACELETS_REFRESH_PERIOD_PARAM_NAME, "-1");
+        servletContext.addInitParameter(MyfacesConfig.WARMUP_TIMEOUT, "100");
+        servletContext.addInitParameter(MyfacesConfig.WARMUP_RESOURCES, " , warmup:box.xhtml, missing.js");
+    }
+
+    @Test
+    public void testWarmupCompilesFacelets() throws Exception
+    {
+        FacesWarmup warmup = new FacesWarmup(servletContext, null, MyfacesConfig.getCurrentInstance(facesContext));
+
+        // view, template and composite component, the broken file is skipped
+        Assertions.assertEquals(3, warmup.warmupFacelets(facesContext));
+        Assertions.assertEquals(1, warmup.warmupResources(facesContext));
+
+        DefaultFaceletFactory faceletFactory = (DefaultFaceletFactory) vdl.getFaceletFactory();
+        FaceletCacheStatistics statistics = faceletFactory.getFaceletCacheStatistics();
+        long compilations = statistics.getCompilations();
+        Assertions.assertTrue(compilations >= 4);
+
+        FaceletFactory.setInstance(faceletFactory);
+        try
+        {
+            faceletFactory.getFacelet(facesContext, "/warmupView.xhtml");
+            faceletFactory.getViewMetadataFacelet(facesContext, "/warmupView.xhtml");
+            faceletFactory.getFacelet(facesContext, "/WEB-INF/warmupTemplate.xhtml");
+        }
+        finally
+        {
+            FaceletFactory.setInstance(null);
+        }
+        Assertions.assertEquals(compilations, statistics.getCompilations());
+    }
+
+    @Test
+    public void testRequestsWaitForWarmup() throws Exception
+    {
+        CountDownLatch release = new CountDownLatch(1);
+        FacesInitializer initializer = new FacesInitializerImpl()
+        {
+            @Override
+            public FacesContext initStartupFacesContext(ServletContext servletContext)
+            {
+                try
+                {
+                    release.await(10, TimeUnit.SECONDS);
+                }
+                catch (InterruptedException e)
+                {
+                    Thread.currentThread().interrupt();
+                }
+                throw new IllegalStateException("no startup context in this test");
+            }
+        };
+
+        Lifecycle lifecycle = ((LifecycleFactory) FactoryFinder.getFactory(FactoryFinder.LIFECYCLE_FACTORY))
+                .getLifecycle(LifecycleFactory.DEFAULT_LIFECYCLE);
+        Assertions.assertEquals(0, lifecycle.getPhaseListeners().length);
+
+        FacesWarmup.start(servletContext, initializer, MyfacesConfig.getCurrentInstance(facesContext));
+
+        // the lifecycle only waits while the warm-up runs, through the listener added by the warm-up
+        PhaseListener listener = lifecycle.getPhaseListeners()[0];
+        Assertions.assertEquals(PhaseId.RESTORE_VIEW, listener.getPhaseId());
+        PhaseEvent event = new PhaseEvent(facesContext, PhaseId.RESTORE_VIEW, lifecycle);
+
+        long start = System.nanoTime();
+        listener.beforePhase(event);
+        Assertions.assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) >= 90);
+        Assertions.assertFalse(FacesWarmup.isCompleted(externalContext));
+        Assertions.assertTrue(Arrays.asList(lifecycle.getPhaseListeners()).contains(listener));
+
+        release.countDown();
+        for (int i = 0; i < 100 && !FacesWarmup.isCompleted(externalContext); i++)
+        {
+            FacesWarmup.await(facesContext);
+            Thread.sleep(50);
+        }
+        Assertions.assertTrue(FacesWarmup.isCompleted(externalContext));
+
+        // once done, requests do not wait anymore and the listener is removed
+        start = System.nanoTime();
+        listener.beforePhase(event);
+        Assertions.assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) < 90);
+        Assertions.assertEquals(0, lifecycle.getPhaseListeners().length);
+    }
+}
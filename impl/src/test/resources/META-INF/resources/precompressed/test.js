@@ -0,0 +1,20 @@
+function test() { return 'precompressed'; }
+function test() { return 'precompressed'; }
+function test() { return 'precompressed'; }
+function test() { return 'precompressed'; }
+function test() { return 'precompressed'; }
+function test() { return 'precompressed'; }
+function test() { return 'precompressed'; }
+function test() { return 'precompressed'; }
+function test() { return 'precompressed'; }
+function test() { return 'precompressed'; }
+function test() { return 'precompressed'; }
+function test() { return 'precompressed'; }
+function test() { return 'precompressed'; }
+function test() { return 'precompressed'; }
+function test() { return 'precompressed'; }
+function test() { return 'precompressed'; }
+function test() { return 'precompressed'; }
+function test() { return 'precompressed'; }
+function test() { return 'precompressed'; }
+function test() { return 'precompressed'; }
@@ -0,0 +1 @@
+function versioned() { return 1; }